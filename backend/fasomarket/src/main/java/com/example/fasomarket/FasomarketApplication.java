@@ -3,9 +3,11 @@ package com.example.fasomarket;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import com.example.fasomarket.config.*;
 
 @SpringBootApplication
+@EnableScheduling
 @EnableConfigurationProperties({
     JwtProperties.class,
     FileProperties.class,
@@ -0,0 +1,152 @@
+package com.example.fasomarket.config;
+
+import com.example.fasomarket.service.AccueilService;
+import com.example.fasomarket.service.CatalogueVersions;
+import com.example.fasomarket.service.ProduitDetailCache;
+import com.example.fasomarket.service.TendanceService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET conditionnel sur le catalogue public : l'ETag est calculé à partir des
+ * versions du catalogue avant d'appeler le contrôleur, et un
+ * {@code If-None-Match} qui correspond reçoit un 304 sans que la réponse soit
+ * construite. Chaque famille d'endpoints a sa politique {@code Cache-Control}.
+ *
+ * Recherche, suggestions, facettes et tendances dépendent d'index reconstruits
+ * en arrière-plan ou du temps : elles n'ont qu'une courte durée de cache.
+ *
+ * La fiche produit a son propre ETag et est {@code private, no-cache} : chaque
+ * affichage revient au serveur, et un 304 compte la vue comme le contrôleur
+ * l'aurait fait.
+ */
+@Component
+public class CatalogueCacheInterceptor implements HandlerInterceptor {
+
+    private static final String FICHE_PRODUIT = "/api/public/produits/{id}";
+    private static final String VARIANTES_PRODUIT = "/api/public/produits/{id}/variantes";
+
+    private static final List<String> CATALOGUE = List.of(
+            "/api/public/produits",
+            "/api/public/boutiques",
+            "/api/public/boutiques/{id}",
+            "/api/public/boutiques/{id}/produits",
+            "/api/public/categories",
+            "/api/public/categories/{id}/produits");
+
+    private static final List<String> AVIS = List.of(
+            "/api/public/produits/{id}/reviews",
+            "/api/public/produits/{id}/reviews/stats");
+
+    private static final List<String> VOLATILS = List.of(
+            "/api/public/recherche",
+            "/api/public/suggestions",
+            "/api/public/produits/facettes",
+            "/api/public/tendances");
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    @Autowired
+    private CatalogueVersions versions;
+
+    @Autowired
+    private AccueilService accueilService;
+
+    @Autowired
+    private ProduitDetailCache produitDetailCache;
+
+    @Autowired
+    private TendanceService tendanceService;
+
+    @Value("${catalogue.http.max-age-secondes:60}")
+    private long maxAgeCatalogue;
+
+    @Value("${catalogue.http.max-age-categories-secondes:300}")
+    private long maxAgeCategories;
+
+    @Value("${catalogue.http.max-age-volatil-secondes:15}")
+    private long maxAgeVolatil;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        String chemin = request.getRequestURI().substring(request.getContextPath().length());
+
+        String etag = null;
+        CacheControl cacheControl = null;
+        UUID produitVu = null;
+        if (correspond(VOLATILS, chemin)) {
+            cacheControl = CacheControl.maxAge(maxAgeVolatil, TimeUnit.SECONDS).cachePublic();
+        } else if (correspond(AVIS, chemin)) {
+            etag = versions.etagAvis();
+            cacheControl = CacheControl.maxAge(maxAgeCatalogue, TimeUnit.SECONDS).cachePublic();
+        } else if ("/api/public/accueil".equals(chemin)) {
+            etag = versions.etagAccueil(accueilService.getSnapshot().version());
+            cacheControl = CacheControl.maxAge(maxAgeCatalogue, TimeUnit.SECONDS).cachePublic();
+        } else if (matcher.match(FICHE_PRODUIT, chemin)) {
+            produitVu = idProduit(FICHE_PRODUIT, chemin);
+            etag = produitVu != null ? versions.etagProduit(produitVu) : null;
+            cacheControl = CacheControl.noCache().cachePrivate();
+        } else if (matcher.match(VARIANTES_PRODUIT, chemin)) {
+            UUID produitId = idProduit(VARIANTES_PRODUIT, chemin);
+            etag = produitId != null ? versions.etagProduit(produitId) : null;
+            cacheControl = CacheControl.maxAge(maxAgeCatalogue, TimeUnit.SECONDS).cachePublic();
+        } else if (correspond(CATALOGUE, chemin)) {
+            etag = versions.etagCatalogue();
+            long maxAge = chemin.equals("/api/public/categories") ? maxAgeCategories : maxAgeCatalogue;
+            cacheControl = CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic();
+        }
+
+        if (cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        // checkNotModified pose l'en-tête ETag, et le statut 304 si le client est à jour
+        boolean aJour = etag != null && new ServletWebRequest(request, response).checkNotModified(etag);
+        if (aJour && produitVu != null && "GET".equals(request.getMethod())) {
+            enregistrerVue(produitVu);
+        }
+        return !aJour;
+    }
+
+    // Le contrôleur n'est pas appelé : la vue est comptée ici, avec la catégorie de la fiche en cache
+    private void enregistrerVue(UUID produitId) {
+        try {
+            produitDetailCache.obtenir(produitId)
+                    .ifPresent(fiche -> tendanceService.enregistrerVue(produitId, (String) fiche.get("category")));
+        } catch (Exception e) {
+            System.err.println("Erreur comptage de la vue du produit " + produitId + ": " + e.getMessage());
+        }
+    }
+
+    // Id invalide : pas d'ETag, le contrôleur répond
+    private UUID idProduit(String motif, String chemin) {
+        try {
+            return UUID.fromString(matcher.extractUriTemplateVariables(motif, chemin).get("id"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean correspond(List<String> motifs, String chemin) {
+        for (String motif : motifs) {
+            if (matcher.match(motif, chemin)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
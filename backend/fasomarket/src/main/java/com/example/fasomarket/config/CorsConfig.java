@@ -27,8 +27,10 @@ public class CorsConfig {
 
         configuration.setAllowedOrigins(origins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-User-Id", "X-Platform"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-User-Id", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-User-Id", "X-Platform",
+                "Idempotency-Key"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-User-Id", "Content-Type",
+                "X-Total-Count", "X-Total-Pages", "X-Next-Cursor", "ETag", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
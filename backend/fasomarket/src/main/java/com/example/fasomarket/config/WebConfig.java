@@ -1,7 +1,9 @@
 package com.example.fasomarket.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -10,6 +12,14 @@ public class WebConfig implements WebMvcConfigurer {
     
     @Value("${server.port:8081}")
     private String serverPort;
+
+    @Autowired
+    private CatalogueCacheInterceptor catalogueCacheInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogueCacheInterceptor).addPathPatterns("/api/public/**");
+    }
     
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
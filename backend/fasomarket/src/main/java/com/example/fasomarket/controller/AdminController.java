@@ -52,6 +52,137 @@ public class AdminController {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private ProduitDetailCache produitDetailCache;
+
+    @Autowired
+    private BlocageStockService blocageStockService;
+
+    @Autowired
+    private ReconciliationStockService reconciliationStockService;
+
+    @Autowired
+    private StockChaudService stockChaudService;
+
+    @Autowired
+    private JournalStockService journalStockService;
+
+    @Autowired
+    private InventaireVendeurService inventaireVendeurService;
+
+    @Autowired
+    private AlerteStockService alerteStockService;
+
+    @Autowired
+    private IdempotenceService idempotenceService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @GetMapping("/cache/produits")
+    @Operation(summary = "Cache des fiches produit", description = "Succès, défauts, évictions et taille du cache")
+    public ResponseEntity<?> obtenirStatistiquesCacheProduits() {
+        return ResponseEntity.ok(produitDetailCache.getStatistiques());
+    }
+
+    @GetMapping("/stock/blocages")
+    @Operation(summary = "Blocages de stock des paniers", description = "Blocages actifs, expirations par seconde et retard de libération")
+    public ResponseEntity<?> obtenirStatistiquesBlocages() {
+        return ResponseEntity.ok(blocageStockService.getStatistiques());
+    }
+
+    @GetMapping("/stock/reconciliation")
+    @Operation(summary = "Réconciliation du stock", description = "Produits examinés et corrigés par la réconciliation du stock agrégé")
+    public ResponseEntity<?> obtenirStatistiquesReconciliation() {
+        return ResponseEntity.ok(reconciliationStockService.getStatistiques());
+    }
+
+    @GetMapping("/stock/ventes-flash")
+    @Operation(summary = "Ventes flash", description = "Variantes servies en mémoire, refus, taille des lots et attente d'écriture")
+    public ResponseEntity<?> obtenirStatistiquesVentesFlash() {
+        return ResponseEntity.ok(stockChaudService.getStatistiques());
+    }
+
+    @GetMapping("/stock/inventaires")
+    @Operation(summary = "Cache des inventaires vendeur", description = "Succès, défauts et vendeurs en cache")
+    public ResponseEntity<?> obtenirStatistiquesInventaires() {
+        return ResponseEntity.ok(inventaireVendeurService.getStatistiques());
+    }
+
+    @GetMapping("/stock/alertes")
+    @Operation(summary = "Alertes de stock", description = "Produits à réévaluer, alertes déclenchées et récapitulatifs envoyés")
+    public ResponseEntity<?> obtenirStatistiquesAlertesStock() {
+        return ResponseEntity.ok(alerteStockService.getStatistiques());
+    }
+
+    @GetMapping("/idempotence")
+    @Operation(summary = "Clés d'idempotence", description = "Requêtes exécutées, rejouées, en attente et clés purgées")
+    public ResponseEntity<?> obtenirStatistiquesIdempotence() {
+        return ResponseEntity.ok(idempotenceService.getStatistiques());
+    }
+
+    @GetMapping("/outbox")
+    @Operation(summary = "Événements en attente", description = "Événements publiés, traités, retentés et abandonnés, délai de traitement")
+    public ResponseEntity<?> obtenirStatistiquesOutbox() {
+        return ResponseEntity.ok(outboxService.getStatistiques());
+    }
+
+    @PostMapping("/outbox/relancer")
+    @Operation(summary = "Relancer les événements abandonnés", description = "Remet en file les événements en échec, d'un gestionnaire ou de tous")
+    public ResponseEntity<?> relancerOutbox(@RequestParam(required = false) String gestionnaire) {
+        return ResponseEntity.ok(Map.of("relances", outboxService.relancer(gestionnaire)));
+    }
+
+    @GetMapping("/emails")
+    @Operation(summary = "File d'envoi des e-mails", description = "Messages envoyés, retentés et morts, débit, latence et durée des lots SMTP")
+    public ResponseEntity<?> obtenirStatistiquesEmails() {
+        return ResponseEntity.ok(emailOutboxService.getStatistiques());
+    }
+
+    @PostMapping("/emails/relancer")
+    @Operation(summary = "Relancer les e-mails morts", description = "Remet en file les e-mails abandonnés")
+    public ResponseEntity<?> relancerEmails() {
+        return ResponseEntity.ok(Map.of("relances", emailOutboxService.relancer()));
+    }
+
+    @GetMapping("/stock/journal")
+    @Operation(summary = "Journal de stock", description = "Mouvements écrits, lots et compactage du journal de stock")
+    public ResponseEntity<?> obtenirStatistiquesJournalStock() {
+        return ResponseEntity.ok(journalStockService.getStatistiques());
+    }
+
+    @GetMapping("/stock/journal/ecarts")
+    @Operation(summary = "Écarts de stock", description = "Articles dont le stock diffère du solde de leur journal de mouvements")
+    public ResponseEntity<?> obtenirEcartsStock(@RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(journalStockService.getEcarts(limite));
+    }
+
+    @GetMapping("/stock/journal/produits/{id}")
+    @Operation(summary = "Mouvements d'un produit", description = "Derniers mouvements de stock d'un produit et de ses variantes")
+    public ResponseEntity<?> obtenirMouvementsProduit(@PathVariable UUID id,
+            @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(journalStockService.getHistoriqueProduit(id, limite));
+    }
+
+    @PutMapping("/stock/variantes/{id}/vente-flash")
+    @Operation(summary = "Mode vente flash", description = "Active ou désactive le stock en mémoire d'une variante")
+    public ResponseEntity<?> changerModeVenteFlash(
+            @RequestHeader("X-User-Id") UUID adminId,
+            @PathVariable Long id,
+            @RequestParam boolean actif) {
+        try {
+            if (!stockChaudService.activer(id, actif)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(actif ? "Vente flash activée" : "Vente flash désactivée");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erreur: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/dashboard")
     @Operation(summary = "Dashboard admin", description = "Vue d'ensemble de la plateforme")
     public ResponseEntity<?> getDashboard() {
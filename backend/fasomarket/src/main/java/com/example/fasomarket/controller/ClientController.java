@@ -1,6 +1,8 @@
 package com.example.fasomarket.controller;
 
 import com.example.fasomarket.dto.CartItemDTO;
+import com.example.fasomarket.dto.CommandeResponse;
+import com.example.fasomarket.dto.CreerCommandeRequest;
 import com.example.fasomarket.model.*;
 import com.example.fasomarket.repository.*;
 import com.example.fasomarket.service.*;
@@ -42,9 +44,6 @@ public class ClientController {
     @Autowired
     private CartRepository cartRepository;
 
-    @Autowired
-    private SmsService smsService;
-
     @Autowired
     private GeocodingService geocodingService;
 
@@ -54,6 +53,15 @@ public class ClientController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BlocageStockService blocageStockService;
+
+    @Autowired
+    private IdempotenceService idempotenceService;
+
     @GetMapping("/dashboard")
     @Operation(summary = "Dashboard client", description = "Données du tableau de bord client")
     public ResponseEntity<?> getDashboard(@RequestHeader("X-User-Id") UUID clientId) {
@@ -492,7 +500,7 @@ public class ClientController {
             if (existant.isPresent()) {
                 Cart item = existant.get();
                 item.setQuantity(item.getQuantity() + quantite);
-                cartRepository.save(item);
+                blocageStockService.enregistrerLigne(item);
             } else {
                 Cart item = new Cart(client, produit, quantite);
 
@@ -502,10 +510,12 @@ public class ClientController {
                     // item.setVariante(produitVarianteRepository.findById(varianteId).orElse(null));
                 }
 
-                cartRepository.save(item);
+                blocageStockService.enregistrerLigne(item);
             }
 
             return ResponseEntity.ok("Produit ajouté au panier");
+        } catch (StockInsuffisantException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
         }
@@ -529,7 +539,7 @@ public class ClientController {
                 return ResponseEntity.notFound().build();
             }
 
-            cartRepository.delete(item);
+            blocageStockService.supprimerLigne(item);
             return ResponseEntity.ok("Article supprimé du panier");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
@@ -545,7 +555,7 @@ public class ClientController {
                 return ResponseEntity.badRequest().body("Client non trouvé");
             }
 
-            cartRepository.deleteByClient(client);
+            blocageStockService.viderPanier(client);
             return ResponseEntity.ok("Panier vidé");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
@@ -573,17 +583,20 @@ public class ClientController {
                     "message", "Acces non autorise a cet article panier"));
         }
 
-        Integer stock = item.getProduct().getStockQuantity() != null ? item.getProduct().getStockQuantity() : 0;
-        if (quantite > stock) {
+        // Le stock retenu par la ligne reste disponible pour elle : seul le supplément est vérifié
+        int quantitePrecedente = item.getQuantity();
+        item.setQuantity(quantite);
+        try {
+            blocageStockService.enregistrerLigne(item);
+        } catch (StockInsuffisantException e) {
+            item.setQuantity(quantitePrecedente);
+            Integer stock = item.getProduct().getStockQuantity() != null ? item.getProduct().getStockQuantity() : 0;
             return ResponseEntity.badRequest().body(Map.of(
                     "code", "INSUFFICIENT_STOCK",
                     "message", "Stock insuffisant",
-                    "details", Map.of("stockDisponible", stock)));
+                    "details", Map.of("stockDisponible", stock + quantitePrecedente)));
         }
 
-        item.setQuantity(quantite);
-        cartRepository.save(item);
-
         return ResponseEntity.ok(Map.of(
                 "message", "Quantite mise a jour",
                 "itemId", item.getId(),
@@ -618,91 +631,40 @@ public class ClientController {
 
     // Commandes
     @PostMapping("/commandes/creer")
-    @Operation(summary = "Créer commande", description = "Crée une commande à partir du panier")
+    @Operation(summary = "Créer commande", description = "Crée une commande à partir du panier ; "
+            + "avec l'en-tête Idempotency-Key, une répétition renvoie la réponse de la première requête")
     public ResponseEntity<?> creerCommande(
             @RequestHeader("X-User-Id") UUID clientId,
+            @RequestHeader(value = IdempotenceService.EN_TETE, required = false) String idempotencyKey,
             @RequestBody Map<String, Object> request) {
-        try {
-            User client = userRepository.findById(clientId).orElse(null);
-            if (client == null) {
-                return ResponseEntity.badRequest().body("Client non trouvé");
-            }
-
-            List<Cart> items = cartRepository.findByClient(client);
-            if (items.isEmpty()) {
-                return ResponseEntity.badRequest().body("Panier vide");
-            }
-
-            // Créer la commande avec calcul correct du total
-            Order order = new Order();
-            order.setClient(client);
-            order.setStatus(OrderStatus.PENDING);
-            order.setDeliveryAddress((String) request.get("adresseLivraison"));
-            order.setNeedsDelivery((Boolean) request.getOrDefault("needsDelivery", false));
-            order.setDeliveryPhone((String) request.get("numeroTelephone"));
-
-            // Calculer le total AVANT de sauvegarder
-            BigDecimal total = BigDecimal.ZERO;
-
-            for (Cart item : items) {
-                // Vérifier le stock
-                if (item.getProduct().getStockQuantity() < item.getQuantity()) {
-                    return ResponseEntity.badRequest().body(
-                            "Stock insuffisant pour " + item.getProduct().getName());
-                }
-
-                BigDecimal itemTotal = item.getProduct().getPrice()
-                        .multiply(BigDecimal.valueOf(item.getQuantity()));
-                total = total.add(itemTotal);
-            }
-
-            // Définir le total AVANT de sauvegarder
-            order.setTotalAmount(total);
-
-            // Sauvegarder d'abord la commande
-            Order savedOrder = orderRepository.save(order);
-
-            // Puis créer les OrderItems
-            for (Cart item : items) {
-                OrderItem orderItem = new OrderItem();
-                orderItem.setOrder(savedOrder);
-                orderItem.setProduct(item.getProduct());
-                orderItem.setQuantity(item.getQuantity());
-                orderItem.setUnitPrice(item.getProduct().getPrice());
-                orderItem.setSelectedColor(item.getSelectedColor());
-                orderItem.setSelectedSize(item.getSelectedSize());
-                orderItem.setSelectedModel(item.getSelectedModel());
-                orderItem.setCustomOptions(item.getCustomOptions());
-
-                savedOrder.getOrderItems().add(orderItem);
-            }
-
-            // Sauvegarder à nouveau avec les items
-            savedOrder = orderRepository.save(savedOrder);
+        return idempotenceService.executer("commande", clientId, idempotencyKey, request,
+                () -> passerCommande(clientId, request));
+    }
 
-            // Vider le panier
-            cartRepository.deleteByClient(client);
+    private ResponseEntity<?> passerCommande(UUID clientId, Map<String, Object> request) {
+        try {
+            CreerCommandeRequest commandeRequest = new CreerCommandeRequest();
+            commandeRequest.setAdresseLivraison((String) request.get("adresseLivraison"));
+            commandeRequest.setNeedsDelivery((Boolean) request.getOrDefault("needsDelivery", false));
+            commandeRequest.setNumeroTelephone((String) request.get("numeroTelephone"));
 
-            // SMS de confirmation
-            String numeroTelephone = (String) request.get("numeroTelephone");
-            if (numeroTelephone != null && !numeroTelephone.isEmpty()) {
-                String numeroCommande = "CMD-" + savedOrder.getId().toString().substring(0, 8);
-                try {
-                    smsService.envoyerSmsConfirmationCommande(numeroTelephone, numeroCommande, total.doubleValue());
-                } catch (Exception e) {
-                    // Continuer même si SMS échoue
-                }
-            }
+            // Création et réservation du stock dans une seule transaction
+            CommandeResponse commande = orderService.creerCommande(clientId, commandeRequest);
+            BigDecimal total = commande.getTotalAmount();
 
             Map<String, Object> response = new HashMap<>();
-            response.put("id", savedOrder.getId());
-            response.put("numeroCommande", "CMD-" + savedOrder.getId().toString().substring(0, 8));
-            response.put("statut", savedOrder.getStatus().name());
-            response.put("total", savedOrder.getTotalAmount());
+            response.put("id", commande.getId());
+            response.put("numeroCommande", commande.getNumeroCommande());
+            response.put("statut", commande.getStatut().name());
+            response.put("total", commande.getTotalAmount());
             response.put("message", "Commande créée avec succès - Total: " + total + " FCFA");
 
             return ResponseEntity.ok(response);
+        } catch (CommandeRefuseeException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
+            // Base, verrou, transaction : erreur serveur, la clé d'idempotence est relâchée
+            System.err.println("Erreur création commande: " + e.getMessage());
             return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
         }
     }
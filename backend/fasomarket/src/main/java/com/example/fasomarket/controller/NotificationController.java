@@ -1,6 +1,8 @@
 package com.example.fasomarket.controller;
 
+import com.example.fasomarket.dto.Curseur;
 import com.example.fasomarket.dto.NotificationResponse;
+import com.example.fasomarket.dto.PageCurseur;
 import com.example.fasomarket.model.Notification;
 import com.example.fasomarket.service.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -27,10 +29,18 @@ public class NotificationController {
         @ApiResponse(responseCode = "200", description = "Liste des notifications"),
         @ApiResponse(responseCode = "401", description = "Non authentifié")
     })
-    public ResponseEntity<?> obtenirNotifications(@RequestHeader("X-User-Id") UUID userId) {
+    public ResponseEntity<?> obtenirNotifications(
+            @RequestHeader("X-User-Id") UUID userId,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String curseur) {
         try {
-            List<NotificationResponse> notifications = notificationService.obtenirNotifications(userId);
-            return ResponseEntity.ok(notifications);
+            PageCurseur<NotificationResponse> notifications = notificationService.obtenirNotifications(
+                    userId, Curseur.decoder(curseur), Math.max(1, Math.min(size, 100)));
+            ResponseEntity.BodyBuilder reponse = ResponseEntity.ok();
+            if (notifications.suivant() != null) {
+                reponse.header("X-Next-Cursor", notifications.suivant());
+            }
+            return reponse.body(notifications.elements());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -2,6 +2,7 @@ package com.example.fasomarket.controller;
 
 import com.example.fasomarket.dto.*;
 import com.example.fasomarket.model.OrderStatus;
+import com.example.fasomarket.service.CommandeRefuseeException;
 import com.example.fasomarket.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -35,8 +36,11 @@ public class OrderController {
         try {
             CommandeResponse response = orderService.creerCommande(clientId, request);
             return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
+        } catch (CommandeRefuseeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Erreur création commande: " + e.getMessage());
+            return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
         }
     }
 
@@ -1,5 +1,6 @@
 package com.example.fasomarket.controller;
 
+import com.example.fasomarket.service.IdempotenceService;
 import com.example.fasomarket.service.PayDunyaService;
 import com.example.fasomarket.dto.PaymentRequest;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,8 +16,18 @@ public class PaymentController {
     @Autowired
     private PayDunyaService payDunyaService;
 
+    @Autowired
+    private IdempotenceService idempotenceService;
+
     @PostMapping("/paiements/initier")
-    public ResponseEntity<?> initierPaiement(@RequestBody PaymentRequest request) {
+    public ResponseEntity<?> initierPaiement(
+            @RequestHeader(value = IdempotenceService.EN_TETE, required = false) String idempotencyKey,
+            @RequestBody PaymentRequest request) {
+        return idempotenceService.executer("paiement", null, idempotencyKey, request,
+                () -> initier(request));
+    }
+
+    private ResponseEntity<?> initier(PaymentRequest request) {
         try {
             Map<String, Object> response = payDunyaService.initierPaiementPayDunya(request);
             return ResponseEntity.ok(response);
@@ -31,9 +42,15 @@ public class PaymentController {
     @PostMapping("/client/paiements/payer")
     public ResponseEntity<?> payerCommande(
             @RequestHeader("X-User-Id") UUID clientId,
+            @RequestHeader(value = IdempotenceService.EN_TETE, required = false) String idempotencyKey,
             @RequestBody PaymentRequest request) {
+        request.setUserId(clientId.toString());
+        return idempotenceService.executer("paiement", clientId, idempotencyKey, request,
+                () -> payer(request));
+    }
+
+    private ResponseEntity<?> payer(PaymentRequest request) {
         try {
-            request.setUserId(clientId.toString());
             Map<String, Object> response = payDunyaService.initierPaiementPayDunya(request);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -1,11 +1,18 @@
 package com.example.fasomarket.controller;
 
+import com.example.fasomarket.dto.BoutiqueCarte;
 import com.example.fasomarket.dto.BoutiquePublicDTO;
+import com.example.fasomarket.dto.CatalogueCritere;
+import com.example.fasomarket.dto.Curseur;
+import com.example.fasomarket.dto.PageCurseur;
 import com.example.fasomarket.dto.ProductPublicDTO;
+import com.example.fasomarket.dto.ProduitCarte;
 import com.example.fasomarket.dto.ProduitVarianteDTO;
 import com.example.fasomarket.dto.VariantePublicDTO;
 import com.example.fasomarket.model.*;
 import com.example.fasomarket.repository.*;
+import com.example.fasomarket.search.IndexFacettes;
+import com.example.fasomarket.search.TrieSuggestions;
 import com.example.fasomarket.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -40,25 +47,62 @@ public class PublicController {
     @Autowired
     private ProduitVarianteService produitVarianteService;
 
-    // Boutiques publiques (seulement ACTIVE)
+    @Autowired
+    private RechercheService rechercheService;
+
+    @Autowired
+    private CatalogueService catalogueService;
+
+    @Autowired
+    private FacettesService facettesService;
+
+    @Autowired
+    private CataloguePublicMapper cataloguePublicMapper;
+
+    @Autowired
+    private AccueilService accueilService;
+
+    @Autowired
+    private TendanceService tendanceService;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private ProduitDetailCache produitDetailCache;
+
+    // Boutiques publiques (seulement ACTIVE), les plus récentes d'abord, paginées par curseur :
+    // la page suivante se demande avec curseur = X-Next-Cursor, page ne sert qu'avec recommended=true
     @GetMapping("/boutiques")
     public ResponseEntity<?> getBoutiques(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) Boolean recommended) {
+            @RequestParam(required = false) Boolean recommended,
+            @RequestParam(required = false) String curseur) {
+        int taille = Math.max(1, Math.min(size, 100));
         try {
-            List<Shop> shops = shopRepository.findByStatus(ShopStatus.ACTIVE);
             if (Boolean.TRUE.equals(recommended)) {
-                shops = shops.stream()
-                        .sorted(Comparator.comparing(Shop::getRating, Comparator.nullsLast(Comparator.reverseOrder()))
-                                .thenComparing(Shop::getReviewsCount, Comparator.nullsLast(Comparator.reverseOrder())))
-                        .limit(size)
-                        .toList();
+                // Classement par note : liste courte, pagination par numéro de page
+                List<BoutiquePublicDTO> boutiques = shopRepository
+                        .findCartesPopulaires(ShopStatus.ACTIVE, PageRequest.of(Math.max(page, 0), taille)).stream()
+                        .map(cataloguePublicMapper::versBoutiqueDTO)
+                        .collect(Collectors.toList());
+                return ResponseEntity.ok(boutiques);
             }
-            List<BoutiquePublicDTO> boutiques = shops.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(boutiques);
+            if (page > 0) {
+                // Sans cela un ancien client relirait la première page à chaque numéro de page
+                return ResponseEntity.badRequest().body(
+                        "Paramètre page non supporté : utiliser curseur avec la valeur de l'en-tête X-Next-Cursor");
+            }
+            Curseur position = Curseur.decoder(curseur);
+            PageCurseur<BoutiquePublicDTO> boutiques = PageCurseur.de(
+                    shopRepository.findPageParStatut(ShopStatus.ACTIVE, position.date(), position.id(),
+                            PageRequest.of(0, taille + 1)),
+                    taille, BoutiqueCarte::dateCreation, BoutiqueCarte::id)
+                    .map(cataloguePublicMapper::versBoutiqueDTO);
+            return avecCurseur(boutiques);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
         }
@@ -73,18 +117,25 @@ public class PublicController {
     }
 
     @GetMapping("/boutiques/{id}/produits")
-    public ResponseEntity<List<ProductPublicDTO>> getBoutiqueProduits(@PathVariable UUID id) {
-        Shop boutique = shopRepository.findByIdAndStatus(id, ShopStatus.ACTIVE)
-                .orElse(null);
-        if (boutique == null) {
+    public ResponseEntity<?> getBoutiqueProduits(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String curseur) {
+        if (shopRepository.findByIdAndStatus(id, ShopStatus.ACTIVE).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        List<Product> produits = productRepository.findByShopAndIsActiveTrue(boutique);
-        List<ProductPublicDTO> produitsDTO = produits.stream()
-                .map(this::convertProductToDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(produitsDTO);
+        int taille = Math.max(1, Math.min(size, 100));
+        try {
+            Curseur position = Curseur.decoder(curseur);
+            return avecCurseur(PageCurseur.de(
+                    productRepository.findPageBoutique(id, position.date(), position.id(),
+                            PageRequest.of(0, taille + 1)),
+                    taille, ProduitCarte::dateCreation, ProduitCarte::id)
+                    .map(cataloguePublicMapper::versProduitDTO));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Produits publics
@@ -96,80 +147,79 @@ public class PublicController {
             @RequestParam(required = false) Double prixMin,
             @RequestParam(required = false) Double prixMax,
             @RequestParam(required = false) Boolean featured,
-            @RequestParam(required = false) String q) {
-
-        Pageable pageable = PageRequest.of(page, size);
-        List<Product> produits;
-
-        if (q != null && !q.isEmpty()) {
-            produits = productRepository.findByNameContainingIgnoreCaseAndIsActiveTrue(q, pageable).getContent();
-        } else if (categorie != null) {
-            produits = productRepository.findByCategoryAndIsActiveTrue(categorie, pageable).getContent();
-        } else {
-            produits = productRepository.findByIsActiveTrue(pageable).getContent();
-        }
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Boolean disponible,
+            @RequestParam(required = false) String marque,
+            @RequestParam(required = false) String couleur,
+            @RequestParam(required = false) UUID boutiqueId,
+            @RequestParam(required = false) String tri) {
+
+        CatalogueCritere critere = new CatalogueCritere();
+        critere.setQ(q);
+        critere.setCategorie(categorie);
+        critere.setPrixMin(prixMin != null ? BigDecimal.valueOf(prixMin) : null);
+        critere.setPrixMax(prixMax != null ? BigDecimal.valueOf(prixMax) : null);
+        critere.setFeatured(featured);
+        critere.setDisponible(disponible);
+        critere.setMarque(marque);
+        critere.setCouleur(couleur);
+        critere.setBoutiqueId(boutiqueId);
+        critere.setTri(tri);
+
+        Page<ProduitCarte> resultat = catalogueService.rechercher(critere, page, size);
+
+        List<ProductPublicDTO> produitsDTO = resultat.getContent().stream()
+                .map(cataloguePublicMapper::versProduitDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(resultat.getTotalElements()))
+                .header("X-Total-Pages", String.valueOf(resultat.getTotalPages()))
+                .body(produitsDTO);
+    }
 
-        // Filtrer par prix si spécifié
-        if (prixMin != null || prixMax != null) {
-            produits = produits.stream()
-                    .filter(p -> (prixMin == null || p.getPrice().doubleValue() >= prixMin) &&
-                            (prixMax == null || p.getPrice().doubleValue() <= prixMax))
-                    .toList();
-        }
+    // Résultats et comptes par facette en un seul appel
+    @GetMapping("/produits/facettes")
+    public ResponseEntity<?> getProduitsFacettes(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String categorie,
+            @RequestParam(required = false) String marque,
+            @RequestParam(required = false) String couleur,
+            @RequestParam(required = false) String taille,
+            @RequestParam(required = false) Double prixMin,
+            @RequestParam(required = false) Double prixMax) {
 
-        if (Boolean.TRUE.equals(featured)) {
-            produits = produits.stream()
-                    .filter(p -> Boolean.TRUE.equals(p.getFeatured()))
-                    .toList();
+        int taillePage = Math.max(1, Math.min(size, 100));
+        if (!facettesService.estPret()) {
+            return ResponseEntity.status(503).body(Map.of("message", "Index des facettes en cours de construction"));
         }
 
-        List<ProductPublicDTO> produitsDTO = produits.stream()
-                .map(this::convertProductToDTO)
+        IndexFacettes.Resultat resultat = facettesService.rechercher(q, categorie, marque, couleur, taille,
+                prixMin, prixMax, page, taillePage);
+        List<ProductPublicDTO> produitsDTO = dansLOrdre(resultat.ids(),
+                productRepository::findCartesByIds, ProduitCarte::id).stream()
+                .map(cataloguePublicMapper::versProduitDTO)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(produitsDTO);
+
+        Map<String, Object> response = new java.util.LinkedHashMap<>();
+        response.put("produits", produitsDTO);
+        response.put("total", resultat.total());
+        response.put("page", page);
+        response.put("size", taillePage);
+        response.put("facettes", resultat.facettes());
+        response.put("prix", resultat.prix());
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/produits/{id}")
     public ResponseEntity<Map<String, Object>> getProduit(@PathVariable UUID id) {
         try {
-            Product produit = productRepository.findByIdAndIsActiveTrue(id).orElse(null);
-            if (produit == null) {
+            Map<String, Object> response = produitDetailCache.obtenir(id).orElse(null);
+            if (response == null) {
                 return ResponseEntity.notFound().build();
             }
-            
-            Map<String, Object> response = new java.util.HashMap<>();
-            response.put("id", produit.getId());
-            response.put("nom", produit.getName());
-            response.put("description", produit.getDescription());
-            response.put("prix", produit.getPrice());
-            response.put("quantiteStock", produit.getStockQuantity());
-            response.put("category", produit.getCategory());
-            response.put("available", produit.getAvailable());
-            
-            // ✅ Gestion correcte des images
-            if (produit.getImages() != null && !produit.getImages().isEmpty()) {
-                String[] imageUrls = produit.getImages().split(",");
-                List<String> imagesList = java.util.Arrays.stream(imageUrls)
-                    .map(String::trim)
-                    .filter(url -> !url.isEmpty())
-                    .collect(Collectors.toList());
-                response.put("images", imagesList);
-            } else {
-                response.put("images", new java.util.ArrayList<>());
-            }
-            
-            // Boutique info
-            Map<String, Object> boutique = new java.util.HashMap<>();
-            boutique.put("nom", produit.getShop() != null ? produit.getShop().getName() : "MaroShop");
-            boutique.put("id", produit.getShop() != null ? produit.getShop().getId() : null);
-            response.put("boutique", boutique);
-            
-            // Rating et reviews
-            if (produit.getRating() != null) {
-                response.put("rating", produit.getRating().doubleValue());
-            }
-            response.put("reviewsCount", produit.getReviewsCount());
-            
+            tendanceService.enregistrerVue(id, (String) response.get("category"));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -178,22 +228,27 @@ public class PublicController {
 
     // Produits par catégorie
     @GetMapping("/categories/{id}/produits")
-    public ResponseEntity<List<ProductPublicDTO>> getCategorieProduits(
+    public ResponseEntity<?> getCategorieProduits(
             @PathVariable UUID id,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String curseur) {
 
         Category category = categoryRepository.findById(id).orElse(null);
         if (category == null) {
             return ResponseEntity.notFound().build();
         }
 
-        List<Product> produits = productRepository
-                .findByIsActiveTrueAndCategoryContainingIgnoreCase(category.getName());
-        List<ProductPublicDTO> produitsDTO = produits.stream()
-                .map(this::convertProductToDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(produitsDTO);
+        int taille = Math.max(1, Math.min(size, 100));
+        try {
+            Curseur position = Curseur.decoder(curseur);
+            return avecCurseur(PageCurseur.de(
+                    productRepository.findPageCategorie(category.getId(), position.date(), position.id(),
+                            PageRequest.of(0, taille + 1)),
+                    taille, ProduitCarte::dateCreation, ProduitCarte::id)
+                    .map(cataloguePublicMapper::versProduitDTO));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Catégories
@@ -205,66 +260,95 @@ public class PublicController {
 
     @GetMapping("/accueil")
     public ResponseEntity<?> getAccueil() {
-        List<Category> categories = categoryRepository.findByIsActiveTrueOrderByNameAsc()
+        return ResponseEntity.ok(accueilService.getSnapshot().contenu());
+    }
+
+    // Produits tendance (ventes et vues récentes, avec décroissance dans le temps)
+    @GetMapping("/tendances")
+    public ResponseEntity<List<ProductPublicDTO>> getTendances(
+            @RequestParam(required = false) String categorie,
+            @RequestParam(defaultValue = "20") int limite) {
+
+        String nomCategorie = categorie;
+        if (categorie != null && !categorie.isBlank()) {
+            try {
+                nomCategorie = categoryRepository.findById(UUID.fromString(categorie))
+                        .map(Category::getName)
+                        .orElse(categorie);
+            } catch (IllegalArgumentException e) {
+                // Catégorie passée par son nom
+            }
+        }
+
+        List<UUID> ids = tendanceService.getTendances(nomCategorie, Math.max(1, Math.min(limite, 50))).stream()
+                .map(TendanceService.Tendance::produitId)
+                .collect(Collectors.toList());
+        List<ProductPublicDTO> produits = dansLOrdre(ids, productRepository::findCartesByIds, ProduitCarte::id)
                 .stream()
-                .limit(8)
-                .toList();
-
-        List<ProductPublicDTO> produitsTendance = productRepository.findByIsActiveTrue().stream()
-                .filter(p -> Boolean.TRUE.equals(p.getFeatured()) || Boolean.TRUE.equals(p.getAvailable()))
-                .sorted(Comparator.comparing(Product::getSalesCount, Comparator.nullsLast(Comparator.reverseOrder()))
-                        .thenComparing(Product::getReviewsCount, Comparator.nullsLast(Comparator.reverseOrder())))
-                .limit(12)
-                .map(this::convertProductToDTO)
-                .toList();
-
-        List<BoutiquePublicDTO> boutiquesPopulaires = shopRepository.findByStatus(ShopStatus.ACTIVE).stream()
-                .sorted(Comparator.comparing(Shop::getRating, Comparator.nullsLast(Comparator.reverseOrder()))
-                        .thenComparing(Shop::getReviewsCount, Comparator.nullsLast(Comparator.reverseOrder())))
-                .limit(10)
-                .map(this::convertToDTO)
-                .toList();
+                .map(cataloguePublicMapper::versProduitDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(produits);
+    }
 
-        return ResponseEntity.ok(Map.of(
-                "categories", categories,
-                "produitsTendance", produitsTendance,
-                "boutiquesPopulaires", boutiquesPopulaires));
+    // Autocomplétion de la barre de recherche (produits, marques, boutiques, catégories)
+    @GetMapping("/suggestions")
+    public ResponseEntity<List<TrieSuggestions.Suggestion>> getSuggestions(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limite) {
+        return ResponseEntity.ok(suggestionService.suggerer(q, Math.max(1, Math.min(limite, SuggestionService.LIMITE_MAX))));
     }
 
     // Recherche globale
     @GetMapping("/recherche")
     public ResponseEntity<?> recherche(
             @RequestParam String q,
-            @RequestParam(required = false) String type) {
-
-        if (type != null) {
-            switch (type) {
-                case "produits":
-                    List<Product> produits = productRepository.findByIsActiveTrueAndNameContainingIgnoreCase(q);
-                    List<ProductPublicDTO> produitsDTO = produits.stream().limit(20).map(this::convertProductToDTO)
-                            .collect(Collectors.toList());
-                    return ResponseEntity
-                            .ok(Map.of("produits", produitsDTO, "boutiques", List.of(), "categories", List.of()));
-                case "boutiques":
-                    List<Shop> shops = shopRepository.findByStatusAndNameContainingIgnoreCase(ShopStatus.ACTIVE, q);
-                    List<BoutiquePublicDTO> boutiques = shops.stream().map(this::convertToDTO)
-                            .collect(Collectors.toList());
-                    return ResponseEntity
-                            .ok(Map.of("produits", List.of(), "boutiques", boutiques, "categories", List.of()));
-                case "categories":
-                    List<Category> categories = categoryRepository.findByNameContainingIgnoreCase(q);
-                    return ResponseEntity
-                            .ok(Map.of("produits", List.of(), "boutiques", List.of(), "categories", categories));
-            }
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "20") int limite) {
+
+        int max = Math.max(1, Math.min(limite, 100));
+        boolean produitsDemandes = type == null || "produits".equals(type);
+        boolean boutiquesDemandees = type == null || "boutiques".equals(type);
+        boolean categoriesDemandees = type == null || "categories".equals(type);
+
+        // Index en mémoire pas encore construit : ancienne recherche en base
+        if (!rechercheService.estPret()) {
+            return ResponseEntity.ok(Map.of(
+                    "produits", produitsDemandes
+                            ? productRepository.findByIsActiveTrueAndNameContainingIgnoreCase(q).stream()
+                                    .limit(max).map(this::convertProductToDTO).collect(Collectors.toList())
+                            : List.of(),
+                    "boutiques", boutiquesDemandees
+                            ? shopRepository.findByStatusAndNameContainingIgnoreCase(ShopStatus.ACTIVE, q).stream()
+                                    .limit(max).map(this::convertToDTO).collect(Collectors.toList())
+                            : List.of(),
+                    "categories", categoriesDemandees
+                            ? categoryRepository.findByNameContainingIgnoreCase(q).stream()
+                                    .limit(max).collect(Collectors.toList())
+                            : List.of()));
         }
 
-        // Recherche globale
-        List<Product> produits = productRepository.findByIsActiveTrueAndNameContainingIgnoreCase(q);
-        List<ProductPublicDTO> produitsDTO = produits.stream().map(this::convertProductToDTO)
-                .collect(Collectors.toList());
-        List<Shop> shops = shopRepository.findByStatusAndNameContainingIgnoreCase(ShopStatus.ACTIVE, q);
-        List<BoutiquePublicDTO> boutiques = shops.stream().map(this::convertToDTO).collect(Collectors.toList());
-        List<Category> categories = categoryRepository.findByNameContainingIgnoreCase(q);
+        List<ProductPublicDTO> produitsDTO = List.of();
+        if (produitsDemandes) {
+            List<UUID> ids = rechercheService.rechercherProduits(q, max);
+            produitsDTO = dansLOrdre(ids, productRepository::findCartesByIds, ProduitCarte::id).stream()
+                    .map(cataloguePublicMapper::versProduitDTO)
+                    .collect(Collectors.toList());
+        }
+
+        List<BoutiquePublicDTO> boutiques = List.of();
+        if (boutiquesDemandees) {
+            List<UUID> ids = rechercheService.rechercherBoutiques(q, max);
+            boutiques = dansLOrdre(ids, l -> shopRepository.findCartesByIdInAndStatus(l, ShopStatus.ACTIVE),
+                    BoutiqueCarte::id).stream()
+                    .map(cataloguePublicMapper::versBoutiqueDTO)
+                    .collect(Collectors.toList());
+        }
+
+        List<Category> categories = List.of();
+        if (categoriesDemandees) {
+            List<UUID> ids = rechercheService.rechercherCategories(q, max);
+            categories = dansLOrdre(ids, categoryRepository::findAllById, Category::getId);
+        }
 
         return ResponseEntity.ok(Map.of(
                 "produits", produitsDTO,
@@ -272,6 +356,25 @@ public class PublicController {
                 "categories", categories));
     }
 
+    // Charge les entités par IN (...) et les remet dans l'ordre de pertinence de l'index
+    private <T> List<T> dansLOrdre(List<UUID> ids, java.util.function.Function<List<UUID>, List<T>> chargeur,
+            java.util.function.Function<T, UUID> cle) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, T> parId = chargeur.apply(ids).stream().collect(Collectors.toMap(cle, e -> e, (a, b) -> a));
+        return ids.stream().map(parId::get).filter(java.util.Objects::nonNull).collect(Collectors.toList());
+    }
+
+    // La page dans le corps, le curseur de la suivante dans X-Next-Cursor (absent en fin de liste)
+    private <T> ResponseEntity<List<T>> avecCurseur(PageCurseur<T> page) {
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.ok();
+        if (page.suivant() != null) {
+            reponse.header("X-Next-Cursor", page.suivant());
+        }
+        return reponse.body(page.elements());
+    }
+
     @GetMapping("/produits/{id}/variantes")
     public ResponseEntity<List<VariantePublicDTO>> getProduitVariantes(@PathVariable UUID id) {
         try {
@@ -286,40 +389,11 @@ public class PublicController {
     }
 
     private BoutiquePublicDTO convertToDTO(Shop shop) {
-        BoutiquePublicDTO dto = new BoutiquePublicDTO();
-        dto.setId(shop.getId());
-        dto.setName(shop.getName());
-        dto.setDescription(shop.getDescription());
-        dto.setAddress(shop.getAddress());
-        dto.setPhone(shop.getPhone());
-        dto.setEmail(shop.getEmail());
-        dto.setCategory(shop.getCategory());
-        dto.setLogoUrl(shop.getLogoUrl());
-        dto.setBannerUrl(shop.getBannerUrl());
-        dto.setDelivery(shop.getDelivery());
-        dto.setDeliveryFee(shop.getDeliveryFee());
-        dto.setRating(shop.getRating());
-        dto.setReviewsCount(shop.getReviewsCount());
-        return dto;
+        return cataloguePublicMapper.versBoutiqueDTO(shop);
     }
 
     private ProductPublicDTO convertProductToDTO(Product product) {
-        ProductPublicDTO dto = new ProductPublicDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setImages(product.getImages());
-        dto.setCategory(product.getCategory());
-        dto.setStockQuantity(product.getStockQuantity());
-        dto.setAvailable(product.getAvailable());
-        if (product.getRating() != null) {
-            dto.setRating(product.getRating().doubleValue());
-        }
-        dto.setReviewsCount(product.getReviewsCount());
-        dto.setShopName(product.getShop() != null ? product.getShop().getName() : null);
-        dto.setShopId(product.getShop() != null ? product.getShop().getId() : null);
-        return dto;
+        return cataloguePublicMapper.versProduitDTO(product);
     }
 
     private VariantePublicDTO convertVarianteToDTO(ProduitVariante variante) {
@@ -351,13 +425,26 @@ public class PublicController {
     }
 
     @GetMapping("/produits/{id}/reviews")
-    public ResponseEntity<?> getReviews(@PathVariable String id) {
+    public ResponseEntity<?> getReviews(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String curseur) {
+        Curseur position;
+        try {
+            position = Curseur.decoder(curseur);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
         try {
             List<Map<String, Object>> reviews = new java.util.ArrayList<>();
             
-            List<Review> reviewEntities = reviewRepository.findByProduitIdAndModereTrue(id);
+            int taille = Math.max(1, Math.min(size, 100));
+            PageCurseur<Review> page = PageCurseur.de(
+                    reviewRepository.findPageParProduit(id, position.date(), position.id(),
+                            PageRequest.of(0, taille + 1)),
+                    taille, Review::getDateCreation, Review::getId);
             
-            for (Review review : reviewEntities) {
+            for (Review review : page.elements()) {
                 Map<String, Object> reviewMap = new java.util.HashMap<>();
                 reviewMap.put("id", review.getId());
                 reviewMap.put("note", review.getNote() != null ? review.getNote() : 5);
@@ -387,7 +474,7 @@ public class PublicController {
                 reviews.add(reviewMap);
             }
             
-            return ResponseEntity.ok(reviews);
+            return avecCurseur(new PageCurseur<>(reviews, page.suivant()));
             
         } catch (Exception e) {
             return ResponseEntity.ok(new java.util.ArrayList<>());
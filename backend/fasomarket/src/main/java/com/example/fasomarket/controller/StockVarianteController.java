@@ -1,8 +1,13 @@
 package com.example.fasomarket.controller;
 
-import com.example.fasomarket.model.ProduitVariante;
+import com.example.fasomarket.dto.LigneInventaire;
+import com.example.fasomarket.dto.LigneReapprovisionnement;
+import com.example.fasomarket.service.InventaireVendeurService;
+import com.example.fasomarket.service.ReapprovisionnementService;
 import com.example.fasomarket.service.StockVarianteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,6 +22,12 @@ public class StockVarianteController {
     @Autowired
     private StockVarianteService stockVarianteService;
 
+    @Autowired
+    private InventaireVendeurService inventaireVendeurService;
+
+    @Autowired
+    private ReapprovisionnementService reapprovisionnementService;
+
     /**
      * Réapprovisionner une variante
      */
@@ -49,14 +60,73 @@ public class StockVarianteController {
         }
     }
 
+    /**
+     * Réapprovisionner ou ajuster plusieurs variantes en un appel (tableau JSON)
+     */
+    @PostMapping(value = "/reapprovisionnements", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> reapprovisionnerEnLot(
+            @RequestHeader("X-User-Id") UUID vendorUserId,
+            @RequestBody List<LigneReapprovisionnement> lignes) {
+        return appliquerLot(vendorUserId, () -> lignes);
+    }
+
+    /**
+     * Même chose depuis un CSV : varianteId ou sku, puis delta ou stock
+     */
+    @PostMapping(value = "/reapprovisionnements", consumes = "text/csv")
+    public ResponseEntity<Map<String, Object>> reapprovisionnerEnLotCsv(
+            @RequestHeader("X-User-Id") UUID vendorUserId,
+            @RequestBody String csv) {
+        return appliquerLot(vendorUserId, () -> ReapprovisionnementService.lireCsv(csv));
+    }
+
+    private ResponseEntity<Map<String, Object>> appliquerLot(UUID vendorUserId,
+            java.util.function.Supplier<List<LigneReapprovisionnement>> lignes) {
+        try {
+            ReapprovisionnementService.Bilan bilan = reapprovisionnementService.appliquer(vendorUserId, lignes.get());
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Réapprovisionnement effectué avec succès",
+                "bilan", bilan
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Inventaire paginé des variantes du vendeur, filtré par stock côté base
+     */
+    @GetMapping("/inventaire")
+    public ResponseEntity<List<LigneInventaire>> getInventaire(
+            @RequestHeader("X-User-Id") UUID vendorUserId,
+            @RequestParam(required = false) Integer stockMin,
+            @RequestParam(required = false) Integer stockMax,
+            @RequestParam(defaultValue = "false") boolean sousSeuilAlerte,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int taille) {
+
+        Page<LigneInventaire> resultat = inventaireVendeurService.getInventaire(vendorUserId,
+                stockMin != null ? stockMin : Integer.MIN_VALUE,
+                stockMax != null ? stockMax : Integer.MAX_VALUE,
+                sousSeuilAlerte, page, Math.max(1, taille));
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(resultat.getTotalElements()))
+                .header("X-Total-Pages", String.valueOf(resultat.getTotalPages()))
+                .body(resultat.getContent());
+    }
+
     /**
      * Obtenir les variantes en rupture de stock
      */
     @GetMapping("/variantes/rupture")
-    public ResponseEntity<List<ProduitVariante>> getVariantesEnRupture(
+    public ResponseEntity<List<LigneInventaire>> getVariantesEnRupture(
             @RequestHeader("X-User-Id") UUID vendorUserId) {
         
-        List<ProduitVariante> variantes = stockVarianteService.getVariantesEnRupture(vendorUserId);
+        List<LigneInventaire> variantes = stockVarianteService.getVariantesEnRupture(vendorUserId);
         return ResponseEntity.ok(variantes);
     }
 
@@ -64,11 +134,11 @@ public class StockVarianteController {
      * Obtenir les variantes avec stock faible
      */
     @GetMapping("/variantes/stock-faible")
-    public ResponseEntity<List<ProduitVariante>> getVariantesStockFaible(
+    public ResponseEntity<List<LigneInventaire>> getVariantesStockFaible(
             @RequestHeader("X-User-Id") UUID vendorUserId,
             @RequestParam(defaultValue = "5") int seuil) {
         
-        List<ProduitVariante> variantes = stockVarianteService.getVariantesStockFaible(vendorUserId, seuil);
+        List<LigneInventaire> variantes = stockVarianteService.getVariantesStockFaible(vendorUserId, seuil);
         return ResponseEntity.ok(variantes);
     }
 
@@ -61,12 +61,10 @@ public class VendeurController {
 
             // Statistiques
             Map<String, Object> stats = new HashMap<>();
-            var commandes = orderService.obtenirCommandesVendeur(vendorId);
-            long nouvellesCommandes = commandes.stream().filter(c -> c.getStatut().equals(OrderStatus.PENDING)).count();
-            double ventesAujourdhui = commandes.stream()
-                    .filter(c -> c.getDateCreation().toLocalDate().equals(java.time.LocalDate.now()))
-                    .mapToDouble(c -> c.getMontantTotal().doubleValue())
-                    .sum();
+            // Lus dans l'index des commandes vendeur, sans charger les commandes
+            long nouvellesCommandes = orderService.compterCommandesVendeur(vendorId, OrderStatus.PENDING);
+            double ventesAujourdhui = orderService.ventesVendeurDepuis(vendorId,
+                    java.time.LocalDate.now().atStartOfDay()).doubleValue();
             var produits = productService.obtenirMesProduits(vendorId);
             int produitsEnStock = produits.stream().mapToInt(p -> p.getQuantiteStock()).sum();
 
@@ -85,17 +83,17 @@ public class VendeurController {
             }
 
             // Commandes récentes
-            List<CommandeResponse> commandesRecentes = commandes.subList(0, Math.min(5, commandes.size()));
-            List<Map<String, Object>> commandesFormatees = commandesRecentes.stream()
+            List<Map<String, Object>> commandesFormatees = orderService.obtenirCommandesRecentesVendeur(vendorId, 5)
+                    .stream()
                     .map(cmd -> {
                         Map<String, Object> cmdMap = new HashMap<>();
-                        cmdMap.put("id", cmd.getId());
+                        cmdMap.put("id", cmd.getOrderId());
                         cmdMap.put("numero",
-                                "CMD-" + cmd.getId().toString().substring(cmd.getId().toString().length() - 6));
-                        cmdMap.put("statut", cmd.getStatut() != null ? cmd.getStatut().name() : "PENDING");
-                        cmdMap.put("total", cmd.getMontantTotal() != null ? cmd.getMontantTotal().intValue() : 0);
-                        cmdMap.put("dateCreation", cmd.getDateCreation());
-                        cmdMap.put("clientNom", cmd.getNomClient() != null ? cmd.getNomClient() : "Client inconnu");
+                                "CMD-" + cmd.getOrderId().toString().substring(cmd.getOrderId().toString().length() - 6));
+                        cmdMap.put("statut", cmd.getStatus() != null ? cmd.getStatus().name() : "PENDING");
+                        cmdMap.put("total", cmd.getTotalForVendor() != null ? cmd.getTotalForVendor().intValue() : 0);
+                        cmdMap.put("dateCreation", cmd.getCreatedAt());
+                        cmdMap.put("clientNom", cmd.getClientName() != null ? cmd.getClientName() : "Client inconnu");
                         return cmdMap;
                     })
                     .collect(Collectors.toList());
@@ -480,9 +478,14 @@ public class VendeurController {
 
     @GetMapping("/produits")
     @Operation(summary = "Mes produits", description = "Liste des produits du vendeur")
-    public ResponseEntity<?> obtenirMesProduits(@RequestHeader("X-User-Id") UUID vendorId) {
+    public ResponseEntity<?> obtenirMesProduits(
+            @RequestHeader("X-User-Id") UUID vendorId,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String curseur) {
         try {
-            return ResponseEntity.ok(productService.obtenirMesProduits(vendorId));
+            PageCurseur<ProduitResponse> produits = productService.obtenirMesProduits(
+                    vendorId, Curseur.decoder(curseur), Math.max(1, Math.min(size, 100)));
+            return avecCurseur(produits.suivant()).body(produits.elements());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -504,9 +507,14 @@ public class VendeurController {
     // === GESTION COMMANDES ===
     @GetMapping("/commandes")
     @Operation(summary = "Mes commandes", description = "Commandes contenant mes produits")
-    public ResponseEntity<?> obtenirMesCommandes(@RequestHeader("X-User-Id") UUID vendorId) {
+    public ResponseEntity<?> obtenirMesCommandes(
+            @RequestHeader("X-User-Id") UUID vendorId,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String curseur) {
         try {
-            List<CommandeResponse> commandes = orderService.obtenirCommandesVendeur(vendorId);
+            PageCurseur<CommandeResponse> page = orderService.obtenirCommandesVendeur(
+                    vendorId, Curseur.decoder(curseur), Math.max(1, Math.min(size, 100)));
+            List<CommandeResponse> commandes = page.elements();
 
             // Convertir en format JSON requis
             List<Map<String, Object>> commandesFormatees = commandes.stream()
@@ -559,7 +567,7 @@ public class VendeurController {
                     })
                     .collect(Collectors.toList());
 
-            return ResponseEntity.ok(commandesFormatees);
+            return avecCurseur(page.suivant()).body(commandesFormatees);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -747,12 +755,8 @@ public class VendeurController {
         try {
             UUID orderId = UUID.fromString(commandeId);
 
-            // Vérifier que la commande appartient au vendeur
-            List<CommandeResponse> commandes = orderService.obtenirCommandesVendeur(vendorId);
-            CommandeResponse commande = commandes.stream()
-                    .filter(cmd -> cmd.getId().equals(orderId))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Commande non trouvée"));
+            // Vérifier que la commande appartient au vendeur (index des commandes vendeur)
+            CommandeResponse commande = orderService.obtenirCommandeVendeur(vendorId, orderId);
 
             // Générer la facture
             Map<String, Object> facture = new HashMap<>();
@@ -871,4 +875,13 @@ public class VendeurController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Curseur de la page suivante dans X-Next-Cursor (absent en fin de liste)
+    private ResponseEntity.BodyBuilder avecCurseur(String suivant) {
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.ok();
+        if (suivant != null) {
+            reponse.header("X-Next-Cursor", suivant);
+        }
+        return reponse;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.fasomarket.dto;
+
+import java.util.UUID;
+
+/**
+ * Alerte de stock due, prête à entrer dans le récapitulatif d'un vendeur.
+ * {@code etat} vaut FAIBLE ou RUPTURE.
+ */
+public record AlerteStock(UUID vendeurUserId, UUID produitId, long varianteId, String produitNom,
+        String couleur, String taille, String modele, String etat, int stock) {
+}
@@ -0,0 +1,13 @@
+package com.example.fasomarket.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Colonnes affichées dans les listes publiques de boutiques (sans vendeur ni utilisateur).
+ */
+public record BoutiqueCarte(UUID id, String nom, String description, String adresse, String telephone,
+        String email, String categorie, String logoUrl, String bannerUrl, Boolean livraison,
+        BigDecimal fraisLivraison, BigDecimal note, Integer nombreAvis, LocalDateTime dateCreation) {
+}
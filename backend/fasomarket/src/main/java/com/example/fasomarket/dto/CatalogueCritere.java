@@ -0,0 +1,53 @@
+package com.example.fasomarket.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Filtres combinables du catalogue public (/api/public/produits).
+ * Tous les champs sont optionnels.
+ */
+public class CatalogueCritere {
+    private String q;
+    private String categorie;
+    private BigDecimal prixMin;
+    private BigDecimal prixMax;
+    private Boolean featured;
+    private Boolean disponible;
+    private String marque;
+    private String couleur;
+    private UUID boutiqueId;
+    private String tri;
+
+    public CatalogueCritere() {}
+
+    public String getQ() { return q; }
+    public void setQ(String q) { this.q = q; }
+
+    public String getCategorie() { return categorie; }
+    public void setCategorie(String categorie) { this.categorie = categorie; }
+
+    public BigDecimal getPrixMin() { return prixMin; }
+    public void setPrixMin(BigDecimal prixMin) { this.prixMin = prixMin; }
+
+    public BigDecimal getPrixMax() { return prixMax; }
+    public void setPrixMax(BigDecimal prixMax) { this.prixMax = prixMax; }
+
+    public Boolean getFeatured() { return featured; }
+    public void setFeatured(Boolean featured) { this.featured = featured; }
+
+    public Boolean getDisponible() { return disponible; }
+    public void setDisponible(Boolean disponible) { this.disponible = disponible; }
+
+    public String getMarque() { return marque; }
+    public void setMarque(String marque) { this.marque = marque; }
+
+    public String getCouleur() { return couleur; }
+    public void setCouleur(String couleur) { this.couleur = couleur; }
+
+    public UUID getBoutiqueId() { return boutiqueId; }
+    public void setBoutiqueId(UUID boutiqueId) { this.boutiqueId = boutiqueId; }
+
+    public String getTri() { return tri; }
+    public void setTri(String tri) { this.tri = tri; }
+}
@@ -0,0 +1,41 @@
+package com.example.fasomarket.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position dans une liste triée par date de création décroissante puis par id
+ * décroissant (pagination par clé). Le client ne manipule que la forme encodée,
+ * opaque, reçue dans l'en-tête {@code X-Next-Cursor}.
+ */
+public record Curseur(LocalDateTime date, UUID id) {
+
+    // Position de départ : toutes les lignes existantes sont « avant » elle
+    private static final Curseur DEBUT = new Curseur(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            new UUID(-1L, -1L));
+
+    /**
+     * Décode un curseur reçu du client ; absent ou vide : début de la liste.
+     */
+    public static Curseur decoder(String valeur) {
+        if (valeur == null || valeur.isBlank()) {
+            return DEBUT;
+        }
+        try {
+            String texte = new String(Base64.getUrlDecoder().decode(valeur.trim()), StandardCharsets.UTF_8);
+            int separateur = texte.indexOf('|');
+            return new Curseur(LocalDateTime.parse(texte.substring(0, separateur)),
+                    UUID.fromString(texte.substring(separateur + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+
+    public String encoder() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((date + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
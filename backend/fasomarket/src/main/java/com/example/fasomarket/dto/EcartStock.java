@@ -0,0 +1,10 @@
+package com.example.fasomarket.dto;
+
+import java.util.UUID;
+
+/**
+ * Article dont le stock en colonne diffère du solde de son journal de mouvements.
+ * {@code varianteId} vaut 0 pour un produit sans variante.
+ */
+public record EcartStock(UUID produitId, long varianteId, int stockColonne, int stockJournal) {
+}
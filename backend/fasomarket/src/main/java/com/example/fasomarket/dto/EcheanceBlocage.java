@@ -0,0 +1,10 @@
+package com.example.fasomarket.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Échéance d'un blocage de stock, rechargée dans la roue temporelle au démarrage.
+ */
+public record EcheanceBlocage(UUID cartId, LocalDateTime expireLe) {
+}
@@ -0,0 +1,11 @@
+package com.example.fasomarket.dto;
+
+import java.util.UUID;
+
+/**
+ * Ligne de l'inventaire d'un vendeur : une variante et ce qu'il faut de son
+ * produit pour la situer, lue en une requête sans charger les entités.
+ */
+public record LigneInventaire(Long varianteId, UUID produitId, String produitNom, String sku,
+        String couleur, String taille, String modele, Integer stock, Integer seuilAlerte) {
+}
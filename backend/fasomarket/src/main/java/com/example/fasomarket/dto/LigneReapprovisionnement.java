@@ -0,0 +1,35 @@
+package com.example.fasomarket.dto;
+
+/**
+ * Ligne d'un réapprovisionnement en lot : une variante désignée par son
+ * identifiant ou son SKU, et soit une variation ({@code delta}), soit un stock
+ * absolu ({@code stock}).
+ */
+public class LigneReapprovisionnement {
+    private Long varianteId;
+    private String sku;
+    private Integer delta;
+    private Integer stock;
+
+    public LigneReapprovisionnement() {}
+
+    public LigneReapprovisionnement(Long varianteId, String sku, Integer delta, Integer stock) {
+        this.varianteId = varianteId;
+        this.sku = sku;
+        this.delta = delta;
+        this.stock = stock;
+    }
+
+    // Getters et Setters
+    public Long getVarianteId() { return varianteId; }
+    public void setVarianteId(Long varianteId) { this.varianteId = varianteId; }
+
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+}
@@ -0,0 +1,30 @@
+package com.example.fasomarket.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Une page lue par clé et le curseur de la suivante ({@code null} en fin de liste).
+ */
+public record PageCurseur<T>(List<T> elements, String suivant) {
+
+    /**
+     * Les requêtes lisent {@code taille + 1} lignes : la ligne en trop indique
+     * seulement qu'une page suivante existe.
+     */
+    public static <T> PageCurseur<T> de(List<T> lus, int taille,
+            Function<T, LocalDateTime> date, Function<T, UUID> id) {
+        if (lus.size() <= taille) {
+            return new PageCurseur<>(lus, null);
+        }
+        List<T> page = lus.subList(0, taille);
+        T dernier = page.get(taille - 1);
+        return new PageCurseur<>(page, new Curseur(date.apply(dernier), id.apply(dernier)).encoder());
+    }
+
+    public <R> PageCurseur<R> map(Function<T, R> conversion) {
+        return new PageCurseur<>(elements.stream().map(conversion).toList(), suivant);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.fasomarket.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Colonnes affichées dans les listes publiques de produits, lues en une
+ * requête (produit + boutique) sans charger les entités.
+ */
+public record ProduitCarte(UUID id, String nom, String description, BigDecimal prix, String images,
+        String categorie, Integer quantiteStock, Boolean disponible, BigDecimal note, Integer nombreAvis,
+        UUID boutiqueId, String boutiqueNom, LocalDateTime dateCreation) {
+}
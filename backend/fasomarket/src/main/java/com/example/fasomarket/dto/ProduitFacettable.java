@@ -0,0 +1,13 @@
+package com.example.fasomarket.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Colonnes d'un produit utilisées par l'index des facettes.
+ * {@code couleurs} et {@code tailles} sont les listes JSON stockées en texte.
+ */
+public record ProduitFacettable(UUID id, String categorie, String marque, BigDecimal prix,
+        String couleur, String couleurs, String taille, String tailles, LocalDateTime dateCreation) {
+}
@@ -0,0 +1,11 @@
+package com.example.fasomarket.dto;
+
+import java.util.UUID;
+
+/**
+ * Champs texte d'un produit nécessaires à l'index de recherche,
+ * chargés sans les relations boutique / catégorie.
+ */
+public record ProduitIndexable(UUID id, String nom, String description, String marque,
+        String tags, String categorie) {
+}
@@ -0,0 +1,10 @@
+package com.example.fasomarket.dto;
+
+import java.util.UUID;
+
+/**
+ * Données d'un produit utilisées pour l'autocomplétion (texte et popularité).
+ */
+public record ProduitSuggestion(UUID id, String nom, String marque, String categorie,
+        Long ventes, Long vues, Integer avis) {
+}
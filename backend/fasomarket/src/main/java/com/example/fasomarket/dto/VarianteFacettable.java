@@ -0,0 +1,9 @@
+package com.example.fasomarket.dto;
+
+import java.util.UUID;
+
+/**
+ * Attributs de variante pris en compte dans les facettes couleur / taille.
+ */
+public record VarianteFacettable(UUID produitId, String couleur, String taille) {
+}
@@ -0,0 +1,91 @@
+package com.example.fasomarket.event;
+
+import com.example.fasomarket.model.Category;
+import com.example.fasomarket.model.Product;
+import com.example.fasomarket.model.ProduitVariante;
+import com.example.fasomarket.model.Review;
+import com.example.fasomarket.model.Shop;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Listener JPA commun aux entités du catalogue : toute écriture passant par
+ * Hibernate publie un {@link CatalogueEvent}, quel que soit le contrôleur ou
+ * le service à l'origine de la modification. Les abonnés utilisent
+ * {@code @TransactionalEventListener} et ne voient donc que les changements commités.
+ * Pour un produit, les libellés chargés sont gardés pour signaler si une mise
+ * à jour les touche ou ne porte que sur le stock et les compteurs.
+ */
+@Component
+public class CatalogueEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @PostLoad
+    public void apresChargement(Object entite) {
+        if (entite instanceof Product produit) {
+            produit.setLibellesCharges(libelles(produit));
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void apresEcriture(Object entite) {
+        publier(entite, false);
+    }
+
+    @PostRemove
+    public void apresSuppression(Object entite) {
+        publier(entite, true);
+    }
+
+    private void publier(Object entite, boolean suppression) {
+        CatalogueEvent event = null;
+        if (entite instanceof Product produit) {
+            String libelles = libelles(produit);
+            boolean libellesModifies = suppression || !libelles.equals(produit.getLibellesCharges());
+            produit.setLibellesCharges(libelles);
+            event = new CatalogueEvent(CatalogueEvent.Cible.PRODUIT, produit.getId(), suppression, libellesModifies);
+        } else if (entite instanceof Shop shop) {
+            event = new CatalogueEvent(CatalogueEvent.Cible.BOUTIQUE, shop.getId(), suppression);
+        } else if (entite instanceof Category category) {
+            event = new CatalogueEvent(CatalogueEvent.Cible.CATEGORIE, category.getId(), suppression);
+        } else if (entite instanceof ProduitVariante variante && variante.getProduit() != null) {
+            // La suppression d'une variante est une modification du produit parent
+            event = new CatalogueEvent(CatalogueEvent.Cible.VARIANTE, variante.getProduit().getId(), false);
+        } else if (entite instanceof Review avis) {
+            event = new CatalogueEvent(CatalogueEvent.Cible.AVIS, idProduit(avis.getProduitId()), suppression);
+        }
+        if (event != null && publisher != null) {
+            publisher.publishEvent(event);
+        }
+    }
+
+    // Champs repris par l'autocomplétion, la recherche et les facettes
+    private String libelles(Product produit) {
+        return String.join("\u0000", Objects.toString(produit.getName()), Objects.toString(produit.getBrand()),
+                Objects.toString(produit.getCategory()), Objects.toString(produit.getIsActive()),
+                Objects.toString(produit.getDescription()), Objects.toString(produit.getTags()),
+                Objects.toString(produit.getPrice()), Objects.toString(produit.getColor()),
+                Objects.toString(produit.getColors()), Objects.toString(produit.getSize()),
+                Objects.toString(produit.getSizes()));
+    }
+
+    // Review.produitId est une chaîne
+    private UUID idProduit(String produitId) {
+        try {
+            return produitId != null ? UUID.fromString(produitId) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.fasomarket.event;
+
+import java.util.UUID;
+
+/**
+ * Événement publié lorsqu'un élément du catalogue public change.
+ * Pour une variante ou un avis, l'identifiant porté est celui du produit concerné.
+ * {@code libellesModifies} est faux quand seuls des compteurs ou le stock ont
+ * changé : aucun champ repris par l'autocomplétion, la recherche ou les
+ * facettes (nom, marque, catégorie, activation, description, tags, prix,
+ * couleurs, tailles).
+ */
+public class CatalogueEvent {
+
+    public enum Cible {
+        PRODUIT, BOUTIQUE, CATEGORIE, VARIANTE,
+        // Avis client : l'identifiant porté est celui du produit évalué
+        AVIS
+    }
+
+    private final Cible cible;
+    private final UUID id;
+    private final boolean suppression;
+    private final boolean libellesModifies;
+
+    public CatalogueEvent(Cible cible, UUID id, boolean suppression) {
+        this(cible, id, suppression, true);
+    }
+
+    public CatalogueEvent(Cible cible, UUID id, boolean suppression, boolean libellesModifies) {
+        this.cible = cible;
+        this.id = id;
+        this.suppression = suppression;
+        this.libellesModifies = libellesModifies;
+    }
+
+    // Écriture SQL du stock : les libellés du produit ne changent pas
+    public static CatalogueEvent produit(UUID produitId) {
+        return new CatalogueEvent(Cible.PRODUIT, produitId, false, false);
+    }
+
+    public Cible getCible() { return cible; }
+    public UUID getId() { return id; }
+    public boolean isSuppression() { return suppression; }
+    public boolean isLibellesModifies() { return libellesModifies; }
+}
@@ -0,0 +1,65 @@
+package com.example.fasomarket.event;
+
+import com.example.fasomarket.model.MouvementStock;
+import com.example.fasomarket.model.Product;
+import com.example.fasomarket.model.ProduitVariante;
+import com.example.fasomarket.model.TypeMouvementStock;
+import com.example.fasomarket.repository.JournalStockJdbcRepository;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Journalise les saisies directes du stock faites par Hibernate (création,
+ * formulaire vendeur, import) : l'écart entre le stock chargé et le stock
+ * écrit devient un mouvement {@code AJUSTEMENT}. Les écritures SQL de
+ * {@code StockJdbcRepository} sont journalisées par leurs appelants.
+ *
+ * Le mouvement est inséré tout de suite, dans la transaction du flush : celui
+ * du commit a lieu après les synchronisations {@code beforeCommit} qui
+ * écrivent les lots de {@code JournalStockService}.
+ */
+@Component
+public class JournalStockEntityListener {
+
+    @Autowired
+    private JournalStockJdbcRepository journalStockJdbcRepository;
+
+    @PostLoad
+    public void apresChargement(Object entite) {
+        if (entite instanceof ProduitVariante variante) {
+            variante.setStockEcrit(variante.getStock());
+        } else if (entite instanceof Product produit) {
+            produit.setStockEcrit(produit.getStockQuantity());
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void apresEcriture(Object entite) {
+        if (entite instanceof ProduitVariante variante && variante.getProduit() != null) {
+            ajuster(variante.getProduit().getId(), variante.getId(),
+                    valeur(variante.getStock()) - valeur(variante.getStockEcrit()));
+            variante.setStockEcrit(variante.getStock());
+        } else if (entite instanceof Product produit) {
+            ajuster(produit.getId(), null, valeur(produit.getStockQuantity()) - valeur(produit.getStockEcrit()));
+            produit.setStockEcrit(produit.getStockQuantity());
+        }
+    }
+
+    private void ajuster(UUID produitId, Long varianteId, int ecart) {
+        if (ecart != 0 && journalStockJdbcRepository != null) {
+            journalStockJdbcRepository.inserer(List.of(
+                    new MouvementStock(TypeMouvementStock.AJUSTEMENT, produitId, varianteId, ecart, null)));
+        }
+    }
+
+    private static int valeur(Integer stock) {
+        return stock != null ? stock : 0;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.fasomarket.event;
+
+import com.example.fasomarket.model.Order;
+import com.example.fasomarket.model.OrderStatus;
+import com.example.fasomarket.model.ShopOrder;
+import com.example.fasomarket.repository.VendorOrderIndexJdbcRepository;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reporte chaque écriture d'une sous-commande dans {@code vendor_order_index},
+ * dans la transaction du flush : la commande passée ou le statut changé et
+ * l'index du vendeur sont validés ou annulés ensemble, quel que soit le
+ * chemin (passage de commande, vendeur, administration, paiement, annulation).
+ */
+@Component
+public class VendorOrderIndexEntityListener {
+
+    @Autowired
+    private VendorOrderIndexJdbcRepository vendorOrderIndexJdbcRepository;
+
+    @PostPersist
+    public void apresCreation(ShopOrder shopOrder) {
+        if (vendorOrderIndexJdbcRepository != null) {
+            vendorOrderIndexJdbcRepository.ajouter(shopOrder.getShop().getId(), shopOrder.getOrderId(),
+                    shopOrder.getStatus(), shopOrder.getTotalAmount(), shopOrder.getClient().getFullName(),
+                    shopOrder.getCreatedAt());
+        }
+    }
+
+    @PostUpdate
+    public void apresModification(ShopOrder shopOrder) {
+        if (vendorOrderIndexJdbcRepository != null) {
+            // Un vendeur à plusieurs boutiques dans la commande n'a qu'une ligne : statut recalculé sur
+            // toutes, avec les statuts en mémoire des sous-commandes chargées (lot JDBC pas encore envoyé)
+            Map<UUID, OrderStatus> statuts = new HashMap<>();
+            Order order = shopOrder.getOrder();
+            if (order != null && Hibernate.isInitialized(order) && Hibernate.isInitialized(order.getShopOrders())) {
+                order.getShopOrders().forEach(so -> statuts.put(so.getShop().getId(), so.getStatus()));
+            }
+            statuts.put(shopOrder.getShop().getId(), shopOrder.getStatus());
+            vendorOrderIndexJdbcRepository.recalculerStatut(shopOrder.getShop().getId(), shopOrder.getOrderId(),
+                    statuts);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.fasomarket.event;
+
+import com.example.fasomarket.model.OrderItem;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publie un {@link VenteEvent} pour chaque ligne de commande insérée,
+ * quel que soit le chemin de commande utilisé.
+ */
+@Component
+public class VenteEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @PostPersist
+    public void apresInsertion(OrderItem item) {
+        if (publisher != null && item.getProduct() != null && item.getQuantity() != null) {
+            publisher.publishEvent(new VenteEvent(item.getProduct().getId(),
+                    item.getProduct().getCategory(), item.getQuantity()));
+        }
+    }
+}
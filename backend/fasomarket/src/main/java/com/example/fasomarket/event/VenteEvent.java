@@ -0,0 +1,23 @@
+package com.example.fasomarket.event;
+
+import java.util.UUID;
+
+/**
+ * Ligne de commande enregistrée : sert de signal de vente pour les tendances.
+ */
+public class VenteEvent {
+
+    private final UUID produitId;
+    private final String categorie;
+    private final int quantite;
+
+    public VenteEvent(UUID produitId, String categorie, int quantite) {
+        this.produitId = produitId;
+        this.categorie = categorie;
+        this.quantite = quantite;
+    }
+
+    public UUID getProduitId() { return produitId; }
+    public String getCategorie() { return categorie; }
+    public int getQuantite() { return quantite; }
+}
@@ -0,0 +1,72 @@
+package com.example.fasomarket.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Stock retenu par une ligne de panier jusqu'à {@code expireLe}.
+ * Le stock du produit (ou de la variante) est déjà décrémenté de
+ * {@code quantite} ; il est rendu à l'expiration ou au retrait de la ligne.
+ */
+@Entity
+@Table(name = "stock_holds", indexes = {
+        @Index(name = "idx_stock_holds_expire", columnList = "expire_le"),
+        @Index(name = "idx_stock_holds_client", columnList = "client_id")
+})
+public class BlocageStock {
+    @Id
+    @Column(name = "cart_id")
+    private UUID cartId;
+
+    @Column(name = "client_id", nullable = false)
+    private UUID clientId;
+
+    @Column(name = "produit_id", nullable = false)
+    private UUID produitId;
+
+    @Column(name = "variante_id")
+    private Long varianteId;
+
+    @Column(name = "quantite", nullable = false)
+    private Integer quantite;
+
+    @Column(name = "expire_le", nullable = false)
+    private LocalDateTime expireLe;
+
+    @Column(name = "cree_le", nullable = false)
+    private LocalDateTime creeLe = LocalDateTime.now();
+
+    // Constructeurs
+    public BlocageStock() {}
+
+    public BlocageStock(Cart cart) {
+        this.cartId = cart.getId();
+        this.clientId = cart.getClient().getId();
+        this.produitId = cart.getProduct().getId();
+        this.varianteId = cart.getVarianteId();
+        this.quantite = 0;
+    }
+
+    // Getters et Setters
+    public UUID getCartId() { return cartId; }
+    public void setCartId(UUID cartId) { this.cartId = cartId; }
+
+    public UUID getClientId() { return clientId; }
+    public void setClientId(UUID clientId) { this.clientId = clientId; }
+
+    public UUID getProduitId() { return produitId; }
+    public void setProduitId(UUID produitId) { this.produitId = produitId; }
+
+    public Long getVarianteId() { return varianteId; }
+    public void setVarianteId(Long varianteId) { this.varianteId = varianteId; }
+
+    public Integer getQuantite() { return quantite; }
+    public void setQuantite(Integer quantite) { this.quantite = quantite; }
+
+    public LocalDateTime getExpireLe() { return expireLe; }
+    public void setExpireLe(LocalDateTime expireLe) { this.expireLe = expireLe; }
+
+    public LocalDateTime getCreeLe() { return creeLe; }
+    public void setCreeLe(LocalDateTime creeLe) { this.creeLe = creeLe; }
+}
@@ -1,11 +1,13 @@
 package com.example.fasomarket.model;
 
+import com.example.fasomarket.event.CatalogueEntityListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "categories")
+@EntityListeners(CatalogueEntityListener.class)
 public class Category {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -0,0 +1,61 @@
+package com.example.fasomarket.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Clé d'idempotence d'une requête client ({@code Idempotency-Key}) et la
+ * réponse qu'elle a produite. Tant que {@code statut} vaut EN_COURS, la
+ * requête d'origine s'exécute encore ; une fois TERMINE, les répétitions de
+ * la même clé reçoivent la réponse enregistrée jusqu'à {@code expireLe}.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expire_le", columnList = "expire_le")
+})
+public class CleIdempotence {
+    // Portée, utilisateur et clé fournie par le client
+    @Id
+    @Column(name = "id", length = 400)
+    private String id;
+
+    @Column(name = "empreinte", nullable = false, length = 64)
+    private String empreinte;
+
+    @Column(name = "statut", nullable = false, length = 16)
+    private String statut;
+
+    @Column(name = "code_http")
+    private Integer codeHttp;
+
+    @Column(name = "reponse", columnDefinition = "TEXT")
+    private String reponse;
+
+    @Column(name = "cree_le", nullable = false)
+    private LocalDateTime creeLe = LocalDateTime.now();
+
+    @Column(name = "expire_le", nullable = false)
+    private LocalDateTime expireLe;
+
+    // Getters et Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getEmpreinte() { return empreinte; }
+    public void setEmpreinte(String empreinte) { this.empreinte = empreinte; }
+
+    public String getStatut() { return statut; }
+    public void setStatut(String statut) { this.statut = statut; }
+
+    public Integer getCodeHttp() { return codeHttp; }
+    public void setCodeHttp(Integer codeHttp) { this.codeHttp = codeHttp; }
+
+    public String getReponse() { return reponse; }
+    public void setReponse(String reponse) { this.reponse = reponse; }
+
+    public LocalDateTime getCreeLe() { return creeLe; }
+    public void setCreeLe(LocalDateTime creeLe) { this.creeLe = creeLe; }
+
+    public LocalDateTime getExpireLe() { return expireLe; }
+    public void setExpireLe(LocalDateTime expireLe) { this.expireLe = expireLe; }
+}
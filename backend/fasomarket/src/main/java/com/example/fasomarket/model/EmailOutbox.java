@@ -0,0 +1,86 @@
+package com.example.fasomarket.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * E-mail en file d'envoi. Les lignes A_ENVOYER sont prises par lots par les
+ * travailleurs de {@code EmailOutboxService} ; {@code prochainEssai} sert de
+ * bail pendant l'envoi puis d'échéance de la prochaine tentative. Un e-mail
+ * refusé définitivement, ou qui a épuisé ses tentatives, passe en MORT.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_a_envoyer", columnList = "statut, prochain_essai, id"),
+        @Index(name = "idx_email_outbox_envoye_le", columnList = "envoye_le")
+})
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "expediteur", nullable = false, length = 320)
+    private String expediteur;
+
+    // Adresses séparées par des virgules
+    @Column(name = "destinataires", nullable = false, length = 2000)
+    private String destinataires;
+
+    @Column(name = "sujet", nullable = false, length = 500)
+    private String sujet;
+
+    @Column(name = "corps", columnDefinition = "TEXT")
+    private String corps;
+
+    @Column(name = "statut", nullable = false, length = 16)
+    private String statut;
+
+    @Column(name = "tentatives", nullable = false)
+    private Integer tentatives = 0;
+
+    @Column(name = "prochain_essai", nullable = false)
+    private LocalDateTime prochainEssai;
+
+    @Column(name = "erreur", length = 1000)
+    private String erreur;
+
+    @Column(name = "cree_le", nullable = false)
+    private LocalDateTime creeLe = LocalDateTime.now();
+
+    @Column(name = "envoye_le")
+    private LocalDateTime envoyeLe;
+
+    // Getters et Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getExpediteur() { return expediteur; }
+    public void setExpediteur(String expediteur) { this.expediteur = expediteur; }
+
+    public String getDestinataires() { return destinataires; }
+    public void setDestinataires(String destinataires) { this.destinataires = destinataires; }
+
+    public String getSujet() { return sujet; }
+    public void setSujet(String sujet) { this.sujet = sujet; }
+
+    public String getCorps() { return corps; }
+    public void setCorps(String corps) { this.corps = corps; }
+
+    public String getStatut() { return statut; }
+    public void setStatut(String statut) { this.statut = statut; }
+
+    public Integer getTentatives() { return tentatives; }
+    public void setTentatives(Integer tentatives) { this.tentatives = tentatives; }
+
+    public LocalDateTime getProchainEssai() { return prochainEssai; }
+    public void setProchainEssai(LocalDateTime prochainEssai) { this.prochainEssai = prochainEssai; }
+
+    public String getErreur() { return erreur; }
+    public void setErreur(String erreur) { this.erreur = erreur; }
+
+    public LocalDateTime getCreeLe() { return creeLe; }
+    public void setCreeLe(LocalDateTime creeLe) { this.creeLe = creeLe; }
+
+    public LocalDateTime getEnvoyeLe() { return envoyeLe; }
+    public void setEnvoyeLe(LocalDateTime envoyeLe) { this.envoyeLe = envoyeLe; }
+}
@@ -0,0 +1,69 @@
+package com.example.fasomarket.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Dernier état d'alerte connu d'un article (variante, ou produit sans variante
+ * avec {@code varianteId} = 0) : NORMAL, FAIBLE ou RUPTURE. Une alerte n'est
+ * due ({@code aNotifier}) qu'au passage vers un état plus grave ; elle est
+ * envoyée dans le prochain récapitulatif du vendeur.
+ */
+@Entity
+@Table(name = "stock_alert_states", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_alert_states_article", columnNames = {"produit_id", "variante_id"})
+}, indexes = {
+        @Index(name = "idx_stock_alert_states_a_notifier", columnList = "a_notifier, id")
+})
+public class EtatAlerteStock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "produit_id", nullable = false)
+    private UUID produitId;
+
+    @Column(name = "variante_id", nullable = false)
+    private Long varianteId;
+
+    @Column(name = "etat", nullable = false, length = 16)
+    private String etat;
+
+    @Column(name = "stock", nullable = false)
+    private Integer stock;
+
+    @Column(name = "a_notifier", nullable = false)
+    private Boolean aNotifier = false;
+
+    @Column(name = "modifie_le", nullable = false)
+    private LocalDateTime modifieLe = LocalDateTime.now();
+
+    @Column(name = "notifie_le")
+    private LocalDateTime notifieLe;
+
+    // Getters et Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public UUID getProduitId() { return produitId; }
+    public void setProduitId(UUID produitId) { this.produitId = produitId; }
+
+    public Long getVarianteId() { return varianteId; }
+    public void setVarianteId(Long varianteId) { this.varianteId = varianteId; }
+
+    public String getEtat() { return etat; }
+    public void setEtat(String etat) { this.etat = etat; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
+    public Boolean getANotifier() { return aNotifier; }
+    public void setANotifier(Boolean aNotifier) { this.aNotifier = aNotifier; }
+
+    public LocalDateTime getModifieLe() { return modifieLe; }
+    public void setModifieLe(LocalDateTime modifieLe) { this.modifieLe = modifieLe; }
+
+    public LocalDateTime getNotifieLe() { return notifieLe; }
+    public void setNotifieLe(LocalDateTime notifieLe) { this.notifieLe = notifieLe; }
+}
@@ -0,0 +1,90 @@
+package com.example.fasomarket.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Effet de bord d'une opération métier, écrit dans la même transaction que
+ * celle-ci : une ligne par gestionnaire abonné au type d'événement. Les
+ * lignes A_TRAITER sont relevées en arrière-plan ; {@code prochainEssai} sert
+ * à la fois de bail pendant le traitement et d'échéance de la prochaine
+ * tentative. Après {@code outbox.tentatives-max} échecs la ligne passe en ECHEC.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_a_traiter", columnList = "statut, prochain_essai, id"),
+        @Index(name = "idx_outbox_events_traite_le", columnList = "traite_le")
+})
+public class EvenementOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private TypeEvenementOutbox type;
+
+    @Column(name = "gestionnaire", nullable = false, length = 32)
+    private String gestionnaire;
+
+    // Commande ou paiement concerné
+    @Column(name = "agregat_id", nullable = false)
+    private UUID agregatId;
+
+    // Données de l'événement, en JSON
+    @Column(name = "donnees", columnDefinition = "TEXT")
+    private String donnees;
+
+    @Column(name = "statut", nullable = false, length = 16)
+    private String statut;
+
+    @Column(name = "tentatives", nullable = false)
+    private Integer tentatives = 0;
+
+    @Column(name = "prochain_essai", nullable = false)
+    private LocalDateTime prochainEssai;
+
+    @Column(name = "erreur", length = 1000)
+    private String erreur;
+
+    @Column(name = "cree_le", nullable = false)
+    private LocalDateTime creeLe = LocalDateTime.now();
+
+    @Column(name = "traite_le")
+    private LocalDateTime traiteLe;
+
+    // Getters et Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public TypeEvenementOutbox getType() { return type; }
+    public void setType(TypeEvenementOutbox type) { this.type = type; }
+
+    public String getGestionnaire() { return gestionnaire; }
+    public void setGestionnaire(String gestionnaire) { this.gestionnaire = gestionnaire; }
+
+    public UUID getAgregatId() { return agregatId; }
+    public void setAgregatId(UUID agregatId) { this.agregatId = agregatId; }
+
+    public String getDonnees() { return donnees; }
+    public void setDonnees(String donnees) { this.donnees = donnees; }
+
+    public String getStatut() { return statut; }
+    public void setStatut(String statut) { this.statut = statut; }
+
+    public Integer getTentatives() { return tentatives; }
+    public void setTentatives(Integer tentatives) { this.tentatives = tentatives; }
+
+    public LocalDateTime getProchainEssai() { return prochainEssai; }
+    public void setProchainEssai(LocalDateTime prochainEssai) { this.prochainEssai = prochainEssai; }
+
+    public String getErreur() { return erreur; }
+    public void setErreur(String erreur) { this.erreur = erreur; }
+
+    public LocalDateTime getCreeLe() { return creeLe; }
+    public void setCreeLe(LocalDateTime creeLe) { this.creeLe = creeLe; }
+
+    public LocalDateTime getTraiteLe() { return traiteLe; }
+    public void setTraiteLe(LocalDateTime traiteLe) { this.traiteLe = traiteLe; }
+}
@@ -0,0 +1,75 @@
+package com.example.fasomarket.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ligne du journal de stock, en insertion seule : une variation signée du
+ * stock d'une variante (ou d'un produit sans variante). Le stock courant est
+ * le solde compacté ({@link SoldeStock}) plus la somme des mouvements restants.
+ */
+@Entity
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_article", columnList = "produit_id, variante_id, id"),
+        @Index(name = "idx_stock_movements_variante", columnList = "variante_id"),
+        @Index(name = "idx_stock_movements_cree", columnList = "cree_le")
+})
+public class MouvementStock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "produit_id", nullable = false)
+    private UUID produitId;
+
+    @Column(name = "variante_id")
+    private Long varianteId;
+
+    @Column(name = "quantite", nullable = false)
+    private Integer quantite;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 24)
+    private TypeMouvementStock type;
+
+    // Ligne de panier, le cas échéant
+    @Column(name = "reference", length = 64)
+    private String reference;
+
+    @Column(name = "cree_le", nullable = false)
+    private LocalDateTime creeLe = LocalDateTime.now();
+
+    // Constructeurs
+    public MouvementStock() {}
+
+    public MouvementStock(TypeMouvementStock type, UUID produitId, Long varianteId, int quantite, String reference) {
+        this.type = type;
+        this.produitId = produitId;
+        this.varianteId = varianteId;
+        this.quantite = quantite;
+        this.reference = reference;
+    }
+
+    // Getters et Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public UUID getProduitId() { return produitId; }
+    public void setProduitId(UUID produitId) { this.produitId = produitId; }
+
+    public Long getVarianteId() { return varianteId; }
+    public void setVarianteId(Long varianteId) { this.varianteId = varianteId; }
+
+    public Integer getQuantite() { return quantite; }
+    public void setQuantite(Integer quantite) { this.quantite = quantite; }
+
+    public TypeMouvementStock getType() { return type; }
+    public void setType(TypeMouvementStock type) { this.type = type; }
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+
+    public LocalDateTime getCreeLe() { return creeLe; }
+    public void setCreeLe(LocalDateTime creeLe) { this.creeLe = creeLe; }
+}
@@ -5,7 +5,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_date_id", columnList = "user_id, created_at DESC, id DESC")
+})
 public class Notification {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
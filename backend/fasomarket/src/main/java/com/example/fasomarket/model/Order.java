@@ -1,5 +1,6 @@
 package com.example.fasomarket.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
@@ -9,7 +10,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_date_id", columnList = "created_at DESC, id DESC")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -41,6 +44,11 @@ public class Order {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Déclarées avant les articles : insérées avant eux, qui les référencent
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    @JsonIgnore
+    private List<ShopOrder> shopOrders = new ArrayList<>();
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     @JsonIgnoreProperties({"order"})
     private List<OrderItem> orderItems = new ArrayList<>();
@@ -66,7 +74,31 @@ public class Order {
     public void setClient(User client) { this.client = client; }
 
     public OrderStatus getStatus() { return status; }
-    public void setStatus(OrderStatus status) { this.status = status; }
+
+    /**
+     * Statut de toute la commande : appliqué aussi à chaque sous-commande.
+     */
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+        if (shopOrders != null) {
+            shopOrders.forEach(shopOrder -> shopOrder.setStatus(status));
+        }
+    }
+
+    /**
+     * Statut déduit des sous-commandes, après le changement de l'une d'elles :
+     * celui de la moins avancée parmi celles qui ne sont pas annulées.
+     */
+    public void recalculerStatut() {
+        if (shopOrders.isEmpty()) {
+            return;
+        }
+        this.status = shopOrders.stream()
+                .map(ShopOrder::getStatus)
+                .filter(s -> s != OrderStatus.CANCELLED)
+                .min(OrderStatus.PAR_AVANCEMENT)
+                .orElse(OrderStatus.CANCELLED);
+    }
 
     public BigDecimal getTotalAmount() { return totalAmount; }
     public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
@@ -80,6 +112,9 @@ public class Order {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public List<ShopOrder> getShopOrders() { return shopOrders; }
+    public void setShopOrders(List<ShopOrder> shopOrders) { this.shopOrders = shopOrders; }
+
     public List<OrderItem> getOrderItems() { return orderItems; }
     public void setOrderItems(List<OrderItem> orderItems) { this.orderItems = orderItems; }
 
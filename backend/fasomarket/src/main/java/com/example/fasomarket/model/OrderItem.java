@@ -1,11 +1,18 @@
 package com.example.fasomarket.model;
 
+import com.example.fasomarket.event.VenteEntityListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order", columnList = "order_id"),
+        @Index(name = "idx_order_items_product", columnList = "product_id"),
+        @Index(name = "idx_order_items_shop_order", columnList = "shop_order_id")
+})
+@EntityListeners(VenteEntityListener.class)
 public class OrderItem {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -19,6 +26,12 @@ public class OrderItem {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    // Sous-commande de la boutique du produit
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "shop_order_id")
+    private ShopOrder shopOrder;
+
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
@@ -65,6 +78,9 @@ public class OrderItem {
     public Product getProduct() { return product; }
     public void setProduct(Product product) { this.product = product; }
 
+    public ShopOrder getShopOrder() { return shopOrder; }
+    public void setShopOrder(ShopOrder shopOrder) { this.shopOrder = shopOrder; }
+
     public Integer getQuantity() { return quantity; }
     public void setQuantity(Integer quantity) { 
         this.quantity = quantity;
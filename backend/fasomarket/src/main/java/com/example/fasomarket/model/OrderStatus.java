@@ -1,5 +1,8 @@
 package com.example.fasomarket.model;
 
+import java.util.Comparator;
+import java.util.List;
+
 public enum OrderStatus {
     PENDING,     // En attente
     CONFIRMED,   // Confirmée
@@ -7,5 +10,14 @@ public enum OrderStatus {
     DELIVERED,   // Livrée
     CANCELLED,   // Annulée
     RETURNED,    // Retournée
-    PAID         // Payée (optionnel)
-}
\ No newline at end of file
+    PAID;        // Payée (optionnel)
+
+    /**
+     * Statuts dans l'ordre d'avancement d'une commande, indépendant de l'ordre
+     * de déclaration (stocké tel quel en base). CANCELLED n'y figure pas : une
+     * sous-commande annulée ne compte pas dans le statut de la commande.
+     */
+    public static final List<OrderStatus> AVANCEMENT = List.of(PENDING, PAID, CONFIRMED, SHIPPED, DELIVERED, RETURNED);
+
+    public static final Comparator<OrderStatus> PAR_AVANCEMENT = Comparator.comparingInt(AVANCEMENT::indexOf);
+}
@@ -1,13 +1,23 @@
 package com.example.fasomarket.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.example.fasomarket.event.CatalogueEntityListener;
+import com.example.fasomarket.event.JournalStockEntityListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_actif_prix", columnList = "is_active, price"),
+        @Index(name = "idx_products_shop", columnList = "shop_id"),
+        @Index(name = "idx_products_categorie_date_id", columnList = "category_id, created_at DESC, id DESC"),
+        @Index(name = "idx_products_shop_date_id", columnList = "shop_id, created_at DESC, id DESC"),
+        @Index(name = "idx_products_actif_date_id", columnList = "is_active, created_at DESC, id DESC")
+})
+@EntityListeners({CatalogueEntityListener.class, JournalStockEntityListener.class})
 @JsonIgnoreProperties({"shop", "categoryEntity"})
 public class Product {
     @Id
@@ -134,6 +144,16 @@ public class Product {
     @Column(name = "alert_threshold")
     private Integer alertThreshold = 5;
 
+    // Stock tel que chargé ou dernièrement écrit par Hibernate (journal des mouvements)
+    @Transient
+    @JsonIgnore
+    private Integer stockEcrit;
+
+    // Nom, marque, catégorie et activation tels que chargés (événements catalogue)
+    @Transient
+    @JsonIgnore
+    private String libellesCharges;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -298,6 +318,12 @@ public class Product {
     public Integer getAlertThreshold() { return alertThreshold; }
     public void setAlertThreshold(Integer alertThreshold) { this.alertThreshold = alertThreshold; }
 
+    public Integer getStockEcrit() { return stockEcrit; }
+    public void setStockEcrit(Integer stockEcrit) { this.stockEcrit = stockEcrit; }
+
+    public String getLibellesCharges() { return libellesCharges; }
+    public void setLibellesCharges(String libellesCharges) { this.libellesCharges = libellesCharges; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
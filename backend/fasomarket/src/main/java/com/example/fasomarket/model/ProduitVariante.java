@@ -1,11 +1,17 @@
 package com.example.fasomarket.model;
 
+import com.example.fasomarket.event.CatalogueEntityListener;
+import com.example.fasomarket.event.JournalStockEntityListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "produit_variantes")
+@Table(name = "produit_variantes", indexes = {
+        @Index(name = "idx_produit_variantes_produit_stock", columnList = "produit_id, stock")
+})
+@EntityListeners({CatalogueEntityListener.class, JournalStockEntityListener.class})
 public class ProduitVariante {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,6 +37,15 @@ public class ProduitVariante {
     private String ageCible;
     private String genre;
     private String saison;
+
+    // Mode vente flash : stock servi par les compteurs en mémoire de StockChaudService
+    @Column(name = "vente_flash")
+    private Boolean venteFlash = false;
+
+    // Stock tel que chargé ou dernièrement écrit par Hibernate (journal des mouvements)
+    @Transient
+    @JsonIgnore
+    private Integer stockEcrit;
     
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -101,6 +116,12 @@ public class ProduitVariante {
     public String getSaison() { return saison; }
     public void setSaison(String saison) { this.saison = saison; }
     
+    public Boolean getVenteFlash() { return venteFlash; }
+    public void setVenteFlash(Boolean venteFlash) { this.venteFlash = venteFlash; }
+    
+    public Integer getStockEcrit() { return stockEcrit; }
+    public void setStockEcrit(Integer stockEcrit) { this.stockEcrit = stockEcrit; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
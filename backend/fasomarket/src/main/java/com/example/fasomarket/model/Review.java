@@ -1,11 +1,15 @@
 package com.example.fasomarket.model;
 
+import com.example.fasomarket.event.CatalogueEntityListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_produit_date_id", columnList = "produit_id, date_creation DESC, id DESC")
+})
+@EntityListeners(CatalogueEntityListener.class)
 public class Review {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
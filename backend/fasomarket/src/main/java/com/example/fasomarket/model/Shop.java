@@ -1,13 +1,18 @@
 package com.example.fasomarket.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.example.fasomarket.event.CatalogueEntityListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "shops")
+@Table(name = "shops", indexes = {
+        @Index(name = "idx_shops_statut_date_id", columnList = "status, created_at DESC, id DESC"),
+        @Index(name = "idx_shops_vendor", columnList = "vendor_id")
+})
+@EntityListeners(CatalogueEntityListener.class)
 @JsonIgnoreProperties({"vendor", "categoryEntity"})
 public class Shop {
     @Id
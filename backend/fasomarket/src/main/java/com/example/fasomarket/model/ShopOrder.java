@@ -0,0 +1,132 @@
+package com.example.fasomarket.model;
+
+import com.example.fasomarket.event.VendorOrderIndexEntityListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Part d'une commande revenant à une boutique : ses articles, son statut et
+ * son total. Le vendeur ne lit et ne modifie que ses sous-commandes, filtrées
+ * par {@code shop_id} sur cette seule table ; le statut de la commande du
+ * client est déduit de celui de ses sous-commandes.
+ */
+@Entity
+@Table(name = "shop_orders", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_shop_orders_order_shop", columnNames = {"order_id", "shop_id"})
+}, indexes = {
+        @Index(name = "idx_shop_orders_shop_date_id", columnList = "shop_id, created_at DESC, id DESC"),
+        @Index(name = "idx_shop_orders_shop_status_date", columnList = "shop_id, status, created_at DESC")
+})
+@EntityListeners(VendorOrderIndexEntityListener.class)
+public class ShopOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @Column(name = "order_id", insertable = false, updatable = false)
+    private UUID orderId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "shop_id", nullable = false)
+    private Shop shop;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "client_id", nullable = false)
+    private User client;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OrderStatus status = OrderStatus.PENDING;
+
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    // Livraison de cette part, reprise de la commande
+    @Column(name = "delivery_address", nullable = false)
+    private String deliveryAddress;
+
+    @Column(name = "needs_delivery")
+    private Boolean needsDelivery = false;
+
+    @Column(name = "delivery_phone")
+    private String deliveryPhone;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @JsonIgnore
+    @OneToMany(mappedBy = "shopOrder")
+    private List<OrderItem> items = new ArrayList<>();
+
+    // Constructeurs
+    public ShopOrder() {}
+
+    public ShopOrder(Order order, Shop shop) {
+        this.order = order;
+        this.orderId = order.getId();
+        this.shop = shop;
+        this.client = order.getClient();
+        this.status = order.getStatus();
+        this.deliveryAddress = order.getDeliveryAddress();
+        this.needsDelivery = order.getNeedsDelivery();
+        this.deliveryPhone = order.getDeliveryPhone();
+        this.createdAt = order.getCreatedAt();
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters et Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public Order getOrder() { return order; }
+    public void setOrder(Order order) { this.order = order; }
+
+    public UUID getOrderId() { return orderId != null ? orderId : (order != null ? order.getId() : null); }
+
+    public Shop getShop() { return shop; }
+    public void setShop(Shop shop) { this.shop = shop; }
+
+    public User getClient() { return client; }
+    public void setClient(User client) { this.client = client; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public String getDeliveryAddress() { return deliveryAddress; }
+    public void setDeliveryAddress(String deliveryAddress) { this.deliveryAddress = deliveryAddress; }
+
+    public Boolean getNeedsDelivery() { return needsDelivery; }
+    public void setNeedsDelivery(Boolean needsDelivery) { this.needsDelivery = needsDelivery; }
+
+    public String getDeliveryPhone() { return deliveryPhone; }
+    public void setDeliveryPhone(String deliveryPhone) { this.deliveryPhone = deliveryPhone; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public List<OrderItem> getItems() { return items; }
+    public void setItems(List<OrderItem> items) { this.items = items; }
+}
@@ -0,0 +1,55 @@
+package com.example.fasomarket.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Solde compacté du journal de stock d'un article : somme des mouvements déjà
+ * supprimés par le compactage. {@code varianteId} vaut 0 pour le stock propre
+ * d'un produit (les identifiants de variante commencent à 1).
+ */
+@Entity
+@Table(name = "stock_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_snapshots_article", columnNames = {"produit_id", "variante_id"})
+})
+public class SoldeStock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "produit_id", nullable = false)
+    private UUID produitId;
+
+    @Column(name = "variante_id", nullable = false)
+    private Long varianteId;
+
+    @Column(name = "quantite", nullable = false)
+    private Integer quantite;
+
+    // Dernier mouvement inclus dans le solde
+    @Column(name = "dernier_mouvement", nullable = false)
+    private Long dernierMouvement;
+
+    @Column(name = "mis_a_jour_le", nullable = false)
+    private LocalDateTime misAJourLe = LocalDateTime.now();
+
+    // Getters et Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public UUID getProduitId() { return produitId; }
+    public void setProduitId(UUID produitId) { this.produitId = produitId; }
+
+    public Long getVarianteId() { return varianteId; }
+    public void setVarianteId(Long varianteId) { this.varianteId = varianteId; }
+
+    public Integer getQuantite() { return quantite; }
+    public void setQuantite(Integer quantite) { this.quantite = quantite; }
+
+    public Long getDernierMouvement() { return dernierMouvement; }
+    public void setDernierMouvement(Long dernierMouvement) { this.dernierMouvement = dernierMouvement; }
+
+    public LocalDateTime getMisAJourLe() { return misAJourLe; }
+    public void setMisAJourLe(LocalDateTime misAJourLe) { this.misAJourLe = misAJourLe; }
+}
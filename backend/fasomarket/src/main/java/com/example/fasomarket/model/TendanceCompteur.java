@@ -0,0 +1,42 @@
+package com.example.fasomarket.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Point de reprise du moteur de tendances : score décroissant d'un produit
+ * tel qu'il valait à {@code misAJourLe}.
+ */
+@Entity
+@Table(name = "tendance_compteurs")
+public class TendanceCompteur {
+    @Id
+    @Column(name = "produit_id")
+    private UUID produitId;
+
+    @Column(name = "categorie")
+    private String categorie;
+
+    @Column(name = "score", nullable = false)
+    private Double score;
+
+    @Column(name = "mis_a_jour_le", nullable = false)
+    private LocalDateTime misAJourLe;
+
+    // Constructeurs
+    public TendanceCompteur() {}
+
+    // Getters et Setters
+    public UUID getProduitId() { return produitId; }
+    public void setProduitId(UUID produitId) { this.produitId = produitId; }
+
+    public String getCategorie() { return categorie; }
+    public void setCategorie(String categorie) { this.categorie = categorie; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+
+    public LocalDateTime getMisAJourLe() { return misAJourLe; }
+    public void setMisAJourLe(LocalDateTime misAJourLe) { this.misAJourLe = misAJourLe; }
+}
@@ -0,0 +1,7 @@
+package com.example.fasomarket.model;
+
+public enum TypeEvenementOutbox {
+    COMMANDE_CREEE,         // Commande passée depuis le panier
+    STATUT_COMMANDE_CHANGE, // Statut de la commande (ou de la commande parente) modifié
+    PAIEMENT_CONFIRME       // Paiement confirmé par le prestataire
+}
@@ -0,0 +1,9 @@
+package com.example.fasomarket.model;
+
+public enum TypeMouvementStock {
+    RESERVATION,          // Stock retenu par un panier
+    LIBERATION,           // Stock rendu (panier retiré, blocage expiré, annulation)
+    VENTE,                // Stock pris par une commande
+    REAPPROVISIONNEMENT,  // Entrée de stock déclarée par le vendeur
+    AJUSTEMENT            // Saisie directe du stock (création, modification)
+}
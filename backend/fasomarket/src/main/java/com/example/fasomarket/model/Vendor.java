@@ -5,7 +5,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "vendors")
+@Table(name = "vendors", indexes = {
+        @Index(name = "idx_vendors_user", columnList = "user_id")
+})
 public class Vendor {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
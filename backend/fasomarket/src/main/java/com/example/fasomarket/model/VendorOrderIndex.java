@@ -0,0 +1,82 @@
+package com.example.fasomarket.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Index de lecture des commandes d'un vendeur : une ligne par vendeur et par
+ * commande, avec le statut et le montant de sa part. Tenu à jour dans la
+ * transaction qui écrit les sous-commandes (voir
+ * {@code VendorOrderIndexEntityListener}) ; les listes, compteurs et totaux
+ * du vendeur sont lus dans ses index couvrants, sans toucher aux commandes.
+ *
+ * {@code shop_orders} est indexée par boutique : pour un vendeur à plusieurs
+ * boutiques, une page de ses commandes y demanderait de fusionner une plage
+ * d'index par boutique, de regrouper les sous-commandes d'une même commande
+ * (montant cumulé, statut de la moins avancée) et de joindre le client, avant
+ * de pouvoir paginer ou compter. L'index garde ce résultat, une ligne par
+ * vendeur et par commande, lu en une seule plage d'index.
+ */
+@Entity
+@IdClass(VendorOrderIndex.Cle.class)
+@Table(name = "vendor_order_index", indexes = {
+        @Index(name = "idx_vendor_order_index_date", columnList = "vendor_user_id, created_at DESC, order_id DESC, status, total_for_vendor"),
+        @Index(name = "idx_vendor_order_index_status", columnList = "vendor_user_id, status, created_at DESC, order_id DESC, total_for_vendor")
+})
+public class VendorOrderIndex {
+    @Id
+    @Column(name = "vendor_user_id")
+    private UUID vendorUserId;
+
+    @Id
+    @Column(name = "order_id")
+    private UUID orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OrderStatus status;
+
+    @Column(name = "total_for_vendor", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalForVendor;
+
+    @Column(name = "client_name")
+    private String clientName;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public static class Cle implements Serializable {
+        private UUID vendorUserId;
+        private UUID orderId;
+
+        public Cle() {}
+
+        public Cle(UUID vendorUserId, UUID orderId) {
+            this.vendorUserId = vendorUserId;
+            this.orderId = orderId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Cle cle && Objects.equals(vendorUserId, cle.vendorUserId)
+                    && Objects.equals(orderId, cle.orderId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(vendorUserId, orderId);
+        }
+    }
+
+    // Getters
+    public UUID getVendorUserId() { return vendorUserId; }
+    public UUID getOrderId() { return orderId; }
+    public OrderStatus getStatus() { return status; }
+    public BigDecimal getTotalForVendor() { return totalForVendor; }
+    public String getClientName() { return clientName; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
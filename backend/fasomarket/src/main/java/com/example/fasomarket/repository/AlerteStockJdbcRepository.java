@@ -0,0 +1,127 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.dto.AlerteStock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * États d'alerte de stock ({@code stock_alert_states}) et envoi groupé des
+ * notifications correspondantes, en SQL.
+ */
+@Repository
+public class AlerteStockJdbcRepository {
+
+    /** Ligne de notification à insérer. */
+    public record NouvelleNotification(UUID userId, String titre, String message, UUID referenceId) {
+    }
+
+    // Gravité d'un état : seule une hausse déclenche une alerte
+    private static final String GRAVITE = "(CASE %s WHEN 'RUPTURE' THEN 2 WHEN 'FAIBLE' THEN 1 ELSE 0 END)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recalcule l'état des articles de ces produits et enregistre ceux qui
+     * ont changé. Un article qui s'aggrave devient à notifier ; revenu à
+     * NORMAL, il est réarmé. Le seuil est celui du produit, sinon
+     * {@code seuilParDefaut}. Renvoie le nombre d'articles devenus à notifier.
+     */
+    public int evaluer(List<UUID> produitIds, int seuilParDefaut) {
+        UUID[] ids = produitIds.toArray(new UUID[0]);
+        List<Boolean> aNotifier = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "WITH articles AS (" +
+                    "  SELECT v.produit_id, v.id AS variante_id, COALESCE(v.stock, 0) AS stock," +
+                    "  COALESCE(p.alert_threshold, ?) AS seuil" +
+                    "  FROM produit_variantes v JOIN products p ON p.id = v.produit_id WHERE v.produit_id = ANY(?)" +
+                    "  UNION ALL" +
+                    "  SELECT p.id, 0, COALESCE(p.stock_quantity, 0), COALESCE(p.alert_threshold, ?)" +
+                    "  FROM products p WHERE p.id = ANY(?)" +
+                    "  AND NOT EXISTS (SELECT 1 FROM produit_variantes v WHERE v.produit_id = p.id)), " +
+                    "etats AS (" +
+                    "  SELECT produit_id, variante_id, stock," +
+                    "  CASE WHEN stock <= 0 THEN 'RUPTURE' WHEN stock <= seuil THEN 'FAIBLE' ELSE 'NORMAL' END AS etat" +
+                    "  FROM articles) " +
+                    "INSERT INTO stock_alert_states AS e (produit_id, variante_id, etat, stock, a_notifier, modifie_le) " +
+                    "SELECT produit_id, variante_id, etat, stock, etat <> 'NORMAL', now() FROM etats " +
+                    "ON CONFLICT (produit_id, variante_id) DO UPDATE SET " +
+                    "a_notifier = " + GRAVITE.formatted("EXCLUDED.etat") + " > " + GRAVITE.formatted("e.etat") +
+                    "  OR (e.a_notifier AND EXCLUDED.etat <> 'NORMAL'), " +
+                    "etat = EXCLUDED.etat, stock = EXCLUDED.stock, modifie_le = now() " +
+                    "WHERE e.etat <> EXCLUDED.etat " +
+                    "RETURNING a_notifier");
+            ps.setInt(1, seuilParDefaut);
+            ps.setArray(2, con.createArrayOf("uuid", ids));
+            ps.setInt(3, seuilParDefaut);
+            ps.setArray(4, con.createArrayOf("uuid", ids));
+            return ps;
+        }, (rs, i) -> rs.getBoolean(1));
+        return (int) aNotifier.stream().filter(Boolean::booleanValue).count();
+    }
+
+    /**
+     * Prend au plus {@code limite} alertes dues (verrouillées, les autres
+     * instances passent à la suite) et les marque notifiées ; {@code envoi}
+     * écrit les notifications dans la même transaction. Si l'envoi échoue, les
+     * alertes restent dues.
+     */
+    @Transactional
+    public List<AlerteStock> prendreAlertes(int limite, Consumer<List<AlerteStock>> envoi) {
+        List<AlerteStock> alertes = jdbcTemplate.query(
+                "UPDATE stock_alert_states e SET a_notifier = false, notifie_le = now() FROM (" +
+                "  SELECT a.id, ve.user_id, p.name, v.couleur, v.taille, v.modele" +
+                "  FROM stock_alert_states a" +
+                "  JOIN products p ON p.id = a.produit_id" +
+                "  JOIN shops s ON s.id = p.shop_id" +
+                "  JOIN vendors ve ON ve.id = s.vendor_id" +
+                "  LEFT JOIN produit_variantes v ON v.id = a.variante_id" +
+                "  WHERE a.a_notifier ORDER BY a.id LIMIT ? FOR UPDATE OF a SKIP LOCKED) c " +
+                "WHERE e.id = c.id " +
+                "RETURNING c.user_id, e.produit_id, e.variante_id, c.name, c.couleur, c.taille, c.modele, e.etat, e.stock",
+                (rs, i) -> new AlerteStock(
+                        rs.getObject(1, UUID.class),
+                        rs.getObject(2, UUID.class),
+                        rs.getLong(3),
+                        rs.getString(4),
+                        rs.getString(5),
+                        rs.getString(6),
+                        rs.getString(7),
+                        rs.getString(8),
+                        rs.getInt(9)),
+                limite);
+        if (!alertes.isEmpty()) {
+            envoi.accept(alertes);
+        }
+        return alertes;
+    }
+
+    public void insererNotifications(List<NouvelleNotification> notifications) {
+        Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notifications (id, user_id, title, message, type, reference_id, is_read, created_at) " +
+                "VALUES (?, ?, ?, ?, 'SYSTEM', ?, false, ?)",
+                notifications, notifications.size(), (ps, notification) -> {
+                    ps.setObject(1, UUID.randomUUID());
+                    ps.setObject(2, notification.userId());
+                    ps.setString(3, notification.titre());
+                    ps.setString(4, notification.message());
+                    if (notification.referenceId() != null) {
+                        ps.setObject(5, notification.referenceId());
+                    } else {
+                        ps.setNull(5, Types.OTHER);
+                    }
+                    ps.setTimestamp(6, maintenant);
+                });
+    }
+}
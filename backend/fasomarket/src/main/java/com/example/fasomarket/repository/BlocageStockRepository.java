@@ -0,0 +1,37 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.dto.EcheanceBlocage;
+import com.example.fasomarket.model.BlocageStock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BlocageStockRepository extends JpaRepository<BlocageStock, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BlocageStock b WHERE b.cartId = :cartId")
+    Optional<BlocageStock> findPourMiseAJour(@Param("cartId") UUID cartId);
+
+    @Query("SELECT b.cartId FROM BlocageStock b WHERE b.clientId = :clientId")
+    List<UUID> findCartIdsByClientId(@Param("clientId") UUID clientId);
+
+    @Query("SELECT b FROM BlocageStock b WHERE b.clientId = :clientId")
+    List<BlocageStock> findByClientId(@Param("clientId") UUID clientId);
+
+    @Query("SELECT new com.example.fasomarket.dto.EcheanceBlocage(b.cartId, b.expireLe) " +
+           "FROM BlocageStock b")
+    List<EcheanceBlocage> findEcheances();
+
+    @Query("SELECT b.cartId FROM BlocageStock b WHERE b.expireLe <= :date ORDER BY b.expireLe")
+    List<UUID> findCartIdsExpires(@Param("date") LocalDateTime date, Pageable pageable);
+}
@@ -4,6 +4,9 @@ import com.example.fasomarket.model.Cart;
 import com.example.fasomarket.model.User;
 import com.example.fasomarket.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -17,4 +20,23 @@ public interface CartRepository extends JpaRepository<Cart, UUID> {
     
     @Transactional
     void deleteByClient(User client);
+
+    /**
+     * Panier à commander, avec tout ce que la commande lit : produits,
+     * boutiques, vendeurs, catégories et variantes, en une seule requête.
+     */
+    @Query("SELECT c FROM Cart c " +
+           "JOIN FETCH c.product p " +
+           "JOIN FETCH p.shop s " +
+           "JOIN FETCH s.vendor v " +
+           "JOIN FETCH v.user " +
+           "LEFT JOIN FETCH p.categoryEntity " +
+           "LEFT JOIN FETCH s.categoryEntity " +
+           "LEFT JOIN FETCH c.variante " +
+           "WHERE c.client.id = :clientId")
+    List<Cart> findPanierCommande(@Param("clientId") UUID clientId);
+
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.client.id = :clientId")
+    int supprimerPanier(@Param("clientId") UUID clientId);
 }
\ No newline at end of file
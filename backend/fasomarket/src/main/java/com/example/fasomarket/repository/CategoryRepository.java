@@ -10,6 +10,7 @@ import java.util.UUID;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
     List<Category> findByIsActiveTrueOrderByNameAsc();
+    List<Category> findTop8ByIsActiveTrueOrderByNameAsc();
     Optional<Category> findByNameIgnoreCase(String name);
     boolean existsByNameIgnoreCase(String name);
     List<Category> findByNameContainingIgnoreCase(String name);
@@ -0,0 +1,121 @@
+package com.example.fasomarket.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File d'envoi des e-mails ({@code email_outbox}) en SQL. L'insertion se fait
+ * dans la transaction de l'appelant ; la prise d'un lot et les mises à jour
+ * de suivi sont chacune leur propre transaction, aucun verrou n'est tenu
+ * pendant la session SMTP.
+ */
+@Repository
+public class EmailOutboxJdbcRepository {
+
+    public record Email(Long id, String expediteur, String destinataires, String sujet, String corps,
+            int tentatives, LocalDateTime creeLe) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void inserer(String expediteur, String destinataires, String sujet, String corps) {
+        Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(
+                "INSERT INTO email_outbox (expediteur, destinataires, sujet, corps, statut, tentatives, " +
+                "prochain_essai, cree_le) VALUES (?, ?, ?, ?, 'A_ENVOYER', 0, ?, ?)",
+                expediteur, destinataires, sujet, corps, maintenant, maintenant);
+    }
+
+    /**
+     * Prend au plus {@code limite} e-mails dus (les autres travailleurs passent
+     * à la suite) : leur tentative est comptée et leur échéance repoussée de
+     * {@code bailSecondes}, au-delà de laquelle un lot interrompu redevient dû.
+     */
+    public List<Email> reserver(int limite, int bailSecondes) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE email_outbox e SET tentatives = e.tentatives + 1, " +
+                    "prochain_essai = now() + make_interval(secs => ?) FROM (" +
+                    "  SELECT id FROM email_outbox WHERE statut = 'A_ENVOYER' AND prochain_essai <= now()" +
+                    "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) d " +
+                    "WHERE e.id = d.id " +
+                    "RETURNING e.id, e.expediteur, e.destinataires, e.sujet, e.corps, e.tentatives, e.cree_le");
+            ps.setInt(1, bailSecondes);
+            ps.setInt(2, limite);
+            return ps;
+        }, (rs, i) -> new Email(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getInt(6),
+                rs.getTimestamp(7).toLocalDateTime()));
+    }
+
+    public void marquerEnvoyes(List<Long> ids) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE email_outbox SET statut = 'ENVOYE', envoye_le = now(), erreur = NULL WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Replanifie un e-mail en échec dans {@code delaiSecondes}.
+     */
+    public void reporter(Long id, long delaiSecondes, String erreur) {
+        jdbcTemplate.update(
+                "UPDATE email_outbox SET prochain_essai = now() + make_interval(secs => ?), erreur = ? WHERE id = ?",
+                delaiSecondes, erreur, id);
+    }
+
+    /**
+     * Passe un e-mail en MORT ; il reste en table pour analyse ou relance.
+     */
+    public void abandonner(Long id, String erreur) {
+        jdbcTemplate.update("UPDATE email_outbox SET statut = 'MORT', erreur = ? WHERE id = ?", erreur, id);
+    }
+
+    /**
+     * Remet en file les e-mails morts ; renvoie le nombre relancé.
+     */
+    public int relancer() {
+        return jdbcTemplate.update(
+                "UPDATE email_outbox SET statut = 'A_ENVOYER', tentatives = 0, prochain_essai = now() " +
+                "WHERE statut = 'MORT'");
+    }
+
+    /**
+     * Supprime au plus {@code limite} e-mails envoyés avant {@code avant} ;
+     * renvoie le nombre supprimé.
+     */
+    public int purger(LocalDateTime avant, int limite) {
+        return jdbcTemplate.update(
+                "DELETE FROM email_outbox WHERE id IN (" +
+                "SELECT id FROM email_outbox WHERE statut = 'ENVOYE' AND envoye_le < ? LIMIT ? FOR UPDATE SKIP LOCKED)",
+                Timestamp.valueOf(avant), limite);
+    }
+
+    /**
+     * Nombre d'e-mails par statut.
+     */
+    public Map<String, Long> compterParStatut() {
+        Map<String, Long> comptes = new HashMap<>();
+        jdbcTemplate.query("SELECT statut, count(*) FROM email_outbox GROUP BY statut",
+                rs -> {
+                    comptes.put(rs.getString(1), rs.getLong(2));
+                });
+        return comptes;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.fasomarket.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Clés d'idempotence ({@code idempotency_keys}) en SQL. Chaque appel est sa
+ * propre transaction : une clé prise doit être visible des autres instances
+ * avant que la requête qu'elle protège ne s'exécute.
+ */
+@Repository
+public class IdempotenceJdbcRepository {
+
+    public record Enregistrement(String empreinte, String statut, Integer codeHttp, String reponse,
+            LocalDateTime expireLe) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Prend la clé pour exécuter la requête. Réussit si la clé est nouvelle,
+     * expirée, ou abandonnée (EN_COURS depuis avant {@code abandonneAvant},
+     * l'instance qui la tenait s'est arrêtée).
+     */
+    public boolean prendre(String id, String empreinte, LocalDateTime expireLe, LocalDateTime abandonneAvant) {
+        List<String> prises = jdbcTemplate.queryForList(
+                "INSERT INTO idempotency_keys AS k (id, empreinte, statut, cree_le, expire_le) " +
+                "VALUES (?, ?, 'EN_COURS', now(), ?) " +
+                "ON CONFLICT (id) DO UPDATE SET empreinte = EXCLUDED.empreinte, statut = 'EN_COURS', " +
+                "code_http = NULL, reponse = NULL, cree_le = now(), expire_le = EXCLUDED.expire_le " +
+                "WHERE k.expire_le < now() OR (k.statut = 'EN_COURS' AND k.cree_le < ?) " +
+                "RETURNING k.id",
+                String.class, id, empreinte, Timestamp.valueOf(expireLe), Timestamp.valueOf(abandonneAvant));
+        return !prises.isEmpty();
+    }
+
+    public void terminer(String id, int codeHttp, String reponse) {
+        jdbcTemplate.update(
+                "UPDATE idempotency_keys SET statut = 'TERMINE', code_http = ?, reponse = ? WHERE id = ?",
+                codeHttp, reponse, id);
+    }
+
+    /**
+     * Rend la clé : la requête a échoué sans réponse à rejouer, une répétition
+     * pourra l'exécuter à nouveau.
+     */
+    public void relacher(String id) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND statut = 'EN_COURS'", id);
+    }
+
+    public Optional<Enregistrement> trouver(String id) {
+        return jdbcTemplate.query(
+                "SELECT empreinte, statut, code_http, reponse, expire_le FROM idempotency_keys WHERE id = ?",
+                (rs, i) -> new Enregistrement(rs.getString(1), rs.getString(2),
+                        (Integer) rs.getObject(3), rs.getString(4), rs.getTimestamp(5).toLocalDateTime()),
+                id).stream().findFirst();
+    }
+
+    /**
+     * Supprime au plus {@code limite} clés expirées ; renvoie le nombre supprimé.
+     */
+    public int purger(int limite) {
+        return jdbcTemplate.update(
+                "DELETE FROM idempotency_keys WHERE id IN (" +
+                "SELECT id FROM idempotency_keys WHERE expire_le < now() LIMIT ? FOR UPDATE SKIP LOCKED)",
+                limite);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.dto.EcartStock;
+import com.example.fasomarket.model.MouvementStock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Écritures du journal de stock ({@code stock_movements}) et de ses soldes
+ * compactés ({@code stock_snapshots}), en SQL.
+ *
+ * Le journal n'est jamais mis à jour : une insertion ne verrouille aucune
+ * ligne existante, et les mouvements d'une transaction partent en un seul lot
+ * JDBC.
+ */
+@Repository
+public class JournalStockJdbcRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void inserer(List<MouvementStock> mouvements) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO stock_movements (produit_id, variante_id, quantite, type, reference, cree_le) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                mouvements, mouvements.size(), (ps, mouvement) -> {
+                    ps.setObject(1, mouvement.getProduitId());
+                    if (mouvement.getVarianteId() != null) {
+                        ps.setLong(2, mouvement.getVarianteId());
+                    } else {
+                        ps.setNull(2, Types.BIGINT);
+                    }
+                    ps.setInt(3, mouvement.getQuantite());
+                    ps.setString(4, mouvement.getType().name());
+                    ps.setString(5, mouvement.getReference());
+                    ps.setTimestamp(6, Timestamp.valueOf(mouvement.getCreeLe()));
+                });
+    }
+
+    /**
+     * Reporte dans les soldes les plus anciens mouvements antérieurs à
+     * {@code avant} (au plus {@code taille}) puis les supprime, en une seule
+     * instruction. Renvoie le nombre de mouvements compactés.
+     */
+    public int compacter(LocalDateTime avant, int taille) {
+        Integer compactes = jdbcTemplate.queryForObject(
+                "WITH lot AS (" +
+                "  DELETE FROM stock_movements WHERE id IN (" +
+                "    SELECT id FROM stock_movements WHERE cree_le < ? ORDER BY id LIMIT ?)" +
+                "  RETURNING id, produit_id, variante_id, quantite), " +
+                "soldes AS (" +
+                "  SELECT produit_id, COALESCE(variante_id, 0) AS variante_id, SUM(quantite) AS quantite," +
+                "  MAX(id) AS dernier, COUNT(*) AS nombre FROM lot GROUP BY 1, 2), " +
+                "ecrits AS (" +
+                "  INSERT INTO stock_snapshots (produit_id, variante_id, quantite, dernier_mouvement, mis_a_jour_le)" +
+                "  SELECT produit_id, variante_id, quantite, dernier, now() FROM soldes" +
+                "  ON CONFLICT (produit_id, variante_id) DO UPDATE SET" +
+                "  quantite = stock_snapshots.quantite + EXCLUDED.quantite," +
+                "  dernier_mouvement = GREATEST(stock_snapshots.dernier_mouvement, EXCLUDED.dernier_mouvement)," +
+                "  mis_a_jour_le = now()) " +
+                "SELECT COALESCE(SUM(nombre), 0)::int FROM soldes",
+                Integer.class, Timestamp.valueOf(avant), taille);
+        return compactes != null ? compactes : 0;
+    }
+
+    /**
+     * Ouvre le journal des articles qui n'y figurent pas encore (stock
+     * antérieur au journal) : leur stock courant devient leur solde initial.
+     * Renvoie le nombre de soldes créés.
+     */
+    public int ouvrirSoldes() {
+        int variantes = jdbcTemplate.update(
+                "INSERT INTO stock_snapshots (produit_id, variante_id, quantite, dernier_mouvement, mis_a_jour_le) " +
+                "SELECT v.produit_id, v.id, COALESCE(v.stock, 0), 0, now() FROM produit_variantes v " +
+                "WHERE v.produit_id IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM stock_movements m WHERE m.variante_id = v.id) " +
+                "ON CONFLICT (produit_id, variante_id) DO NOTHING");
+        int produits = jdbcTemplate.update(
+                "INSERT INTO stock_snapshots (produit_id, variante_id, quantite, dernier_mouvement, mis_a_jour_le) " +
+                "SELECT p.id, 0, COALESCE(p.stock_quantity, 0), 0, now() FROM products p " +
+                "WHERE NOT EXISTS (SELECT 1 FROM stock_movements m " +
+                "  WHERE m.produit_id = p.id AND m.variante_id IS NULL) " +
+                "ON CONFLICT (produit_id, variante_id) DO NOTHING");
+        return variantes + produits;
+    }
+
+    /**
+     * Articles dont le stock en colonne ne correspond pas au solde du journal :
+     * les variantes, et les produits sans variante (le stock d'un produit à
+     * variantes est un agrégé, pas un article vendu).
+     */
+    public List<EcartStock> ecarts(int limite) {
+        return jdbcTemplate.query(
+                "SELECT a.produit_id, a.variante_id, a.stock, " +
+                "COALESCE(s.quantite, 0) + COALESCE(m.total, 0) AS journal FROM (" +
+                "  SELECT produit_id, id AS variante_id, COALESCE(stock, 0) AS stock FROM produit_variantes" +
+                "  WHERE produit_id IS NOT NULL" +
+                "  UNION ALL" +
+                "  SELECT p.id, 0, COALESCE(p.stock_quantity, 0) FROM products p" +
+                "  WHERE NOT EXISTS (SELECT 1 FROM produit_variantes v WHERE v.produit_id = p.id)" +
+                ") a " +
+                "LEFT JOIN stock_snapshots s ON s.produit_id = a.produit_id AND s.variante_id = a.variante_id " +
+                "LEFT JOIN (SELECT produit_id, COALESCE(variante_id, 0) AS variante_id, SUM(quantite) AS total" +
+                "  FROM stock_movements GROUP BY 1, 2) m " +
+                "ON m.produit_id = a.produit_id AND m.variante_id = a.variante_id " +
+                "WHERE a.stock <> COALESCE(s.quantite, 0) + COALESCE(m.total, 0) " +
+                "ORDER BY a.produit_id, a.variante_id LIMIT ?",
+                (rs, i) -> new EcartStock(rs.getObject(1, UUID.class), rs.getLong(2),
+                        rs.getInt(3), rs.getInt(4)),
+                limite);
+    }
+}
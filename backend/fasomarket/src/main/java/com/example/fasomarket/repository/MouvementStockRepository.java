@@ -0,0 +1,18 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.model.MouvementStock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lecture du journal de stock ; les insertions passent par {@link JournalStockJdbcRepository}.
+ */
+@Repository
+public interface MouvementStockRepository extends JpaRepository<MouvementStock, Long> {
+
+    List<MouvementStock> findByProduitIdOrderByIdDesc(UUID produitId, Pageable pageable);
+}
@@ -2,10 +2,12 @@ package com.example.fasomarket.repository;
 
 import com.example.fasomarket.model.Notification;
 import com.example.fasomarket.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,4 +20,11 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
     // Méthode pour dashboard client
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.isRead = false")
     Long countByUserIdAndIsReadFalse(@Param("userId") UUID userId);
-}
\ No newline at end of file
+
+    // Pagination par clé (createdAt DESC, id DESC) : voir dto.Curseur
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+           "AND (n.createdAt < :date OR (n.createdAt = :date AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageParUtilisateur(@Param("userId") UUID userId, @Param("date") LocalDateTime date,
+            @Param("id") UUID id, Pageable pageable);
+}
@@ -9,8 +9,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.UUID;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
@@ -19,24 +19,6 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     List<Order> findByClientOrderByCreatedAtDesc(User client);
     List<Order> findByTotalAmount(BigDecimal totalAmount);
     
-    @Query("SELECT DISTINCT o FROM Order o " +
-           "JOIN FETCH o.client " +
-           "JOIN FETCH o.orderItems oi " +
-           "JOIN FETCH oi.product p " +
-           "JOIN FETCH p.shop s " +
-           "WHERE s.vendor.user = :vendor " +
-           "ORDER BY o.createdAt DESC")
-    List<Order> findOrdersByVendor(@Param("vendor") User vendor);
-    
-    @Query("SELECT DISTINCT o FROM Order o " +
-           "JOIN FETCH o.client " +
-           "JOIN FETCH o.orderItems oi " +
-           "JOIN FETCH oi.product p " +
-           "JOIN FETCH p.shop s " +
-           "WHERE s.vendor.user = :vendor AND o.status = :status " +
-           "ORDER BY o.createdAt DESC")
-    List<Order> findOrdersByVendorAndStatus(@Param("vendor") User vendor, @Param("status") OrderStatus status);
-    
     // Méthodes pour dashboard client
     @Query("SELECT COUNT(o) FROM Order o WHERE o.client.id = :clientId AND o.status IN :statuses")
     Long countByClientIdAndStatusIn(@Param("clientId") UUID clientId, @Param("statuses") List<OrderStatus> statuses);
@@ -60,4 +42,4 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     List<Order> findByClientIdWithDetailsOrderByCreatedAtDesc(@Param("clientId") UUID clientId);
     
     long countByStatus(OrderStatus status);
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.model.TypeEvenementOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Événements à traiter ({@code outbox_events}) en SQL. L'insertion se fait
+ * dans la transaction de l'appelant ; le relevé et les mises à jour de suivi
+ * sont chacun leur propre transaction, pour que les lignes ne restent pas
+ * verrouillées pendant l'appel aux prestataires.
+ */
+@Repository
+public class OutboxJdbcRepository {
+
+    public record Evenement(Long id, TypeEvenementOutbox type, String gestionnaire, UUID agregatId,
+            String donnees, int tentatives, LocalDateTime creeLe) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insère une ligne par gestionnaire pour le même événement.
+     */
+    public void inserer(TypeEvenementOutbox type, List<String> gestionnaires, UUID agregatId, String donnees) {
+        Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_events (type, gestionnaire, agregat_id, donnees, statut, tentatives, " +
+                "prochain_essai, cree_le) VALUES (?, ?, ?, ?, 'A_TRAITER', 0, ?, ?)",
+                gestionnaires, gestionnaires.size(), (ps, gestionnaire) -> {
+                    ps.setString(1, type.name());
+                    ps.setString(2, gestionnaire);
+                    ps.setObject(3, agregatId);
+                    ps.setString(4, donnees);
+                    ps.setTimestamp(5, maintenant);
+                    ps.setTimestamp(6, maintenant);
+                });
+    }
+
+    /**
+     * Prend au plus {@code limite} événements dus (les autres instances passent
+     * à la suite) : leur tentative est comptée et leur échéance repoussée de
+     * {@code bailSecondes}. Un événement dont le traitement n'aboutit pas
+     * avant la fin du bail (instance arrêtée) redevient dû.
+     */
+    public List<Evenement> reserver(int limite, int bailSecondes) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE outbox_events e SET tentatives = e.tentatives + 1, " +
+                    "prochain_essai = now() + make_interval(secs => ?) FROM (" +
+                    "  SELECT id FROM outbox_events WHERE statut = 'A_TRAITER' AND prochain_essai <= now()" +
+                    "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) d " +
+                    "WHERE e.id = d.id " +
+                    "RETURNING e.id, e.type, e.gestionnaire, e.agregat_id, e.donnees, e.tentatives, e.cree_le");
+            ps.setInt(1, bailSecondes);
+            ps.setInt(2, limite);
+            return ps;
+        }, (rs, i) -> new Evenement(
+                rs.getLong(1),
+                TypeEvenementOutbox.valueOf(rs.getString(2)),
+                rs.getString(3),
+                rs.getObject(4, UUID.class),
+                rs.getString(5),
+                rs.getInt(6),
+                rs.getTimestamp(7).toLocalDateTime()));
+    }
+
+    public void marquerTraite(Long id) {
+        jdbcTemplate.update(
+                "UPDATE outbox_events SET statut = 'TRAITE', traite_le = now(), erreur = NULL WHERE id = ?", id);
+    }
+
+    /**
+     * Replanifie un événement en échec dans {@code delaiSecondes}.
+     */
+    public void reporter(Long id, long delaiSecondes, String erreur) {
+        jdbcTemplate.update(
+                "UPDATE outbox_events SET prochain_essai = now() + make_interval(secs => ?), erreur = ? WHERE id = ?",
+                delaiSecondes, erreur, id);
+    }
+
+    /**
+     * Abandonne un événement qui a épuisé ses tentatives ; il reste en table pour analyse.
+     */
+    public void abandonner(Long id, String erreur) {
+        jdbcTemplate.update("UPDATE outbox_events SET statut = 'ECHEC', erreur = ? WHERE id = ?", erreur, id);
+    }
+
+    /**
+     * Remet en file les événements abandonnés d'un gestionnaire (tous si
+     * {@code gestionnaire} est nul) ; renvoie le nombre relancé.
+     */
+    public int relancer(String gestionnaire) {
+        return jdbcTemplate.update(
+                "UPDATE outbox_events SET statut = 'A_TRAITER', tentatives = 0, prochain_essai = now() " +
+                "WHERE statut = 'ECHEC' AND (CAST(? AS VARCHAR) IS NULL OR gestionnaire = ?)",
+                gestionnaire, gestionnaire);
+    }
+
+    /**
+     * Supprime au plus {@code limite} événements traités avant {@code avant} ;
+     * renvoie le nombre supprimé.
+     */
+    public int purger(LocalDateTime avant, int limite) {
+        return jdbcTemplate.update(
+                "DELETE FROM outbox_events WHERE id IN (" +
+                "SELECT id FROM outbox_events WHERE statut = 'TRAITE' AND traite_le < ? LIMIT ? FOR UPDATE SKIP LOCKED)",
+                Timestamp.valueOf(avant), limite);
+    }
+
+    /**
+     * Nombre d'événements par statut.
+     */
+    public Map<String, Long> compterParStatut() {
+        Map<String, Long> comptes = new HashMap<>();
+        jdbcTemplate.query("SELECT statut, count(*) FROM outbox_events GROUP BY statut",
+                rs -> {
+                    comptes.put(rs.getString(1), rs.getLong(2));
+                });
+        return comptes;
+    }
+}
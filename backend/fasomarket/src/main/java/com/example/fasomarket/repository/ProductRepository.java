@@ -1,20 +1,29 @@
 package com.example.fasomarket.repository;
 
+import com.example.fasomarket.dto.ProduitFacettable;
+import com.example.fasomarket.dto.ProduitCarte;
+import com.example.fasomarket.dto.ProduitIndexable;
+import com.example.fasomarket.dto.ProduitSuggestion;
 import com.example.fasomarket.model.Product;
 import com.example.fasomarket.model.Shop;
 import com.example.fasomarket.model.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>,
+        ProductRepositoryCustom {
     List<Product> findByShop(Shop shop);
     List<Product> findByIsActiveTrue();
     Page<Product> findByIsActiveTrue(Pageable pageable);
@@ -51,4 +60,71 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
            "LEFT JOIN FETCH p.categoryEntity " +
            "WHERE p.id = :id")
     Optional<Product> findByIdWithShopAndCategory(@Param("id") UUID id);
-}
\ No newline at end of file
+
+    // Chargement des produits par identifiants avec leur boutique (résultats de recherche)
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.shop WHERE p.id IN :ids")
+    List<Product> findAllByIdWithShop(@Param("ids") Collection<UUID> ids);
+
+    // Projections pour l'index de recherche en mémoire
+    @Query("SELECT new com.example.fasomarket.dto.ProduitIndexable(p.id, p.name, p.description, p.brand, p.tags, p.category) " +
+           "FROM Product p WHERE p.isActive = true")
+    Slice<ProduitIndexable> findIndexables(Pageable pageable);
+
+    @Query("SELECT new com.example.fasomarket.dto.ProduitIndexable(p.id, p.name, p.description, p.brand, p.tags, p.category) " +
+           "FROM Product p WHERE p.id = :id AND p.isActive = true")
+    Optional<ProduitIndexable> findIndexableById(@Param("id") UUID id);
+
+    // Projections pour l'index des facettes
+    @Query("SELECT new com.example.fasomarket.dto.ProduitFacettable(p.id, p.category, p.brand, p.price, " +
+           "p.color, p.colors, p.size, p.sizes, p.createdAt) FROM Product p WHERE p.isActive = true")
+    Slice<ProduitFacettable> findFacettables(Pageable pageable);
+
+    @Query("SELECT new com.example.fasomarket.dto.ProduitFacettable(p.id, p.category, p.brand, p.price, " +
+           "p.color, p.colors, p.size, p.sizes, p.createdAt) FROM Product p WHERE p.id = :id AND p.isActive = true")
+    Optional<ProduitFacettable> findFacettableById(@Param("id") UUID id);
+
+    // Produits mis en avant sur la page d'accueil, triés et limités en base
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.shop s LEFT JOIN FETCH s.vendor v LEFT JOIN FETCH v.user " +
+           "WHERE p.isActive = true AND (p.featured = true OR p.available = true) " +
+           "ORDER BY p.salesCount DESC NULLS LAST, p.reviewsCount DESC NULLS LAST, p.id")
+    List<Product> findPopulairesPourAccueil(Pageable pageable);
+
+    // Projection pour l'arbre d'autocomplétion
+    @Query("SELECT new com.example.fasomarket.dto.ProduitSuggestion(p.id, p.name, p.brand, p.category, " +
+           "p.salesCount, p.viewsCount, p.reviewsCount) FROM Product p WHERE p.isActive = true")
+    Slice<ProduitSuggestion> findSuggestions(Pageable pageable);
+
+    // Listes publiques : projection ProduitCarte (une requête, colonnes affichées seulement)
+    @Query("SELECT new com.example.fasomarket.dto.ProduitCarte(p.id, p.name, p.description, p.price, p.images, " +
+           "p.category, p.stockQuantity, p.available, p.rating, p.reviewsCount, s.id, s.name, p.createdAt) " +
+           "FROM Product p LEFT JOIN p.shop s " +
+           "WHERE p.id IN :ids AND p.isActive = true")
+    List<ProduitCarte> findCartesByIds(@Param("ids") Collection<UUID> ids);
+
+    // Pagination par clé (createdAt DESC, id DESC) : voir dto.Curseur
+    @Query("SELECT new com.example.fasomarket.dto.ProduitCarte(p.id, p.name, p.description, p.price, p.images, " +
+           "p.category, p.stockQuantity, p.available, p.rating, p.reviewsCount, s.id, s.name, p.createdAt) " +
+           "FROM Product p LEFT JOIN p.shop s " +
+           "WHERE s.id = :shopId AND p.isActive = true " +
+           "AND (p.createdAt < :date OR (p.createdAt = :date AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProduitCarte> findPageBoutique(@Param("shopId") UUID shopId, @Param("date") LocalDateTime date,
+            @Param("id") UUID id, Pageable pageable);
+
+    @Query("SELECT new com.example.fasomarket.dto.ProduitCarte(p.id, p.name, p.description, p.price, p.images, " +
+           "p.category, p.stockQuantity, p.available, p.rating, p.reviewsCount, s.id, s.name, p.createdAt) " +
+           "FROM Product p LEFT JOIN p.shop s " +
+           "WHERE p.categoryEntity.id = :categoryId AND p.isActive = true " +
+           "AND (p.createdAt < :date OR (p.createdAt = :date AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProduitCarte> findPageCategorie(@Param("categoryId") UUID categoryId, @Param("date") LocalDateTime date,
+            @Param("id") UUID id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.shop s JOIN FETCH s.vendor v JOIN FETCH v.user u " +
+           "LEFT JOIN FETCH p.categoryEntity " +
+           "WHERE u.id = :vendorUserId " +
+           "AND (p.createdAt < :date OR (p.createdAt = :date AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findPageVendeur(@Param("vendorUserId") UUID vendorUserId, @Param("date") LocalDateTime date,
+            @Param("id") UUID id, Pageable pageable);
+}
@@ -0,0 +1,19 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.dto.ProduitCarte;
+import com.example.fasomarket.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ProductRepositoryCustom {
+
+    // Liste du catalogue filtrée par Specification, projetée directement en ProduitCarte
+    Page<ProduitCarte> findCartes(Specification<Product> specification, Pageable pageable);
+
+    // Identifiants des produits retenus par la Specification, sans ordre ni pagination
+    List<UUID> findIds(Specification<Product> specification);
+}
@@ -0,0 +1,82 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.dto.ProduitCarte;
+import com.example.fasomarket.model.Product;
+import com.example.fasomarket.model.Shop;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Projection du catalogue : les mêmes prédicats que {@link ProductSpecifications},
+ * mais un SELECT limité aux colonnes de {@link ProduitCarte} avec une seule
+ * jointure vers la boutique.
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProduitCarte> findCartes(Specification<Product> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProduitCarte> query = cb.createQuery(ProduitCarte.class);
+        Root<Product> root = query.from(Product.class);
+        Join<Product, Shop> shop = root.join("shop", JoinType.LEFT);
+        query.select(cb.construct(ProduitCarte.class,
+                root.get("id"), root.get("name"), root.get("description"), root.get("price"),
+                root.get("images"), root.get("category"), root.get("stockQuantity"), root.get("available"),
+                root.get("rating"), root.get("reviewsCount"), shop.get("id"), shop.get("name"),
+                root.get("createdAt")));
+        Predicate predicat = specification.toPredicate(root, query, cb);
+        if (predicat != null) {
+            query.where(predicat);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<ProduitCarte> contenu = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // Comptage évité quand la page suffit à connaître le total
+        return PageableExecutionUtils.getPage(contenu, pageable, () -> compter(specification));
+    }
+
+    @Override
+    public List<UUID> findIds(Specification<Product> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(root.get("id"));
+        Predicate predicat = specification.toPredicate(root, query, cb);
+        if (predicat != null) {
+            query.where(predicat);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private long compter(Specification<Product> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate predicat = specification.toPredicate(root, query, cb);
+        if (predicat != null) {
+            query.where(predicat);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Briques de filtrage du catalogue, combinées par {@code Specification.allOf}
+ * pour produire une seule requête SQL.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> actif() {
+        return (root, query, cb) -> cb.isTrue(root.get("isActive"));
+    }
+
+    public static Specification<Product> idParmi(Collection<UUID> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Product> nomContient(String texte) {
+        String motif = "%" + texte.toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), motif),
+                cb.like(cb.lower(root.get("brand")), motif),
+                cb.like(cb.lower(root.get("tags")), motif));
+    }
+
+    /**
+     * La catégorie peut être passée par identifiant ou par nom (colonne texte
+     * historique {@code products.category}).
+     */
+    public static Specification<Product> categorie(String categorie) {
+        UUID categorieId = parseUuid(categorie);
+        if (categorieId != null) {
+            return (root, query, cb) -> cb.equal(root.get("categoryEntity").get("id"), categorieId);
+        }
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("category")), categorie.toLowerCase());
+    }
+
+    public static Specification<Product> prixMin(BigDecimal prixMin) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), prixMin);
+    }
+
+    public static Specification<Product> prixMax(BigDecimal prixMax) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), prixMax);
+    }
+
+    public static Specification<Product> enVedette() {
+        return (root, query, cb) -> cb.isTrue(root.get("featured"));
+    }
+
+    public static Specification<Product> disponible(boolean disponible) {
+        return (root, query, cb) -> cb.equal(root.get("available"), disponible);
+    }
+
+    public static Specification<Product> marque(String marque) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("brand")), marque.toLowerCase());
+    }
+
+    /**
+     * Couleur principale ou présente dans la liste JSON {@code colors}.
+     */
+    public static Specification<Product> couleur(String couleur) {
+        String valeur = couleur.toLowerCase();
+        return (root, query, cb) -> cb.or(
+                cb.equal(cb.lower(root.get("color")), valeur),
+                cb.like(cb.lower(root.get("colors")), "%\"" + valeur + "\"%"));
+    }
+
+    public static Specification<Product> boutique(UUID boutiqueId) {
+        return (root, query, cb) -> cb.equal(root.get("shop").get("id"), boutiqueId);
+    }
+
+    private static UUID parseUuid(String valeur) {
+        try {
+            return UUID.fromString(valeur);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
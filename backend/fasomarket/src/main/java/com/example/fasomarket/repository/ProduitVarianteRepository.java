@@ -1,10 +1,17 @@
 package com.example.fasomarket.repository;
 
+import com.example.fasomarket.dto.LigneInventaire;
+import com.example.fasomarket.dto.VarianteFacettable;
 import com.example.fasomarket.model.ProduitVariante;
 import com.example.fasomarket.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,4 +22,33 @@ public interface ProduitVarianteRepository extends JpaRepository<ProduitVariante
     List<ProduitVariante> findByProduit(Product produit);
     boolean existsBySku(String sku);
     long countByProduitId(UUID produitId);
+
+    @Query("SELECT new com.example.fasomarket.dto.VarianteFacettable(v.produit.id, v.couleur, v.taille) " +
+           "FROM ProduitVariante v WHERE v.produit.id IN :produitIds")
+    List<VarianteFacettable> findFacettablesByProduitIds(@Param("produitIds") Collection<UUID> produitIds);
+
+    @Query("SELECT v FROM ProduitVariante v JOIN FETCH v.produit p " +
+           "WHERE p.shop.vendor.user.id = :vendeurId")
+    List<ProduitVariante> findByVendeurUserId(@Param("vendeurId") UUID vendeurId);
+
+    /**
+     * Inventaire d'un vendeur filtré par stock côté base, les plus bas d'abord.
+     * {@code sousSeuilAlerte} ne garde que les variantes au plus au seuil d'alerte de leur produit,
+     * {@code seuilParDefaut} ({@code stock.alert.threshold}) quand le produit n'en a pas.
+     */
+    @Query(value = "SELECT new com.example.fasomarket.dto.LigneInventaire(v.id, p.id, p.name, v.sku, " +
+                   "v.couleur, v.taille, v.modele, v.stock, COALESCE(p.alertThreshold, :seuilParDefaut)) " +
+                   "FROM ProduitVariante v JOIN v.produit p JOIN p.shop s JOIN s.vendor ve " +
+                   "WHERE ve.user.id = :vendeurId AND v.stock BETWEEN :stockMin AND :stockMax " +
+                   "AND (:sousSeuilAlerte = false OR v.stock <= COALESCE(p.alertThreshold, :seuilParDefaut)) " +
+                   "ORDER BY v.stock ASC, v.id ASC",
+           countQuery = "SELECT COUNT(v) FROM ProduitVariante v JOIN v.produit p JOIN p.shop s JOIN s.vendor ve " +
+                        "WHERE ve.user.id = :vendeurId AND v.stock BETWEEN :stockMin AND :stockMax " +
+                        "AND (:sousSeuilAlerte = false OR v.stock <= COALESCE(p.alertThreshold, :seuilParDefaut))")
+    Page<LigneInventaire> findInventaireVendeur(@Param("vendeurId") UUID vendeurId,
+                                                @Param("stockMin") int stockMin,
+                                                @Param("stockMax") int stockMax,
+                                                @Param("sousSeuilAlerte") boolean sousSeuilAlerte,
+                                                @Param("seuilParDefaut") int seuilParDefaut,
+                                                Pageable pageable);
 }
\ No newline at end of file
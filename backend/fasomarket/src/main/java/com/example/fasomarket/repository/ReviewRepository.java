@@ -1,11 +1,13 @@
 package com.example.fasomarket.repository;
 
 import com.example.fasomarket.model.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,4 +24,11 @@ public interface ReviewRepository extends JpaRepository<Review, UUID> {
     List<Review> findBySignaleTrue();
 
     List<Review> findByUtilisateurId(String utilisateurId);
-}
\ No newline at end of file
+
+    // Pagination par clé (dateCreation DESC, id DESC) : voir dto.Curseur
+    @Query("SELECT r FROM Review r LEFT JOIN FETCH r.utilisateur WHERE r.produitId = :produitId AND r.modere = true " +
+           "AND (r.dateCreation < :date OR (r.dateCreation = :date AND r.id < :id)) " +
+           "ORDER BY r.dateCreation DESC, r.id DESC")
+    List<Review> findPageParProduit(@Param("produitId") String produitId, @Param("date") LocalDateTime date,
+            @Param("id") UUID id, Pageable pageable);
+}
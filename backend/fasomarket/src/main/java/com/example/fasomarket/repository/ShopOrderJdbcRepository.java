@@ -0,0 +1,48 @@
+package com.example.fasomarket.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Répartition en sous-commandes ({@code shop_orders}) des commandes passées
+ * avant leur introduction, en SQL.
+ */
+@Repository
+public class ShopOrderJdbcRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Crée les sous-commandes d'au plus {@code limite} commandes qui n'en ont
+     * pas encore, une par boutique, et y rattache leurs articles. Renvoie le
+     * nombre de sous-commandes créées.
+     */
+    public int repartir(int limite) {
+        Integer creees = jdbcTemplate.queryForObject(
+                "WITH lot AS (" +
+                "  SELECT o.id FROM orders o" +
+                "  WHERE NOT EXISTS (SELECT 1 FROM shop_orders so WHERE so.order_id = o.id)" +
+                "  AND EXISTS (SELECT 1 FROM order_items oi WHERE oi.order_id = o.id)" +
+                "  ORDER BY o.id LIMIT ?), " +
+                "nouvelles AS (" +
+                "  INSERT INTO shop_orders (id, order_id, shop_id, client_id, status, total_amount," +
+                "  delivery_address, needs_delivery, delivery_phone, created_at, updated_at)" +
+                "  SELECT gen_random_uuid(), o.id, p.shop_id, o.client_id, o.status," +
+                "  SUM(oi.unit_price * oi.quantity), o.delivery_address, o.needs_delivery, o.delivery_phone," +
+                "  o.created_at, o.updated_at" +
+                "  FROM lot JOIN orders o ON o.id = lot.id" +
+                "  JOIN order_items oi ON oi.order_id = o.id JOIN products p ON p.id = oi.product_id" +
+                "  GROUP BY o.id, p.shop_id" +
+                "  ON CONFLICT (order_id, shop_id) DO NOTHING" +
+                "  RETURNING id, order_id, shop_id), " +
+                "rattaches AS (" +
+                "  UPDATE order_items oi SET shop_order_id = n.id FROM nouvelles n, products p" +
+                "  WHERE oi.order_id = n.order_id AND p.id = oi.product_id AND p.shop_id = n.shop_id" +
+                "  RETURNING 1) " +
+                "SELECT COUNT(*) FROM nouvelles",
+                Integer.class, limite);
+        return creees != null ? creees : 0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.model.ShopOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Sous-commandes des boutiques. Les listes du vendeur sont choisies dans
+ * {@code vendor_order_index} ; ici, seuls leurs détails sont chargés, et la
+ * propriété d'une sous-commande est vérifiée par le filtre sur {@code shop_id}.
+ */
+@Repository
+public interface ShopOrderRepository extends JpaRepository<ShopOrder, UUID> {
+
+    // Détails des commandes retenues par vendor_order_index, limités aux boutiques du vendeur
+    @Query("SELECT DISTINCT so FROM ShopOrder so " +
+           "JOIN FETCH so.client " +
+           "JOIN FETCH so.items i " +
+           "JOIN FETCH i.product p " +
+           "JOIN FETCH p.shop " +
+           "WHERE so.orderId IN :orderIds AND so.shop.id IN :shopIds")
+    List<ShopOrder> findByOrderIdsAndShopIds(@Param("orderIds") Collection<UUID> orderIds,
+            @Param("shopIds") Collection<UUID> shopIds);
+
+    @Query("SELECT so FROM ShopOrder so WHERE so.orderId = :orderId AND so.shop.id IN :shopIds")
+    Optional<ShopOrder> findByOrderIdAndShopIds(@Param("orderId") UUID orderId,
+            @Param("shopIds") Collection<UUID> shopIds);
+}
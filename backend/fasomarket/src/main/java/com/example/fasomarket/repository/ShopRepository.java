@@ -1,5 +1,6 @@
 package com.example.fasomarket.repository;
 
+import com.example.fasomarket.dto.BoutiqueCarte;
 import com.example.fasomarket.model.Shop;
 import com.example.fasomarket.model.ShopStatus;
 import com.example.fasomarket.model.Vendor;
@@ -8,7 +9,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,12 +20,19 @@ import java.util.UUID;
 @Repository
 public interface ShopRepository extends JpaRepository<Shop, UUID> {
     List<Shop> findByVendor(Vendor vendor);
+
+    @Query("SELECT s.id FROM Shop s WHERE s.vendor.user.id = :vendorUserId")
+    List<UUID> findIdsByVendorUserId(@Param("vendorUserId") UUID vendorUserId);
     boolean existsByVendor(Vendor vendor);
     
     @Query("SELECT s FROM Shop s JOIN FETCH s.vendor v JOIN FETCH v.user WHERE s.status = :status")
     List<Shop> findByStatus(ShopStatus status);
     
     Page<Shop> findByStatus(ShopStatus status, Pageable pageable);
+
+    @Query("SELECT s FROM Shop s JOIN FETCH s.vendor v JOIN FETCH v.user WHERE s.status = :status " +
+           "ORDER BY s.rating DESC NULLS LAST, s.reviewsCount DESC NULLS LAST, s.id")
+    List<Shop> findPopulaires(@Param("status") ShopStatus status, Pageable pageable);
     Optional<Shop> findByIdAndStatus(UUID id, ShopStatus status);
     Optional<Shop> findByName(String name);
     boolean existsByName(String name);
@@ -31,4 +42,26 @@ public interface ShopRepository extends JpaRepository<Shop, UUID> {
     List<Shop> findByStatusAndCategoryEntity(ShopStatus status, Category category);
     long countByStatus(ShopStatus status);
     long countByStatusAndCategory(ShopStatus status, String category);
-}
\ No newline at end of file
+
+    // Listes publiques : projection BoutiqueCarte (ni vendeur ni utilisateur chargés)
+    @Query("SELECT new com.example.fasomarket.dto.BoutiqueCarte(s.id, s.name, s.description, s.address, s.phone, " +
+           "s.email, s.category, s.logoUrl, s.bannerUrl, s.delivery, s.deliveryFee, s.rating, s.reviewsCount, " +
+           "s.createdAt) FROM Shop s " +
+           "WHERE s.status = :status ORDER BY s.rating DESC NULLS LAST, s.reviewsCount DESC NULLS LAST, s.id")
+    List<BoutiqueCarte> findCartesPopulaires(@Param("status") ShopStatus status, Pageable pageable);
+
+    @Query("SELECT new com.example.fasomarket.dto.BoutiqueCarte(s.id, s.name, s.description, s.address, s.phone, " +
+           "s.email, s.category, s.logoUrl, s.bannerUrl, s.delivery, s.deliveryFee, s.rating, s.reviewsCount, " +
+           "s.createdAt) FROM Shop s " +
+           "WHERE s.id IN :ids AND s.status = :status")
+    List<BoutiqueCarte> findCartesByIdInAndStatus(@Param("ids") Collection<UUID> ids, @Param("status") ShopStatus status);
+
+    // Pagination par clé (createdAt DESC, id DESC) : voir dto.Curseur
+    @Query("SELECT new com.example.fasomarket.dto.BoutiqueCarte(s.id, s.name, s.description, s.address, s.phone, " +
+           "s.email, s.category, s.logoUrl, s.bannerUrl, s.delivery, s.deliveryFee, s.rating, s.reviewsCount, " +
+           "s.createdAt) FROM Shop s " +
+           "WHERE s.status = :status AND (s.createdAt < :date OR (s.createdAt = :date AND s.id < :id)) " +
+           "ORDER BY s.createdAt DESC, s.id DESC")
+    List<BoutiqueCarte> findPageParStatut(@Param("status") ShopStatus status, @Param("date") LocalDateTime date,
+            @Param("id") UUID id, Pageable pageable);
+}
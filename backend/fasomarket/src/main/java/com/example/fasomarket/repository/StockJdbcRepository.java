@@ -0,0 +1,370 @@
+package com.example.fasomarket.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Écritures de stock atomiques en SQL.
+ *
+ * La condition {@code stock >= ?} est évaluée par PostgreSQL sous le verrou de
+ * ligne pris par l'UPDATE : deux acheteurs concurrents de la dernière unité ne
+ * peuvent pas réussir tous les deux, sans verrou applicatif ni relecture.
+ * Ces requêtes contournent Hibernate : l'appelant publie lui-même le
+ * {@code CatalogueEvent} du produit modifié.
+ */
+@Repository
+public class StockJdbcRepository {
+
+    /** Résultat d'une écriture réussie sur une variante. */
+    public record MouvementVariante(long varianteId, UUID produitId, int stockRestant) {
+    }
+
+    /** Issue d'un lot de ventes flash pour une variante : une décision par demande, dans l'ordre. */
+    public record LotVenteFlash(UUID produitId, boolean[] acceptees, int stockRestant) {
+    }
+
+    /** Variante verrouillée pour un réapprovisionnement, avec l'utilisateur vendeur propriétaire. */
+    public record VarianteVendeur(long varianteId, String sku, UUID produitId, int stock, UUID vendeurUserId) {
+    }
+
+    /** Blocage de panier supprimé, dont le stock reste à rendre. */
+    public record BlocageSupprime(UUID cartId, UUID produitId, Long varianteId, int quantite,
+            LocalDateTime expireLe) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Retire {@code quantite} unités si elles sont disponibles ; vide si le stock est insuffisant.
+     */
+    public Optional<MouvementVariante> decrementerVariante(long varianteId, int quantite) {
+        List<MouvementVariante> lignes = jdbcTemplate.query(
+                "UPDATE produit_variantes SET stock = stock - ?, updated_at = now() " +
+                "WHERE id = ? AND stock >= ? RETURNING id, produit_id, stock",
+                (rs, i) -> new MouvementVariante(rs.getLong(1), rs.getObject(2, UUID.class), rs.getInt(3)),
+                quantite, varianteId, quantite);
+        return lignes.stream().findFirst();
+    }
+
+    public Optional<MouvementVariante> incrementerVariante(long varianteId, int quantite) {
+        List<MouvementVariante> lignes = jdbcTemplate.query(
+                "UPDATE produit_variantes SET stock = stock + ?, updated_at = now() " +
+                "WHERE id = ? RETURNING id, produit_id, stock",
+                (rs, i) -> new MouvementVariante(rs.getLong(1), rs.getObject(2, UUID.class), rs.getInt(3)),
+                quantite, varianteId);
+        return lignes.stream().findFirst();
+    }
+
+    public Optional<UUID> produitDeVariante(long varianteId) {
+        return jdbcTemplate.query("SELECT produit_id FROM produit_variantes WHERE id = ?",
+                (rs, i) -> rs.getObject(1, UUID.class), varianteId).stream().findFirst();
+    }
+
+    /**
+     * Stock d'un produit sans variante : même décrément conditionnel.
+     */
+    public boolean decrementerProduit(UUID produitId, int quantite) {
+        return jdbcTemplate.update(
+                "UPDATE products SET stock_quantity = stock_quantity - ?, " +
+                "available = (stock_quantity - ? > 0 AND is_active), updated_at = now() " +
+                "WHERE id = ? AND stock_quantity >= ?",
+                quantite, quantite, produitId, quantite) == 1;
+    }
+
+    /**
+     * Applique la variation d'une variante au stock agrégé du produit, sans
+     * resommer ses variantes.
+     */
+    public void ajusterStockProduit(UUID produitId, int delta) {
+        jdbcTemplate.update(
+                "UPDATE products SET stock_quantity = GREATEST(stock_quantity + ?, 0), " +
+                "available = (stock_quantity + ? > 0 AND is_active), updated_at = now() " +
+                "WHERE id = ?",
+                delta, delta, produitId);
+    }
+
+    /**
+     * Décrément groupé de plusieurs variantes, en deux allers-retours quelle
+     * que soit leur nombre. Les lignes sont d'abord verrouillées dans l'ordre
+     * croissant des identifiants : deux paniers qui se recouvrent attendent
+     * l'un l'autre au lieu de s'interbloquer. Seules les variantes dont le
+     * stock suffit sont décrémentées et renvoyées ; à l'appelant d'annuler la
+     * transaction si la liste est incomplète.
+     */
+    public List<MouvementVariante> decrementerVariantes(SortedMap<Long, Integer> quantites) {
+        Long[] ids = quantites.keySet().toArray(new Long[0]);
+        Integer[] valeurs = quantites.values().toArray(new Integer[0]);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id FROM produit_variantes WHERE id = ANY(?) ORDER BY id FOR UPDATE");
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        }, (rs, i) -> rs.getLong(1));
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE produit_variantes v SET stock = v.stock - d.q, updated_at = now() " +
+                    "FROM unnest(?::bigint[], ?::int[]) AS d(id, q) " +
+                    "WHERE v.id = d.id AND v.stock >= d.q RETURNING v.id, v.produit_id, v.stock");
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setArray(2, con.createArrayOf("integer", valeurs));
+            return ps;
+        }, (rs, i) -> new MouvementVariante(rs.getLong(1), rs.getObject(2, UUID.class), rs.getInt(3)));
+    }
+
+    /**
+     * Décrément groupé du stock agrégé des produits, verrouillés eux aussi par
+     * identifiant croissant. {@code minimums} donne, par produit, la quantité
+     * qui doit être disponible (lignes sans variante) ; le reste est un simple
+     * report des variantes déjà décrémentées. Renvoie les produits modifiés.
+     */
+    public Set<UUID> decrementerProduits(SortedMap<UUID, Integer> quantites, Map<UUID, Integer> minimums) {
+        UUID[] ids = quantites.keySet().toArray(new UUID[0]);
+        Integer[] valeurs = quantites.values().toArray(new Integer[0]);
+        Integer[] seuils = quantites.keySet().stream()
+                .map(id -> minimums.getOrDefault(id, 0))
+                .toArray(Integer[]::new);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id FROM products WHERE id = ANY(?) ORDER BY id FOR UPDATE");
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            return ps;
+        }, (rs, i) -> rs.getObject(1, UUID.class));
+        return new HashSet<>(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE products p SET stock_quantity = GREATEST(p.stock_quantity - d.q, 0), " +
+                    "available = (p.stock_quantity - d.q > 0 AND p.is_active), updated_at = now() " +
+                    "FROM unnest(?::uuid[], ?::int[], ?::int[]) AS d(id, q, minimum) " +
+                    "WHERE p.id = d.id AND p.stock_quantity >= d.minimum RETURNING p.id");
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            ps.setArray(2, con.createArrayOf("integer", valeurs));
+            ps.setArray(3, con.createArrayOf("integer", seuils));
+            return ps;
+        }, (rs, i) -> rs.getObject(1, UUID.class)));
+    }
+
+    /**
+     * Rendre du stock à plusieurs variantes : même chemin que le décrément
+     * groupé, avec des quantités négatives (toujours acceptées).
+     */
+    public List<MouvementVariante> incrementerVariantes(SortedMap<Long, Integer> quantites) {
+        SortedMap<Long, Integer> negatives = new TreeMap<>();
+        quantites.forEach((id, q) -> negatives.put(id, -q));
+        return decrementerVariantes(negatives);
+    }
+
+    public void incrementerProduits(SortedMap<UUID, Integer> quantites) {
+        SortedMap<UUID, Integer> negatives = new TreeMap<>();
+        quantites.forEach((id, q) -> negatives.put(id, -q));
+        decrementerProduits(negatives, Map.of());
+    }
+
+    /**
+     * Supprime des blocages de panier et renvoie ce qu'ils retenaient. Avec
+     * {@code expiresSeulement}, un blocage prolongé entre-temps est conservé.
+     * La suppression fait foi : un blocage n'est rendu qu'une fois, même si
+     * plusieurs instances tentent de l'expirer.
+     */
+    public List<BlocageSupprime> supprimerBlocages(UUID[] cartIds, boolean expiresSeulement) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "DELETE FROM stock_holds WHERE cart_id = ANY(?) AND (? = false OR expire_le <= ?) " +
+                    "RETURNING cart_id, produit_id, variante_id, quantite, expire_le");
+            ps.setArray(1, con.createArrayOf("uuid", cartIds));
+            ps.setBoolean(2, expiresSeulement);
+            ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            return ps;
+        }, (rs, i) -> new BlocageSupprime(
+                rs.getObject(1, UUID.class),
+                rs.getObject(2, UUID.class),
+                rs.getObject(3, Long.class),
+                rs.getInt(4),
+                rs.getTimestamp(5).toLocalDateTime()));
+    }
+
+    /**
+     * Verrouille, par identifiant croissant, les variantes désignées par
+     * identifiant ou par SKU, et renvoie pour chacune le vendeur propriétaire
+     * (nul si la chaîne produit → boutique → vendeur est incomplète).
+     */
+    public List<VarianteVendeur> verrouillerVariantes(Long[] ids, String[] skus) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT v.id, v.sku, v.produit_id, COALESCE(v.stock, 0), ve.user_id " +
+                    "FROM produit_variantes v " +
+                    "LEFT JOIN products p ON p.id = v.produit_id " +
+                    "LEFT JOIN shops s ON s.id = p.shop_id " +
+                    "LEFT JOIN vendors ve ON ve.id = s.vendor_id " +
+                    "WHERE v.id = ANY(?) OR v.sku = ANY(?) ORDER BY v.id FOR UPDATE OF v");
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setArray(2, con.createArrayOf("varchar", skus));
+            return ps;
+        }, (rs, i) -> new VarianteVendeur(rs.getLong(1), rs.getString(2), rs.getObject(3, UUID.class),
+                rs.getInt(4), rs.getObject(5, UUID.class)));
+    }
+
+    /**
+     * Fixe le stock de plusieurs variantes en une instruction ; les lignes
+     * doivent déjà être verrouillées par l'appelant.
+     */
+    public void fixerStockVariantes(SortedMap<Long, Integer> stocks) {
+        Long[] ids = stocks.keySet().toArray(new Long[0]);
+        Integer[] valeurs = stocks.values().toArray(new Integer[0]);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE produit_variantes v SET stock = d.s, updated_at = now() " +
+                    "FROM unnest(?::bigint[], ?::int[]) AS d(id, s) WHERE v.id = d.id");
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setArray(2, con.createArrayOf("integer", valeurs));
+            return ps;
+        });
+    }
+
+    /**
+     * Identifiants de produits après {@code apres}, par ordre croissant (parcours par lots).
+     */
+    public List<UUID> lotProduits(UUID apres, int taille) {
+        return jdbcTemplate.query(
+                "SELECT id FROM products WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, i) -> rs.getObject(1, UUID.class),
+                apres, taille);
+    }
+
+    /**
+     * Répare le stock agrégé d'un lot de produits et renvoie ceux corrigés.
+     *
+     * Le stock d'un produit à variantes ne peut pas être inférieur à la somme
+     * de ses variantes (la part non répartie entre variantes reste permise) ;
+     * {@code available} doit refléter le stock et l'état actif. Les variantes
+     * du lot sont d'abord verrouillées en partage, dans le même ordre que les
+     * réservations (variantes puis produit) : la somme lue ne peut pas être
+     * dépassée par un mouvement en cours pendant la correction.
+     */
+    @Transactional
+    public List<UUID> reconcilierProduits(List<UUID> produitIds) {
+        UUID[] ids = produitIds.toArray(new UUID[0]);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id FROM produit_variantes WHERE produit_id = ANY(?) ORDER BY id FOR SHARE");
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            return ps;
+        }, (rs, i) -> rs.getLong(1));
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE products p SET stock_quantity = GREATEST(p.stock_quantity, COALESCE(s.total, 0)), " +
+                    "available = (GREATEST(p.stock_quantity, COALESCE(s.total, 0)) > 0 AND p.is_active), " +
+                    "updated_at = now() " +
+                    "FROM unnest(?::uuid[]) AS lot(id) LEFT JOIN (" +
+                    "  SELECT produit_id, SUM(stock) AS total FROM produit_variantes" +
+                    "  WHERE produit_id = ANY(?) GROUP BY produit_id) s ON s.produit_id = lot.id " +
+                    "WHERE p.id = lot.id AND (p.stock_quantity < COALESCE(s.total, 0) " +
+                    "OR p.available IS DISTINCT FROM (GREATEST(p.stock_quantity, COALESCE(s.total, 0)) > 0 AND p.is_active)) " +
+                    "RETURNING p.id");
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            ps.setArray(2, con.createArrayOf("uuid", ids));
+            return ps;
+        }, (rs, i) -> rs.getObject(1, UUID.class));
+    }
+
+    /**
+     * Variantes en mode vente flash et leur stock courant.
+     */
+    public Map<Long, Integer> variantesVenteFlash() {
+        Map<Long, Integer> variantes = new HashMap<>();
+        jdbcTemplate.query("SELECT id, stock FROM produit_variantes WHERE vente_flash = true",
+                rs -> {
+                    variantes.put(rs.getLong(1), rs.getInt(2));
+                });
+        return variantes;
+    }
+
+    public boolean marquerVenteFlash(long varianteId, boolean actif) {
+        return jdbcTemplate.update("UPDATE produit_variantes SET vente_flash = ?, updated_at = now() WHERE id = ?",
+                actif, varianteId) == 1;
+    }
+
+    /**
+     * Écrit en une transaction les demandes accumulées sur des variantes en
+     * vente flash. Chaque variante est d'abord décrémentée du total de ses
+     * demandes ; si le stock ne suffit pas pour toutes, elles sont rejouées une
+     * à une (la ligne est déjà verrouillée) et seules celles qui tiennent sont
+     * acceptées. Le stock agrégé des produits suit dans la même transaction.
+     */
+    @Transactional
+    public Map<Long, LotVenteFlash> appliquerVentesFlash(SortedMap<Long, List<Integer>> demandes) {
+        SortedMap<Long, Integer> totaux = new TreeMap<>();
+        demandes.forEach((id, quantites) ->
+                totaux.put(id, quantites.stream().mapToInt(Integer::intValue).sum()));
+
+        Map<Long, LotVenteFlash> resultats = new HashMap<>();
+        SortedMap<UUID, Integer> produits = new TreeMap<>();
+        for (MouvementVariante mouvement : decrementerVariantes(totaux)) {
+            boolean[] acceptees = new boolean[demandes.get(mouvement.varianteId()).size()];
+            Arrays.fill(acceptees, true);
+            resultats.put(mouvement.varianteId(),
+                    new LotVenteFlash(mouvement.produitId(), acceptees, mouvement.stockRestant()));
+            produits.merge(mouvement.produitId(), totaux.get(mouvement.varianteId()), Integer::sum);
+        }
+
+        for (Map.Entry<Long, List<Integer>> entree : demandes.entrySet()) {
+            if (resultats.containsKey(entree.getKey())) {
+                continue;
+            }
+            List<Integer> quantites = entree.getValue();
+            boolean[] acceptees = new boolean[quantites.size()];
+            UUID produitId = null;
+            Integer restant = null;
+            for (int i = 0; i < quantites.size(); i++) {
+                Optional<MouvementVariante> mouvement = decrementerVariante(entree.getKey(), quantites.get(i));
+                if (mouvement.isPresent()) {
+                    acceptees[i] = true;
+                    produitId = mouvement.get().produitId();
+                    restant = mouvement.get().stockRestant();
+                    produits.merge(produitId, quantites.get(i), Integer::sum);
+                }
+            }
+            if (restant == null) {
+                restant = jdbcTemplate.query("SELECT stock FROM produit_variantes WHERE id = ?",
+                        (rs, i) -> rs.getInt(1), entree.getKey()).stream().findFirst().orElse(0);
+            }
+            resultats.put(entree.getKey(), new LotVenteFlash(produitId, acceptees, restant));
+        }
+
+        if (!produits.isEmpty()) {
+            decrementerProduits(produits, Map.of());
+        }
+        return resultats;
+    }
+
+    /**
+     * Rend du stock à des variantes et au produit parent, en une transaction.
+     * Renvoie les produits concernés.
+     */
+    @Transactional
+    public Set<UUID> rendreVariantes(SortedMap<Long, Integer> quantites) {
+        SortedMap<UUID, Integer> produits = new TreeMap<>();
+        for (MouvementVariante mouvement : incrementerVariantes(quantites)) {
+            produits.merge(mouvement.produitId(), quantites.get(mouvement.varianteId()), Integer::sum);
+        }
+        if (!produits.isEmpty()) {
+            incrementerProduits(produits);
+        }
+        return produits.keySet();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.model.TendanceCompteur;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface TendanceCompteurRepository extends JpaRepository<TendanceCompteur, UUID> {
+}
@@ -0,0 +1,114 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Écritures de {@code vendor_order_index} en SQL. Le vendeur est retrouvé
+ * depuis la boutique de la sous-commande, sans charger les entités.
+ */
+@Repository
+public class VendorOrderIndexJdbcRepository {
+
+    // Rang d'avancement de OrderStatus.AVANCEMENT, comme Order.recalculerStatut : la part d'un vendeur
+    // prend le statut de sa sous-commande la moins avancée
+    private static final String RANG_STATUT =
+            "so.status = 'CANCELLED', array_position(ARRAY[" +
+            OrderStatus.AVANCEMENT.stream().map(s -> "'" + s.name() + "'").collect(Collectors.joining(",")) +
+            "]::varchar[], so.status::varchar)";
+
+    // PostgreSQL compare les uuid octet par octet, sans signe : le plus petit est 00000000-...
+    private static final UUID PREMIER = new UUID(0L, 0L);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ajoute la part d'une nouvelle sous-commande ; un vendeur à plusieurs
+     * boutiques dans la même commande voit leurs montants cumulés.
+     */
+    public void ajouter(UUID shopId, UUID orderId, OrderStatus statut, BigDecimal total, String clientName,
+            LocalDateTime createdAt) {
+        jdbcTemplate.update(
+                "INSERT INTO vendor_order_index AS i (vendor_user_id, order_id, status, total_for_vendor, " +
+                "client_name, created_at) " +
+                "SELECT v.user_id, ?, ?, ?, ?, ? FROM shops s JOIN vendors v ON v.id = s.vendor_id WHERE s.id = ? " +
+                "ON CONFLICT (vendor_user_id, order_id) DO UPDATE SET " +
+                "total_for_vendor = i.total_for_vendor + EXCLUDED.total_for_vendor",
+                orderId, statut.name(), total, clientName, Timestamp.valueOf(createdAt), shopId);
+    }
+
+    /**
+     * Recalcule le statut de la part du vendeur de cette boutique : celui de
+     * sa sous-commande la moins avancée dans la commande, comme à la reprise.
+     * Appelé pendant le flush, quand les UPDATE de {@code shop_orders} sont
+     * peut-être encore dans le lot JDBC : {@code statutsConnus} (boutique →
+     * statut en mémoire) prime sur le statut lu en base.
+     */
+    public void recalculerStatut(UUID shopId, UUID orderId, Map<UUID, OrderStatus> statutsConnus) {
+        UUID[] boutiques = statutsConnus.keySet().toArray(new UUID[0]);
+        String[] statuts = statutsConnus.values().stream().map(OrderStatus::name).toArray(String[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE vendor_order_index i SET status = r.status FROM (" +
+                    "  SELECT so.user_id, (ARRAY_AGG(so.status ORDER BY " + RANG_STATUT + "))[1] AS status FROM (" +
+                    "    SELECT v.user_id, COALESCE(m.status, so.status) AS status" +
+                    "    FROM shop_orders so JOIN shops s ON s.id = so.shop_id JOIN vendors v ON v.id = s.vendor_id" +
+                    "    LEFT JOIN unnest(?, ?) AS m(shop_id, status) ON m.shop_id = so.shop_id" +
+                    "    WHERE so.order_id = ? AND v.user_id = " +
+                    "      (SELECT v2.user_id FROM shops s2 JOIN vendors v2 ON v2.id = s2.vendor_id WHERE s2.id = ?)" +
+                    "  ) so GROUP BY so.user_id) r " +
+                    "WHERE i.order_id = ? AND i.vendor_user_id = r.user_id");
+            ps.setArray(1, con.createArrayOf("uuid", boutiques));
+            ps.setArray(2, con.createArrayOf("varchar", statuts));
+            ps.setObject(3, orderId);
+            ps.setObject(4, shopId);
+            ps.setObject(5, orderId);
+            return ps;
+        });
+    }
+
+    /**
+     * Vrai si une sous-commande n'a pas de ligne pour son vendeur dans l'index.
+     */
+    public boolean estIncomplet() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM shop_orders so JOIN shops s ON s.id = so.shop_id " +
+                "JOIN vendors v ON v.id = s.vendor_id WHERE NOT EXISTS (" +
+                "  SELECT 1 FROM vendor_order_index i WHERE i.vendor_user_id = v.user_id AND i.order_id = so.order_id))",
+                Boolean.class));
+    }
+
+    /**
+     * Indexe les sous-commandes des {@code limite} commandes suivant
+     * {@code apres} (ordre des identifiants), sans toucher aux lignes déjà
+     * présentes. Renvoie la dernière commande traitée, {@code null} à la fin.
+     */
+    public UUID reprendre(UUID apres, int limite) {
+        return jdbcTemplate.queryForObject(
+                "WITH lot AS (" +
+                "  SELECT DISTINCT order_id FROM shop_orders WHERE order_id > ? ORDER BY order_id LIMIT ?), " +
+                "indexees AS (" +
+                "  INSERT INTO vendor_order_index (vendor_user_id, order_id, status, total_for_vendor, " +
+                "  client_name, created_at)" +
+                "  SELECT v.user_id, so.order_id, (ARRAY_AGG(so.status ORDER BY " + RANG_STATUT + "))[1]," +
+                "  SUM(so.total_amount), MIN(u.full_name), MIN(so.created_at)" +
+                "  FROM shop_orders so JOIN shops s ON s.id = so.shop_id JOIN vendors v ON v.id = s.vendor_id" +
+                "  JOIN users u ON u.id = so.client_id" +
+                "  WHERE so.order_id IN (SELECT order_id FROM lot)" +
+                "  GROUP BY v.user_id, so.order_id" +
+                "  ON CONFLICT (vendor_user_id, order_id) DO NOTHING RETURNING 1) " +
+                "SELECT MAX(order_id) FROM lot",
+                UUID.class, apres != null ? apres : PREMIER, limite);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.model.OrderStatus;
+import com.example.fasomarket.model.VendorOrderIndex;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lectures des commandes d'un vendeur dans {@code vendor_order_index}, servies
+ * par ses index couvrants (vendeur, date) et (vendeur, statut, date).
+ */
+@Repository
+public interface VendorOrderIndexRepository extends JpaRepository<VendorOrderIndex, VendorOrderIndex.Cle> {
+
+    @Query("SELECT i FROM VendorOrderIndex i WHERE i.vendorUserId = :vendorUserId " +
+           "ORDER BY i.createdAt DESC, i.orderId DESC")
+    List<VendorOrderIndex> findRecentes(@Param("vendorUserId") UUID vendorUserId, Pageable pageable);
+
+    @Query("SELECT i FROM VendorOrderIndex i WHERE i.vendorUserId = :vendorUserId " +
+           "AND (i.createdAt < :date OR (i.createdAt = :date AND i.orderId < :id)) " +
+           "ORDER BY i.createdAt DESC, i.orderId DESC")
+    List<VendorOrderIndex> findPage(@Param("vendorUserId") UUID vendorUserId, @Param("date") LocalDateTime date,
+            @Param("id") UUID id, Pageable pageable);
+
+    @Query("SELECT i FROM VendorOrderIndex i WHERE i.vendorUserId = :vendorUserId AND i.status = :status " +
+           "ORDER BY i.createdAt DESC, i.orderId DESC")
+    List<VendorOrderIndex> findByStatut(@Param("vendorUserId") UUID vendorUserId,
+            @Param("status") OrderStatus status);
+
+    @Query("SELECT COUNT(i) FROM VendorOrderIndex i WHERE i.vendorUserId = :vendorUserId AND i.status = :status")
+    long countByStatut(@Param("vendorUserId") UUID vendorUserId, @Param("status") OrderStatus status);
+
+    @Query("SELECT COALESCE(SUM(i.totalForVendor), 0) FROM VendorOrderIndex i " +
+           "WHERE i.vendorUserId = :vendorUserId AND i.createdAt >= :depuis")
+    BigDecimal sumTotalDepuis(@Param("vendorUserId") UUID vendorUserId, @Param("depuis") LocalDateTime depuis);
+
+    boolean existsByVendorUserIdAndOrderId(UUID vendorUserId, UUID orderId);
+}
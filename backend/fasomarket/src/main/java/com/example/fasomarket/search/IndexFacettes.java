@@ -0,0 +1,337 @@
+package com.example.fasomarket.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index colonnaire en mémoire pour le comptage des facettes du catalogue.
+ *
+ * Chaque produit reçoit un ordinal ; pour chaque dimension (catégorie, marque,
+ * couleur, taille) et chaque valeur on garde l'ensemble des ordinaux sous
+ * forme de {@link BitSet}. Le prix et la date de création sont stockés dans
+ * des tableaux primitifs. Un filtre est un ET de bitsets, un comptage une
+ * cardinalité : on reste dans la milliseconde sur plus de 100 000 produits.
+ *
+ * Les comptes d'une dimension ignorent le filtre posé sur cette même
+ * dimension (facettes « disjonctives ») pour que l'utilisateur voie les
+ * autres valeurs disponibles.
+ */
+public class IndexFacettes {
+
+    public static final String CATEGORIE = "categorie";
+    public static final String MARQUE = "marque";
+    public static final String COULEUR = "couleur";
+    public static final String TAILLE = "taille";
+    public static final List<String> DIMENSIONS = List.of(CATEGORIE, MARQUE, COULEUR, TAILLE);
+
+    // Tranches de prix en FCFA : [0, 5000), [5000, 10000) ... [100000, +inf)
+    public static final double[] BORNES_PRIX = {0, 5_000, 10_000, 25_000, 50_000, 100_000};
+
+    private static final int VALEURS_MAX_PAR_DIMENSION = 20;
+
+    public static class Entree {
+        private final UUID id;
+        private final double prix;
+        private final long dateCreation;
+        private final Map<String, Set<String>> valeurs = new HashMap<>();
+
+        public Entree(UUID id, double prix, long dateCreation) {
+            this.id = id;
+            this.prix = prix;
+            this.dateCreation = dateCreation;
+        }
+
+        public Entree valeur(String dimension, String valeur) {
+            if (valeur != null && !valeur.isBlank()) {
+                valeurs.computeIfAbsent(dimension, d -> new HashSet<>()).add(valeur.trim());
+            }
+            return this;
+        }
+    }
+
+    public static class Requete {
+        private final Map<String, String> filtres = new HashMap<>();
+        private Double prixMin;
+        private Double prixMax;
+        private List<UUID> candidats;
+        private int offset;
+        private int limite = 20;
+
+        public Requete filtre(String dimension, String valeur) {
+            if (valeur != null && !valeur.isBlank()) {
+                filtres.put(dimension, valeur);
+            }
+            return this;
+        }
+
+        public Requete prix(Double min, Double max) {
+            this.prixMin = min;
+            this.prixMax = max;
+            return this;
+        }
+
+        /** Résultats d'une recherche texte, dans l'ordre de pertinence. */
+        public Requete candidats(List<UUID> candidats) {
+            this.candidats = candidats;
+            return this;
+        }
+
+        public Requete page(int offset, int limite) {
+            this.offset = offset;
+            this.limite = limite;
+            return this;
+        }
+    }
+
+    public record Compte(String valeur, long nombre) {
+    }
+
+    public record ComptePrix(double min, Double max, long nombre) {
+    }
+
+    public record Resultat(long total, List<UUID> ids, Map<String, List<Compte>> facettes, List<ComptePrix> prix) {
+    }
+
+    private final Map<UUID, Integer> ordinaux = new HashMap<>();
+    private final List<UUID> ids = new ArrayList<>();
+    private final List<Map<String, Set<String>>> valeursParOrdinal = new ArrayList<>();
+    private double[] prix = new double[1024];
+    private long[] dates = new long[1024];
+    private final BitSet vivants = new BitSet();
+    private final Map<String, Map<String, BitSet>> colonnes = new HashMap<>();
+    private final Map<String, Map<String, String>> libelles = new HashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    public IndexFacettes() {
+        for (String dimension : DIMENSIONS) {
+            colonnes.put(dimension, new HashMap<>());
+            libelles.put(dimension, new HashMap<>());
+        }
+    }
+
+    public void indexer(Entree entree) {
+        verrou.writeLock().lock();
+        try {
+            Integer ordinal = ordinaux.get(entree.id);
+            if (ordinal == null) {
+                ordinal = ids.size();
+                ordinaux.put(entree.id, ordinal);
+                ids.add(entree.id);
+                valeursParOrdinal.add(new HashMap<>());
+                if (ordinal >= prix.length) {
+                    prix = Arrays.copyOf(prix, prix.length * 2);
+                    dates = Arrays.copyOf(dates, dates.length * 2);
+                }
+            } else {
+                effacer(ordinal);
+            }
+
+            prix[ordinal] = entree.prix;
+            dates[ordinal] = entree.dateCreation;
+            Map<String, Set<String>> normalisees = valeursParOrdinal.get(ordinal);
+            for (Map.Entry<String, Set<String>> entry : entree.valeurs.entrySet()) {
+                Map<String, BitSet> colonne = colonnes.get(entry.getKey());
+                if (colonne == null) {
+                    continue;
+                }
+                for (String valeur : entry.getValue()) {
+                    String cle = TexteNormalise.normaliser(valeur);
+                    colonne.computeIfAbsent(cle, c -> new BitSet()).set(ordinal);
+                    libelles.get(entry.getKey()).putIfAbsent(cle, valeur);
+                    normalisees.computeIfAbsent(entry.getKey(), d -> new HashSet<>()).add(cle);
+                }
+            }
+            vivants.set(ordinal);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public void retirer(UUID id) {
+        verrou.writeLock().lock();
+        try {
+            Integer ordinal = ordinaux.get(id);
+            if (ordinal != null) {
+                effacer(ordinal);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void effacer(int ordinal) {
+        vivants.clear(ordinal);
+        Map<String, Set<String>> anciennes = valeursParOrdinal.get(ordinal);
+        for (Map.Entry<String, Set<String>> entry : anciennes.entrySet()) {
+            Map<String, BitSet> colonne = colonnes.get(entry.getKey());
+            for (String cle : entry.getValue()) {
+                BitSet docs = colonne.get(cle);
+                if (docs != null) {
+                    docs.clear(ordinal);
+                    if (docs.isEmpty()) {
+                        colonne.remove(cle);
+                        libelles.get(entry.getKey()).remove(cle);
+                    }
+                }
+            }
+        }
+        anciennes.clear();
+    }
+
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return vivants.cardinality();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public Resultat rechercher(Requete requete) {
+        verrou.readLock().lock();
+        try {
+            BitSet base = (BitSet) vivants.clone();
+            if (requete.candidats != null) {
+                BitSet candidats = new BitSet();
+                for (UUID id : requete.candidats) {
+                    Integer ordinal = ordinaux.get(id);
+                    if (ordinal != null) {
+                        candidats.set(ordinal);
+                    }
+                }
+                base.and(candidats);
+            }
+
+            // Un bitset par filtre actif
+            Map<String, BitSet> filtres = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : requete.filtres.entrySet()) {
+                Map<String, BitSet> colonne = colonnes.get(entry.getKey());
+                BitSet docs = colonne != null ? colonne.get(TexteNormalise.normaliser(entry.getValue().trim())) : null;
+                filtres.put(entry.getKey(), docs != null ? docs : new BitSet());
+            }
+            BitSet filtrePrix = null;
+            if (requete.prixMin != null || requete.prixMax != null) {
+                filtrePrix = new BitSet();
+                for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+                    if ((requete.prixMin == null || prix[i] >= requete.prixMin)
+                            && (requete.prixMax == null || prix[i] <= requete.prixMax)) {
+                        filtrePrix.set(i);
+                    }
+                }
+            }
+
+            BitSet tous = combiner(base, filtres, filtrePrix, null, true);
+
+            Map<String, List<Compte>> facettes = new LinkedHashMap<>();
+            for (String dimension : DIMENSIONS) {
+                BitSet masque = combiner(base, filtres, filtrePrix, dimension, true);
+                facettes.put(dimension, compter(dimension, masque));
+            }
+            List<ComptePrix> tranches = compterPrix(combiner(base, filtres, filtrePrix, null, false));
+
+            return new Resultat(tous.cardinality(), page(tous, requete), facettes, tranches);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private BitSet combiner(BitSet base, Map<String, BitSet> filtres, BitSet filtrePrix,
+            String dimensionExclue, boolean avecPrix) {
+        BitSet resultat = (BitSet) base.clone();
+        for (Map.Entry<String, BitSet> entry : filtres.entrySet()) {
+            if (!entry.getKey().equals(dimensionExclue)) {
+                resultat.and(entry.getValue());
+            }
+        }
+        if (avecPrix && filtrePrix != null) {
+            resultat.and(filtrePrix);
+        }
+        return resultat;
+    }
+
+    private List<Compte> compter(String dimension, BitSet masque) {
+        List<Compte> comptes = new ArrayList<>();
+        BitSet intersection = new BitSet();
+        for (Map.Entry<String, BitSet> entry : colonnes.get(dimension).entrySet()) {
+            intersection.clear();
+            intersection.or(entry.getValue());
+            intersection.and(masque);
+            int nombre = intersection.cardinality();
+            if (nombre > 0) {
+                comptes.add(new Compte(libelles.get(dimension).get(entry.getKey()), nombre));
+            }
+        }
+        comptes.sort(Comparator.comparingLong(Compte::nombre).reversed().thenComparing(Compte::valeur));
+        return comptes.size() > VALEURS_MAX_PAR_DIMENSION ? comptes.subList(0, VALEURS_MAX_PAR_DIMENSION) : comptes;
+    }
+
+    private List<ComptePrix> compterPrix(BitSet masque) {
+        long[] nombres = new long[BORNES_PRIX.length];
+        for (int i = masque.nextSetBit(0); i >= 0; i = masque.nextSetBit(i + 1)) {
+            int tranche = BORNES_PRIX.length - 1;
+            while (tranche > 0 && prix[i] < BORNES_PRIX[tranche]) {
+                tranche--;
+            }
+            nombres[tranche]++;
+        }
+        List<ComptePrix> tranches = new ArrayList<>();
+        for (int t = 0; t < BORNES_PRIX.length; t++) {
+            Double max = t + 1 < BORNES_PRIX.length ? BORNES_PRIX[t + 1] : null;
+            tranches.add(new ComptePrix(BORNES_PRIX[t], max, nombres[t]));
+        }
+        return tranches;
+    }
+
+    /**
+     * Page de résultats : ordre de pertinence s'il y a une recherche texte,
+     * sinon les plus récents d'abord.
+     */
+    private List<UUID> page(BitSet tous, Requete requete) {
+        int debut = Math.max(requete.offset, 0);
+        int fin = debut + Math.max(requete.limite, 0);
+        List<UUID> page = new ArrayList<>();
+        if (requete.candidats != null) {
+            int rang = 0;
+            for (UUID id : requete.candidats) {
+                Integer ordinal = ordinaux.get(id);
+                if (ordinal != null && tous.get(ordinal)) {
+                    if (rang >= debut && rang < fin) {
+                        page.add(id);
+                    }
+                    if (++rang >= fin) {
+                        break;
+                    }
+                }
+            }
+            return page;
+        }
+
+        // Tas borné des « fin » plus récents, puis découpe de la page
+        PriorityQueue<Integer> tas = new PriorityQueue<>(
+                Comparator.comparingLong((Integer o) -> dates[o]).thenComparing(o -> ids.get(o)));
+        for (int i = tous.nextSetBit(0); i >= 0; i = tous.nextSetBit(i + 1)) {
+            tas.offer(i);
+            if (tas.size() > fin) {
+                tas.poll();
+            }
+        }
+        List<Integer> tries = new ArrayList<>(tas);
+        tries.sort(Comparator.comparingLong((Integer o) -> dates[o]).reversed()
+                .thenComparing(o -> ids.get(o), Comparator.reverseOrder()));
+        for (int r = debut; r < Math.min(fin, tries.size()); r++) {
+            page.add(ids.get(tries.get(r)));
+        }
+        return page;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.fasomarket.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Index inversé en mémoire avec classement BM25.
+ *
+ * Chaque document est composé de champs pondérés (nom, marque, tags...) : la
+ * fréquence d'un terme est la somme des occurrences multipliées par le poids
+ * du champ. Les termes sont triés, ce qui permet de retrouver par préfixe les
+ * mots en cours de saisie. Les lectures sont concurrentes, les mises à jour
+ * incrémentales prennent le verrou en écriture.
+ */
+public class IndexInverse<K> {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double POIDS_PREFIXE = 0.6;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private final NavigableMap<String, Map<K, Float>> postings = new TreeMap<>();
+    private final Map<K, Map<String, Float>> documents = new HashMap<>();
+    private final Map<K, Float> longueurs = new HashMap<>();
+    private double longueurTotale;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    public static class Document {
+        private final Map<String, Float> frequences = new HashMap<>();
+        private float longueur;
+
+        public Document champ(String texte, float poids) {
+            for (String terme : TexteNormalise.tokens(texte)) {
+                frequences.merge(terme, poids, Float::sum);
+                longueur += poids;
+            }
+            return this;
+        }
+    }
+
+    public record Resultat<K>(K cle, int termesTrouves, double score) {
+    }
+
+    public void indexer(K cle, Document document) {
+        verrou.writeLock().lock();
+        try {
+            retirerSansVerrou(cle);
+            if (document.frequences.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, Float> entry : document.frequences.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(cle, entry.getValue());
+            }
+            documents.put(cle, document.frequences);
+            longueurs.put(cle, document.longueur);
+            longueurTotale += document.longueur;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public void retirer(K cle) {
+        verrou.writeLock().lock();
+        try {
+            retirerSansVerrou(cle);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void retirerSansVerrou(K cle) {
+        Map<String, Float> termes = documents.remove(cle);
+        if (termes == null) {
+            return;
+        }
+        for (String terme : termes.keySet()) {
+            Map<K, Float> liste = postings.get(terme);
+            if (liste != null) {
+                liste.remove(cle);
+                if (liste.isEmpty()) {
+                    postings.remove(terme);
+                }
+            }
+        }
+        Float longueur = longueurs.remove(cle);
+        if (longueur != null) {
+            longueurTotale -= longueur;
+        }
+    }
+
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les documents correspondant à la requête. Chaque mot est
+     * cherché tel quel et comme préfixe (score réduit) ; les documents
+     * contenant le plus de mots de la requête passent devant, puis le score
+     * BM25 départage.
+     */
+    public List<Resultat<K>> rechercher(String requete, int limite) {
+        return rechercher(requete, limite, cle -> true);
+    }
+
+    /**
+     * Comme {@link #rechercher(String, int)}, en ne gardant que les documents
+     * admis : le filtre passe avant la limite.
+     */
+    public List<Resultat<K>> rechercher(String requete, int limite, Predicate<K> admis) {
+        List<String> mots = TexteNormalise.tokens(requete);
+        if (mots.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+
+        verrou.readLock().lock();
+        try {
+            int total = documents.size();
+            if (total == 0) {
+                return Collections.emptyList();
+            }
+            double longueurMoyenne = Math.max(longueurTotale / total, 1.0);
+
+            Map<K, Double> scores = new HashMap<>();
+            Map<K, Integer> trouves = new HashMap<>();
+
+            for (String mot : mots) {
+                Map<K, Double> meilleurs = new HashMap<>();
+                Map<K, Float> exacts = postings.get(mot);
+                if (exacts != null) {
+                    cumuler(meilleurs, exacts, total, longueurMoyenne, 1.0);
+                }
+                if (mot.length() >= 2) {
+                    int expansions = 0;
+                    for (Map.Entry<String, Map<K, Float>> entry : postings
+                            .subMap(mot, false, mot + Character.MAX_VALUE, false).entrySet()) {
+                        if (++expansions > MAX_EXPANSIONS) {
+                            break;
+                        }
+                        cumuler(meilleurs, entry.getValue(), total, longueurMoyenne, POIDS_PREFIXE);
+                    }
+                }
+                for (Map.Entry<K, Double> entry : meilleurs.entrySet()) {
+                    scores.merge(entry.getKey(), entry.getValue(), Double::sum);
+                    trouves.merge(entry.getKey(), 1, Integer::sum);
+                }
+            }
+
+            Comparator<Resultat<K>> ordre = Comparator
+                    .comparingInt((Resultat<K> r) -> r.termesTrouves())
+                    .thenComparingDouble(Resultat::score);
+            PriorityQueue<Resultat<K>> tas = new PriorityQueue<>(Math.min(limite, scores.size()) + 1, ordre);
+            for (Map.Entry<K, Double> entry : scores.entrySet()) {
+                if (!admis.test(entry.getKey())) {
+                    continue;
+                }
+                tas.offer(new Resultat<>(entry.getKey(), trouves.get(entry.getKey()), entry.getValue()));
+                if (tas.size() > limite) {
+                    tas.poll();
+                }
+            }
+
+            List<Resultat<K>> resultats = new ArrayList<>(tas);
+            resultats.sort(ordre.reversed());
+            return resultats;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private void cumuler(Map<K, Double> meilleurs, Map<K, Float> liste, int total,
+            double longueurMoyenne, double facteur) {
+        int df = liste.size();
+        double idf = Math.log(1.0 + (total - df + 0.5) / (df + 0.5));
+        for (Map.Entry<K, Float> entry : liste.entrySet()) {
+            double tf = entry.getValue();
+            double longueur = longueurs.getOrDefault(entry.getKey(), 0f);
+            double score = idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * longueur / longueurMoyenne));
+            // Un document ne compte qu'une fois par mot de la requête : on garde la meilleure forme
+            meilleurs.merge(entry.getKey(), score * facteur, Math::max);
+        }
+    }
+}
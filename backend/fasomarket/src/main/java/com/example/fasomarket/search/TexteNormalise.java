@@ -0,0 +1,49 @@
+package com.example.fasomarket.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation du texte pour l'indexation : minuscules, suppression des
+ * accents (« écharpe » et « echarpe » donnent le même terme) et découpage
+ * en mots. Les mots vides français les plus fréquents sont ignorés.
+ */
+public final class TexteNormalise {
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> MOTS_VIDES = Set.of(
+            "le", "la", "les", "l", "de", "des", "du", "d", "un", "une", "et", "ou",
+            "en", "a", "au", "aux", "pour", "par", "sur", "avec", "sans", "dans");
+
+    private TexteNormalise() {
+    }
+
+    public static String normaliser(String texte) {
+        if (texte == null || texte.isEmpty()) {
+            return "";
+        }
+        String decompose = Normalizer.normalize(texte.toLowerCase(), Normalizer.Form.NFD);
+        return DIACRITIQUES.matcher(decompose).replaceAll("")
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+    }
+
+    public static List<String> tokens(String texte) {
+        List<String> tokens = new ArrayList<>();
+        String normalise = normaliser(texte);
+        if (normalise.isEmpty()) {
+            return tokens;
+        }
+        for (String mot : SEPARATEURS.split(normalise)) {
+            if (!mot.isEmpty() && !MOTS_VIDES.contains(mot)) {
+                tokens.add(mot);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.fasomarket.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Arbre de préfixes immuable pour l'autocomplétion.
+ *
+ * Chaque nœud garde directement ses {@code k} meilleures suggestions
+ * (triées par popularité), calculées une fois à la construction : une
+ * requête se résume à descendre le préfixe caractère par caractère, soit
+ * quelques microsecondes quelle que soit la taille du catalogue. Les enfants
+ * sont stockés dans des tableaux triés (recherche dichotomique).
+ *
+ * Chaque suggestion est accessible par le début de chacun de ses mots :
+ * « robe en wax » est trouvée avec « rob » comme avec « wax ».
+ */
+public final class TrieSuggestions {
+
+    public record Suggestion(String texte, String type, String id, double popularite) {
+    }
+
+    private static final int LONGUEUR_MAX_CLE = 40;
+
+    private static final class Noeud {
+        private char[] caracteres = new char[0];
+        private Noeud[] enfants = new Noeud[0];
+        private int[] meilleures = new int[0];
+    }
+
+    private final Noeud racine;
+    private final Suggestion[] suggestions;
+
+    private TrieSuggestions(Noeud racine, Suggestion[] suggestions) {
+        this.racine = racine;
+        this.suggestions = suggestions;
+    }
+
+    public static TrieSuggestions vide() {
+        return new TrieSuggestions(new Noeud(), new Suggestion[0]);
+    }
+
+    public List<Suggestion> suggerer(String prefixe, int limite) {
+        String cle = TexteNormalise.normaliser(prefixe).replaceAll("[^a-z0-9]+", " ").trim();
+        if (cle.isEmpty()) {
+            return List.of();
+        }
+        Noeud noeud = racine;
+        for (int i = 0; i < cle.length() && i < LONGUEUR_MAX_CLE; i++) {
+            int position = Arrays.binarySearch(noeud.caracteres, cle.charAt(i));
+            if (position < 0) {
+                return List.of();
+            }
+            noeud = noeud.enfants[position];
+        }
+        List<Suggestion> resultat = new ArrayList<>();
+        for (int index : noeud.meilleures) {
+            if (resultat.size() >= limite) {
+                break;
+            }
+            resultat.add(suggestions[index]);
+        }
+        return resultat;
+    }
+
+    public int taille() {
+        return suggestions.length;
+    }
+
+    /**
+     * Construction hors ligne ; le résultat est publié d'un bloc par l'appelant.
+     */
+    public static class Constructeur {
+
+        private static final class NoeudMutable {
+            private final TreeMap<Character, NoeudMutable> enfants = new TreeMap<>();
+            private final Set<Integer> terminaux = new LinkedHashSet<>();
+        }
+
+        private final NoeudMutable racine = new NoeudMutable();
+        private final List<Suggestion> suggestions = new ArrayList<>();
+        private final Map<String, Integer> parCle = new HashMap<>();
+        private final int k;
+
+        public Constructeur(int k) {
+            this.k = k;
+        }
+
+        public Constructeur ajouter(String texte, String type, String id, double popularite) {
+            if (texte == null || texte.isBlank()) {
+                return this;
+            }
+            String cle = TexteNormalise.normaliser(texte).replaceAll("[^a-z0-9]+", " ").trim();
+            if (cle.isEmpty()) {
+                return this;
+            }
+            // Textes identiques d'un même type : une seule suggestion, la plus populaire
+            Integer existant = parCle.get(type + ':' + cle);
+            if (existant != null) {
+                if (popularite > suggestions.get(existant).popularite()) {
+                    suggestions.set(existant, new Suggestion(texte.trim(), type, id, popularite));
+                }
+                return this;
+            }
+            int index = suggestions.size();
+            suggestions.add(new Suggestion(texte.trim(), type, id, popularite));
+            parCle.put(type + ':' + cle, index);
+
+            // Une entrée par début de mot
+            for (int debut = 0; debut < cle.length(); debut++) {
+                if (debut == 0 || cle.charAt(debut - 1) == ' ') {
+                    inserer(cle.substring(debut, Math.min(cle.length(), debut + LONGUEUR_MAX_CLE)), index);
+                }
+            }
+            return this;
+        }
+
+        private void inserer(String cle, int index) {
+            NoeudMutable noeud = racine;
+            for (int i = 0; i < cle.length(); i++) {
+                noeud = noeud.enfants.computeIfAbsent(cle.charAt(i), c -> new NoeudMutable());
+            }
+            noeud.terminaux.add(index);
+        }
+
+        public TrieSuggestions construire() {
+            Suggestion[] tableau = suggestions.toArray(new Suggestion[0]);
+            Comparator<Integer> parPopularite = Comparator
+                    .comparingDouble((Integer i) -> tableau[i].popularite()).reversed()
+                    .thenComparing(i -> tableau[i].texte());
+            return new TrieSuggestions(figer(racine, parPopularite), tableau);
+        }
+
+        private Noeud figer(NoeudMutable source, Comparator<Integer> parPopularite) {
+            Noeud noeud = new Noeud();
+            noeud.caracteres = new char[source.enfants.size()];
+            noeud.enfants = new Noeud[source.enfants.size()];
+
+            Set<Integer> candidats = new LinkedHashSet<>(source.terminaux);
+            int position = 0;
+            for (Map.Entry<Character, NoeudMutable> entry : source.enfants.entrySet()) {
+                Noeud enfant = figer(entry.getValue(), parPopularite);
+                noeud.caracteres[position] = entry.getKey();
+                noeud.enfants[position] = enfant;
+                for (int index : enfant.meilleures) {
+                    candidats.add(index);
+                }
+                position++;
+            }
+
+            List<Integer> tries = new ArrayList<>(candidats);
+            tries.sort(parPopularite);
+            int taille = Math.min(k, tries.size());
+            noeud.meilleures = new int[taille];
+            for (int i = 0; i < taille; i++) {
+                noeud.meilleures[i] = tries.get(i);
+            }
+            return noeud;
+        }
+    }
+}
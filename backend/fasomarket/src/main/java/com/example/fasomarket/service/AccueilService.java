@@ -0,0 +1,180 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.BoutiquePublicDTO;
+import com.example.fasomarket.dto.ProductPublicDTO;
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.model.Category;
+import com.example.fasomarket.model.Product;
+import com.example.fasomarket.model.ShopStatus;
+import com.example.fasomarket.repository.CategoryRepository;
+import com.example.fasomarket.repository.ProductRepository;
+import com.example.fasomarket.repository.ShopRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Instantané précalculé de la page d'accueil (/api/public/accueil).
+ *
+ * Le contenu est reconstruit en arrière-plan : périodiquement, et peu après
+ * une modification de produit, boutique ou catégorie (les rafales
+ * d'événements sont regroupées). La lecture renvoie toujours l'instantané
+ * courant, même périmé, et déclenche au besoin une reconstruction
+ * (stale-while-revalidate) : l'endpoint ne touche jamais la base.
+ */
+@Service
+public class AccueilService {
+
+    public record Snapshot(Map<String, Object> contenu, LocalDateTime genereLe, long version) {
+    }
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private CataloguePublicMapper mapper;
+
+    @Autowired
+    private TendanceService tendanceService;
+
+    @Value("${accueil.snapshot.age-max-secondes:300}")
+    private long ageMaxSecondes;
+
+    @Value("${accueil.snapshot.delai-regroupement-ms:2000}")
+    private long delaiRegroupementMs;
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean reconstructionPlanifiee = new AtomicBoolean(false);
+    private final ScheduledExecutorService executeur = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "accueil-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public Snapshot getSnapshot() {
+        Snapshot courant = snapshot;
+        if (courant == null) {
+            // Premier appel avant la construction initiale
+            return reconstruire();
+        }
+        if (courant.genereLe().isBefore(LocalDateTime.now().minusSeconds(ageMaxSecondes))) {
+            planifierReconstruction(0);
+        }
+        return courant;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void auDemarrage() {
+        planifierReconstruction(0);
+    }
+
+    @Scheduled(fixedDelayString = "${accueil.snapshot.rafraichissement-ms:60000}",
+            initialDelayString = "${accueil.snapshot.rafraichissement-ms:60000}")
+    public void rafraichirPeriodiquement() {
+        planifierReconstruction(0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueModifie(CatalogueEvent event) {
+        if (event.getCible() == CatalogueEvent.Cible.AVIS) {
+            return;
+        }
+        planifierReconstruction(delaiRegroupementMs);
+    }
+
+    /**
+     * Une seule reconstruction en attente à la fois : les demandes reçues
+     * entre-temps sont absorbées par celle déjà planifiée.
+     */
+    private void planifierReconstruction(long delaiMs) {
+        if (reconstructionPlanifiee.compareAndSet(false, true)) {
+            executeur.schedule(() -> {
+                reconstructionPlanifiee.set(false);
+                try {
+                    reconstruire();
+                } catch (Exception e) {
+                    System.err.println("Erreur reconstruction page d'accueil: " + e.getMessage());
+                }
+            }, delaiMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized Snapshot reconstruire() {
+        List<Category> categories = List.copyOf(categoryRepository.findTop8ByIsActiveTrueOrderByNameAsc());
+
+        List<ProductPublicDTO> produitsTendance = produitsTendance(12).stream()
+                .map(mapper::versProduitDTO)
+                .toList();
+
+        List<BoutiquePublicDTO> boutiquesPopulaires = shopRepository
+                .findPopulaires(ShopStatus.ACTIVE, PageRequest.of(0, 10)).stream()
+                .map(mapper::versBoutiqueDTO)
+                .toList();
+
+        Snapshot nouveau = new Snapshot(Map.of(
+                "categories", categories,
+                "produitsTendance", produitsTendance,
+                "boutiquesPopulaires", boutiquesPopulaires),
+                LocalDateTime.now(), versions.incrementAndGet());
+        snapshot = nouveau;
+        return nouveau;
+    }
+
+    /**
+     * Tendances récentes d'abord, complétées par les meilleures ventes
+     * historiques tant que le moteur de tendances a peu de données.
+     */
+    private List<Product> produitsTendance(int nombre) {
+        List<UUID> ids = tendanceService.getTendances(null, nombre * 2).stream()
+                .map(TendanceService.Tendance::produitId)
+                .toList();
+        Map<UUID, Product> charges = new LinkedHashMap<>();
+        if (!ids.isEmpty()) {
+            Map<UUID, Product> parId = new HashMap<>();
+            productRepository.findAllByIdWithShop(ids).forEach(p -> parId.put(p.getId(), p));
+            for (UUID id : ids) {
+                Product produit = parId.get(id);
+                if (produit != null && Boolean.TRUE.equals(produit.getIsActive())
+                        && (Boolean.TRUE.equals(produit.getFeatured()) || Boolean.TRUE.equals(produit.getAvailable()))) {
+                    charges.put(id, produit);
+                }
+            }
+        }
+        if (charges.size() < nombre) {
+            for (Product produit : productRepository.findPopulairesPourAccueil(PageRequest.of(0, nombre))) {
+                charges.putIfAbsent(produit.getId(), produit);
+            }
+        }
+        return charges.values().stream().limit(nombre).toList();
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executeur.shutdownNow();
+    }
+}
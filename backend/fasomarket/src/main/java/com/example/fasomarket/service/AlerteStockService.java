@@ -0,0 +1,172 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.config.StockProperties;
+import com.example.fasomarket.dto.AlerteStock;
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.repository.AlerteStockJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Alertes de stock faible et de rupture pour les vendeurs.
+ *
+ * Les alertes sont déclenchées sur front : chaque mouvement de stock marque
+ * son produit à réévaluer (après le commit), et une évaluation périodique
+ * recalcule par lot l'état de ses articles (NORMAL, FAIBLE, RUPTURE) avec le
+ * seuil du produit ou {@code stock.alert.threshold}. Seul le passage vers un
+ * état plus grave crée une alerte ; un article doit repasser au-dessus du
+ * seuil pour pouvoir alerter de nouveau. Les alertes dues sont regroupées en
+ * un récapitulatif par vendeur et par fenêtre, inséré par lot.
+ */
+@Service
+public class AlerteStockService {
+
+    public record Statistiques(int produitsEnAttente, long evaluations, long alertesDeclenchees,
+            long alertesEnvoyees, long recapitulatifs) {
+    }
+
+    private static final int LIGNES_MAX_PAR_RECAPITULATIF = 20;
+
+    @Autowired
+    private AlerteStockJdbcRepository alerteStockJdbcRepository;
+
+    @Autowired
+    private StockProperties stockProperties;
+
+    @Value("${stock.alert.taille-lot:500}")
+    private int tailleLot;
+
+    private final Set<UUID> aEvaluer = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder alertesDeclenchees = new LongAdder();
+    private final LongAdder alertesEnvoyees = new LongAdder();
+    private final LongAdder recapitulatifs = new LongAdder();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueModifie(CatalogueEvent event) {
+        if (!stockProperties.getAlert().isEnabled() || event.isSuppression() || event.getId() == null) {
+            return;
+        }
+        switch (event.getCible()) {
+            case PRODUIT, VARIANTE -> aEvaluer.add(event.getId());
+            default -> {
+            }
+        }
+    }
+
+    public void signaler(UUID produitId) {
+        if (produitId != null && stockProperties.getAlert().isEnabled()) {
+            aEvaluer.add(produitId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock.alert.evaluation-ms:5000}")
+    public void evaluer() {
+        if (aEvaluer.isEmpty()) {
+            return;
+        }
+        List<UUID> lot = new ArrayList<>(tailleLot);
+        for (UUID id : aEvaluer) {
+            lot.add(id);
+            if (lot.size() == tailleLot) {
+                evaluerLot(lot);
+                lot = new ArrayList<>(tailleLot);
+            }
+        }
+        if (!lot.isEmpty()) {
+            evaluerLot(lot);
+        }
+    }
+
+    private void evaluerLot(List<UUID> lot) {
+        // Retirés avant lecture : un mouvement pendant l'évaluation les remet en file
+        aEvaluer.removeAll(lot);
+        try {
+            alertesDeclenchees.add(alerteStockJdbcRepository.evaluer(lot, stockProperties.getAlert().getThreshold()));
+            evaluations.add(lot.size());
+        } catch (Exception e) {
+            aEvaluer.addAll(lot);
+            System.err.println("Erreur évaluation des alertes de stock: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock.alert.fenetre-ms:300000}",
+            initialDelayString = "${stock.alert.fenetre-ms:300000}")
+    public void envoyerRecapitulatifs() {
+        try {
+            List<AlerteStock> prises;
+            do {
+                prises = alerteStockJdbcRepository.prendreAlertes(tailleLot, this::envoyer);
+                alertesEnvoyees.add(prises.size());
+            } while (prises.size() == tailleLot);
+        } catch (Exception e) {
+            System.err.println("Erreur envoi des alertes de stock: " + e.getMessage());
+        }
+    }
+
+    private void envoyer(List<AlerteStock> alertes) {
+        Map<UUID, List<AlerteStock>> parVendeur = new LinkedHashMap<>();
+        alertes.forEach(a -> parVendeur.computeIfAbsent(a.vendeurUserId(), id -> new ArrayList<>()).add(a));
+
+        List<AlerteStockJdbcRepository.NouvelleNotification> notifications = new ArrayList<>();
+        parVendeur.forEach((vendeurId, siennes) -> notifications.add(recapitulatif(vendeurId, siennes)));
+        alerteStockJdbcRepository.insererNotifications(notifications);
+        recapitulatifs.add(notifications.size());
+    }
+
+    private AlerteStockJdbcRepository.NouvelleNotification recapitulatif(UUID vendeurId, List<AlerteStock> alertes) {
+        if (alertes.size() == 1) {
+            AlerteStock alerte = alertes.get(0);
+            boolean rupture = "RUPTURE".equals(alerte.etat());
+            return new AlerteStockJdbcRepository.NouvelleNotification(vendeurId,
+                    rupture ? "🚫 Rupture de stock" : "⚠️ Stock faible",
+                    libelle(alerte) + (rupture ? " est en rupture de stock."
+                            : " n'a plus que " + alerte.stock() + " unités."),
+                    alerte.produitId());
+        }
+        long ruptures = alertes.stream().filter(a -> "RUPTURE".equals(a.etat())).count();
+        StringBuilder message = new StringBuilder();
+        message.append(ruptures).append(" rupture(s), ").append(alertes.size() - ruptures)
+                .append(" stock(s) faible(s) :");
+        alertes.stream().limit(LIGNES_MAX_PAR_RECAPITULATIF).forEach(a -> message.append("\n- ")
+                .append(libelle(a)).append(" : ")
+                .append("RUPTURE".equals(a.etat()) ? "rupture" : a.stock() + " restant(s)"));
+        if (alertes.size() > LIGNES_MAX_PAR_RECAPITULATIF) {
+            message.append("\n… et ").append(alertes.size() - LIGNES_MAX_PAR_RECAPITULATIF).append(" autre(s)");
+        }
+        return new AlerteStockJdbcRepository.NouvelleNotification(vendeurId,
+                "⚠️ Alertes de stock (" + alertes.size() + ")", message.toString(), null);
+    }
+
+    private static String libelle(AlerteStock alerte) {
+        StringBuilder desc = new StringBuilder();
+        if (alerte.couleur() != null) desc.append(alerte.couleur());
+        if (alerte.taille() != null) {
+            if (desc.length() > 0) desc.append(" - ");
+            desc.append(alerte.taille());
+        }
+        if (alerte.modele() != null && !alerte.modele().equals("Standard")) {
+            if (desc.length() > 0) desc.append(" - ");
+            desc.append(alerte.modele());
+        }
+        return "\"" + alerte.produitNom() + "\"" + (desc.length() > 0 ? " (" + desc + ")" : "");
+    }
+
+    public Statistiques getStatistiques() {
+        return new Statistiques(aEvaluer.size(), evaluations.sum(), alertesDeclenchees.sum(),
+                alertesEnvoyees.sum(), recapitulatifs.sum());
+    }
+}
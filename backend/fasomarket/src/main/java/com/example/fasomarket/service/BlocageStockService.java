@@ -0,0 +1,262 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.EcheanceBlocage;
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.model.BlocageStock;
+import com.example.fasomarket.model.Cart;
+import com.example.fasomarket.model.TypeMouvementStock;
+import com.example.fasomarket.model.User;
+import com.example.fasomarket.repository.BlocageStockRepository;
+import com.example.fasomarket.repository.CartRepository;
+import com.example.fasomarket.repository.StockJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Blocage temporaire du stock des lignes de panier.
+ *
+ * Ajouter un article retient aussitôt le stock (décrément conditionnel) pour
+ * une durée limitée, prolongée à chaque modification de la ligne. Les
+ * échéances sont suivies en mémoire par une {@link RoueTemporelle} et
+ * persistées dans {@code stock_holds} : au démarrage la roue est rechargée,
+ * et un balayage périodique de la table rattrape les blocages qu'elle ne
+ * connaît pas (autre instance, transaction annulée). Les blocages échus sont
+ * rendus au stock par lots. À la commande, les blocages deviennent la
+ * réservation de la commande ({@link ReservationStockService#reserverPanier}).
+ */
+@Service
+public class BlocageStockService {
+
+    public record Statistiques(int actifs, long expirations, double expirationsParSeconde,
+            long retardMoyenMs, long retardMaxDernierLotMs, long liberationsExplicites) {
+    }
+
+    private static final int NOMBRE_CASES = 512;
+
+    @Autowired
+    private BlocageStockRepository blocageStockRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private ReservationStockService reservationStockService;
+
+    @Autowired
+    private StockChaudService stockChaudService;
+
+    @Autowired
+    private JournalStockService journalStockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${paniers.blocage.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${paniers.blocage.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${paniers.blocage.taille-lot:500}")
+    private int tailleLot;
+
+    private RoueTemporelle<UUID> roue;
+
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder liberationsExplicites = new LongAdder();
+    private final LongAdder retardCumuleMs = new LongAdder();
+    private final AtomicLong retardMaxMs = new AtomicLong();
+    private volatile double expirationsParSeconde;
+    private long dernierTickMs = System.currentTimeMillis();
+
+    @PostConstruct
+    public void initialiser() {
+        roue = new RoueTemporelle<>(NOMBRE_CASES, tickMs, System.currentTimeMillis());
+    }
+
+    /**
+     * Enregistre une ligne de panier et ajuste son blocage à la nouvelle
+     * quantité. Lève {@link StockInsuffisantException} si le stock ne suffit
+     * pas : la ligne n'est alors pas enregistrée.
+     */
+    @Transactional
+    public Cart enregistrerLigne(Cart cart) {
+        Cart enregistre = cartRepository.save(cart);
+        BlocageStock blocage = blocageStockRepository.findPourMiseAJour(enregistre.getId())
+                .orElseGet(() -> new BlocageStock(enregistre));
+
+        int delta = enregistre.getQuantity() - blocage.getQuantite();
+        if (delta > 0) {
+            retenir(blocage, delta);
+        } else if (delta < 0) {
+            rendre(blocage, -delta);
+        }
+        if (delta != 0) {
+            eventPublisher.publishEvent(CatalogueEvent.produit(blocage.getProduitId()));
+        }
+
+        blocage.setQuantite(enregistre.getQuantity());
+        blocage.setExpireLe(LocalDateTime.now().plusMinutes(ttlMinutes));
+        blocageStockRepository.save(blocage);
+        roue.ajouter(blocage.getCartId(), enMillis(blocage.getExpireLe()));
+        return enregistre;
+    }
+
+    /**
+     * À la commande : réserve le panier en reprenant le stock déjà retenu par ses lignes.
+     */
+    @Transactional
+    public void reserverCommande(List<Cart> items) {
+        items.forEach(item -> roue.retirer(item.getId()));
+        reservationStockService.reserverPanier(items);
+    }
+
+    @Transactional
+    public void supprimerLigne(Cart cart) {
+        liberer(List.of(cart.getId()));
+        cartRepository.delete(cart);
+    }
+
+    @Transactional
+    public void viderPanier(User client) {
+        libererClient(client.getId());
+        cartRepository.deleteByClient(client);
+    }
+
+    /**
+     * Rend le stock retenu par tout le panier d'un client.
+     */
+    @Transactional
+    public void libererClient(UUID clientId) {
+        liberer(blocageStockRepository.findCartIdsByClientId(clientId));
+    }
+
+    private void liberer(List<UUID> cartIds) {
+        if (cartIds.isEmpty()) {
+            return;
+        }
+        cartIds.forEach(roue::retirer);
+        liberationsExplicites.add(reservationStockService.libererBlocages(cartIds, false).size());
+    }
+
+    private void retenir(BlocageStock blocage, int quantite) {
+        if (stockChaudService.estChaude(blocage.getVarianteId())) {
+            if (!stockChaudService.reserver(blocage.getVarianteId(), quantite)) {
+                throw new StockInsuffisantException("Stock insuffisant pour cette variante");
+            }
+        } else if (blocage.getVarianteId() != null) {
+            stockJdbcRepository.decrementerVariante(blocage.getVarianteId(), quantite)
+                    .orElseThrow(() -> new StockInsuffisantException("Stock insuffisant pour cette variante"));
+            stockJdbcRepository.ajusterStockProduit(blocage.getProduitId(), -quantite);
+        } else if (!stockJdbcRepository.decrementerProduit(blocage.getProduitId(), quantite)) {
+            throw new StockInsuffisantException("Stock insuffisant");
+        }
+        journalStockService.noter(TypeMouvementStock.RESERVATION, blocage.getProduitId(),
+                blocage.getVarianteId(), -quantite, blocage.getCartId());
+    }
+
+    private void rendre(BlocageStock blocage, int quantite) {
+        if (blocage.getVarianteId() != null) {
+            stockJdbcRepository.incrementerVariante(blocage.getVarianteId(), quantite);
+        }
+        stockJdbcRepository.ajusterStockProduit(blocage.getProduitId(), quantite);
+        journalStockService.noter(TypeMouvementStock.LIBERATION, blocage.getProduitId(),
+                blocage.getVarianteId(), quantite, blocage.getCartId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restaurer() {
+        try {
+            List<EcheanceBlocage> echeances = blocageStockRepository.findEcheances();
+            echeances.forEach(e -> roue.ajouter(e.cartId(), enMillis(e.expireLe())));
+        } catch (Exception e) {
+            System.err.println("Erreur restauration des blocages de stock: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${paniers.blocage.tick-ms:1000}")
+    public void expirer() {
+        long maintenant = System.currentTimeMillis();
+        List<UUID> echus = roue.avancer(maintenant);
+        long expiresCeTick = 0;
+        long retardMax = 0;
+        for (int debut = 0; debut < echus.size(); debut += tailleLot) {
+            List<UUID> lot = echus.subList(debut, Math.min(echus.size(), debut + tailleLot));
+            try {
+                List<StockJdbcRepository.BlocageSupprime> liberes = reservationStockService.libererBlocages(lot, true);
+                retardMax = Math.max(retardMax, compterExpirations(liberes, maintenant));
+                expiresCeTick += liberes.size();
+            } catch (Exception e) {
+                // Réessayé au prochain tick
+                lot.forEach(id -> roue.ajouter(id, maintenant));
+                System.err.println("Erreur expiration des blocages de stock: " + e.getMessage());
+            }
+        }
+        if (expiresCeTick > 0) {
+            retardMaxMs.set(retardMax);
+        }
+
+        // Moyenne glissante du débit d'expiration
+        double secondes = Math.max(1, maintenant - dernierTickMs) / 1000.0;
+        dernierTickMs = maintenant;
+        expirationsParSeconde = 0.8 * expirationsParSeconde + 0.2 * (expiresCeTick / secondes);
+    }
+
+    @Scheduled(fixedDelayString = "${paniers.blocage.balayage-ms:60000}")
+    public void balayer() {
+        try {
+            List<UUID> expires = blocageStockRepository.findCartIdsExpires(LocalDateTime.now(),
+                    PageRequest.of(0, tailleLot));
+            if (!expires.isEmpty()) {
+                expires.forEach(roue::retirer);
+                compterExpirations(reservationStockService.libererBlocages(expires, true),
+                        System.currentTimeMillis());
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur balayage des blocages de stock: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Comptabilise des blocages rendus à l'expiration ; renvoie le plus grand retard observé.
+     */
+    private long compterExpirations(List<StockJdbcRepository.BlocageSupprime> liberes, long maintenant) {
+        long retardMax = 0;
+        for (StockJdbcRepository.BlocageSupprime blocage : liberes) {
+            long retard = Math.max(0, maintenant - enMillis(blocage.expireLe()));
+            retardCumuleMs.add(retard);
+            retardMax = Math.max(retardMax, retard);
+        }
+        expirations.add(liberes.size());
+        return retardMax;
+    }
+
+    public Statistiques getStatistiques() {
+        long total = expirations.sum();
+        return new Statistiques(roue.taille(), total, expirationsParSeconde,
+                total == 0 ? 0 : retardCumuleMs.sum() / total, retardMaxMs.get(),
+                liberationsExplicites.sum());
+    }
+
+    private static long enMillis(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
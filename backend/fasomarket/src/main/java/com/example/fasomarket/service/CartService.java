@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,6 +30,12 @@ public class CartService {
     @Autowired
     private ProduitVarianteRepository produitVarianteRepository;
 
+    @Autowired
+    private BlocageStockService blocageStockService;
+
+    @Autowired
+    private BlocageStockRepository blocageStockRepository;
+
     @Transactional
     public PanierItemResponse ajouterAuPanier(UUID clientId, AjouterPanierRequest request) {
         User client = userRepository.findById(clientId)
@@ -84,26 +91,24 @@ public class CartService {
 
         if (existingCart != null) {
             // Augmenter la quantité
+            // La quantité déjà dans le panier est retenue : seul le supplément doit être disponible
             int newQuantity = existingCart.getQuantity() + request.getQuantite();
-            if (stockDisponible < newQuantity) {
-                throw new RuntimeException("Stock insuffisant pour cette quantité");
-            }
             existingCart.setQuantity(newQuantity);
-            cartRepository.save(existingCart);
+            blocageStockService.enregistrerLigne(existingCart);
         } else {
             // Créer nouvel article avec options
             Cart cart = new Cart(client, product, request.getQuantite());
             cart.setSelectedColor(request.getCouleurSelectionnee());
             cart.setSelectedSize(request.getTailleSelectionnee());
             cart.setSelectedModel(request.getModeleSelectionne());
-            cart.setVarianteId(request.getVarianteId());
+            cart.setVariante(variante);
             
             // Options personnalisées en JSON
             if (request.getOptionsPersonnalisees() != null && !request.getOptionsPersonnalisees().isEmpty()) {
                 cart.setCustomOptions(convertOptionsToJson(request.getOptionsPersonnalisees()));
             }
             
-            cartRepository.save(cart);
+            blocageStockService.enregistrerLigne(cart);
         }
 
         Cart savedCart = cartRepository.findByClientAndProduct(client, product)
@@ -116,7 +121,8 @@ public class CartService {
                 )
                 .findFirst()
                 .orElseThrow(() -> new RuntimeException("Erreur lors de l'ajout au panier"));
-        return mapCartToResponse(savedCart);
+        int retenu = blocageStockRepository.findById(savedCart.getId()).map(BlocageStock::getQuantite).orElse(0);
+        return mapCartToResponse(savedCart, retenu);
     }
 
     private String convertOptionsToJson(java.util.Map<String, String> options) {
@@ -137,9 +143,12 @@ public class CartService {
         User client = userRepository.findById(clientId)
                 .orElseThrow(() -> new RuntimeException("Client non trouvé"));
 
+        // Stock retenu par ligne, en une requête : une ligne expirée n'a plus de blocage
+        Map<UUID, Integer> retenus = blocageStockRepository.findByClientId(clientId).stream()
+                .collect(Collectors.toMap(BlocageStock::getCartId, BlocageStock::getQuantite));
         return cartRepository.findByClient(client)
                 .stream()
-                .map(this::mapCartToResponse)
+                .map(cart -> mapCartToResponse(cart, retenus.getOrDefault(cart.getId(), 0)))
                 .collect(Collectors.toList());
     }
 
@@ -155,7 +164,7 @@ public class CartService {
             throw new RuntimeException("Non autorisé à supprimer cet article");
         }
 
-        cartRepository.delete(cart);
+        blocageStockService.supprimerLigne(cart);
     }
 
     @Transactional
@@ -163,10 +172,14 @@ public class CartService {
         User client = userRepository.findById(clientId)
                 .orElseThrow(() -> new RuntimeException("Client non trouvé"));
 
-        cartRepository.deleteByClient(client);
+        blocageStockService.viderPanier(client);
     }
 
-    private PanierItemResponse mapCartToResponse(Cart cart) {
+    /**
+     * {@code retenu} : stock déjà décrémenté pour cette ligne par son
+     * blocage, donc encore disponible pour elle.
+     */
+    private PanierItemResponse mapCartToResponse(Cart cart, int retenu) {
         PanierItemResponse response = new PanierItemResponse();
         response.setId(cart.getId());
         response.setProduitId(cart.getProduct().getId());
@@ -176,7 +189,9 @@ public class CartService {
         response.setQuantite(cart.getQuantity());
         response.setPrixTotal(cart.getProduct().getPrice().multiply(BigDecimal.valueOf(cart.getQuantity())));
         response.setImagesProduit(imageUrlService.buildImagesArray(cart.getProduct().getImages()));
-        response.setDisponible(cart.getProduct().getAvailable() && cart.getProduct().getStockQuantity() >= cart.getQuantity());
+        // available passe à faux quand le blocage prend la dernière unité : seul l'état actif est lu
+        int stock = cart.getVariante() != null ? cart.getVariante().getStock() : cart.getProduct().getStockQuantity();
+        response.setDisponible(cart.getProduct().getIsActive() && stock + retenu >= cart.getQuantity());
         response.setDateAjout(cart.getCreatedAt());
         
         // Options sélectionnées
@@ -0,0 +1,132 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.BoutiqueCarte;
+import com.example.fasomarket.dto.BoutiquePublicDTO;
+import com.example.fasomarket.dto.ProductPublicDTO;
+import com.example.fasomarket.dto.ProduitCarte;
+import com.example.fasomarket.model.Product;
+import com.example.fasomarket.model.Shop;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversion des entités du catalogue vers les DTO de la vitrine publique,
+ * partagée par le contrôleur public et les services qui préparent ses réponses.
+ */
+@Component
+public class CataloguePublicMapper {
+
+    public BoutiquePublicDTO versBoutiqueDTO(Shop shop) {
+        BoutiquePublicDTO dto = new BoutiquePublicDTO();
+        dto.setId(shop.getId());
+        dto.setName(shop.getName());
+        dto.setDescription(shop.getDescription());
+        dto.setAddress(shop.getAddress());
+        dto.setPhone(shop.getPhone());
+        dto.setEmail(shop.getEmail());
+        dto.setCategory(shop.getCategory());
+        dto.setLogoUrl(shop.getLogoUrl());
+        dto.setBannerUrl(shop.getBannerUrl());
+        dto.setDelivery(shop.getDelivery());
+        dto.setDeliveryFee(shop.getDeliveryFee());
+        dto.setRating(shop.getRating());
+        dto.setReviewsCount(shop.getReviewsCount());
+        return dto;
+    }
+
+    public ProductPublicDTO versProduitDTO(Product product) {
+        ProductPublicDTO dto = new ProductPublicDTO();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setDescription(product.getDescription());
+        dto.setPrice(product.getPrice());
+        dto.setImages(product.getImages());
+        dto.setCategory(product.getCategory());
+        dto.setStockQuantity(product.getStockQuantity());
+        dto.setAvailable(product.getAvailable());
+        if (product.getRating() != null) {
+            dto.setRating(product.getRating().doubleValue());
+        }
+        dto.setReviewsCount(product.getReviewsCount());
+        dto.setShopName(product.getShop() != null ? product.getShop().getName() : null);
+        dto.setShopId(product.getShop() != null ? product.getShop().getId() : null);
+        return dto;
+    }
+
+    public BoutiquePublicDTO versBoutiqueDTO(BoutiqueCarte boutique) {
+        BoutiquePublicDTO dto = new BoutiquePublicDTO();
+        dto.setId(boutique.id());
+        dto.setName(boutique.nom());
+        dto.setDescription(boutique.description());
+        dto.setAddress(boutique.adresse());
+        dto.setPhone(boutique.telephone());
+        dto.setEmail(boutique.email());
+        dto.setCategory(boutique.categorie());
+        dto.setLogoUrl(boutique.logoUrl());
+        dto.setBannerUrl(boutique.bannerUrl());
+        dto.setDelivery(boutique.livraison());
+        dto.setDeliveryFee(boutique.fraisLivraison());
+        dto.setRating(boutique.note());
+        dto.setReviewsCount(boutique.nombreAvis());
+        return dto;
+    }
+
+    public ProductPublicDTO versProduitDTO(ProduitCarte produit) {
+        ProductPublicDTO dto = new ProductPublicDTO();
+        dto.setId(produit.id());
+        dto.setName(produit.nom());
+        dto.setDescription(produit.description());
+        dto.setPrice(produit.prix());
+        dto.setImages(produit.images());
+        dto.setCategory(produit.categorie());
+        dto.setStockQuantity(produit.quantiteStock());
+        dto.setAvailable(produit.disponible());
+        if (produit.note() != null) {
+            dto.setRating(produit.note().doubleValue());
+        }
+        dto.setReviewsCount(produit.nombreAvis());
+        dto.setShopName(produit.boutiqueNom());
+        dto.setShopId(produit.boutiqueId());
+        return dto;
+    }
+
+    /**
+     * Réponse de la fiche produit (/api/public/produits/{id}). Le résultat est
+     * partagé par le cache des fiches : il est rendu non modifiable.
+     */
+    public Map<String, Object> versDetailProduit(Product produit) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", produit.getId());
+        response.put("nom", produit.getName());
+        response.put("description", produit.getDescription());
+        response.put("prix", produit.getPrice());
+        response.put("quantiteStock", produit.getStockQuantity());
+        response.put("category", produit.getCategory());
+        response.put("available", produit.getAvailable());
+
+        if (produit.getImages() != null && !produit.getImages().isEmpty()) {
+            response.put("images", Arrays.stream(produit.getImages().split(","))
+                    .map(String::trim)
+                    .filter(url -> !url.isEmpty())
+                    .toList());
+        } else {
+            response.put("images", List.of());
+        }
+
+        Map<String, Object> boutique = new HashMap<>();
+        boutique.put("nom", produit.getShop() != null ? produit.getShop().getName() : "MaroShop");
+        boutique.put("id", produit.getShop() != null ? produit.getShop().getId() : null);
+        response.put("boutique", Collections.unmodifiableMap(boutique));
+
+        if (produit.getRating() != null) {
+            response.put("rating", produit.getRating().doubleValue());
+        }
+        response.put("reviewsCount", produit.getReviewsCount());
+        return Collections.unmodifiableMap(response);
+    }
+}
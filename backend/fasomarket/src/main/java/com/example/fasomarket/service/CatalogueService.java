@@ -0,0 +1,158 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.CatalogueCritere;
+import com.example.fasomarket.dto.ProduitCarte;
+import com.example.fasomarket.model.Product;
+import com.example.fasomarket.repository.ProductRepository;
+import com.example.fasomarket.repository.ProductSpecifications;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Requête catalogue composable : tous les filtres de /api/public/produits
+ * sont traduits en prédicats SQL et exécutés en une seule requête paginée,
+ * projetée sur les colonnes affichées (plus le comptage, évité quand la
+ * première page est incomplète). Une recherche textuelle sans tri explicite
+ * garde l'ordre de pertinence de l'index : les filtres sont appliqués aux
+ * candidats en base, la page est découpée dans leur classement. Au-delà de
+ * {@code catalogue.recherche.max-candidats} correspondances, même après les
+ * filtres, la recherche passe par le filtre SQL sur le nom : une liste de
+ * candidats tronquée fausserait les pages et le total.
+ */
+@Service
+public class CatalogueService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RechercheService rechercheService;
+
+    // Nombre maximum de candidats fournis par l'index de recherche pour le filtre q
+    @Value("${catalogue.recherche.max-candidats:2000}")
+    private int maxCandidats;
+
+    @Transactional(readOnly = true)
+    public Page<ProduitCarte> rechercher(CatalogueCritere critere, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, 100)), tri(critere.getTri()));
+
+        List<Specification<Product>> filtres = new ArrayList<>();
+        filtres.add(ProductSpecifications.actif());
+        if (critere.getCategorie() != null && !critere.getCategorie().isBlank()) {
+            filtres.add(ProductSpecifications.categorie(critere.getCategorie().trim()));
+        }
+        if (critere.getPrixMin() != null) {
+            filtres.add(ProductSpecifications.prixMin(critere.getPrixMin()));
+        }
+        if (critere.getPrixMax() != null) {
+            filtres.add(ProductSpecifications.prixMax(critere.getPrixMax()));
+        }
+        if (Boolean.TRUE.equals(critere.getFeatured())) {
+            filtres.add(ProductSpecifications.enVedette());
+        }
+        if (critere.getDisponible() != null) {
+            filtres.add(ProductSpecifications.disponible(critere.getDisponible()));
+        }
+        if (critere.getMarque() != null && !critere.getMarque().isBlank()) {
+            filtres.add(ProductSpecifications.marque(critere.getMarque().trim()));
+        }
+        if (critere.getCouleur() != null && !critere.getCouleur().isBlank()) {
+            filtres.add(ProductSpecifications.couleur(critere.getCouleur().trim()));
+        }
+        if (critere.getBoutiqueId() != null) {
+            filtres.add(ProductSpecifications.boutique(critere.getBoutiqueId()));
+        }
+
+        List<UUID> candidats = null;
+        if (critere.getQ() != null && !critere.getQ().isBlank()) {
+            candidats = rechercheService.estPret() ? candidats(critere.getQ(), filtres) : null;
+            if (candidats == null) {
+                filtres.add(ProductSpecifications.nomContient(critere.getQ().trim()));
+            } else if (candidats.isEmpty()) {
+                return new PageImpl<>(List.of(), pageable, 0);
+            } else {
+                filtres.add(ProductSpecifications.idParmi(candidats));
+            }
+        }
+
+        if (candidats != null && (critere.getTri() == null || "pertinence".equals(critere.getTri()))) {
+            return parPertinence(candidats, Specification.allOf(filtres), pageable);
+        }
+        return productRepository.findCartes(Specification.allOf(filtres), pageable);
+    }
+
+    /**
+     * Toutes les correspondances de l'index, dans l'ordre de pertinence, ou
+     * null si elles dépassent {@code maxCandidats}. Quand la recherche seule
+     * les dépasse, les filtres sont d'abord résolus en base puis appliqués
+     * dans l'index avant la limite.
+     */
+    private List<UUID> candidats(String q, List<Specification<Product>> filtres) {
+        List<UUID> candidats = rechercheService.rechercherProduits(q, maxCandidats + 1);
+        if (candidats.size() > maxCandidats && filtres.size() > 1) {
+            Set<UUID> admis = new HashSet<>(productRepository.findIds(Specification.allOf(filtres)));
+            candidats = rechercheService.rechercherProduits(q, maxCandidats + 1, admis::contains);
+        }
+        return candidats.size() > maxCandidats ? null : candidats;
+    }
+
+    /**
+     * Page dans l'ordre des candidats (pertinence BM25) : une requête pour les
+     * identifiants qui passent les filtres, une pour les colonnes de la page.
+     */
+    private Page<ProduitCarte> parPertinence(List<UUID> candidats, Specification<Product> filtres,
+            Pageable pageable) {
+        Set<UUID> retenus = new HashSet<>(productRepository.findIds(filtres));
+        List<UUID> classes = candidats.stream().filter(retenus::contains).toList();
+        int debut = (int) Math.min(pageable.getOffset(), classes.size());
+        List<UUID> ids = classes.subList(debut, Math.min(classes.size(), debut + pageable.getPageSize()));
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, classes.size());
+        }
+
+        // Une place de plus que de lignes : le total est connu, pas de comptage
+        Map<UUID, ProduitCarte> parId = new HashMap<>();
+        productRepository.findCartes(ProductSpecifications.idParmi(ids), PageRequest.of(0, ids.size() + 1))
+                .forEach(carte -> parId.put(carte.id(), carte));
+        List<ProduitCarte> contenu = ids.stream().map(parId::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(contenu, pageable, classes.size());
+    }
+
+    /**
+     * Tri stable : l'identifiant départage toujours les ex aequo pour que les
+     * pages successives ne se chevauchent pas.
+     */
+    private Sort tri(String tri) {
+        Sort principal;
+        if (tri == null) {
+            principal = Sort.by(Sort.Direction.DESC, "createdAt");
+        } else {
+            principal = switch (tri) {
+                case "prix_asc" -> Sort.by(Sort.Direction.ASC, "price");
+                case "prix_desc" -> Sort.by(Sort.Direction.DESC, "price");
+                case "populaires" -> Sort.by(Sort.Direction.DESC, "salesCount");
+                case "note" -> Sort.by(Sort.Direction.DESC, "rating");
+                case "nom" -> Sort.by(Sort.Direction.ASC, "name");
+                default -> Sort.by(Sort.Direction.DESC, "createdAt");
+            };
+        }
+        return principal.and(Sort.by(Sort.Direction.ASC, "id"));
+    }
+}
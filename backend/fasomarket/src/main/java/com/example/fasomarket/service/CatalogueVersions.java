@@ -0,0 +1,77 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.event.CatalogueEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Numéros de version du catalogue public, servant d'ETag aux réponses de
+ * /api/public/**. Toute modification commitée d'un produit, d'une variante,
+ * d'une boutique ou d'une catégorie fait avancer la version du catalogue ;
+ * les avis ont leur propre version. La fiche d'un produit a une version à
+ * part, qui n'avance qu'avec ce produit, ses variantes, les boutiques et les
+ * catégories : une vente sur un autre produit ne la change pas. Les produits
+ * se partagent {@value #SEGMENTS} compteurs par hachage de leur id ; une
+ * collision ne coûte qu'un 200 de plus. L'instant de démarrage fait partie
+ * de l'ETag pour qu'un redémarrage (ou une autre instance) ne réutilise
+ * jamais un ancien numéro.
+ */
+@Component
+public class CatalogueVersions {
+
+    private static final int SEGMENTS = 4096;
+
+    private final String demarrage = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalogue = new AtomicLong();
+    private final AtomicLong avis = new AtomicLong();
+
+    // Boutiques et catégories : leur nom figure dans les fiches produit
+    private final AtomicLong structure = new AtomicLong();
+    private final AtomicLongArray produits = new AtomicLongArray(SEGMENTS);
+
+    // Après les caches mis à jour par le même événement : une nouvelle version
+    // ne doit jamais être associée à un contenu encore ancien
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCatalogueModifie(CatalogueEvent event) {
+        switch (event.getCible()) {
+            case AVIS -> avis.incrementAndGet();
+            case PRODUIT, VARIANTE -> {
+                if (event.getId() != null) {
+                    produits.incrementAndGet(segment(event.getId()));
+                }
+                catalogue.incrementAndGet();
+            }
+            case BOUTIQUE, CATEGORIE -> {
+                structure.incrementAndGet();
+                catalogue.incrementAndGet();
+            }
+        }
+    }
+
+    public String etagCatalogue() {
+        return "\"c-" + demarrage + "-" + catalogue.get() + "\"";
+    }
+
+    public String etagProduit(UUID produitId) {
+        return "\"p-" + demarrage + "-" + structure.get() + "-" + produits.get(segment(produitId)) + "\"";
+    }
+
+    public String etagAvis() {
+        return "\"a-" + demarrage + "-" + avis.get() + "\"";
+    }
+
+    public String etagAccueil(long versionSnapshot) {
+        return "\"h-" + demarrage + "-" + versionSnapshot + "\"";
+    }
+
+    private static int segment(UUID produitId) {
+        return (produitId.hashCode() & 0x7fffffff) % SEGMENTS;
+    }
+}
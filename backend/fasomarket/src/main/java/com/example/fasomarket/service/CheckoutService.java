@@ -0,0 +1,116 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.CreerCommandeRequest;
+import com.example.fasomarket.model.Cart;
+import com.example.fasomarket.model.Order;
+import com.example.fasomarket.model.OrderItem;
+import com.example.fasomarket.model.OrderStatus;
+import com.example.fasomarket.model.Shop;
+import com.example.fasomarket.model.ShopOrder;
+import com.example.fasomarket.model.TypeEvenementOutbox;
+import com.example.fasomarket.model.User;
+import com.example.fasomarket.repository.CartRepository;
+import com.example.fasomarket.repository.OrderRepository;
+import com.example.fasomarket.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Passage de commande en un nombre constant d'allers-retours, quelle que soit
+ * la taille du panier.
+ *
+ * Le panier est lu en une requête avec ses produits, boutiques et variantes ;
+ * les prix sont calculés en un seul passage sur ces lignes, qui sont aussi
+ * réparties en une sous-commande par boutique ; la commande, ses
+ * sous-commandes et ses lignes (identifiants générés côté application)
+ * partent en inserts groupés au flush ; le panier est supprimé en une
+ * instruction.
+ */
+@Service
+public class CheckoutService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BlocageStockService blocageStockService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Transactional
+    public Order passerCommande(UUID clientId, CreerCommandeRequest request) {
+        User client = userRepository.findById(clientId)
+                .orElseThrow(() -> new CommandeRefuseeException("Client non trouvé"));
+
+        List<Cart> items = cartRepository.findPanierCommande(clientId);
+        if (items.isEmpty()) {
+            throw new CommandeRefuseeException("Panier vide");
+        }
+
+        // Le stock retenu par le panier devient celui de la commande ;
+        // tout le panier ou rien : une ligne en rupture annule la commande
+        blocageStockService.reserverCommande(items);
+
+        Order order = new Order();
+        order.setClient(client);
+        order.setStatus(OrderStatus.PENDING);
+        order.setDeliveryAddress(request.getAdresseLivraison());
+        order.setNeedsDelivery(request.getNeedsDelivery());
+        order.setDeliveryPhone(request.getNumeroTelephone());
+
+        BigDecimal total = BigDecimal.ZERO;
+        Map<UUID, ShopOrder> parBoutique = new HashMap<>();
+        for (Cart item : items) {
+            BigDecimal prixUnitaire = item.getProduct().getPrice();
+            // Prix d'ajustement de la variante, déjà chargée avec le panier
+            if (item.getVariante() != null) {
+                prixUnitaire = prixUnitaire.add(BigDecimal.valueOf(item.getVariante().getPrixAjustement()));
+            }
+
+            OrderItem orderItem = new OrderItem(order, item.getProduct(), item.getQuantity(), prixUnitaire);
+            orderItem.setVarianteId(item.getVarianteId());
+            orderItem.setSelectedColor(item.getSelectedColor());
+            orderItem.setSelectedSize(item.getSelectedSize());
+            orderItem.setSelectedModel(item.getSelectedModel());
+            orderItem.setCustomOptions(item.getCustomOptions());
+            order.getOrderItems().add(orderItem);
+            total = total.add(orderItem.getTotalPrice());
+
+            Shop shop = item.getProduct().getShop();
+            ShopOrder shopOrder = parBoutique.computeIfAbsent(shop.getId(), id -> {
+                ShopOrder nouvelle = new ShopOrder(order, shop);
+                order.getShopOrders().add(nouvelle);
+                return nouvelle;
+            });
+            orderItem.setShopOrder(shopOrder);
+            shopOrder.getItems().add(orderItem);
+            shopOrder.setTotalAmount(shopOrder.getTotalAmount().add(orderItem.getTotalPrice()));
+        }
+        order.setTotalAmount(total);
+
+        Order savedOrder = orderRepository.save(order);
+        cartRepository.supprimerPanier(clientId);
+
+        // SMS de confirmation envoyé en arrière-plan, après le commit
+        Map<String, Object> evenement = new HashMap<>();
+        evenement.put("numeroCommande", "CMD-" + savedOrder.getId().toString().substring(0, 8));
+        evenement.put("numeroTelephone", request.getNumeroTelephone());
+        evenement.put("montant", total);
+        outboxService.publier(TypeEvenementOutbox.COMMANDE_CREEE, savedOrder.getId(), evenement);
+        return savedOrder;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.fasomarket.service;
+
+/**
+ * Commande refusée pour une raison imputable au client (panier vide, quantité
+ * invalide, stock insuffisant) : répondue en 400. Toute autre exception du
+ * passage de commande est une erreur serveur.
+ */
+public class CommandeRefuseeException extends RuntimeException {
+
+    public CommandeRefuseeException(String message) {
+        super(message);
+    }
+}
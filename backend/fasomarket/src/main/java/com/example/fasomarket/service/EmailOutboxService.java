@@ -0,0 +1,322 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.repository.EmailOutboxJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * File d'envoi persistante des e-mails.
+ *
+ * {@link #mettreEnFile} écrit le message dans {@code email_outbox}, dans la
+ * transaction de l'appelant s'il y en a une : un e-mail n'existe que si
+ * l'opération qui l'a produit est validée. Un nombre fixe de travailleurs
+ * ({@code email.file.travailleurs}, threads virtuels) prennent les messages
+ * dus par lots avec {@code SKIP LOCKED} et envoient chaque lot en un seul
+ * appel à {@link JavaMailSender}, donc sur une seule connexion SMTP au lieu
+ * d'une par message. Les échecs sont triés message par message : une adresse
+ * refusée ou mal formée part directement en MORT, le reste est
+ * retenté avec un délai exponentiel (plus un aléa) jusqu'à
+ * {@code email.file.tentatives-max}. Les travailleurs sont réveillés après
+ * chaque commit, sinon toutes les {@code email.file.intervalle-ms}.
+ */
+@Service
+public class EmailOutboxService {
+
+    public record Statistiques(long misEnFile, long envoyes, long reessais, long morts, long lots,
+            double envoisParSeconde, long latenceMoyenneMs, long latenceMaxMs, long dureeMoyenneLotMs,
+            Map<String, Long> parStatut) {
+    }
+
+    private static final int LONGUEUR_ERREUR_MAX = 1000;
+
+    @Autowired
+    private EmailOutboxJdbcRepository emailOutboxJdbcRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${email.file.travailleurs:2}")
+    private int travailleurs;
+
+    @Value("${email.file.taille-lot:50}")
+    private int tailleLot;
+
+    @Value("${email.file.intervalle-ms:2000}")
+    private long intervalleMs;
+
+    @Value("${email.file.bail-secondes:120}")
+    private int bailSecondes;
+
+    @Value("${email.file.tentatives-max:8}")
+    private int tentativesMax;
+
+    @Value("${email.file.reessai.initial-secondes:30}")
+    private long reessaiInitialSecondes;
+
+    @Value("${email.file.reessai.max-secondes:7200}")
+    private long reessaiMaxSecondes;
+
+    @Value("${email.file.retention-heures:168}")
+    private long retentionHeures;
+
+    @Value("${email.file.purge.taille-lot:1000}")
+    private int tailleLotPurge;
+
+    private final Semaphore reveil = new Semaphore(0);
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean actif;
+
+    private final LongAdder misEnFile = new LongAdder();
+    private final LongAdder envoyes = new LongAdder();
+    private final LongAdder reessais = new LongAdder();
+    private final LongAdder morts = new LongAdder();
+    private final LongAdder lots = new LongAdder();
+    private final LongAdder latenceCumuleeMs = new LongAdder();
+    private final AtomicLong latenceMaxMs = new AtomicLong();
+    private final LongAdder dureeLotsMs = new LongAdder();
+    private volatile double envoisParSeconde;
+    private long dernierEchantillon;
+    private long dernierEchantillonMs = System.currentTimeMillis();
+
+    /**
+     * Met le message en file. Il part après le commit de la transaction en cours.
+     */
+    public void mettreEnFile(SimpleMailMessage message) {
+        String[] destinataires = message.getTo();
+        if (destinataires == null || destinataires.length == 0) {
+            throw new RuntimeException("E-mail sans destinataire");
+        }
+        emailOutboxJdbcRepository.inserer(message.getFrom(), String.join(",", destinataires),
+                message.getSubject(), message.getText());
+        misEnFile.increment();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reveil.release();
+                }
+            });
+        } else {
+            reveil.release();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        actif = true;
+        for (int i = 0; i < travailleurs; i++) {
+            threads.add(Thread.ofVirtual().name("email-" + i).start(this::travailler));
+        }
+    }
+
+    private void travailler() {
+        while (actif) {
+            try {
+                reveil.tryAcquire(intervalleMs, TimeUnit.MILLISECONDS);
+                int envoyesLot;
+                do {
+                    envoyesLot = envoyerLot();
+                    if (envoyesLot == tailleLot) {
+                        // D'autres messages attendent : réveiller un autre travailleur
+                        reveil.release();
+                    }
+                } while (actif && envoyesLot == tailleLot);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Erreur envoi des e-mails en file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Prend un lot de messages dus et l'envoie sur une seule connexion SMTP ;
+     * renvoie la taille du lot. Chaque message est préparé à part : une
+     * adresse mal formée ne fait échouer que le sien, pas tout le lot.
+     */
+    private int envoyerLot() {
+        List<EmailOutboxJdbcRepository.Email> lot = emailOutboxJdbcRepository.reserver(tailleLot, bailSecondes);
+        if (lot.isEmpty()) {
+            return 0;
+        }
+        Map<MimeMessage, EmailOutboxJdbcRepository.Email> parMessage = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>();
+        for (EmailOutboxJdbcRepository.Email email : lot) {
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            try {
+                SimpleMailMessage message = new SimpleMailMessage();
+                message.setFrom(email.expediteur());
+                message.setTo(email.destinataires().split(","));
+                message.setSubject(email.sujet());
+                message.setText(email.corps());
+                message.copyTo(new MimeMailMessage(mimeMessage));
+            } catch (MailException e) {
+                echouer(email, e);
+                continue;
+            }
+            messages.add(mimeMessage);
+            parMessage.put(mimeMessage, email);
+        }
+        if (messages.isEmpty()) {
+            return lot.size();
+        }
+
+        long debut = System.currentTimeMillis();
+        Map<Object, Exception> echecs = Map.of();
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Échecs message par message : les autres sont partis
+            echecs = e.getFailedMessages();
+            if (echecs.isEmpty()) {
+                parMessage.values().forEach(email -> echouer(email, e));
+                return lot.size();
+            }
+        } catch (MailException e) {
+            // Connexion ou authentification : rien n'est parti
+            parMessage.values().forEach(email -> echouer(email, e));
+            return lot.size();
+        } finally {
+            lots.increment();
+            dureeLotsMs.add(System.currentTimeMillis() - debut);
+        }
+
+        List<Long> envoyesIds = new ArrayList<>();
+        LocalDateTime maintenant = LocalDateTime.now();
+        for (MimeMessage message : messages) {
+            EmailOutboxJdbcRepository.Email email = parMessage.get(message);
+            Exception echec = echecs.get(message);
+            if (echec != null) {
+                echouer(email, echec);
+                continue;
+            }
+            envoyesIds.add(email.id());
+            long latence = Math.max(0, Duration.between(email.creeLe(), maintenant).toMillis());
+            latenceCumuleeMs.add(latence);
+            latenceMaxMs.accumulateAndGet(latence, Math::max);
+        }
+        if (!envoyesIds.isEmpty()) {
+            emailOutboxJdbcRepository.marquerEnvoyes(envoyesIds);
+            envoyes.add(envoyesIds.size());
+        }
+        return lot.size();
+    }
+
+    private void echouer(EmailOutboxJdbcRepository.Email email, Exception cause) {
+        String erreur = String.valueOf(cause.getMessage());
+        if (erreur.length() > LONGUEUR_ERREUR_MAX) {
+            erreur = erreur.substring(0, LONGUEUR_ERREUR_MAX);
+        }
+        try {
+            if (estDefinitif(cause) || email.tentatives() >= tentativesMax) {
+                emailOutboxJdbcRepository.abandonner(email.id(), erreur);
+                morts.increment();
+                System.err.println("E-mail " + email.id() + " à " + email.destinataires() + " abandonné après "
+                        + email.tentatives() + " tentative(s): " + erreur);
+            } else {
+                emailOutboxJdbcRepository.reporter(email.id(), delaiReessai(email.tentatives()), erreur);
+                reessais.increment();
+            }
+        } catch (Exception e) {
+            // Le bail expirera et le message sera repris
+            System.err.println("Erreur replanification de l'e-mail " + email.id() + ": " + e.getMessage());
+        }
+    }
+
+    // Message invalide ou adresse refusée par le serveur : inutile de réessayer
+    private static boolean estDefinitif(Exception cause) {
+        if (cause instanceof MailParseException || cause instanceof MailPreparationException) {
+            return true;
+        }
+        return cause instanceof SendFailedException envoi
+                && envoi.getInvalidAddresses() != null && envoi.getInvalidAddresses().length > 0;
+    }
+
+    // initial * 2^(tentatives - 1), plafonné, plus jusqu'à 20 % d'aléa pour étaler les reprises
+    private long delaiReessai(int tentatives) {
+        long delai = reessaiInitialSecondes << Math.min(Math.max(tentatives - 1, 0), 20);
+        delai = Math.min(delai, reessaiMaxSecondes);
+        return delai + ThreadLocalRandom.current().nextLong(delai / 5 + 1);
+    }
+
+    /**
+     * Remet en file les e-mails morts.
+     */
+    public int relancer() {
+        int relances = emailOutboxJdbcRepository.relancer();
+        if (relances > 0) {
+            reveil.release();
+        }
+        return relances;
+    }
+
+    /**
+     * Moyenne glissante du débit d'envoi.
+     */
+    @Scheduled(fixedDelayString = "${email.file.mesure-ms:10000}")
+    public void mesurer() {
+        long maintenant = System.currentTimeMillis();
+        long total = envoyes.sum();
+        double secondes = Math.max(1, maintenant - dernierEchantillonMs) / 1000.0;
+        envoisParSeconde = 0.8 * envoisParSeconde + 0.2 * ((total - dernierEchantillon) / secondes);
+        dernierEchantillon = total;
+        dernierEchantillonMs = maintenant;
+    }
+
+    @Scheduled(fixedDelayString = "${email.file.purge.intervalle-ms:3600000}")
+    public void purger() {
+        try {
+            LocalDateTime avant = LocalDateTime.now().minusHours(retentionHeures);
+            int supprimes;
+            do {
+                supprimes = emailOutboxJdbcRepository.purger(avant, tailleLotPurge);
+            } while (supprimes == tailleLotPurge);
+        } catch (Exception e) {
+            System.err.println("Erreur purge de la file d'e-mails: " + e.getMessage());
+        }
+    }
+
+    public Statistiques getStatistiques() {
+        long total = envoyes.sum();
+        long nombreLots = lots.sum();
+        return new Statistiques(misEnFile.sum(), total, reessais.sum(), morts.sum(), nombreLots,
+                envoisParSeconde, total == 0 ? 0 : latenceCumuleeMs.sum() / total, latenceMaxMs.get(),
+                nombreLots == 0 ? 0 : dureeLotsMs.sum() / nombreLots, emailOutboxJdbcRepository.compterParStatut());
+    }
+
+    @PreDestroy
+    public void arreter() {
+        actif = false;
+        threads.forEach(Thread::interrupt);
+    }
+}
@@ -3,14 +3,18 @@ package com.example.fasomarket.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+/**
+ * Rédaction des e-mails de la plateforme. Les messages ne sont pas envoyés
+ * ici : ils sont mis en file ({@link EmailOutboxService}), dans la
+ * transaction de l'appelant le cas échéant, et partent en arrière-plan.
+ */
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxService emailOutboxService;
 
     @Value("${app.mail.from}")
     private String fromEmail;
@@ -32,7 +36,7 @@ public class EmailService {
             nomUtilisateur
         ));
         
-        mailSender.send(message);
+        emailOutboxService.mettreEnFile(message);
     }
 
     public void envoyerEmailValidationVendeur(String destinataire, String nomVendeur) {
@@ -49,7 +53,7 @@ public class EmailService {
             nomVendeur
         ));
         
-        mailSender.send(message);
+        emailOutboxService.mettreEnFile(message);
     }
 
     public void envoyerEmailRejetVendeur(String destinataire, String nomVendeur, String raison) {
@@ -68,7 +72,7 @@ public class EmailService {
             raison != null ? "Raison: " + raison : ""
         ));
         
-        mailSender.send(message);
+        emailOutboxService.mettreEnFile(message);
     }
 
     public void envoyerEmailApprobationBoutique(String destinataire, String nomVendeur, String nomBoutique) {
@@ -85,7 +89,7 @@ public class EmailService {
             nomVendeur, nomBoutique
         ));
         
-        mailSender.send(message);
+        emailOutboxService.mettreEnFile(message);
     }
 
     public void envoyerEmailRejetBoutique(String destinataire, String nomVendeur, String nomBoutique, String raison) {
@@ -104,7 +108,7 @@ public class EmailService {
             raison != null ? "Raison: " + raison : ""
         ));
         
-        mailSender.send(message);
+        emailOutboxService.mettreEnFile(message);
     }
 
     public void envoyerEmailNouvelleCommande(String destinataire, String numeroCommande, double montant) {
@@ -123,7 +127,7 @@ public class EmailService {
             numeroCommande, montant
         ));
         
-        mailSender.send(message);
+        emailOutboxService.mettreEnFile(message);
     }
 
     public void envoyerEmailStatutCommande(String destinataire, String numeroCommande, String nouveauStatut) {
@@ -142,7 +146,7 @@ public class EmailService {
             numeroCommande, nouveauStatut
         ));
         
-        mailSender.send(message);
+        emailOutboxService.mettreEnFile(message);
     }
 
     public void envoyerNotificationCommande(String email, String nomClient, String sujet, String message) {
@@ -159,7 +163,7 @@ public class EmailService {
             nomClient, message
         ));
         
-        mailSender.send(mailMessage);
+        emailOutboxService.mettreEnFile(mailMessage);
     }
 
     public void envoyerFacture(String email, String nomClient, String numeroFacture, String contenuPdf) {
@@ -176,6 +180,6 @@ public class EmailService {
             nomClient, numeroFacture
         ));
         
-        mailSender.send(message);
+        emailOutboxService.mettreEnFile(message);
     }
 }
\ No newline at end of file
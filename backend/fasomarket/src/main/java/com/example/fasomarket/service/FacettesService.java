@@ -0,0 +1,191 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.ProduitFacettable;
+import com.example.fasomarket.dto.VarianteFacettable;
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.repository.ProductRepository;
+import com.example.fasomarket.repository.ProduitVarianteRepository;
+import com.example.fasomarket.search.IndexFacettes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Facettes du catalogue (catégorie, marque, couleur, taille, tranches de prix).
+ *
+ * L'index colonnaire est chargé au démarrage par lots de projections, puis
+ * chaque produit modifié (ou dont une variante change) est relu seul après
+ * le commit.
+ */
+@Service
+public class FacettesService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProduitVarianteRepository produitVarianteRepository;
+
+    @Autowired
+    private RechercheService rechercheService;
+
+    @Value("${facettes.index.taille-lot:1000}")
+    private int tailleLot;
+
+    private volatile IndexFacettes index = new IndexFacettes();
+    private volatile boolean pret = false;
+    private volatile boolean enConstruction = false;
+    private final Set<UUID> produitsEnAttente = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void auDemarrage() {
+        reconstruire();
+    }
+
+    public synchronized void reconstruire() {
+        enConstruction = true;
+        produitsEnAttente.clear();
+        try {
+            IndexFacettes nouvelIndex = new IndexFacettes();
+            PageRequest page = PageRequest.of(0, tailleLot, Sort.by("id"));
+            Slice<ProduitFacettable> lot;
+            do {
+                lot = productRepository.findFacettables(page);
+                indexerLot(nouvelIndex, lot.getContent());
+                page = page.next();
+            } while (lot.hasNext());
+
+            index = nouvelIndex;
+            pret = true;
+        } catch (Exception e) {
+            System.err.println("Erreur construction index des facettes: " + e.getMessage());
+        } finally {
+            enConstruction = false;
+            produitsEnAttente.forEach(this::rafraichir);
+            produitsEnAttente.clear();
+        }
+    }
+
+    private void indexerLot(IndexFacettes cible, List<ProduitFacettable> produits) {
+        if (produits.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = produits.stream().map(ProduitFacettable::id).collect(Collectors.toList());
+        Map<UUID, List<VarianteFacettable>> variantes = new HashMap<>();
+        for (VarianteFacettable v : produitVarianteRepository.findFacettablesByProduitIds(ids)) {
+            variantes.computeIfAbsent(v.produitId(), k -> new ArrayList<>()).add(v);
+        }
+        for (ProduitFacettable produit : produits) {
+            cible.indexer(entree(produit, variantes.getOrDefault(produit.id(), List.of())));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onCatalogueModifie(CatalogueEvent event) {
+        if (event.getCible() != CatalogueEvent.Cible.PRODUIT && event.getCible() != CatalogueEvent.Cible.VARIANTE) {
+            return;
+        }
+        // Stock et compteurs seuls : catégorie, marque, prix, couleurs et tailles sont inchangés
+        if (event.getCible() == CatalogueEvent.Cible.PRODUIT && !event.isSuppression()
+                && !event.isLibellesModifies()) {
+            return;
+        }
+        if (enConstruction) {
+            produitsEnAttente.add(event.getId());
+        }
+        if (event.isSuppression() && event.getCible() == CatalogueEvent.Cible.PRODUIT) {
+            index.retirer(event.getId());
+        } else {
+            rafraichir(event.getId());
+        }
+    }
+
+    private void rafraichir(UUID produitId) {
+        try {
+            productRepository.findFacettableById(produitId).ifPresentOrElse(
+                    p -> index.indexer(entree(p, produitVarianteRepository.findFacettablesByProduitIds(List.of(produitId)))),
+                    () -> index.retirer(produitId));
+        } catch (Exception e) {
+            System.err.println("Erreur mise à jour index des facettes: " + e.getMessage());
+        }
+    }
+
+    public boolean estPret() {
+        return pret;
+    }
+
+    public IndexFacettes.Resultat rechercher(String q, String categorie, String marque, String couleur,
+            String taille, Double prixMin, Double prixMax, int page, int size) {
+        IndexFacettes.Requete requete = new IndexFacettes.Requete()
+                .filtre(IndexFacettes.CATEGORIE, categorie)
+                .filtre(IndexFacettes.MARQUE, marque)
+                .filtre(IndexFacettes.COULEUR, couleur)
+                .filtre(IndexFacettes.TAILLE, taille)
+                .prix(prixMin, prixMax)
+                .page(Math.max(page, 0) * size, size);
+        if (q != null && !q.isBlank()) {
+            // Toutes les correspondances, sans limite : filtres, comptes et total
+            // portent sur l'ensemble et non sur un classement tronqué
+            requete.candidats(rechercheService.rechercherProduits(q, Integer.MAX_VALUE));
+        }
+        return index.rechercher(requete);
+    }
+
+    private IndexFacettes.Entree entree(ProduitFacettable produit, List<VarianteFacettable> variantes) {
+        IndexFacettes.Entree entree = new IndexFacettes.Entree(
+                produit.id(),
+                produit.prix() != null ? produit.prix().doubleValue() : 0,
+                produit.dateCreation() != null ? produit.dateCreation().toEpochSecond(ZoneOffset.UTC) : 0)
+                .valeur(IndexFacettes.CATEGORIE, produit.categorie())
+                .valeur(IndexFacettes.MARQUE, produit.marque())
+                .valeur(IndexFacettes.COULEUR, produit.couleur())
+                .valeur(IndexFacettes.TAILLE, produit.taille());
+        listeJson(produit.couleurs()).forEach(c -> entree.valeur(IndexFacettes.COULEUR, c));
+        listeJson(produit.tailles()).forEach(t -> entree.valeur(IndexFacettes.TAILLE, t));
+        for (VarianteFacettable variante : variantes) {
+            entree.valeur(IndexFacettes.COULEUR, variante.couleur());
+            entree.valeur(IndexFacettes.TAILLE, variante.taille());
+        }
+        return entree;
+    }
+
+    // Lit les listes stockées sous la forme ["S", "M", "L"] (ou "S,M,L")
+    private List<String> listeJson(String texte) {
+        List<String> valeurs = new ArrayList<>();
+        if (texte == null || texte.isBlank()) {
+            return valeurs;
+        }
+        String contenu = texte.trim();
+        if (contenu.startsWith("[") && contenu.endsWith("]")) {
+            contenu = contenu.substring(1, contenu.length() - 1);
+        }
+        for (String valeur : contenu.split(",")) {
+            String nettoyee = valeur.trim();
+            if (nettoyee.length() >= 2 && nettoyee.startsWith("\"") && nettoyee.endsWith("\"")) {
+                nettoyee = nettoyee.substring(1, nettoyee.length() - 1).trim();
+            }
+            if (!nettoyee.isEmpty()) {
+                valeurs.add(nettoyee);
+            }
+        }
+        return valeurs;
+    }
+}
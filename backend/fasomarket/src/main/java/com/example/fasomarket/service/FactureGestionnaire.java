@@ -0,0 +1,44 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.model.Payment;
+import com.example.fasomarket.model.TypeEvenementOutbox;
+import com.example.fasomarket.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Génération et envoi de la facture d'un paiement confirmé. Une facture déjà
+ * générée pour la commande n'est pas refaite.
+ */
+@Service
+public class FactureGestionnaire implements GestionnaireOutbox {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Override
+    public String nom() {
+        return "facture";
+    }
+
+    @Override
+    public Set<TypeEvenementOutbox> types() {
+        return Set.of(TypeEvenementOutbox.PAIEMENT_CONFIRME);
+    }
+
+    @Override
+    @Transactional
+    public void traiter(TypeEvenementOutbox type, UUID agregatId, Map<String, Object> donnees) {
+        Payment payment = paymentRepository.findById(agregatId)
+                .orElseThrow(() -> new RuntimeException("Paiement non trouvé: " + agregatId));
+        invoiceService.genererFacture(payment.getOrder(), payment);
+    }
+}
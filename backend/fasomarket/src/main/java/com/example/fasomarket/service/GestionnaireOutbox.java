@@ -0,0 +1,23 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.model.TypeEvenementOutbox;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Effet de bord traité en arrière-plan par {@link OutboxService}. Un
+ * gestionnaire peut être rappelé plusieurs fois pour le même événement
+ * (échec, bail expiré) : il doit le tolérer. Lever une exception replanifie
+ * l'événement.
+ */
+public interface GestionnaireOutbox {
+
+    /** Nom enregistré avec chaque événement, stable d'une version à l'autre. */
+    String nom();
+
+    Set<TypeEvenementOutbox> types();
+
+    void traiter(TypeEvenementOutbox type, UUID agregatId, Map<String, Object> donnees);
+}
@@ -0,0 +1,297 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.repository.IdempotenceJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Requêtes rejouables sans effet double grâce à l'en-tête {@code Idempotency-Key}.
+ *
+ * La première requête d'une clé la prend dans {@code idempotency_keys}, s'exécute,
+ * puis y enregistre sa réponse pour la durée de rétention. Les répétitions reçoivent
+ * cette réponse telle quelle (en-tête {@code Idempotent-Replayed}) ; une même clé
+ * réutilisée pour un autre corps de requête est refusée. Les réponses récentes sont
+ * aussi gardées en mémoire, et un doublon arrivant pendant l'exécution attend le
+ * résultat de la première requête : en mémoire sur la même instance, en relisant la
+ * table sinon. Une requête qui échoue (exception ou erreur 5xx) relâche sa clé. Les
+ * clés expirées sont purgées par lots.
+ */
+@Service
+public class IdempotenceService {
+
+    public static final String EN_TETE = "Idempotency-Key";
+
+    public record Statistiques(long executions, long rejeuxMemoire, long rejeuxBase, long attentes,
+            long conflits, int enMemoire, int enCours, long purgees) {
+    }
+
+    private record Resultat(int codeHttp, String corps, String empreinte, long expireA) {
+    }
+
+    private static final int LONGUEUR_CLE_MAX = 255;
+    private static final long SONDAGE_MS = 100;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Autowired
+    private IdempotenceJdbcRepository idempotenceJdbcRepository;
+
+    @Value("${idempotence.ttl-heures:24}")
+    private long ttlHeures;
+
+    @Value("${idempotence.attente-ms:30000}")
+    private long attenteMs;
+
+    @Value("${idempotence.abandon-secondes:120}")
+    private long abandonSecondes;
+
+    @Value("${idempotence.cache-max:10000}")
+    private int cacheMax;
+
+    @Value("${idempotence.purge.taille-lot:1000}")
+    private int tailleLotPurge;
+
+    private final LinkedHashMap<String, Resultat> recents = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Resultat> eldest) {
+            return size() > cacheMax;
+        }
+    };
+
+    private final ConcurrentHashMap<String, CompletableFuture<Resultat>> enCours = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder rejeuxMemoire = new LongAdder();
+    private final LongAdder rejeuxBase = new LongAdder();
+    private final LongAdder attentes = new LongAdder();
+    private final LongAdder conflits = new LongAdder();
+    private final LongAdder purgees = new LongAdder();
+
+    /**
+     * Exécute {@code action} une seule fois par clé. Sans clé, la requête
+     * s'exécute normalement.
+     */
+    public ResponseEntity<?> executer(String portee, UUID utilisateurId, String cle, Object requete,
+            Supplier<ResponseEntity<?>> action) {
+        if (cle == null || cle.isBlank()) {
+            return action.get();
+        }
+        if (cle.length() > LONGUEUR_CLE_MAX) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", EN_TETE + " trop longue (" + LONGUEUR_CLE_MAX + " caractères maximum)"
+            ));
+        }
+        String id = portee + ":" + (utilisateurId != null ? utilisateurId : "-") + ":" + cle;
+        String empreinte = empreinte(requete);
+
+        Resultat connu = recent(id);
+        if (connu != null) {
+            rejeuxMemoire.increment();
+            return rejouer(connu, empreinte);
+        }
+
+        // Un seul exécutant par clé sur cette instance, les doublons attendent son résultat
+        CompletableFuture<Resultat> moi = new CompletableFuture<>();
+        CompletableFuture<Resultat> premier = enCours.putIfAbsent(id, moi);
+        if (premier != null) {
+            attentes.increment();
+            return attendre(premier, empreinte);
+        }
+        try {
+            return executerSeul(id, empreinte, action, moi);
+        } finally {
+            enCours.remove(id, moi);
+            moi.complete(null);
+        }
+    }
+
+    private ResponseEntity<?> executerSeul(String id, String empreinte, Supplier<ResponseEntity<?>> action,
+            CompletableFuture<Resultat> moi) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        if (!idempotenceJdbcRepository.prendre(id, empreinte, maintenant.plusHours(ttlHeures),
+                maintenant.minusSeconds(abandonSecondes))) {
+            // Déjà prise : terminée, ou en cours sur une autre instance
+            return attendreBase(id, empreinte);
+        }
+
+        ResponseEntity<?> reponse;
+        try {
+            reponse = action.get();
+        } catch (RuntimeException e) {
+            relacher(id);
+            throw e;
+        }
+        executions.increment();
+
+        String corps;
+        try {
+            corps = objectMapper.writeValueAsString(reponse.getBody());
+        } catch (Exception e) {
+            System.err.println("Erreur sérialisation réponse idempotente: " + e.getMessage());
+            relacher(id);
+            return reponse;
+        }
+        Resultat resultat = new Resultat(reponse.getStatusCode().value(), corps, empreinte,
+                System.currentTimeMillis() + TimeUnit.HOURS.toMillis(ttlHeures));
+        moi.complete(resultat);
+
+        if (reponse.getStatusCode().is5xxServerError()) {
+            relacher(id);
+        } else {
+            idempotenceJdbcRepository.terminer(id, resultat.codeHttp(), corps);
+            synchronized (recents) {
+                recents.put(id, resultat);
+            }
+        }
+        return reponse;
+    }
+
+    private ResponseEntity<?> attendre(CompletableFuture<Resultat> premier, String empreinte) {
+        try {
+            Resultat resultat = premier.get(attenteMs, TimeUnit.MILLISECONDS);
+            if (resultat != null) {
+                return rejouer(resultat, empreinte);
+            }
+        } catch (TimeoutException e) {
+            // Réponse « en cours » ci-dessous
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Erreur attente requête idempotente: " + e.getMessage());
+        }
+        return enCours();
+    }
+
+    private ResponseEntity<?> attendreBase(String id, String empreinte) {
+        long limite = System.currentTimeMillis() + attenteMs;
+        while (true) {
+            IdempotenceJdbcRepository.Enregistrement enregistrement =
+                    idempotenceJdbcRepository.trouver(id).orElse(null);
+            if (enregistrement == null) {
+                // Relâchée entre-temps : la répétition suivante l'exécutera
+                return enCours();
+            }
+            if ("TERMINE".equals(enregistrement.statut())) {
+                Resultat resultat = new Resultat(enregistrement.codeHttp(), enregistrement.reponse(),
+                        enregistrement.empreinte(),
+                        enregistrement.expireLe().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                synchronized (recents) {
+                    recents.put(id, resultat);
+                }
+                rejeuxBase.increment();
+                return rejouer(resultat, empreinte);
+            }
+            if (System.currentTimeMillis() >= limite) {
+                return enCours();
+            }
+            attentes.increment();
+            try {
+                Thread.sleep(SONDAGE_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return enCours();
+            }
+        }
+    }
+
+    private ResponseEntity<?> rejouer(Resultat resultat, String empreinte) {
+        if (!resultat.empreinte().equals(empreinte)) {
+            conflits.increment();
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of(
+                "success", false,
+                "message", EN_TETE + " déjà utilisée pour une autre requête"
+            ));
+        }
+        try {
+            return ResponseEntity.status(resultat.codeHttp())
+                    .header("Idempotent-Replayed", "true")
+                    .body(objectMapper.readValue(resultat.corps(), Object.class));
+        } catch (Exception e) {
+            throw new RuntimeException("Réponse enregistrée illisible: " + e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> enCours() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+            "success", false,
+            "message", "Requête déjà en cours de traitement, réessayez dans un instant"
+        ));
+    }
+
+    private Resultat recent(String id) {
+        synchronized (recents) {
+            Resultat resultat = recents.get(id);
+            if (resultat != null && resultat.expireA() < System.currentTimeMillis()) {
+                recents.remove(id);
+                return null;
+            }
+            return resultat;
+        }
+    }
+
+    private void relacher(String id) {
+        try {
+            idempotenceJdbcRepository.relacher(id);
+        } catch (Exception e) {
+            // La clé sera reprise une fois abandonnée
+            System.err.println("Erreur libération clé d'idempotence: " + e.getMessage());
+        }
+    }
+
+    private String empreinte(Object requete) {
+        try {
+            byte[] octets = objectMapper.writeValueAsString(requete).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(octets));
+        } catch (Exception e) {
+            throw new RuntimeException("Empreinte de requête impossible: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotence.purge.intervalle-ms:300000}")
+    public void purger() {
+        long maintenant = System.currentTimeMillis();
+        synchronized (recents) {
+            recents.values().removeIf(r -> r.expireA() < maintenant);
+        }
+        try {
+            int supprimees;
+            do {
+                supprimees = idempotenceJdbcRepository.purger(tailleLotPurge);
+                purgees.add(supprimees);
+            } while (supprimees == tailleLotPurge);
+        } catch (Exception e) {
+            System.err.println("Erreur purge des clés d'idempotence: " + e.getMessage());
+        }
+    }
+
+    public Statistiques getStatistiques() {
+        int enMemoire;
+        synchronized (recents) {
+            enMemoire = recents.size();
+        }
+        return new Statistiques(executions.sum(), rejeuxMemoire.sum(), rejeuxBase.sum(), attentes.sum(),
+                conflits.sum(), enMemoire, enCours.size(), purgees.sum());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.config.StockProperties;
+import com.example.fasomarket.dto.LigneInventaire;
+import com.example.fasomarket.repository.ProduitVarianteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inventaire des variantes d'un vendeur (tableau de bord stock).
+ *
+ * Une requête par page, filtrée par vendeur et par seuils de stock côté base,
+ * et un cache court par vendeur : les rafraîchissements répétés du tableau de
+ * bord ne relisent pas la base à chaque appel. Les ventes n'invalident pas le
+ * cache (la durée de vie suffit) ; un réapprovisionnement par le vendeur vide
+ * aussitôt le sien.
+ */
+@Service
+public class InventaireVendeurService {
+
+    public record Statistiques(long succes, long defauts, int vendeurs, double tauxSucces) {
+    }
+
+    private record Cle(int stockMin, int stockMax, boolean sousSeuilAlerte, int page, int taille) {
+    }
+
+    private record Entree(Page<LigneInventaire> page, long expireA) {
+    }
+
+    public static final int TAILLE_MAX_PAGE = 200;
+
+    @Autowired
+    private ProduitVarianteRepository produitVarianteRepository;
+
+    @Autowired
+    private StockProperties stockProperties;
+
+    @Value("${vendeurs.inventaire.ttl-secondes:30}")
+    private long ttlSecondes;
+
+    @Value("${vendeurs.inventaire.vendeurs-max:1000}")
+    private int vendeursMax;
+
+    // Ordre d'accès : le vendeur le moins récemment consulté est évincé en premier
+    private final LinkedHashMap<UUID, Map<Cle, Entree>> parVendeur = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Map<Cle, Entree>> eldest) {
+            return size() > vendeursMax;
+        }
+    };
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder defauts = new LongAdder();
+
+    /**
+     * Page d'inventaire d'un vendeur, stock compris entre {@code stockMin} et
+     * {@code stockMax} ; {@code taille} 0 renvoie tout l'inventaire filtré.
+     */
+    public Page<LigneInventaire> getInventaire(UUID vendeurId, int stockMin, int stockMax,
+            boolean sousSeuilAlerte, int page, int taille) {
+        int taillePage = taille <= 0 ? 0 : Math.min(taille, TAILLE_MAX_PAGE);
+        Cle cle = new Cle(stockMin, stockMax, sousSeuilAlerte, Math.max(page, 0), taillePage);
+        long maintenant = System.currentTimeMillis();
+        synchronized (parVendeur) {
+            Map<Cle, Entree> pages = parVendeur.get(vendeurId);
+            Entree entree = pages != null ? pages.get(cle) : null;
+            if (entree != null && entree.expireA() >= maintenant) {
+                succes.increment();
+                return entree.page();
+            }
+        }
+        defauts.increment();
+
+        Pageable pageable = taillePage == 0 ? Pageable.unpaged() : PageRequest.of(cle.page(), taillePage);
+        Page<LigneInventaire> resultat = produitVarianteRepository.findInventaireVendeur(vendeurId,
+                stockMin, stockMax, sousSeuilAlerte, stockProperties.getAlert().getThreshold(), pageable);
+        synchronized (parVendeur) {
+            Map<Cle, Entree> pages = parVendeur.computeIfAbsent(vendeurId, id -> new HashMap<>());
+            pages.values().removeIf(e -> e.expireA() < maintenant);
+            pages.put(cle, new Entree(resultat, maintenant + ttlSecondes * 1000));
+        }
+        return resultat;
+    }
+
+    public void invalider(UUID vendeurId) {
+        synchronized (parVendeur) {
+            parVendeur.remove(vendeurId);
+        }
+    }
+
+    public Statistiques getStatistiques() {
+        long s = succes.sum();
+        long d = defauts.sum();
+        int vendeurs;
+        synchronized (parVendeur) {
+            vendeurs = parVendeur.size();
+        }
+        return new Statistiques(s, d, vendeurs, s + d == 0 ? 0 : (double) s / (s + d));
+    }
+}
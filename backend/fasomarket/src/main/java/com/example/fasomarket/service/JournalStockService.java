@@ -0,0 +1,156 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.EcartStock;
+import com.example.fasomarket.model.MouvementStock;
+import com.example.fasomarket.model.TypeMouvementStock;
+import com.example.fasomarket.repository.JournalStockJdbcRepository;
+import com.example.fasomarket.repository.MouvementStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Journal des mouvements de stock.
+ *
+ * Chaque réservation, libération, vente, réapprovisionnement ou saisie
+ * directe ajoute une ligne signée à {@code stock_movements}, dans la
+ * transaction qui modifie le stock : les mouvements sont accumulés et insérés
+ * en un seul lot JDBC juste avant le commit. La colonne de stock reste la vue
+ * courante, tenue à jour dans la même transaction ; le journal permet
+ * d'auditer une survente et de reconstituer le stock d'un article (solde
+ * compacté + mouvements restants). Un compactage périodique reporte les
+ * mouvements anciens dans {@code stock_snapshots} puis les supprime.
+ */
+@Service
+public class JournalStockService {
+
+    public record Statistiques(long mouvementsEcrits, long lotsEcrits, long mouvementsCompactes,
+            LocalDateTime dernierCompactage) {
+    }
+
+    /** Mouvements de la transaction en cours, écrits avant son commit. */
+    private final class Lot implements TransactionSynchronization {
+        private final List<MouvementStock> mouvements = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!mouvements.isEmpty()) {
+                ecrire(mouvements);
+            }
+        }
+    }
+
+    @Autowired
+    private JournalStockJdbcRepository journalStockJdbcRepository;
+
+    @Autowired
+    private MouvementStockRepository mouvementStockRepository;
+
+    @Value("${stock.journal.retention-jours:30}")
+    private long retentionJours;
+
+    @Value("${stock.journal.taille-lot:5000}")
+    private int tailleLot;
+
+    private final AtomicBoolean compactageEnCours = new AtomicBoolean(false);
+    private final LongAdder mouvementsEcrits = new LongAdder();
+    private final LongAdder lotsEcrits = new LongAdder();
+    private final LongAdder mouvementsCompactes = new LongAdder();
+    private volatile LocalDateTime dernierCompactage;
+
+    /**
+     * Note un mouvement ; {@code quantite} est signée (négative quand le stock baisse).
+     * Sans transaction active, le mouvement est écrit aussitôt.
+     */
+    public void noter(TypeMouvementStock type, UUID produitId, Long varianteId, int quantite, Object reference) {
+        if (quantite == 0 || produitId == null) {
+            return;
+        }
+        MouvementStock mouvement = new MouvementStock(type, produitId, varianteId, quantite,
+                reference != null ? reference.toString() : null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ecrire(List.of(mouvement));
+            return;
+        }
+        lotCourant().mouvements.add(mouvement);
+    }
+
+    private Lot lotCourant() {
+        // Recherché parmi les synchronisations : une transaction suspendue garde son propre lot
+        for (TransactionSynchronization synchronisation : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronisation instanceof Lot lot) {
+                return lot;
+            }
+        }
+        Lot lot = new Lot();
+        TransactionSynchronizationManager.registerSynchronization(lot);
+        return lot;
+    }
+
+    private void ecrire(List<MouvementStock> mouvements) {
+        journalStockJdbcRepository.inserer(mouvements);
+        mouvementsEcrits.add(mouvements.size());
+        lotsEcrits.increment();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ouvrirSoldes() {
+        try {
+            int ouverts = journalStockJdbcRepository.ouvrirSoldes();
+            if (ouverts > 0) {
+                System.out.println("Journal de stock : " + ouverts + " solde(s) d'ouverture créé(s)");
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur ouverture du journal de stock: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock.journal.compactage-ms:3600000}",
+            initialDelayString = "${stock.journal.compactage-ms:3600000}")
+    public void compacter() {
+        if (!compactageEnCours.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDateTime avant = LocalDateTime.now().minusDays(retentionJours);
+            int compactes;
+            // Un lot par transaction courte, jusqu'à épuisement
+            do {
+                compactes = journalStockJdbcRepository.compacter(avant, tailleLot);
+                mouvementsCompactes.add(compactes);
+            } while (compactes == tailleLot);
+            dernierCompactage = LocalDateTime.now();
+        } catch (Exception e) {
+            System.err.println("Erreur compactage du journal de stock: " + e.getMessage());
+        } finally {
+            compactageEnCours.set(false);
+        }
+    }
+
+    public List<MouvementStock> getHistoriqueProduit(UUID produitId, int limite) {
+        return mouvementStockRepository.findByProduitIdOrderByIdDesc(produitId,
+                PageRequest.of(0, Math.max(1, Math.min(limite, 500))));
+    }
+
+    public List<EcartStock> getEcarts(int limite) {
+        return journalStockJdbcRepository.ecarts(Math.max(1, Math.min(limite, 500)));
+    }
+
+    public Statistiques getStatistiques() {
+        return new Statistiques(mouvementsEcrits.sum(), lotsEcrits.sum(), mouvementsCompactes.sum(),
+                dernierCompactage);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.model.Order;
+import com.example.fasomarket.model.OrderStatus;
+import com.example.fasomarket.model.Payment;
+import com.example.fasomarket.model.TypeEvenementOutbox;
+import com.example.fasomarket.repository.OrderRepository;
+import com.example.fasomarket.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Notifications (en base et par e-mail) des changements de statut et des paiements.
+ */
+@Service
+public class NotificationCommandeGestionnaire implements GestionnaireOutbox {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderNotificationService orderNotificationService;
+
+    @Override
+    public String nom() {
+        return "notification";
+    }
+
+    @Override
+    public Set<TypeEvenementOutbox> types() {
+        return Set.of(TypeEvenementOutbox.STATUT_COMMANDE_CHANGE, TypeEvenementOutbox.PAIEMENT_CONFIRME);
+    }
+
+    @Override
+    @Transactional
+    public void traiter(TypeEvenementOutbox type, UUID agregatId, Map<String, Object> donnees) {
+        if (type == TypeEvenementOutbox.STATUT_COMMANDE_CHANGE) {
+            Order order = orderRepository.findById(agregatId)
+                    .orElseThrow(() -> new RuntimeException("Commande non trouvée: " + agregatId));
+            // Le statut notifié est celui de l'événement, pas celui de la commande au moment du traitement
+            orderNotificationService.notifierChangementStatut(order,
+                    OrderStatus.valueOf((String) donnees.get("ancienStatut")),
+                    OrderStatus.valueOf((String) donnees.get("nouveauStatut")));
+            return;
+        }
+
+        Payment payment = paymentRepository.findById(agregatId)
+                .orElseThrow(() -> new RuntimeException("Paiement non trouvé: " + agregatId));
+        if (Boolean.TRUE.equals(donnees.get("confirmation"))) {
+            orderNotificationService.notifierPaiementConfirme(payment.getOrder());
+        } else {
+            orderNotificationService.notifierPaiementReussi(payment.getOrder(), payment);
+        }
+    }
+}
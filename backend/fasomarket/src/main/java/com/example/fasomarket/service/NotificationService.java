@@ -1,9 +1,12 @@
 package com.example.fasomarket.service;
 
+import com.example.fasomarket.dto.Curseur;
 import com.example.fasomarket.dto.NotificationResponse;
+import com.example.fasomarket.dto.PageCurseur;
 import com.example.fasomarket.model.*;
 import com.example.fasomarket.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -42,6 +45,13 @@ public class NotificationService {
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    public PageCurseur<NotificationResponse> obtenirNotifications(UUID userId, Curseur curseur, int taille) {
+        List<Notification> lues = notificationRepository.findPageParUtilisateur(userId,
+                curseur.date(), curseur.id(), PageRequest.of(0, taille + 1));
+        return PageCurseur.de(lues, taille, Notification::getCreatedAt, Notification::getId)
+                .map(this::mapToResponse);
+    }
+
     public List<NotificationResponse> obtenirNotificationsNonLues(UUID userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
@@ -186,10 +186,10 @@ public class OrderNotificationService {
         }
     }
     
-    public void notifierChangementStatut(Order order, OrderStatus ancienStatut) {
+    public void notifierChangementStatut(Order order, OrderStatus ancienStatut, OrderStatus nouveauStatut) {
         if (!orderNotificationsEnabled) return;
         
-        switch (order.getStatus()) {
+        switch (nouveauStatut) {
             case CONFIRMED:
                 notifierCommandeConfirmee(order);
                 break;
@@ -211,7 +211,7 @@ public class OrderNotificationService {
                 notificationService.creerNotification(
                     order.getClient().getId(),
                     "📋 Mise à jour commande",
-                    "Le statut de votre commande " + orderNumber + " a été mis à jour: " + getStatusLabel(order.getStatus())
+                    "Le statut de votre commande " + orderNumber + " a été mis à jour: " + getStatusLabel(nouveauStatut)
                 );
                 break;
         }
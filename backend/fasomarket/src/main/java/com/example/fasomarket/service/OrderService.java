@@ -4,10 +4,15 @@ import com.example.fasomarket.dto.*;
 import com.example.fasomarket.model.*;
 import com.example.fasomarket.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,16 +23,56 @@ public class OrderService {
     private OrderRepository orderRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private OutboxService outboxService;
 
     @Autowired
-    private CartRepository cartRepository;
+    private CheckoutService checkoutService;
 
     @Autowired
-    private OrderNotificationService orderNotificationService;
+    private ShopRepository shopRepository;
 
     @Autowired
-    private ProduitVarianteService produitVarianteService;
+    private ShopOrderRepository shopOrderRepository;
+
+    @Autowired
+    private ShopOrderJdbcRepository shopOrderJdbcRepository;
+
+    @Autowired
+    private VendorOrderIndexRepository vendorOrderIndexRepository;
+
+    @Autowired
+    private VendorOrderIndexJdbcRepository vendorOrderIndexJdbcRepository;
+
+    private static final int TAILLE_LOT_REPARTITION = 500;
+
+    /**
+     * Commandes passées avant les sous-commandes : réparties par boutique, par
+     * lots, puis reportées dans l'index des commandes vendeur.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void repartirCommandesExistantes() {
+        try {
+            int total = 0;
+            int creees;
+            do {
+                creees = shopOrderJdbcRepository.repartir(TAILLE_LOT_REPARTITION);
+                total += creees;
+            } while (creees > 0);
+            if (total > 0) {
+                System.out.println("Commandes existantes : " + total + " sous-commande(s) de boutique créée(s)");
+            }
+            // Sous-commandes écrites en SQL, hors de VendorOrderIndexEntityListener, ou
+            // sautées par une reprise antérieure : la reprise n'ajoute que les lignes manquantes
+            if (total > 0 || vendorOrderIndexJdbcRepository.estIncomplet()) {
+                UUID apres = null;
+                do {
+                    apres = vendorOrderIndexJdbcRepository.reprendre(apres, TAILLE_LOT_REPARTITION);
+                } while (apres != null);
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur répartition des commandes par boutique: " + e.getMessage());
+        }
+    }
 
     @Transactional
     public void recalculerTotauxCommandes() {
@@ -65,55 +110,7 @@ public class OrderService {
 
     @Transactional
     public CommandeResponse creerCommande(UUID clientId, CreerCommandeRequest request) {
-        User client = userRepository.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client non trouvé"));
-
-        List<Cart> items = cartRepository.findByClient(client);
-        if (items.isEmpty()) {
-            throw new RuntimeException("Panier vide");
-        }
-
-        Order order = new Order();
-        order.setClient(client);
-        order.setStatus(OrderStatus.PENDING);
-        order.setDeliveryAddress(request.getAdresseLivraison());
-        order.setNeedsDelivery(request.getNeedsDelivery());
-        order.setDeliveryPhone(request.getNumeroTelephone());
-
-        BigDecimal total = BigDecimal.ZERO;
-        for (Cart item : items) {
-            BigDecimal prixUnitaire = item.getProduct().getPrice();
-
-            // Ajouter le prix d'ajustement de la variante si présente
-            if (item.getVarianteId() != null) {
-                try {
-                    ProduitVariante variante = produitVarianteService.getVarianteById(item.getVarianteId().toString());
-                    prixUnitaire = prixUnitaire.add(BigDecimal.valueOf(variante.getPrixAjustement()));
-                } catch (Exception e) {
-                    // Ignorer si variante non trouvée
-                }
-            }
-
-            BigDecimal itemTotal = prixUnitaire.multiply(BigDecimal.valueOf(item.getQuantity()));
-            total = total.add(itemTotal);
-
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setProduct(item.getProduct());
-            orderItem.setQuantity(item.getQuantity());
-            orderItem.setUnitPrice(prixUnitaire);
-            orderItem.setVarianteId(item.getVarianteId());
-            orderItem.setSelectedColor(item.getSelectedColor());
-            orderItem.setSelectedSize(item.getSelectedSize());
-            orderItem.setSelectedModel(item.getSelectedModel());
-            order.getOrderItems().add(orderItem);
-        }
-
-        order.setTotalAmount(total);
-        Order savedOrder = orderRepository.save(order);
-        cartRepository.deleteByClient(client);
-
-        return mapToCommandeResponse(savedOrder);
+        return mapToCommandeResponse(checkoutService.passerCommande(clientId, request));
     }
 
     public List<CommandeResponse> obtenirMesCommandes(UUID clientId) {
@@ -133,41 +130,109 @@ public class OrderService {
     }
 
     public List<CommandeResponse> obtenirCommandesVendeur(UUID vendorUserId) {
-        User vendor = userRepository.findById(vendorUserId)
-                .orElseThrow(() -> new RuntimeException("Vendeur non trouvé"));
+        return detaillerCommandesVendeur(vendorUserId,
+                vendorOrderIndexRepository.findRecentes(vendorUserId, Pageable.unpaged()));
+    }
 
-        List<Order> orders = orderRepository.findOrdersByVendor(vendor);
-        return orders.stream().map(this::mapToCommandeResponse).collect(Collectors.toList());
+    public PageCurseur<CommandeResponse> obtenirCommandesVendeur(UUID vendorUserId, Curseur curseur, int taille) {
+        List<VendorOrderIndex> lignes = vendorOrderIndexRepository.findPage(vendorUserId,
+                curseur.date(), curseur.id(), PageRequest.of(0, taille + 1));
+        PageCurseur<VendorOrderIndex> page = PageCurseur.de(lignes, taille,
+                VendorOrderIndex::getCreatedAt, VendorOrderIndex::getOrderId);
+        return new PageCurseur<>(detaillerCommandesVendeur(vendorUserId, page.elements()), page.suivant());
     }
 
     public List<CommandeResponse> obtenirCommandesVendeurParStatut(UUID vendorUserId, OrderStatus statut) {
-        User vendor = userRepository.findById(vendorUserId)
-                .orElseThrow(() -> new RuntimeException("Vendeur non trouvé"));
-
-        List<Order> orders = orderRepository.findOrdersByVendorAndStatus(vendor, statut);
-        return orders.stream().map(this::mapToCommandeResponse).collect(Collectors.toList());
+        return detaillerCommandesVendeur(vendorUserId,
+                vendorOrderIndexRepository.findByStatut(vendorUserId, statut));
     }
 
-    @Transactional
-    public CommandeResponse changerStatutCommandeVendeur(UUID vendorUserId, UUID commandeId, OrderStatus statut) {
-        Order order = orderRepository.findById(commandeId)
+    public CommandeResponse obtenirCommandeVendeur(UUID vendorUserId, UUID commandeId) {
+        if (!vendorOrderIndexRepository.existsByVendorUserIdAndOrderId(vendorUserId, commandeId)) {
+            throw new RuntimeException("Commande non trouvée");
+        }
+        return detaillerCommandesVendeur(vendorUserId, List.of(commandeId), List.of()).stream()
+                .findFirst()
                 .orElseThrow(() -> new RuntimeException("Commande non trouvée"));
+    }
+
+    public long compterCommandesVendeur(UUID vendorUserId, OrderStatus statut) {
+        return vendorOrderIndexRepository.countByStatut(vendorUserId, statut);
+    }
 
-        // Vérifier que le vendeur a des produits dans cette commande
-        boolean hasProducts = order.getOrderItems().stream()
-                .anyMatch(item -> item.getProduct().getShop().getVendor().getUser().getId().equals(vendorUserId));
+    public BigDecimal ventesVendeurDepuis(UUID vendorUserId, LocalDateTime depuis) {
+        return vendorOrderIndexRepository.sumTotalDepuis(vendorUserId, depuis);
+    }
 
-        if (!hasProducts) {
-            throw new RuntimeException("Non autorisé");
+    /**
+     * Dernières commandes du vendeur, lues dans l'index seul (sans articles).
+     */
+    public List<VendorOrderIndex> obtenirCommandesRecentesVendeur(UUID vendorUserId, int nombre) {
+        return vendorOrderIndexRepository.findRecentes(vendorUserId, PageRequest.of(0, nombre));
+    }
+
+    private List<CommandeResponse> detaillerCommandesVendeur(UUID vendorUserId, List<VendorOrderIndex> lignes) {
+        return detaillerCommandesVendeur(vendorUserId,
+                lignes.stream().map(VendorOrderIndex::getOrderId).toList(), lignes);
+    }
+
+    /**
+     * Articles des commandes retenues par l'index, limités aux boutiques du
+     * vendeur, dans l'ordre de l'index ; ses sous-commandes d'une même
+     * commande sont réunies.
+     */
+    private List<CommandeResponse> detaillerCommandesVendeur(UUID vendorUserId, List<UUID> orderIds,
+            List<VendorOrderIndex> lignes) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> shopIds = shopRepository.findIdsByVendorUserId(vendorUserId);
+        if (shopIds.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, CommandeResponse> parCommande = new HashMap<>();
+        for (ShopOrder shopOrder : shopOrderRepository.findByOrderIdsAndShopIds(orderIds, shopIds)) {
+            CommandeResponse response = mapToCommandeResponse(shopOrder);
+            parCommande.merge(response.getId(), response, (premiere, autre) -> {
+                premiere.getArticles().addAll(autre.getArticles());
+                premiere.setTotalAmount(premiere.getTotalAmount().add(autre.getTotalAmount()));
+                return premiere;
+            });
         }
+        Map<UUID, OrderStatus> statuts = new HashMap<>();
+        lignes.forEach(ligne -> statuts.put(ligne.getOrderId(), ligne.getStatus()));
+
+        List<CommandeResponse> commandes = new ArrayList<>();
+        for (UUID orderId : orderIds) {
+            CommandeResponse response = parCommande.get(orderId);
+            if (response != null) {
+                response.setStatut(statuts.getOrDefault(orderId, response.getStatut()));
+                commandes.add(response);
+            }
+        }
+        return commandes;
+    }
 
-        OrderStatus oldStatus = order.getStatus();
-        order.setStatus(statut);
-        Order savedOrder = orderRepository.save(order);
+    /**
+     * Le vendeur change le statut de sa sous-commande ; la commande du client
+     * prend le statut déduit de toutes ses sous-commandes.
+     */
+    @Transactional
+    public CommandeResponse changerStatutCommandeVendeur(UUID vendorUserId, UUID commandeId, OrderStatus statut) {
+        // Propriété vérifiée par le filtre sur les boutiques du vendeur
+        ShopOrder shopOrder = shopOrderRepository.findByOrderIdAndShopIds(commandeId,
+                        shopRepository.findIdsByVendorUserId(vendorUserId))
+                .orElseThrow(() -> new RuntimeException("Non autorisé"));
+        shopOrder.setStatus(statut);
 
-        orderNotificationService.notifierChangementStatut(savedOrder, oldStatus);
+        Order order = shopOrder.getOrder();
+        OrderStatus oldStatus = order.getStatus();
+        order.recalculerStatut();
+        if (order.getStatus() != oldStatus) {
+            publierChangementStatut(order, oldStatus);
+        }
 
-        return mapToCommandeResponse(savedOrder);
+        return mapToCommandeResponse(shopOrder);
     }
 
     @Transactional
@@ -179,11 +244,37 @@ public class OrderService {
         order.setStatus(statut);
         Order savedOrder = orderRepository.save(order);
 
-        orderNotificationService.notifierChangementStatut(savedOrder, oldStatus);
+        publierChangementStatut(savedOrder, oldStatus);
 
         return mapToCommandeResponse(savedOrder);
     }
 
+    // Notifié après le commit, hors de la requête
+    private void publierChangementStatut(Order order, OrderStatus ancienStatut) {
+        outboxService.publier(TypeEvenementOutbox.STATUT_COMMANDE_CHANGE, order.getId(), Map.of(
+                "ancienStatut", ancienStatut.name(),
+                "nouveauStatut", order.getStatus().name()));
+    }
+
+    /**
+     * Vue vendeur : la commande réduite à la part de sa boutique.
+     */
+    private CommandeResponse mapToCommandeResponse(ShopOrder shopOrder) {
+        CommandeResponse response = new CommandeResponse();
+        UUID orderId = shopOrder.getOrderId();
+        response.setId(orderId);
+        response.setNumeroCommande("CMD-" + orderId.toString().substring(0, 8));
+        response.setStatut(shopOrder.getStatus());
+        response.setTotalAmount(shopOrder.getTotalAmount());
+        response.setDateCommande(shopOrder.getCreatedAt());
+        response.setAdresseLivraison(shopOrder.getDeliveryAddress());
+        response.setNeedsDelivery(shopOrder.getNeedsDelivery());
+        response.setTelephoneLivraison(shopOrder.getDeliveryPhone());
+        response.setNomClient(shopOrder.getClient().getFullName());
+        response.setArticles(mapToArticles(shopOrder.getItems()));
+        return response;
+    }
+
     private CommandeResponse mapToCommandeResponse(Order order) {
         CommandeResponse response = new CommandeResponse();
         response.setId(order.getId());
@@ -195,11 +286,16 @@ public class OrderService {
         response.setNeedsDelivery(order.getNeedsDelivery());
         response.setTelephoneLivraison(order.getDeliveryPhone());
         response.setNomClient(order.getClient().getFullName());
+        response.setArticles(mapToArticles(order.getOrderItems()));
+
+        return response;
+    }
 
+    private List<Object> mapToArticles(List<OrderItem> items) {
         // Convert OrderItems to articles
         List<Object> articles = new ArrayList<>();
-        if (order.getOrderItems() != null) {
-            for (OrderItem item : order.getOrderItems()) {
+        if (items != null) {
+            for (OrderItem item : items) {
                 Map<String, Object> article = new HashMap<>();
                 article.put("id", item.getId());
                 article.put("nomProduit", item.getProduct().getName());
@@ -216,8 +312,6 @@ public class OrderService {
                 articles.add(article);
             }
         }
-        response.setArticles(articles);
-
-        return response;
+        return articles;
     }
 }
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.model.TypeEvenementOutbox;
+import com.example.fasomarket.repository.OutboxJdbcRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Effets de bord des commandes et paiements, sortis du chemin de la requête.
+ *
+ * {@link #publier} écrit l'événement dans {@code outbox_events}, dans la
+ * transaction de l'opération métier : il n'existe que si elle est validée, et
+ * n'est jamais perdu si elle l'est. Un relevé en arrière-plan (réveillé après
+ * chaque commit, sinon toutes les {@code outbox.intervalle-ms}) prend les
+ * événements dus avec {@code SKIP LOCKED} et confie chacun à son
+ * {@link GestionnaireOutbox} sur un thread virtuel, au plus
+ * {@code outbox.concurrence} à la fois. Un échec est retenté avec un délai
+ * exponentiel (plus un aléa), jusqu'à {@code outbox.tentatives-max}. La
+ * livraison est « au moins une fois » : un gestionnaire peut revoir un
+ * événement déjà traité si l'instance s'arrête avant de l'avoir noté.
+ */
+@Service
+public class OutboxService {
+
+    public record Statistiques(long publies, long traites, long reessais, long abandonnes, int enCours,
+            long delaiMoyenMs, long delaiMaxMs, Map<String, Long> parStatut) {
+    }
+
+    private static final int LONGUEUR_ERREUR_MAX = 1000;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Autowired
+    private OutboxJdbcRepository outboxJdbcRepository;
+
+    @Autowired
+    private List<GestionnaireOutbox> gestionnaires;
+
+    @Value("${outbox.concurrence:16}")
+    private int concurrence;
+
+    @Value("${outbox.taille-lot:100}")
+    private int tailleLot;
+
+    @Value("${outbox.intervalle-ms:1000}")
+    private long intervalleMs;
+
+    @Value("${outbox.bail-secondes:300}")
+    private int bailSecondes;
+
+    @Value("${outbox.tentatives-max:8}")
+    private int tentativesMax;
+
+    @Value("${outbox.reessai.initial-secondes:5}")
+    private long reessaiInitialSecondes;
+
+    @Value("${outbox.reessai.max-secondes:3600}")
+    private long reessaiMaxSecondes;
+
+    @Value("${outbox.retention-heures:72}")
+    private long retentionHeures;
+
+    @Value("${outbox.purge.taille-lot:1000}")
+    private int tailleLotPurge;
+
+    private final Map<String, GestionnaireOutbox> parNom = new HashMap<>();
+    private final Map<TypeEvenementOutbox, List<String>> abonnes = new EnumMap<>(TypeEvenementOutbox.class);
+
+    private final ExecutorService executeur =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbox-", 0).factory());
+    private Semaphore places;
+    private final Semaphore reveil = new Semaphore(0);
+    private volatile boolean actif;
+    private Thread releveur;
+
+    private final LongAdder publies = new LongAdder();
+    private final LongAdder traites = new LongAdder();
+    private final LongAdder reessais = new LongAdder();
+    private final LongAdder abandonnes = new LongAdder();
+    private final LongAdder delaiCumuleMs = new LongAdder();
+    private final AtomicLong delaiMaxMs = new AtomicLong();
+
+    @PostConstruct
+    public void initialiser() {
+        places = new Semaphore(concurrence);
+        for (GestionnaireOutbox gestionnaire : gestionnaires) {
+            parNom.put(gestionnaire.nom(), gestionnaire);
+            gestionnaire.types().forEach(type ->
+                    abonnes.computeIfAbsent(type, t -> new ArrayList<>()).add(gestionnaire.nom()));
+        }
+    }
+
+    /**
+     * Enregistre l'événement pour chacun de ses gestionnaires. À appeler dans
+     * la transaction de l'opération qui le produit.
+     */
+    public void publier(TypeEvenementOutbox type, UUID agregatId, Map<String, Object> donnees) {
+        List<String> noms = abonnes.getOrDefault(type, List.of());
+        if (noms.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(donnees);
+        } catch (Exception e) {
+            throw new RuntimeException("Événement " + type + " non sérialisable: " + e.getMessage());
+        }
+        outboxJdbcRepository.inserer(type, noms, agregatId, json);
+        publies.add(noms.size());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reveil.release();
+                }
+            });
+        } else {
+            reveil.release();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        actif = true;
+        releveur = Thread.ofVirtual().name("outbox-releveur").start(this::relever);
+    }
+
+    private void relever() {
+        while (actif) {
+            try {
+                reveil.tryAcquire(intervalleMs, TimeUnit.MILLISECONDS);
+                reveil.drainPermits();
+                // Enchaîner tant que les lots reviennent pleins
+                while (actif && distribuer()) {
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Erreur relevé des événements outbox: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Prend autant d'événements dus qu'il y a de places libres et les lance ;
+     * renvoie vrai si d'autres attendent probablement. Les événements ne sont
+     * pris qu'une fois une place acquise, pour que leur bail coure pendant
+     * leur traitement et non dans une file.
+     */
+    private boolean distribuer() throws InterruptedException {
+        places.acquire();
+        int reservees = 1 + places.drainPermits();
+        if (reservees > tailleLot) {
+            places.release(reservees - tailleLot);
+            reservees = tailleLot;
+        }
+
+        List<OutboxJdbcRepository.Evenement> lot;
+        try {
+            lot = outboxJdbcRepository.reserver(reservees, bailSecondes);
+        } catch (RuntimeException e) {
+            places.release(reservees);
+            throw e;
+        }
+        places.release(reservees - lot.size());
+        for (OutboxJdbcRepository.Evenement evenement : lot) {
+            executeur.execute(() -> {
+                try {
+                    traiter(evenement);
+                } finally {
+                    places.release();
+                }
+            });
+        }
+        return lot.size() == reservees;
+    }
+
+    private void traiter(OutboxJdbcRepository.Evenement evenement) {
+        try {
+            GestionnaireOutbox gestionnaire = parNom.get(evenement.gestionnaire());
+            if (gestionnaire == null) {
+                throw new IllegalStateException("Gestionnaire inconnu: " + evenement.gestionnaire());
+            }
+            Map<String, Object> donnees = evenement.donnees() == null ? Map.of()
+                    : objectMapper.readValue(evenement.donnees(), new TypeReference<Map<String, Object>>() {});
+            gestionnaire.traiter(evenement.type(), evenement.agregatId(), donnees);
+            outboxJdbcRepository.marquerTraite(evenement.id());
+
+            traites.increment();
+            long delai = Math.max(0, Duration.between(evenement.creeLe(), LocalDateTime.now()).toMillis());
+            delaiCumuleMs.add(delai);
+            delaiMaxMs.accumulateAndGet(delai, Math::max);
+        } catch (Exception e) {
+            echouer(evenement, e);
+        }
+    }
+
+    private void echouer(OutboxJdbcRepository.Evenement evenement, Exception cause) {
+        String erreur = String.valueOf(cause.getMessage());
+        if (erreur.length() > LONGUEUR_ERREUR_MAX) {
+            erreur = erreur.substring(0, LONGUEUR_ERREUR_MAX);
+        }
+        try {
+            if (evenement.tentatives() >= tentativesMax) {
+                outboxJdbcRepository.abandonner(evenement.id(), erreur);
+                abandonnes.increment();
+                System.err.println("Événement outbox " + evenement.id() + " (" + evenement.type() + ", "
+                        + evenement.gestionnaire() + ") abandonné après " + evenement.tentatives()
+                        + " tentatives: " + erreur);
+            } else {
+                outboxJdbcRepository.reporter(evenement.id(), delaiReessai(evenement.tentatives()), erreur);
+                reessais.increment();
+            }
+        } catch (Exception e) {
+            // Le bail expirera et l'événement sera repris
+            System.err.println("Erreur replanification de l'événement outbox " + evenement.id() + ": "
+                    + e.getMessage());
+        }
+    }
+
+    // initial * 2^(tentatives - 1), plafonné, plus jusqu'à 20 % d'aléa pour étaler les reprises
+    private long delaiReessai(int tentatives) {
+        long delai = reessaiInitialSecondes << Math.min(Math.max(tentatives - 1, 0), 20);
+        delai = Math.min(delai, reessaiMaxSecondes);
+        return delai + ThreadLocalRandom.current().nextLong(delai / 5 + 1);
+    }
+
+    /**
+     * Remet en file les événements abandonnés (d'un gestionnaire, ou tous).
+     */
+    public int relancer(String gestionnaire) {
+        int relances = outboxJdbcRepository.relancer(gestionnaire);
+        if (relances > 0) {
+            reveil.release();
+        }
+        return relances;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge.intervalle-ms:600000}")
+    public void purger() {
+        try {
+            LocalDateTime avant = LocalDateTime.now().minusHours(retentionHeures);
+            int supprimes;
+            do {
+                supprimes = outboxJdbcRepository.purger(avant, tailleLotPurge);
+            } while (supprimes == tailleLotPurge);
+        } catch (Exception e) {
+            System.err.println("Erreur purge des événements outbox: " + e.getMessage());
+        }
+    }
+
+    public Statistiques getStatistiques() {
+        long total = traites.sum();
+        return new Statistiques(publies.sum(), total, reessais.sum(), abandonnes.sum(),
+                concurrence - places.availablePermits(), total == 0 ? 0 : delaiCumuleMs.sum() / total,
+                delaiMaxMs.get(), outboxJdbcRepository.compterParStatut());
+    }
+
+    @PreDestroy
+    public void arreter() {
+        actif = false;
+        if (releveur != null) {
+            releveur.interrupt();
+        }
+        executeur.shutdown();
+        try {
+            executeur.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -24,10 +24,7 @@ public class PayDunyaService {
     private PaymentRepository paymentRepository;
 
     @Autowired
-    private InvoiceService invoiceService;
-
-    @Autowired
-    private OrderNotificationService orderNotificationService;
+    private OutboxService outboxService;
 
     @Value("${payment.paydunya.master-key:test-master-key}")
     private String paydunyaMasterKey;
@@ -178,19 +175,8 @@ public class PayDunyaService {
                 payment.setPaymentDate(LocalDateTime.now());
                 payment.getOrder().setStatus(OrderStatus.PAID);
 
-                // Générer facture
-                try {
-                    invoiceService.genererFacture(payment.getOrder(), payment);
-                } catch (Exception e) {
-                    System.err.println("Erreur génération facture: " + e.getMessage());
-                }
-
-                // Notification
-                try {
-                    orderNotificationService.notifierPaiementReussi(payment.getOrder(), payment);
-                } catch (Exception e) {
-                    System.err.println("Erreur notification: " + e.getMessage());
-                }
+                // Facture et notification en arrière-plan, après le commit
+                outboxService.publier(TypeEvenementOutbox.PAIEMENT_CONFIRME, payment.getId(), Map.of());
 
             } else if ("cancelled".equals(status) || "failed".equals(status)) {
                 payment.setStatus(PaymentStatus.FAILED);
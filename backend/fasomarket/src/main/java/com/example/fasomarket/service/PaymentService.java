@@ -26,10 +26,7 @@ public class PaymentService {
     private NotificationService notificationService;
 
     @Autowired
-    private InvoiceService invoiceService;
-
-    @Autowired
-    private OrderNotificationService orderNotificationService;
+    private OutboxService outboxService;
 
     @Autowired
     private ProduitVarianteService produitVarianteService;
@@ -142,11 +139,9 @@ public class PaymentService {
             order.setStatus(OrderStatus.PAID);
             orderRepository.save(order);
 
-            // Générer facture
-            invoiceService.genererFacture(order, payment);
-
-            // Notification paiement confirmé
-            orderNotificationService.notifierPaiementConfirme(order);
+            // Facture et notification en arrière-plan, après le commit
+            outboxService.publier(TypeEvenementOutbox.PAIEMENT_CONFIRME, payment.getId(),
+                    Map.of("confirmation", true));
 
         } else if ("declined".equals(status)) {
             payment.setStatus(PaymentStatus.FAILED);
@@ -4,6 +4,7 @@ import com.example.fasomarket.dto.*;
 import com.example.fasomarket.model.*;
 import com.example.fasomarket.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -167,6 +168,13 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    public PageCurseur<ProduitResponse> obtenirMesProduits(UUID vendorUserId, Curseur curseur, int taille) {
+        List<Product> lus = productRepository.findPageVendeur(vendorUserId,
+                curseur.date(), curseur.id(), PageRequest.of(0, taille + 1));
+        return PageCurseur.de(lus, taille, Product::getCreatedAt, Product::getId)
+                .map(this::mapToResponse);
+    }
+
     public List<ProduitResponse> obtenirProduitsActifs() {
         return productRepository.findByIsActiveTrueAndAvailableTrue()
                 .stream()
@@ -0,0 +1,161 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache en lecture des fiches produit publiques (/api/public/produits/{id}).
+ *
+ * LRU borné avec durée de vie par entrée. Les défauts concurrents sur un même
+ * produit sont regroupés : un seul appel charge depuis la base, les autres
+ * attendent son résultat. Toute écriture sur un produit ou ses variantes
+ * publie un {@link CatalogueEvent} après le commit, qui retire l'entrée ; un
+ * chargement en cours au moment de l'invalidation n'est pas conservé. Le
+ * chargement en cours sert de jeton : l'invalidation le retire, et il n'est
+ * rangé que s'il est encore présent, vérification et rangement se faisant
+ * sous le même verrou que l'invalidation.
+ */
+@Service
+public class ProduitDetailCache {
+
+    public record Statistiques(long succes, long defauts, long chargements, long evictions,
+            long invalidations, int taille, double tauxSucces) {
+    }
+
+    private record Entree(Optional<Map<String, Object>> valeur, long expireA) {
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CataloguePublicMapper mapper;
+
+    @Value("${produits.cache.taille-max:5000}")
+    private int tailleMax;
+
+    @Value("${produits.cache.ttl-secondes:300}")
+    private long ttlSecondes;
+
+    // Ordre d'accès : l'entrée la plus ancienne est la moins récemment lue
+    private final LinkedHashMap<UUID, Entree> entrees = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Entree> eldest) {
+            if (size() > tailleMax) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<UUID, CompletableFuture<Optional<Map<String, Object>>>> enCours = new ConcurrentHashMap<>();
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder defauts = new LongAdder();
+    private final LongAdder chargements = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public Optional<Map<String, Object>> obtenir(UUID id) {
+        Entree entree;
+        synchronized (entrees) {
+            entree = entrees.get(id);
+            if (entree != null && entree.expireA() < System.currentTimeMillis()) {
+                entrees.remove(id);
+                entree = null;
+            }
+        }
+        if (entree != null) {
+            succes.increment();
+            return entree.valeur();
+        }
+        defauts.increment();
+
+        CompletableFuture<Optional<Map<String, Object>>> chargement = new CompletableFuture<>();
+        CompletableFuture<Optional<Map<String, Object>>> existant = enCours.putIfAbsent(id, chargement);
+        if (existant != null) {
+            return attendre(existant);
+        }
+        try {
+            chargements.increment();
+            Optional<Map<String, Object>> valeur = productRepository.findByIdAndIsActiveTrue(id)
+                    .map(mapper::versDetailProduit);
+            synchronized (entrees) {
+                // Retiré entre-temps par une invalidation : la valeur lue est peut-être périmée
+                if (enCours.remove(id, chargement)) {
+                    entrees.put(id, new Entree(valeur, System.currentTimeMillis() + ttlSecondes * 1000));
+                }
+            }
+            chargement.complete(valeur);
+            return valeur;
+        } catch (RuntimeException e) {
+            enCours.remove(id, chargement);
+            chargement.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Optional<Map<String, Object>> attendre(CompletableFuture<Optional<Map<String, Object>>> chargement) {
+        try {
+            return chargement.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalider(UUID id) {
+        synchronized (entrees) {
+            enCours.remove(id);
+            entrees.remove(id);
+        }
+        invalidations.increment();
+    }
+
+    public void vider() {
+        synchronized (entrees) {
+            enCours.clear();
+            entrees.clear();
+        }
+        invalidations.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onCatalogueModifie(CatalogueEvent event) {
+        switch (event.getCible()) {
+            case PRODUIT, VARIANTE -> invalider(event.getId());
+            // Le nom de la boutique figure dans chaque fiche
+            case BOUTIQUE -> vider();
+            default -> {
+            }
+        }
+    }
+
+    public Statistiques getStatistiques() {
+        long s = succes.sum();
+        long d = defauts.sum();
+        int taille;
+        synchronized (entrees) {
+            taille = entrees.size();
+        }
+        return new Statistiques(s, d, chargements.sum(), evictions.sum(), invalidations.sum(), taille,
+                s + d == 0 ? 0 : (double) s / (s + d));
+    }
+}
@@ -248,16 +248,8 @@ public class ProduitVarianteService {
     }
 
     public List<ProduitVariante> getVariantesByVendeur(UUID vendeurId) {
-        // Utiliser une approche différente pour récupérer les produits du vendeur
-        List<Product> produits = productRepository.findAll().stream()
-                .filter(p -> p.getShop() != null && 
-                           p.getShop().getVendor() != null && 
-                           p.getShop().getVendor().getUser() != null &&
-                           p.getShop().getVendor().getUser().getId().equals(vendeurId))
-                .toList();
-        return produits.stream()
-                .flatMap(produit -> produitVarianteRepository.findByProduit(produit).stream())
-                .collect(Collectors.toList());
+        // Une seule requête, filtrée par vendeur en base
+        return produitVarianteRepository.findByVendeurUserId(vendeurId);
     }
     
     // === NOUVELLES MÉTHODES POUR L'API VENDEUR ===
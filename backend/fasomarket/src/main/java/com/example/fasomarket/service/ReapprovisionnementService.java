@@ -0,0 +1,245 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.LigneReapprovisionnement;
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.model.TypeMouvementStock;
+import com.example.fasomarket.repository.StockJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Réapprovisionnement et ajustement du stock de nombreuses variantes en un appel.
+ *
+ * Toutes les variantes visées sont lues et verrouillées en une requête, qui
+ * donne aussi leur vendeur : la propriété est vérifiée sur l'ensemble, sans
+ * parcourir les entités. Le lot est tout ou rien ; les stocks sont écrits en
+ * une instruction pour les variantes et une pour les produits, et le vendeur
+ * reçoit une seule notification récapitulative.
+ */
+@Service
+public class ReapprovisionnementService {
+
+    public record Bilan(int lignes, int variantes, int produits, long unitesAjoutees, long unitesRetirees) {
+    }
+
+    private static final int ERREURS_MAX = 20;
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private JournalStockService journalStockService;
+
+    @Autowired
+    private InventaireVendeurService inventaireVendeurService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${stock.reapprovisionnement.lignes-max:10000}")
+    private int lignesMax;
+
+    @Transactional
+    public Bilan appliquer(UUID vendorUserId, List<LigneReapprovisionnement> lignes) {
+        if (lignes == null || lignes.isEmpty()) {
+            throw new RuntimeException("Aucune ligne à appliquer");
+        }
+        if (lignes.size() > lignesMax) {
+            throw new RuntimeException("Trop de lignes (" + lignes.size() + ", maximum " + lignesMax + ")");
+        }
+
+        List<String> erreurs = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        for (int i = 0; i < lignes.size(); i++) {
+            LigneReapprovisionnement ligne = lignes.get(i);
+            String erreur = ligne == null ? "ligne vide" : verifier(ligne);
+            if (erreur != null) {
+                erreurs.add("Ligne " + (i + 1) + " : " + erreur);
+            } else if (ligne.getVarianteId() != null) {
+                ids.add(ligne.getVarianteId());
+            } else {
+                skus.add(ligne.getSku().trim());
+            }
+        }
+        echouerSi(erreurs);
+
+        Map<Long, StockJdbcRepository.VarianteVendeur> parId = new HashMap<>();
+        Map<String, StockJdbcRepository.VarianteVendeur> parSku = new HashMap<>();
+        for (StockJdbcRepository.VarianteVendeur variante : stockJdbcRepository.verrouillerVariantes(
+                ids.toArray(new Long[0]), skus.toArray(new String[0]))) {
+            parId.put(variante.varianteId(), variante);
+            if (variante.sku() != null) {
+                parSku.put(variante.sku(), variante);
+            }
+        }
+
+        // Stock visé par variante, lignes appliquées dans l'ordre
+        SortedMap<Long, Integer> cibles = new TreeMap<>();
+        Set<Long> saisiesAbsolues = new HashSet<>();
+        for (int i = 0; i < lignes.size(); i++) {
+            LigneReapprovisionnement ligne = lignes.get(i);
+            StockJdbcRepository.VarianteVendeur variante = ligne.getVarianteId() != null
+                    ? parId.get(ligne.getVarianteId())
+                    : parSku.get(ligne.getSku().trim());
+            if (variante == null) {
+                erreurs.add("Ligne " + (i + 1) + " : variante inconnue ("
+                        + (ligne.getVarianteId() != null ? ligne.getVarianteId() : ligne.getSku()) + ")");
+                continue;
+            }
+            if (!vendorUserId.equals(variante.vendeurUserId())) {
+                erreurs.add("Ligne " + (i + 1) + " : variante " + variante.varianteId() + " non autorisée");
+                continue;
+            }
+            int courant = cibles.getOrDefault(variante.varianteId(), variante.stock());
+            int cible = ligne.getStock() != null ? ligne.getStock() : courant + ligne.getDelta();
+            if (cible < 0) {
+                erreurs.add("Ligne " + (i + 1) + " : le stock de la variante " + variante.varianteId()
+                        + " deviendrait négatif (" + cible + ")");
+                continue;
+            }
+            cibles.put(variante.varianteId(), cible);
+            if (ligne.getStock() != null) {
+                saisiesAbsolues.add(variante.varianteId());
+            }
+        }
+        echouerSi(erreurs);
+
+        SortedMap<Long, Integer> aEcrire = new TreeMap<>();
+        SortedMap<UUID, Integer> produits = new TreeMap<>();
+        long ajoutees = 0;
+        long retirees = 0;
+        for (Map.Entry<Long, Integer> cible : cibles.entrySet()) {
+            StockJdbcRepository.VarianteVendeur variante = parId.get(cible.getKey());
+            int delta = cible.getValue() - variante.stock();
+            if (delta == 0) {
+                continue;
+            }
+            aEcrire.put(variante.varianteId(), cible.getValue());
+            produits.merge(variante.produitId(), delta, Integer::sum);
+            if (delta > 0) {
+                ajoutees += delta;
+            } else {
+                retirees -= delta;
+            }
+            TypeMouvementStock type = delta > 0 && !saisiesAbsolues.contains(variante.varianteId())
+                    ? TypeMouvementStock.REAPPROVISIONNEMENT
+                    : TypeMouvementStock.AJUSTEMENT;
+            journalStockService.noter(type, variante.produitId(), variante.varianteId(), delta, null);
+        }
+
+        // Même ordre que les réservations : variantes, puis produits
+        if (!aEcrire.isEmpty()) {
+            stockJdbcRepository.fixerStockVariantes(aEcrire);
+            stockJdbcRepository.incrementerProduits(produits);
+            produits.keySet().forEach(id -> eventPublisher.publishEvent(CatalogueEvent.produit(id)));
+            inventaireVendeurService.invalider(vendorUserId);
+        }
+
+        Bilan bilan = new Bilan(lignes.size(), aEcrire.size(), produits.size(), ajoutees, retirees);
+        notificationService.creerNotification(vendorUserId,
+                "✅ Réapprovisionnement effectué",
+                bilan.variantes() + " variante(s) de " + bilan.produits() + " produit(s) mises à jour : +"
+                        + ajoutees + " / -" + retirees + " unités.");
+        return bilan;
+    }
+
+    private static String verifier(LigneReapprovisionnement ligne) {
+        if (ligne.getVarianteId() == null && (ligne.getSku() == null || ligne.getSku().isBlank())) {
+            return "varianteId ou sku requis";
+        }
+        if ((ligne.getDelta() == null) == (ligne.getStock() == null)) {
+            return "indiquer soit delta, soit stock";
+        }
+        if (ligne.getStock() != null && ligne.getStock() < 0) {
+            return "stock négatif";
+        }
+        return null;
+    }
+
+    private static void echouerSi(List<String> erreurs) {
+        if (erreurs.isEmpty()) {
+            return;
+        }
+        String message = String.join(" ; ", erreurs.subList(0, Math.min(erreurs.size(), ERREURS_MAX)));
+        if (erreurs.size() > ERREURS_MAX) {
+            message += " ; … et " + (erreurs.size() - ERREURS_MAX) + " autre(s) erreur(s)";
+        }
+        throw new RuntimeException(message);
+    }
+
+    /**
+     * Lit un CSV avec en-tête ({@code varianteId} ou {@code sku}, puis
+     * {@code delta} ou {@code stock}), séparé par des virgules ou des points-virgules.
+     */
+    public static List<LigneReapprovisionnement> lireCsv(String contenu) {
+        if (contenu == null || contenu.isBlank()) {
+            throw new RuntimeException("Fichier CSV vide");
+        }
+        String[] lignesTexte = contenu.strip().split("\\r?\\n");
+        String separateur = lignesTexte[0].contains(";") ? ";" : ",";
+
+        List<String> entete = new ArrayList<>();
+        for (String colonne : lignesTexte[0].split(separateur, -1)) {
+            entete.add(colonne.trim().toLowerCase(Locale.ROOT).replace("_", "").replace("\"", ""));
+        }
+        int colId = entete.indexOf("varianteid");
+        int colSku = entete.indexOf("sku");
+        int colDelta = entete.indexOf("delta");
+        int colStock = entete.indexOf("stock");
+        if ((colId < 0 && colSku < 0) || (colDelta < 0 && colStock < 0)) {
+            throw new RuntimeException("En-tête CSV attendu : varianteId ou sku, puis delta ou stock");
+        }
+
+        List<LigneReapprovisionnement> lignes = new ArrayList<>();
+        Set<String> erreurs = new LinkedHashSet<>();
+        for (int i = 1; i < lignesTexte.length; i++) {
+            if (lignesTexte[i].isBlank()) {
+                continue;
+            }
+            String[] valeurs = lignesTexte[i].split(separateur, -1);
+            try {
+                lignes.add(new LigneReapprovisionnement(
+                        entier(valeurs, colId) != null ? entier(valeurs, colId).longValue() : null,
+                        texte(valeurs, colSku),
+                        entier(valeurs, colDelta),
+                        entier(valeurs, colStock)));
+            } catch (NumberFormatException e) {
+                erreurs.add("Ligne " + (i + 1) + " du CSV : nombre invalide");
+            }
+        }
+        echouerSi(new ArrayList<>(erreurs));
+        return lignes;
+    }
+
+    private static String texte(String[] valeurs, int colonne) {
+        if (colonne < 0 || colonne >= valeurs.length) {
+            return null;
+        }
+        String valeur = valeurs[colonne].trim().replace("\"", "");
+        return valeur.isEmpty() ? null : valeur;
+    }
+
+    private static Integer entier(String[] valeurs, int colonne) {
+        String valeur = texte(valeurs, colonne);
+        return valeur != null ? Integer.valueOf(valeur) : null;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.ProduitIndexable;
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.model.Category;
+import com.example.fasomarket.model.Shop;
+import com.example.fasomarket.model.ShopStatus;
+import com.example.fasomarket.repository.CategoryRepository;
+import com.example.fasomarket.repository.ProductRepository;
+import com.example.fasomarket.repository.ShopRepository;
+import com.example.fasomarket.search.IndexInverse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Moteur de recherche en mémoire de la vitrine publique.
+ *
+ * Trois index inversés (produits, boutiques, catégories) sont construits au
+ * démarrage puis tenus à jour à chaque écriture commitée du catalogue via
+ * {@link CatalogueEvent}. Tant que la construction initiale n'est pas
+ * terminée, {@link #estPret()} renvoie false et l'appelant doit se rabattre
+ * sur la base de données.
+ */
+@Service
+public class RechercheService {
+
+    private static final float POIDS_NOM = 3.0f;
+    private static final float POIDS_MARQUE = 2.0f;
+    private static final float POIDS_TAGS = 2.0f;
+    private static final float POIDS_CATEGORIE = 1.5f;
+    private static final float POIDS_DESCRIPTION = 1.0f;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Value("${recherche.index.taille-lot:500}")
+    private int tailleLot;
+
+    private volatile IndexInverse<UUID> produits = new IndexInverse<>();
+    private volatile IndexInverse<UUID> boutiques = new IndexInverse<>();
+    private volatile IndexInverse<UUID> categories = new IndexInverse<>();
+    private volatile boolean pret = false;
+
+    // Écritures reçues pendant une reconstruction, rejouées après la bascule
+    private volatile boolean enConstruction = false;
+    private final Set<CatalogueEvent> evenementsEnAttente = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void auDemarrage() {
+        reconstruire();
+    }
+
+    /**
+     * Reconstruit les trois index hors ligne puis les publie d'un coup ;
+     * les recherches en cours continuent sur les anciens index.
+     */
+    public synchronized void reconstruire() {
+        enConstruction = true;
+        evenementsEnAttente.clear();
+        try {
+            IndexInverse<UUID> nouveauxProduits = new IndexInverse<>();
+            PageRequest page = PageRequest.of(0, tailleLot, Sort.by("id"));
+            Slice<ProduitIndexable> lot;
+            do {
+                lot = productRepository.findIndexables(page);
+                lot.forEach(p -> nouveauxProduits.indexer(p.id(), documentProduit(p)));
+                page = page.next();
+            } while (lot.hasNext());
+
+            IndexInverse<UUID> nouvellesBoutiques = new IndexInverse<>();
+            for (Shop shop : shopRepository.findByStatus(ShopStatus.ACTIVE)) {
+                nouvellesBoutiques.indexer(shop.getId(), documentBoutique(shop));
+            }
+
+            IndexInverse<UUID> nouvellesCategories = new IndexInverse<>();
+            for (Category category : categoryRepository.findAll()) {
+                if (!Boolean.FALSE.equals(category.getIsActive())) {
+                    nouvellesCategories.indexer(category.getId(), documentCategorie(category));
+                }
+            }
+
+            produits = nouveauxProduits;
+            boutiques = nouvellesBoutiques;
+            categories = nouvellesCategories;
+            pret = true;
+            System.out.println("🔎 Index de recherche prêt: " + nouveauxProduits.taille() + " produits, "
+                    + nouvellesBoutiques.taille() + " boutiques, " + nouvellesCategories.taille() + " catégories");
+        } catch (Exception e) {
+            System.err.println("Erreur construction index de recherche: " + e.getMessage());
+        } finally {
+            enConstruction = false;
+            for (CatalogueEvent event : evenementsEnAttente) {
+                appliquer(event);
+            }
+            evenementsEnAttente.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueModifie(CatalogueEvent event) {
+        // Stock et compteurs (réservations, ventes) : le texte indexé est inchangé
+        if (event.getCible() == CatalogueEvent.Cible.PRODUIT && !event.isSuppression()
+                && !event.isLibellesModifies()) {
+            return;
+        }
+        if (enConstruction) {
+            evenementsEnAttente.add(event);
+        }
+        appliquer(event);
+    }
+
+    private void appliquer(CatalogueEvent event) {
+        try {
+            switch (event.getCible()) {
+                case PRODUIT -> {
+                    if (event.isSuppression()) {
+                        produits.retirer(event.getId());
+                    } else {
+                        productRepository.findIndexableById(event.getId()).ifPresentOrElse(
+                                p -> produits.indexer(p.id(), documentProduit(p)),
+                                () -> produits.retirer(event.getId()));
+                    }
+                }
+                case BOUTIQUE -> {
+                    Shop shop = event.isSuppression() ? null
+                            : shopRepository.findById(event.getId()).orElse(null);
+                    if (shop != null && shop.getStatus() == ShopStatus.ACTIVE) {
+                        boutiques.indexer(shop.getId(), documentBoutique(shop));
+                    } else {
+                        boutiques.retirer(event.getId());
+                    }
+                }
+                case CATEGORIE -> {
+                    Category category = event.isSuppression() ? null
+                            : categoryRepository.findById(event.getId()).orElse(null);
+                    if (category != null && !Boolean.FALSE.equals(category.getIsActive())) {
+                        categories.indexer(category.getId(), documentCategorie(category));
+                    } else {
+                        categories.retirer(event.getId());
+                    }
+                }
+                default -> {
+                    // Les variantes ne portent pas de texte indexé
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur mise à jour index de recherche: " + e.getMessage());
+        }
+    }
+
+    public boolean estPret() {
+        return pret;
+    }
+
+    public List<UUID> rechercherProduits(String requete, int limite) {
+        return cles(produits.rechercher(requete, limite));
+    }
+
+    /**
+     * Produits correspondant à la requête parmi les {@code admis}, la limite
+     * s'appliquant après ce filtre.
+     */
+    public List<UUID> rechercherProduits(String requete, int limite, Predicate<UUID> admis) {
+        return cles(produits.rechercher(requete, limite, admis));
+    }
+
+    public List<UUID> rechercherBoutiques(String requete, int limite) {
+        return cles(boutiques.rechercher(requete, limite));
+    }
+
+    public List<UUID> rechercherCategories(String requete, int limite) {
+        return cles(categories.rechercher(requete, limite));
+    }
+
+    private List<UUID> cles(List<IndexInverse.Resultat<UUID>> resultats) {
+        return resultats.stream().map(IndexInverse.Resultat::cle).collect(Collectors.toList());
+    }
+
+    private IndexInverse.Document documentProduit(ProduitIndexable produit) {
+        return new IndexInverse.Document()
+                .champ(produit.nom(), POIDS_NOM)
+                .champ(produit.marque(), POIDS_MARQUE)
+                .champ(produit.tags(), POIDS_TAGS)
+                .champ(produit.categorie(), POIDS_CATEGORIE)
+                .champ(produit.description(), POIDS_DESCRIPTION);
+    }
+
+    private IndexInverse.Document documentBoutique(Shop shop) {
+        return new IndexInverse.Document()
+                .champ(shop.getName(), POIDS_NOM)
+                .champ(shop.getTags(), POIDS_TAGS)
+                .champ(shop.getCategory(), POIDS_CATEGORIE)
+                .champ(shop.getDescription(), POIDS_DESCRIPTION);
+    }
+
+    private IndexInverse.Document documentCategorie(Category category) {
+        return new IndexInverse.Document()
+                .champ(category.getName(), POIDS_NOM)
+                .champ(category.getDescription(), POIDS_DESCRIPTION);
+    }
+}
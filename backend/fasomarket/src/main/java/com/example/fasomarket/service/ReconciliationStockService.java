@@ -0,0 +1,86 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.repository.StockJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Réconciliation périodique du stock agrégé des produits.
+ *
+ * Les mouvements de stock ajustent {@code products.stock_quantity} par
+ * différence, dans la même transaction que la variante ; cette tâche ne sert
+ * qu'à détecter et réparer l'écart laissé par une écriture qui contourne ce
+ * chemin (mise à jour manuelle, import). Le catalogue est parcouru par lots
+ * d'identifiants croissants, chaque lot dans sa propre transaction courte.
+ */
+@Service
+public class ReconciliationStockService {
+
+    public record Statistiques(LocalDateTime dernierPassage, long produitsExamines, long corrections,
+            long correctionsDernierPassage) {
+    }
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${stock.reconciliation.taille-lot:500}")
+    private int tailleLot;
+
+    private final AtomicBoolean enCours = new AtomicBoolean(false);
+    private final LongAdder produitsExamines = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+    private volatile long correctionsDernierPassage;
+    private volatile LocalDateTime dernierPassage;
+
+    @Scheduled(fixedDelayString = "${stock.reconciliation.intervalle-ms:600000}",
+            initialDelayString = "${stock.reconciliation.intervalle-ms:600000}")
+    public void reconcilier() {
+        if (!enCours.compareAndSet(false, true)) {
+            return;
+        }
+        long corrigesCePassage = 0;
+        try {
+            UUID apres = new UUID(0L, 0L);
+            List<UUID> lot;
+            do {
+                lot = stockJdbcRepository.lotProduits(apres, tailleLot);
+                if (lot.isEmpty()) {
+                    break;
+                }
+                List<UUID> corriges = stockJdbcRepository.reconcilierProduits(lot);
+                produitsExamines.add(lot.size());
+                corrigesCePassage += corriges.size();
+                corriges.forEach(id -> eventPublisher.publishEvent(CatalogueEvent.produit(id)));
+                apres = lot.get(lot.size() - 1);
+            } while (lot.size() == tailleLot);
+        } catch (Exception e) {
+            System.err.println("Erreur réconciliation du stock: " + e.getMessage());
+        } finally {
+            corrections.add(corrigesCePassage);
+            correctionsDernierPassage = corrigesCePassage;
+            dernierPassage = LocalDateTime.now();
+            enCours.set(false);
+        }
+        if (corrigesCePassage > 0) {
+            System.out.println("Réconciliation du stock : " + corrigesCePassage + " produit(s) corrigé(s)");
+        }
+    }
+
+    public Statistiques getStatistiques() {
+        return new Statistiques(dernierPassage, produitsExamines.sum(), corrections.sum(),
+                correctionsDernierPassage);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.model.Cart;
+import com.example.fasomarket.model.TypeMouvementStock;
+import com.example.fasomarket.repository.StockJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Réservation du stock d'un panier entier au moment de la commande.
+ *
+ * Tout ou rien : si une seule ligne manque de stock, une exception est levée
+ * et la transaction de l'appelant annule les décréments déjà faits. Les
+ * blocages du panier sont convertis en réservation sans rendre leur stock. Les
+ * variantes puis les produits sont traités en deux requêtes groupées chacun,
+ * dans le même ordre que les réservations unitaires de
+ * {@link StockVarianteService} (variante, puis produit parent).
+ */
+@Service
+public class ReservationStockService {
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private StockChaudService stockChaudService;
+
+    @Autowired
+    private JournalStockService journalStockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public void reserverPanier(List<Cart> items) {
+        TreeMap<Long, Integer> variantes = new TreeMap<>();
+        TreeMap<UUID, Integer> produits = new TreeMap<>();
+        Map<UUID, Integer> minimums = new HashMap<>();
+        Map<Object, String> libelles = new HashMap<>();
+
+        // Stock déjà retenu par les blocages du panier : il devient celui de la commande,
+        // seul l'écart avec la quantité commandée reste à prendre (ou à rendre)
+        Map<UUID, Integer> retenu = new HashMap<>();
+        List<StockJdbcRepository.BlocageSupprime> convertis = List.of();
+        if (!items.isEmpty()) {
+            UUID[] cartIds = items.stream().map(Cart::getId).toArray(UUID[]::new);
+            convertis = stockJdbcRepository.supprimerBlocages(cartIds, false);
+            convertis.forEach(blocage -> retenu.put(blocage.cartId(), blocage.quantite()));
+        }
+
+        // Regrouper les lignes : un même article peut apparaître plusieurs fois avec des options différentes
+        for (Cart item : items) {
+            UUID produitId = item.getProduct().getId();
+            if (item.getQuantity() <= 0) {
+                throw new CommandeRefuseeException("Quantité invalide pour " + item.getProduct().getName());
+            }
+            int quantite = item.getQuantity() - retenu.getOrDefault(item.getId(), 0);
+            libelles.put(produitId, item.getProduct().getName());
+            if (quantite == 0) {
+                continue;
+            }
+            if (item.getVarianteId() != null) {
+                variantes.merge(item.getVarianteId(), quantite, Integer::sum);
+                libelles.put(item.getVarianteId(), item.getProduct().getName());
+            } else {
+                produits.merge(produitId, quantite, Integer::sum);
+                if (quantite > 0) {
+                    minimums.merge(produitId, quantite, Integer::sum);
+                }
+            }
+        }
+
+        // Variantes en vente flash d'abord, avant de verrouiller la moindre ligne de stock :
+        // leur lot est écrit par un autre thread qui a besoin de ces verrous
+        Iterator<Map.Entry<Long, Integer>> it = variantes.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Integer> ligne = it.next();
+            if (ligne.getValue() > 0 && stockChaudService.estChaude(ligne.getKey())) {
+                if (!stockChaudService.reserver(ligne.getKey(), ligne.getValue())) {
+                    throw new StockInsuffisantException("Stock insuffisant pour " + libelles.get(ligne.getKey()));
+                }
+                it.remove();
+            }
+        }
+
+        if (!variantes.isEmpty()) {
+            List<StockJdbcRepository.MouvementVariante> mouvements = stockJdbcRepository.decrementerVariantes(variantes);
+            if (mouvements.size() < variantes.size()) {
+                Set<Long> reservees = new HashSet<>();
+                mouvements.forEach(m -> reservees.add(m.varianteId()));
+                Long refusee = variantes.keySet().stream()
+                        .filter(id -> !reservees.contains(id))
+                        .findFirst()
+                        .orElseThrow();
+                throw new StockInsuffisantException("Stock insuffisant pour " + libelles.get(refusee));
+            }
+            // Report sur le stock agrégé du produit parent
+            for (StockJdbcRepository.MouvementVariante mouvement : mouvements) {
+                produits.merge(mouvement.produitId(), variantes.get(mouvement.varianteId()), Integer::sum);
+            }
+        }
+
+        if (!produits.isEmpty()) {
+            Set<UUID> modifies = stockJdbcRepository.decrementerProduits(produits, minimums);
+            for (UUID produitId : produits.keySet()) {
+                if (!modifies.contains(produitId)) {
+                    throw new StockInsuffisantException("Stock insuffisant pour "
+                            + libelles.getOrDefault(produitId, produitId.toString()));
+                }
+            }
+            // Écritures hors Hibernate : prévenir les caches du catalogue (après le commit)
+            produits.keySet().forEach(id -> eventPublisher.publishEvent(CatalogueEvent.produit(id)));
+        }
+
+        // Journal : les blocages convertis sont rendus, puis chaque ligne est vendue en entier
+        for (StockJdbcRepository.BlocageSupprime blocage : convertis) {
+            journalStockService.noter(TypeMouvementStock.LIBERATION, blocage.produitId(), blocage.varianteId(),
+                    blocage.quantite(), blocage.cartId());
+        }
+        for (Cart item : items) {
+            journalStockService.noter(TypeMouvementStock.VENTE, item.getProduct().getId(), item.getVarianteId(),
+                    -item.getQuantity(), item.getId());
+        }
+    }
+
+    /**
+     * Supprime des blocages de panier et rend leur stock, en lot.
+     */
+    @Transactional
+    public List<StockJdbcRepository.BlocageSupprime> libererBlocages(Collection<UUID> cartIds, boolean expiresSeulement) {
+        if (cartIds.isEmpty()) {
+            return List.of();
+        }
+        List<StockJdbcRepository.BlocageSupprime> supprimes =
+                stockJdbcRepository.supprimerBlocages(cartIds.toArray(new UUID[0]), expiresSeulement);
+
+        TreeMap<Long, Integer> variantes = new TreeMap<>();
+        TreeMap<UUID, Integer> produits = new TreeMap<>();
+        for (StockJdbcRepository.BlocageSupprime blocage : supprimes) {
+            if (blocage.varianteId() != null) {
+                variantes.merge(blocage.varianteId(), blocage.quantite(), Integer::sum);
+            }
+            produits.merge(blocage.produitId(), blocage.quantite(), Integer::sum);
+            journalStockService.noter(TypeMouvementStock.LIBERATION, blocage.produitId(), blocage.varianteId(),
+                    blocage.quantite(), blocage.cartId());
+        }
+        // Même ordre que les réservations : variantes, puis produits
+        if (!variantes.isEmpty()) {
+            stockJdbcRepository.incrementerVariantes(variantes);
+        }
+        if (!produits.isEmpty()) {
+            stockJdbcRepository.incrementerProduits(produits);
+            produits.keySet().forEach(id -> eventPublisher.publishEvent(CatalogueEvent.produit(id)));
+        }
+        return supprimes;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.fasomarket.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Roue temporelle hachée : échéancier en mémoire pour un grand nombre
+ * d'expirations.
+ *
+ * Chaque clé est rangée dans la case {@code (échéance / durée d'un tick) mod n}.
+ * Ajouter ou retirer une clé coûte O(1) ; avancer d'un tick ne parcourt
+ * qu'une case, dont on ne retire que les échéances atteintes (celles d'un
+ * tour suivant y restent). Après une pause plus longue qu'un tour complet,
+ * toutes les cases sont parcourues une fois.
+ */
+public final class RoueTemporelle<K> {
+
+    private final long dureeTickMs;
+    private final List<Map<K, Long>> cases;
+    private final Map<K, Integer> caseParCle = new HashMap<>();
+    private long dernierTick;
+
+    public RoueTemporelle(int nombreCases, long dureeTickMs, long maintenantMs) {
+        this.dureeTickMs = dureeTickMs;
+        this.cases = new ArrayList<>(nombreCases);
+        for (int i = 0; i < nombreCases; i++) {
+            cases.add(new HashMap<>());
+        }
+        this.dernierTick = maintenantMs / dureeTickMs;
+    }
+
+    /**
+     * Programme (ou reprogramme) l'échéance d'une clé.
+     */
+    public synchronized void ajouter(K cle, long echeanceMs) {
+        retirer(cle);
+        // Premier tick qui commence après l'échéance ; une échéance déjà passée
+        // tombe dans la prochaine case parcourue
+        long tick = Math.max((echeanceMs + dureeTickMs - 1) / dureeTickMs, dernierTick + 1);
+        int index = (int) (tick % cases.size());
+        cases.get(index).put(cle, echeanceMs);
+        caseParCle.put(cle, index);
+    }
+
+    public synchronized boolean retirer(K cle) {
+        Integer index = caseParCle.remove(cle);
+        return index != null && cases.get(index).remove(cle) != null;
+    }
+
+    /**
+     * Avance jusqu'à {@code maintenantMs} et renvoie les clés échues, retirées de la roue.
+     */
+    public synchronized List<K> avancer(long maintenantMs) {
+        long tickCourant = maintenantMs / dureeTickMs;
+        List<K> echues = new ArrayList<>();
+        long aParcourir = Math.min(tickCourant - dernierTick, cases.size());
+        for (long i = 1; i <= aParcourir; i++) {
+            Map<K, Long> contenu = cases.get((int) ((dernierTick + i) % cases.size()));
+            Iterator<Map.Entry<K, Long>> it = contenu.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Long> entree = it.next();
+                if (entree.getValue() <= maintenantMs) {
+                    echues.add(entree.getKey());
+                    caseParCle.remove(entree.getKey());
+                    it.remove();
+                }
+            }
+        }
+        dernierTick = Math.max(dernierTick, tickCourant);
+        return echues;
+    }
+
+    public synchronized int taille() {
+        return caseParCle.size();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.model.TypeEvenementOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * SMS de confirmation d'une commande passée avec un numéro de téléphone.
+ */
+@Service
+public class SmsCommandeGestionnaire implements GestionnaireOutbox {
+
+    @Autowired
+    private SmsService smsService;
+
+    @Override
+    public String nom() {
+        return "sms";
+    }
+
+    @Override
+    public Set<TypeEvenementOutbox> types() {
+        return Set.of(TypeEvenementOutbox.COMMANDE_CREEE);
+    }
+
+    @Override
+    public void traiter(TypeEvenementOutbox type, UUID agregatId, Map<String, Object> donnees) {
+        String numeroTelephone = (String) donnees.get("numeroTelephone");
+        if (numeroTelephone == null || numeroTelephone.isEmpty()) {
+            return;
+        }
+        smsService.envoyerSmsConfirmationCommande(numeroTelephone, (String) donnees.get("numeroCommande"),
+                ((Number) donnees.get("montant")).doubleValue());
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.repository.StockJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mode vente flash : stock des variantes très demandées servi depuis la mémoire.
+ *
+ * Pour une variante marquée {@code vente_flash}, chaque réservation prend
+ * d'abord ses unités dans un compteur en mémoire réparti en bandes (CAS sur
+ * la bande du thread, puis sur les autres) : une variante épuisée est refusée
+ * sans toucher la base. Les réservations acceptées localement sont mises en
+ * file et écrites par lot toutes les quelques millisecondes, en une seule
+ * transaction et un seul verrou de ligne par variante et par lot ; l'appelant
+ * n'obtient sa réponse qu'après le commit du lot (validation groupée), donc une
+ * vente confirmée est toujours durable.
+ *
+ * La base reste l'autorité : le lot est un décrément conditionnel, et le
+ * compteur est recalé sur le stock réel après chaque écriture et à chaque
+ * rafraîchissement. Au démarrage, les compteurs sont vides et les variantes
+ * passent par le chemin base de {@link StockJdbcRepository} jusqu'au premier
+ * rafraîchissement.
+ */
+@Service
+public class StockChaudService {
+
+    public record Statistiques(int variantesActives, long demandes, long refusLocaux, long refusBase,
+            long lots, double demandesParLot, long attenteMoyenneMicros) {
+    }
+
+    private static final int NOMBRE_BANDES = 16;
+
+    private static final class Demande {
+        private final int quantite;
+        private final long creeA = System.nanoTime();
+        private final CompletableFuture<Boolean> resultat = new CompletableFuture<>();
+
+        private Demande(int quantite) {
+            this.quantite = quantite;
+        }
+    }
+
+    private static final class Compteur {
+        private final AtomicLong[] bandes = new AtomicLong[NOMBRE_BANDES];
+        private final ConcurrentLinkedQueue<Demande> file = new ConcurrentLinkedQueue<>();
+        // Unités prises localement mais pas encore écrites en base
+        private final LongAdder enAttente = new LongAdder();
+        // Variante sortie du mode : plus aucune demande ne doit rester en file
+        private volatile boolean ferme;
+
+        private Compteur(long stock) {
+            for (int i = 0; i < NOMBRE_BANDES; i++) {
+                bandes[i] = new AtomicLong();
+            }
+            recaler(stock);
+        }
+
+        private boolean prendre(int quantite) {
+            int depart = (int) (Thread.currentThread().threadId() % NOMBRE_BANDES);
+            for (int i = 0; i < NOMBRE_BANDES; i++) {
+                AtomicLong bande = bandes[(depart + i) % NOMBRE_BANDES];
+                long valeur;
+                while ((valeur = bande.get()) >= quantite) {
+                    if (bande.compareAndSet(valeur, valeur - quantite)) {
+                        return true;
+                    }
+                }
+            }
+            // Quantité plus grande que chaque bande : rassembler sur plusieurs bandes
+            return prendreSurPlusieursBandes(quantite);
+        }
+
+        private synchronized boolean prendreSurPlusieursBandes(int quantite) {
+            long reste = quantite;
+            long[] pris = new long[NOMBRE_BANDES];
+            for (int i = 0; i < NOMBRE_BANDES && reste > 0; i++) {
+                long valeur;
+                while ((valeur = bandes[i].get()) > 0) {
+                    long part = Math.min(valeur, reste);
+                    if (bandes[i].compareAndSet(valeur, valeur - part)) {
+                        pris[i] = part;
+                        reste -= part;
+                        break;
+                    }
+                }
+            }
+            if (reste > 0) {
+                for (int i = 0; i < NOMBRE_BANDES; i++) {
+                    bandes[i].addAndGet(pris[i]);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        private void rendre(int quantite) {
+            bandes[(int) (Thread.currentThread().threadId() % NOMBRE_BANDES)].addAndGet(quantite);
+        }
+
+        private long total() {
+            long total = 0;
+            for (AtomicLong bande : bandes) {
+                total += Math.max(0, bande.get());
+            }
+            return total;
+        }
+
+        /**
+         * Ramène le total des bandes à {@code disponible}, réparti uniformément.
+         */
+        private synchronized void recaler(long disponible) {
+            long ecart = Math.max(0, disponible) - total();
+            if (ecart >= 0) {
+                for (int i = 0; i < NOMBRE_BANDES; i++) {
+                    bandes[i].addAndGet(ecart / NOMBRE_BANDES + (i < ecart % NOMBRE_BANDES ? 1 : 0));
+                }
+                return;
+            }
+            long aRetirer = -ecart;
+            for (int i = 0; i < NOMBRE_BANDES && aRetirer > 0; i++) {
+                long valeur;
+                while ((valeur = bandes[i].get()) > 0) {
+                    long part = Math.min(valeur, aRetirer);
+                    if (bandes[i].compareAndSet(valeur, valeur - part)) {
+                        aRetirer -= part;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${stock.vente-flash.ecriture-ms:5}")
+    private long ecritureMs;
+
+    @Value("${stock.vente-flash.rafraichissement-ms:1000}")
+    private long rafraichissementMs;
+
+    @Value("${stock.vente-flash.publication-ms:1000}")
+    private long publicationMs;
+
+    private final Map<Long, Compteur> compteurs = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> dernierePublication = new ConcurrentHashMap<>();
+
+    private final LongAdder demandes = new LongAdder();
+    private final LongAdder refusLocaux = new LongAdder();
+    private final LongAdder refusBase = new LongAdder();
+    private final LongAdder lots = new LongAdder();
+    private final LongAdder demandesEcrites = new LongAdder();
+    private final LongAdder attenteCumuleeNanos = new LongAdder();
+
+    private final ScheduledExecutorService executeur = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stock-vente-flash");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        executeur.scheduleWithFixedDelay(this::rafraichir, 0, rafraichissementMs, TimeUnit.MILLISECONDS);
+        executeur.scheduleWithFixedDelay(this::ecrire, ecritureMs, ecritureMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean estChaude(Long varianteId) {
+        return varianteId != null && compteurs.containsKey(varianteId);
+    }
+
+    /**
+     * Réserve sur une variante en vente flash ; bloque jusqu'à l'écriture du
+     * lot qui la contient. Si une transaction est active et finit par être
+     * annulée, les unités sont rendues.
+     */
+    public boolean reserver(long varianteId, int quantite) {
+        Compteur compteur = compteurs.get(varianteId);
+        if (compteur == null) {
+            // Sortie du mode entre-temps
+            return reserverEnBase(varianteId, quantite);
+        }
+        demandes.increment();
+        if (!compteur.prendre(quantite)) {
+            refusLocaux.increment();
+            return false;
+        }
+        Demande demande = new Demande(quantite);
+        compteur.enAttente.add(quantite);
+        compteur.file.add(demande);
+        if (compteur.ferme && compteur.file.remove(demande)) {
+            // Compteur fermé entre-temps : la demande n'a pas été vidée, passer par la base
+            compteur.enAttente.add(-quantite);
+            return reserverEnBase(varianteId, quantite);
+        }
+
+        boolean acceptee;
+        try {
+            acceptee = demande.resultat.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Erreur réservation vente flash: " + e.getCause().getMessage());
+        }
+        if (acceptee && TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Le lot est déjà validé : une annulation de l'appelant doit rendre le stock
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        // Hors du thread appelant : sa transaction terminée y est encore liée
+                        executeur.execute(() -> rendre(varianteId, quantite));
+                    }
+                }
+            });
+        }
+        return acceptee;
+    }
+
+    private boolean reserverEnBase(long varianteId, int quantite) {
+        return stockJdbcRepository.decrementerVariante(varianteId, quantite)
+                .map(mouvement -> {
+                    stockJdbcRepository.ajusterStockProduit(mouvement.produitId(), -quantite);
+                    eventPublisher.publishEvent(CatalogueEvent.produit(mouvement.produitId()));
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Compensation d'une réservation dont la transaction a été annulée : le
+     * mouvement noté par l'appelant a disparu avec elle, rien à journaliser.
+     */
+    private void rendre(long varianteId, int quantite) {
+        try {
+            SortedMap<Long, Integer> quantites = new TreeMap<>(Map.of(varianteId, quantite));
+            stockJdbcRepository.rendreVariantes(quantites)
+                    .forEach(id -> eventPublisher.publishEvent(CatalogueEvent.produit(id)));
+            Compteur compteur = compteurs.get(varianteId);
+            if (compteur != null) {
+                compteur.rendre(quantite);
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur restitution stock vente flash: " + e.getMessage());
+        }
+    }
+
+    public boolean activer(long varianteId, boolean actif) {
+        boolean trouvee = stockJdbcRepository.marquerVenteFlash(varianteId, actif);
+        if (trouvee) {
+            executeur.execute(this::rafraichir);
+        }
+        return trouvee;
+    }
+
+    private void ecrire() {
+        ecrire(compteurs);
+    }
+
+    private void ecrire(Map<Long, Compteur> sources) {
+        SortedMap<Long, List<Demande>> lot = new TreeMap<>();
+        sources.forEach((id, compteur) -> {
+            List<Demande> enFile = new ArrayList<>();
+            Demande demande;
+            while ((demande = compteur.file.poll()) != null) {
+                enFile.add(demande);
+            }
+            if (!enFile.isEmpty()) {
+                lot.put(id, enFile);
+            }
+        });
+        if (lot.isEmpty()) {
+            return;
+        }
+
+        SortedMap<Long, List<Integer>> quantites = new TreeMap<>();
+        lot.forEach((id, enFile) -> quantites.put(id, enFile.stream().map(d -> d.quantite).toList()));
+        try {
+            Map<Long, StockJdbcRepository.LotVenteFlash> resultats = stockJdbcRepository.appliquerVentesFlash(quantites);
+            long maintenant = System.nanoTime();
+            lot.forEach((id, enFile) -> {
+                StockJdbcRepository.LotVenteFlash resultat = resultats.get(id);
+                Compteur compteur = sources.get(id);
+                for (int i = 0; i < enFile.size(); i++) {
+                    Demande demande = enFile.get(i);
+                    if (compteur != null) {
+                        compteur.enAttente.add(-demande.quantite);
+                    }
+                    if (!resultat.acceptees()[i]) {
+                        refusBase.increment();
+                    }
+                    attenteCumuleeNanos.add(maintenant - demande.creeA);
+                    demande.resultat.complete(resultat.acceptees()[i]);
+                }
+                if (compteur != null) {
+                    compteur.recaler(resultat.stockRestant() - compteur.enAttente.sum());
+                }
+                publier(resultat.produitId());
+            });
+            lots.increment();
+            demandesEcrites.add(lot.values().stream().mapToInt(List::size).sum());
+        } catch (Exception e) {
+            System.err.println("Erreur écriture lot vente flash: " + e.getMessage());
+            lot.forEach((id, enFile) -> {
+                Compteur compteur = sources.get(id);
+                for (Demande demande : enFile) {
+                    if (compteur != null) {
+                        compteur.enAttente.add(-demande.quantite);
+                        compteur.rendre(demande.quantite);
+                    }
+                    demande.resultat.completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Les caches du catalogue sont prévenus au plus une fois par intervalle et par produit.
+     */
+    private void publier(UUID produitId) {
+        if (produitId == null) {
+            return;
+        }
+        long maintenant = System.currentTimeMillis();
+        Long derniere = dernierePublication.get(produitId);
+        if (derniere == null || maintenant - derniere >= publicationMs) {
+            dernierePublication.put(produitId, maintenant);
+            eventPublisher.publishEvent(CatalogueEvent.produit(produitId));
+        }
+    }
+
+    private void rafraichir() {
+        try {
+            Map<Long, Integer> actives = stockJdbcRepository.variantesVenteFlash();
+            actives.forEach((id, stock) -> {
+                Compteur compteur = compteurs.get(id);
+                if (compteur == null) {
+                    compteurs.put(id, new Compteur(stock));
+                } else {
+                    compteur.recaler(stock - compteur.enAttente.sum());
+                }
+            });
+            // Variantes sorties du mode : fermer le compteur puis écrire ce qui reste en file
+            Map<Long, Compteur> fermes = new TreeMap<>();
+            for (Long id : List.copyOf(compteurs.keySet())) {
+                if (!actives.containsKey(id)) {
+                    Compteur compteur = compteurs.remove(id);
+                    compteur.ferme = true;
+                    fermes.put(id, compteur);
+                }
+            }
+            if (!fermes.isEmpty()) {
+                ecrire(fermes);
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur rafraîchissement des ventes flash: " + e.getMessage());
+        }
+    }
+
+    public Statistiques getStatistiques() {
+        long lotsEcrits = lots.sum();
+        long ecrites = demandesEcrites.sum();
+        return new Statistiques(compteurs.size(), demandes.sum(), refusLocaux.sum(), refusBase.sum(),
+                lotsEcrits, lotsEcrits == 0 ? 0 : (double) ecrites / lotsEcrits,
+                ecrites == 0 ? 0 : attenteCumuleeNanos.sum() / ecrites / 1000);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executeur.shutdown();
+        try {
+            executeur.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
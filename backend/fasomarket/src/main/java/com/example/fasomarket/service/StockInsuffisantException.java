@@ -0,0 +1,12 @@
+package com.example.fasomarket.service;
+
+/**
+ * Stock refusé par le décrément conditionnel ou le compteur de vente flash,
+ * au panier comme à la commande : répondu en 400.
+ */
+public class StockInsuffisantException extends CommandeRefuseeException {
+
+    public StockInsuffisantException(String message) {
+        super(message);
+    }
+}
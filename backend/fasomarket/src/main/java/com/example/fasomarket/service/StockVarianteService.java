@@ -1,8 +1,11 @@
 package com.example.fasomarket.service;
 
+import com.example.fasomarket.dto.LigneInventaire;
+import com.example.fasomarket.event.CatalogueEvent;
 import com.example.fasomarket.model.*;
 import com.example.fasomarket.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,12 +18,27 @@ public class StockVarianteService {
     @Autowired
     private ProduitVarianteService produitVarianteService;
     
-    @Autowired
-    private ProductRepository productRepository;
-    
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private StockChaudService stockChaudService;
+
+    @Autowired
+    private JournalStockService journalStockService;
+
+    @Autowired
+    private InventaireVendeurService inventaireVendeurService;
+
+    @Autowired
+    private AlerteStockService alerteStockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Vérifier la disponibilité d'une variante
      */
@@ -34,27 +52,31 @@ public class StockVarianteService {
     }
 
     /**
-     * Réserver du stock pour une variante (lors d'un ajout au panier)
+     * Réserver du stock pour une variante (lors d'un ajout au panier).
+     * Un seul UPDATE conditionnel : la vérification et le décrément sont
+     * atomiques, deux réservations concurrentes ne peuvent pas vendre la même unité.
      */
     @Transactional
     public boolean reserverStock(Long varianteId, int quantite) {
-        try {
-            ProduitVariante variante = produitVarianteService.getVarianteById(varianteId.toString());
-            
-            if (variante.getStock() >= quantite) {
-                // Réduire le stock temporairement (réservation)
-                variante.setStock(variante.getStock() - quantite);
-                produitVarianteService.modifierVariante(variante);
-                
-                // Mettre à jour le stock total du produit
-                mettreAJourStockProduit(variante.getProduit());
-                
-                return true;
-            }
-            return false;
-        } catch (Exception e) {
+        if (varianteId == null || quantite <= 0) {
             return false;
         }
+        if (stockChaudService.estChaude(varianteId)) {
+            if (!stockChaudService.reserver(varianteId, quantite)) {
+                return false;
+            }
+            stockJdbcRepository.produitDeVariante(varianteId).ifPresent(produitId -> journalStockService.noter(
+                    TypeMouvementStock.RESERVATION, produitId, varianteId, -quantite, null));
+            return true;
+        }
+        return stockJdbcRepository.decrementerVariante(varianteId, quantite)
+                .map(mouvement -> {
+                    ajusterStockProduit(mouvement.produitId(), -quantite);
+                    journalStockService.noter(TypeMouvementStock.RESERVATION, mouvement.produitId(),
+                            varianteId, -quantite, null);
+                    return true;
+                })
+                .orElse(false);
     }
 
     /**
@@ -62,13 +84,16 @@ public class StockVarianteService {
      */
     @Transactional
     public void libererStock(Long varianteId, int quantite) {
+        if (varianteId == null || quantite <= 0) {
+            return;
+        }
         try {
-            ProduitVariante variante = produitVarianteService.getVarianteById(varianteId.toString());
-            variante.setStock(variante.getStock() + quantite);
-            produitVarianteService.modifierVariante(variante);
-            
-            // Mettre à jour le stock total du produit
-            mettreAJourStockProduit(variante.getProduit());
+            stockJdbcRepository.incrementerVariante(varianteId, quantite)
+                    .ifPresent(mouvement -> {
+                        ajusterStockProduit(mouvement.produitId(), quantite);
+                        journalStockService.noter(TypeMouvementStock.LIBERATION, mouvement.produitId(),
+                                varianteId, quantite, null);
+                    });
         } catch (Exception e) {
             // Log l'erreur mais ne pas faire échouer l'opération
             System.err.println("Erreur libération stock variante: " + e.getMessage());
@@ -84,13 +109,9 @@ public class StockVarianteService {
             ProduitVariante variante = produitVarianteService.getVarianteById(varianteId.toString());
             
             if (variante.getStock() >= quantite) {
-                // Le stock a déjà été réduit lors de la réservation
-                // Juste vérifier et envoyer des alertes si nécessaire
-                checkStockAlerts(variante);
-                
-                // Mettre à jour le stock total du produit
-                mettreAJourStockProduit(variante.getProduit());
-                
+                // Le stock a déjà été réduit lors de la réservation ; les alertes
+                // sont évaluées sur front et regroupées par AlerteStockService
+                alerteStockService.signaler(variante.getProduit().getId());
                 return true;
             }
             return false;
@@ -112,12 +133,16 @@ public class StockVarianteService {
                 throw new RuntimeException("Non autorisé");
             }
             
-            // Ajouter le stock
-            variante.setStock(variante.getStock() + quantite);
-            produitVarianteService.modifierVariante(variante);
+            if (quantite <= 0) {
+                throw new RuntimeException("La quantité doit être positive");
+            }
             
-            // Mettre à jour le stock total du produit
-            mettreAJourStockProduit(variante.getProduit());
+            // Ajouter le stock
+            stockJdbcRepository.incrementerVariante(varianteId, quantite);
+            ajusterStockProduit(variante.getProduit().getId(), quantite);
+            journalStockService.noter(TypeMouvementStock.REAPPROVISIONNEMENT, variante.getProduit().getId(),
+                    varianteId, quantite, null);
+            inventaireVendeurService.invalider(vendorUserId);
             
             // Notification
             notificationService.creerNotification(
@@ -146,12 +171,10 @@ public class StockVarianteService {
     /**
      * Obtenir les variantes en rupture de stock
      */
-    public List<ProduitVariante> getVariantesEnRupture(UUID vendorUserId) {
+    public List<LigneInventaire> getVariantesEnRupture(UUID vendorUserId) {
         try {
-            List<ProduitVariante> toutesVariantes = produitVarianteService.getVariantesByVendeur(vendorUserId);
-            return toutesVariantes.stream()
-                .filter(v -> v.getStock() <= 0)
-                .toList();
+            return inventaireVendeurService.getInventaire(vendorUserId, Integer.MIN_VALUE, 0, false, 0, 0)
+                    .getContent();
         } catch (Exception e) {
             return List.of();
         }
@@ -160,50 +183,22 @@ public class StockVarianteService {
     /**
      * Obtenir les variantes avec stock faible
      */
-    public List<ProduitVariante> getVariantesStockFaible(UUID vendorUserId, int seuil) {
+    public List<LigneInventaire> getVariantesStockFaible(UUID vendorUserId, int seuil) {
         try {
-            List<ProduitVariante> toutesVariantes = produitVarianteService.getVariantesByVendeur(vendorUserId);
-            return toutesVariantes.stream()
-                .filter(v -> v.getStock() > 0 && v.getStock() <= seuil)
-                .toList();
+            return inventaireVendeurService.getInventaire(vendorUserId, 1, seuil, false, 0, 0)
+                    .getContent();
         } catch (Exception e) {
             return List.of();
         }
     }
 
     /**
-     * Mettre à jour le stock total du produit parent
+     * Reporter la variation d'une variante sur le stock total du produit parent
      */
-    private void mettreAJourStockProduit(Product product) {
-        try {
-            int stockTotal = getStockTotalProduit(product.getId());
-            product.setStockQuantity(stockTotal);
-            product.setAvailable(stockTotal > 0);
-            productRepository.save(product);
-        } catch (Exception e) {
-            System.err.println("Erreur mise à jour stock produit: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Vérifier et envoyer des alertes de stock
-     */
-    private void checkStockAlerts(ProduitVariante variante) {
-        if (variante.getStock() <= 0) {
-            // Rupture de stock
-            notificationService.creerNotification(
-                variante.getProduit().getShop().getVendor().getUser().getId(),
-                "🚫 Rupture de stock",
-                "La variante " + getVarianteDescription(variante) + " est en rupture de stock."
-            );
-        } else if (variante.getStock() <= 5) {
-            // Stock faible
-            notificationService.creerNotification(
-                variante.getProduit().getShop().getVendor().getUser().getId(),
-                "⚠️ Stock faible",
-                "La variante " + getVarianteDescription(variante) + " n'a plus que " + variante.getStock() + " unités."
-            );
-        }
+    private void ajusterStockProduit(UUID produitId, int delta) {
+        stockJdbcRepository.ajusterStockProduit(produitId, delta);
+        // Écriture hors Hibernate : les caches du catalogue ne sont pas prévenus autrement
+        eventPublisher.publishEvent(CatalogueEvent.produit(produitId));
     }
 
     /**
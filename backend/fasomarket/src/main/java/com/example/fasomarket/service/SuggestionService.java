@@ -0,0 +1,172 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.dto.ProduitSuggestion;
+import com.example.fasomarket.event.CatalogueEvent;
+import com.example.fasomarket.model.Category;
+import com.example.fasomarket.model.Shop;
+import com.example.fasomarket.model.ShopStatus;
+import com.example.fasomarket.repository.CategoryRepository;
+import com.example.fasomarket.repository.ProductRepository;
+import com.example.fasomarket.repository.ShopRepository;
+import com.example.fasomarket.search.TexteNormalise;
+import com.example.fasomarket.search.TrieSuggestions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Autocomplétion de la barre de recherche (/api/public/suggestions).
+ *
+ * L'arbre est reconstruit entièrement hors ligne puis publié par une simple
+ * affectation volatile : les lecteurs voient soit l'ancien arbre, soit le
+ * nouveau, jamais un état intermédiaire. Les modifications de libellés
+ * (produit créé, renommé, désactivé, boutique, catégorie) marquent l'arbre
+ * comme périmé ; la reconstruction est faite au plus une fois par intervalle.
+ * Les ventes et les vues ne changent que la popularité, rafraîchie toutes
+ * les {@code suggestions.popularite-ms}.
+ */
+@Service
+public class SuggestionService {
+
+    public static final String TYPE_PRODUIT = "produit";
+    public static final String TYPE_MARQUE = "marque";
+    public static final String TYPE_BOUTIQUE = "boutique";
+    public static final String TYPE_CATEGORIE = "categorie";
+
+    // Nombre maximal de suggestions renvoyées, conservé en chaque nœud de l'arbre
+    public static final int LIMITE_MAX = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TendanceService tendanceService;
+
+    @Value("${suggestions.taille-lot:1000}")
+    private int tailleLot;
+
+    // Popularité cumulée d'une marque ou d'une catégorie, avec son premier libellé rencontré
+    private static class Cumul {
+        private final String libelle;
+        private double popularite;
+
+        private Cumul(String libelle) {
+            this.libelle = libelle;
+        }
+    }
+
+    private volatile TrieSuggestions trie = TrieSuggestions.vide();
+    private final AtomicBoolean perime = new AtomicBoolean(true);
+
+    public List<TrieSuggestions.Suggestion> suggerer(String q, int limite) {
+        return trie.suggerer(q, limite);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueModifie(CatalogueEvent event) {
+        boolean libelles = switch (event.getCible()) {
+            case BOUTIQUE, CATEGORIE -> true;
+            case PRODUIT -> event.isLibellesModifies();
+            case VARIANTE, AVIS -> false;
+        };
+        if (libelles) {
+            perime.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${suggestions.popularite-ms:3600000}",
+            initialDelayString = "${suggestions.popularite-ms:3600000}")
+    public void rafraichirPopularite() {
+        perime.set(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void auDemarrage() {
+        reconstruireSiPerime();
+    }
+
+    @Scheduled(fixedDelayString = "${suggestions.reconstruction-ms:15000}")
+    public void reconstruireSiPerime() {
+        if (perime.compareAndSet(true, false)) {
+            try {
+                trie = construire();
+            } catch (Exception e) {
+                perime.set(true);
+                System.err.println("Erreur construction des suggestions: " + e.getMessage());
+            }
+        }
+    }
+
+    private TrieSuggestions construire() {
+        TrieSuggestions.Constructeur constructeur = new TrieSuggestions.Constructeur(LIMITE_MAX);
+        Map<String, Cumul> marques = new HashMap<>();
+        Map<String, Cumul> categories = new HashMap<>();
+        Map<UUID, Double> tendances = new HashMap<>();
+        tendanceService.getTendances(null, Integer.MAX_VALUE)
+                .forEach(t -> tendances.put(t.produitId(), t.score()));
+
+        PageRequest page = PageRequest.of(0, tailleLot, Sort.by("id"));
+        Slice<ProduitSuggestion> lot;
+        do {
+            lot = productRepository.findSuggestions(page);
+            for (ProduitSuggestion produit : lot) {
+                double popularite = popularite(produit) + tendances.getOrDefault(produit.id(), 0.0);
+                constructeur.ajouter(produit.nom(), TYPE_PRODUIT, produit.id().toString(), popularite);
+                // Marques et catégories : popularité cumulée de leurs produits
+                cumuler(marques, produit.marque(), popularite);
+                cumuler(categories, produit.categorie(), popularite);
+            }
+            page = page.next();
+        } while (lot.hasNext());
+
+        marques.values().forEach(m -> constructeur.ajouter(m.libelle, TYPE_MARQUE, null, m.popularite));
+
+        for (Category category : categoryRepository.findByIsActiveTrueOrderByNameAsc()) {
+            Cumul cumul = category.getName() != null
+                    ? categories.get(TexteNormalise.normaliser(category.getName().trim()))
+                    : null;
+            constructeur.ajouter(category.getName(), TYPE_CATEGORIE, category.getId().toString(),
+                    cumul != null ? cumul.popularite : 0);
+        }
+
+        for (Shop shop : shopRepository.findByStatus(ShopStatus.ACTIVE)) {
+            double popularite = (shop.getReviewsCount() != null ? shop.getReviewsCount() * 5.0 : 0)
+                    + (shop.getRating() != null ? shop.getRating().doubleValue() * 10 : 0);
+            constructeur.ajouter(shop.getName(), TYPE_BOUTIQUE, shop.getId().toString(), popularite);
+        }
+        return constructeur.construire();
+    }
+
+    private double popularite(ProduitSuggestion produit) {
+        return (produit.ventes() != null ? produit.ventes() * 10.0 : 0)
+                + (produit.avis() != null ? produit.avis() * 5.0 : 0)
+                + (produit.vues() != null ? produit.vues() : 0);
+    }
+
+    private void cumuler(Map<String, Cumul> cumuls, String valeur, double popularite) {
+        if (valeur == null || valeur.isBlank()) {
+            return;
+        }
+        String cle = TexteNormalise.normaliser(valeur.trim());
+        cumuls.computeIfAbsent(cle, c -> new Cumul(valeur.trim())).popularite += popularite + 1;
+    }
+}
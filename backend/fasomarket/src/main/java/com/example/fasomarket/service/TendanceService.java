@@ -0,0 +1,237 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.event.VenteEvent;
+import com.example.fasomarket.model.TendanceCompteur;
+import com.example.fasomarket.repository.TendanceCompteurRepository;
+import com.example.fasomarket.search.TexteNormalise;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Moteur de tendances à décroissance exponentielle.
+ *
+ * Chaque vue ou vente ajoute un poids au compteur du produit ; ce poids perd
+ * la moitié de sa valeur toutes les {@code demi-vie-heures}. On utilise la
+ * « décroissance avant » : au lieu de diminuer tous les compteurs en
+ * permanence, un événement reçu à l'instant t pèse 2^((t - repère) / demi-vie),
+ * et le classement reste le même puisque tous les scores partagent le même
+ * facteur. Le repère est avancé de temps en temps pour éviter les débordements.
+ *
+ * Les listes global / par catégorie sont recalculées périodiquement avec un
+ * tas borné ; les compteurs sont sauvegardés en base pour survivre à un redémarrage.
+ */
+@Service
+public class TendanceService {
+
+    public record Tendance(UUID produitId, String categorie, double score) {
+    }
+
+    private static class Compteur {
+        private final DoubleAdder poids = new DoubleAdder();
+        private volatile String categorie;
+    }
+
+    private static final double MAX_DEMI_VIES_AVANT_REPERE = 50;
+    private static final double SCORE_MIN = 0.01;
+
+    @Autowired
+    private TendanceCompteurRepository tendanceCompteurRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${tendances.demi-vie-heures:24}")
+    private double demiVieHeures;
+
+    @Value("${tendances.poids.vue:1}")
+    private double poidsVue;
+
+    @Value("${tendances.poids.vente:5}")
+    private double poidsVente;
+
+    @Value("${tendances.taille-liste:50}")
+    private int tailleListe;
+
+    private final Map<UUID, Compteur> compteurs = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private volatile long repereMillis = System.currentTimeMillis();
+
+    private volatile List<Tendance> global = List.of();
+    private volatile Map<String, List<Tendance>> parCategorie = Map.of();
+
+    public void enregistrerVue(UUID produitId, String categorie) {
+        ajouter(produitId, categorie, poidsVue);
+    }
+
+    public void enregistrerVente(UUID produitId, String categorie, int quantite) {
+        ajouter(produitId, categorie, poidsVente * Math.max(quantite, 1));
+    }
+
+    @TransactionalEventListener
+    public void onVente(VenteEvent event) {
+        enregistrerVente(event.getProduitId(), event.getCategorie(), event.getQuantite());
+    }
+
+    private void ajouter(UUID produitId, String categorie, double poids) {
+        if (produitId == null) {
+            return;
+        }
+        verrou.readLock().lock();
+        try {
+            double valeur = poids * facteur(System.currentTimeMillis());
+            // Ajout sous le verrou de la clé : recalculer() ne peut pas retirer le compteur entre-temps
+            compteurs.compute(produitId, (id, compteur) -> {
+                Compteur cible = compteur != null ? compteur : new Compteur();
+                if (categorie != null) {
+                    cible.categorie = categorie;
+                }
+                cible.poids.add(valeur);
+                return cible;
+            });
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // 2^((t - repère) / demi-vie)
+    private double facteur(long instantMillis) {
+        return Math.pow(2, (instantMillis - repereMillis) / (demiVieHeures * 3_600_000d));
+    }
+
+    public List<Tendance> getTendances(String categorie, int limite) {
+        List<Tendance> liste = categorie == null || categorie.isBlank()
+                ? global
+                : parCategorie.getOrDefault(TexteNormalise.normaliser(categorie.trim()), List.of());
+        return liste.size() > limite ? liste.subList(0, limite) : liste;
+    }
+
+    /**
+     * Recalcule les listes de tendances et retire les compteurs devenus négligeables.
+     */
+    @Scheduled(fixedDelayString = "${tendances.recalcul-ms:30000}")
+    public void recalculer() {
+        avancerRepereSiNecessaire();
+
+        long maintenant = System.currentTimeMillis();
+        double versScore = 1 / facteur(maintenant);
+        Comparator<Tendance> ordre = Comparator.comparingDouble(Tendance::score);
+        PriorityQueue<Tendance> tasGlobal = new PriorityQueue<>(ordre);
+        Map<String, PriorityQueue<Tendance>> tasCategories = new HashMap<>();
+
+        for (Map.Entry<UUID, Compteur> entry : compteurs.entrySet()) {
+            double score = entry.getValue().poids.sum() * versScore;
+            if (score < SCORE_MIN) {
+                // Retrait atomique, score relu sous le verrou de la clé : un ajout concurrent est conservé
+                compteurs.computeIfPresent(entry.getKey(),
+                        (id, compteur) -> compteur.poids.sum() * versScore < SCORE_MIN ? null : compteur);
+                continue;
+            }
+            Tendance tendance = new Tendance(entry.getKey(), entry.getValue().categorie, score);
+            offrir(tasGlobal, tendance, ordre);
+            if (tendance.categorie() != null) {
+                offrir(tasCategories.computeIfAbsent(TexteNormalise.normaliser(tendance.categorie().trim()),
+                        c -> new PriorityQueue<>(ordre)), tendance, ordre);
+            }
+        }
+
+        global = trier(tasGlobal, ordre);
+        Map<String, List<Tendance>> listes = new HashMap<>();
+        tasCategories.forEach((categorie, tas) -> listes.put(categorie, trier(tas, ordre)));
+        parCategorie = Map.copyOf(listes);
+    }
+
+    private void offrir(PriorityQueue<Tendance> tas, Tendance tendance, Comparator<Tendance> ordre) {
+        tas.offer(tendance);
+        if (tas.size() > tailleListe) {
+            tas.poll();
+        }
+    }
+
+    private List<Tendance> trier(PriorityQueue<Tendance> tas, Comparator<Tendance> ordre) {
+        List<Tendance> liste = new ArrayList<>(tas);
+        liste.sort(ordre.reversed());
+        return List.copyOf(liste);
+    }
+
+    private void avancerRepereSiNecessaire() {
+        long maintenant = System.currentTimeMillis();
+        if ((maintenant - repereMillis) / (demiVieHeures * 3_600_000d) < MAX_DEMI_VIES_AVANT_REPERE) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            double correction = 1 / facteur(maintenant);
+            for (Compteur compteur : compteurs.values()) {
+                double valeur = compteur.poids.sumThenReset();
+                compteur.poids.add(valeur * correction);
+            }
+            repereMillis = maintenant;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sauvegarde des scores courants (upsert JDBC par lots) et suppression
+     * des compteurs qui ont disparu de la mémoire.
+     */
+    @Scheduled(fixedDelayString = "${tendances.sauvegarde-ms:300000}",
+            initialDelayString = "${tendances.sauvegarde-ms:300000}")
+    @Transactional
+    public void sauvegarder() {
+        long maintenant = System.currentTimeMillis();
+        double versScore = 1 / facteur(maintenant);
+        Timestamp horodatage = new Timestamp(maintenant);
+
+        List<Object[]> lignes = new ArrayList<>();
+        compteurs.forEach((id, compteur) -> lignes.add(new Object[] {
+                id, compteur.categorie, compteur.poids.sum() * versScore, horodatage }));
+        try {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO tendance_compteurs (produit_id, categorie, score, mis_a_jour_le) VALUES (?, ?, ?, ?) " +
+                    "ON CONFLICT (produit_id) DO UPDATE SET categorie = EXCLUDED.categorie, " +
+                    "score = EXCLUDED.score, mis_a_jour_le = EXCLUDED.mis_a_jour_le",
+                    lignes);
+            jdbcTemplate.update("DELETE FROM tendance_compteurs WHERE mis_a_jour_le < ?", horodatage);
+        } catch (Exception e) {
+            System.err.println("Erreur sauvegarde des tendances: " + e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restaurer() {
+        try {
+            long maintenant = System.currentTimeMillis();
+            for (TendanceCompteur sauvegarde : tendanceCompteurRepository.findAll()) {
+                long instant = sauvegarde.getMisAJourLe().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                Compteur compteur = compteurs.computeIfAbsent(sauvegarde.getProduitId(), id -> new Compteur());
+                compteur.categorie = sauvegarde.getCategorie();
+                // Score à l'instant de sauvegarde, ramené dans le repère courant
+                compteur.poids.add(sauvegarde.getScore() * facteur(Math.min(instant, maintenant)));
+            }
+            recalculer();
+        } catch (Exception e) {
+            System.err.println("Erreur restauration des tendances: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Mode vente flash : le stock de la variante est servi par des compteurs en mémoire
+-- et écrit en base par lots (voir StockChaudService).
+ALTER TABLE produit_variantes ADD COLUMN IF NOT EXISTS vente_flash BOOLEAN DEFAULT false;
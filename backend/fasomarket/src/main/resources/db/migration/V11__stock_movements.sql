@@ -0,0 +1,26 @@
+-- Journal des mouvements de stock (insertion seule) et soldes compactés.
+-- Le stock d'un article = solde compacté + somme des mouvements restants.
+CREATE TABLE IF NOT EXISTS stock_movements (
+    id BIGSERIAL PRIMARY KEY,
+    produit_id UUID NOT NULL,
+    variante_id BIGINT,
+    quantite INTEGER NOT NULL,
+    type VARCHAR(24) NOT NULL,
+    reference VARCHAR(64),
+    cree_le TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_movements_article ON stock_movements (produit_id, variante_id, id);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_variante ON stock_movements (variante_id);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_cree ON stock_movements (cree_le);
+
+-- variante_id = 0 : stock propre d'un produit sans variante
+CREATE TABLE IF NOT EXISTS stock_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    produit_id UUID NOT NULL,
+    variante_id BIGINT NOT NULL,
+    quantite INTEGER NOT NULL,
+    dernier_mouvement BIGINT NOT NULL,
+    mis_a_jour_le TIMESTAMP NOT NULL,
+    CONSTRAINT uk_stock_snapshots_article UNIQUE (produit_id, variante_id)
+);
@@ -0,0 +1,4 @@
+-- Inventaire d'un vendeur en une requête : user -> vendor -> shops -> products -> variantes
+CREATE INDEX IF NOT EXISTS idx_vendors_user ON vendors (user_id);
+CREATE INDEX IF NOT EXISTS idx_shops_vendor ON shops (vendor_id);
+CREATE INDEX IF NOT EXISTS idx_produit_variantes_produit_stock ON produit_variantes (produit_id, stock);
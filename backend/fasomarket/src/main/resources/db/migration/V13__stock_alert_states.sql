@@ -0,0 +1,15 @@
+-- État d'alerte de stock par article (variante_id = 0 : produit sans variante).
+-- a_notifier : passage vers un état plus grave, pas encore envoyé au vendeur.
+CREATE TABLE IF NOT EXISTS stock_alert_states (
+    id BIGSERIAL PRIMARY KEY,
+    produit_id UUID NOT NULL,
+    variante_id BIGINT NOT NULL,
+    etat VARCHAR(16) NOT NULL,
+    stock INTEGER NOT NULL,
+    a_notifier BOOLEAN NOT NULL DEFAULT false,
+    modifie_le TIMESTAMP NOT NULL,
+    notifie_le TIMESTAMP,
+    CONSTRAINT uk_stock_alert_states_article UNIQUE (produit_id, variante_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_alert_states_a_notifier ON stock_alert_states (a_notifier, id);
@@ -0,0 +1,13 @@
+-- Clés d'idempotence des requêtes de commande et de paiement, avec la réponse rendue.
+-- statut : EN_COURS pendant l'exécution de la requête d'origine, puis TERMINE.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id VARCHAR(400) PRIMARY KEY,
+    empreinte VARCHAR(64) NOT NULL,
+    statut VARCHAR(16) NOT NULL,
+    code_http INTEGER,
+    reponse TEXT,
+    cree_le TIMESTAMP NOT NULL,
+    expire_le TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expire_le ON idempotency_keys (expire_le);
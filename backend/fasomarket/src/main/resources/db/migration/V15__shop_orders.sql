@@ -0,0 +1,43 @@
+-- Sous-commandes par boutique : part d'une commande revenant à une boutique,
+-- avec son propre statut et son total. Les vendeurs filtrent sur shop_id sans
+-- remonter order_items -> products -> shops -> vendors.
+CREATE TABLE IF NOT EXISTS shop_orders (
+    id UUID PRIMARY KEY,
+    order_id UUID NOT NULL REFERENCES orders(id),
+    shop_id UUID NOT NULL REFERENCES shops(id),
+    client_id UUID NOT NULL REFERENCES users(id),
+    status VARCHAR(255) NOT NULL,
+    total_amount NUMERIC(10, 2) NOT NULL,
+    delivery_address VARCHAR(255) NOT NULL,
+    needs_delivery BOOLEAN,
+    delivery_phone VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_shop_orders_order_shop UNIQUE (order_id, shop_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_shop_orders_shop_date_id ON shop_orders (shop_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_shop_orders_shop_status_date ON shop_orders (shop_id, status, created_at DESC);
+
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS shop_order_id UUID REFERENCES shop_orders(id);
+CREATE INDEX IF NOT EXISTS idx_order_items_shop_order ON order_items (shop_order_id);
+
+-- Reprise des commandes existantes (aussi faite par lots au démarrage, voir
+-- OrderService.repartirCommandesExistantes)
+WITH nouvelles AS (
+    INSERT INTO shop_orders (id, order_id, shop_id, client_id, status, total_amount,
+                             delivery_address, needs_delivery, delivery_phone, created_at, updated_at)
+    SELECT gen_random_uuid(), o.id, p.shop_id, o.client_id, o.status,
+           SUM(oi.unit_price * oi.quantity), o.delivery_address, o.needs_delivery, o.delivery_phone,
+           o.created_at, o.updated_at
+    FROM orders o
+    JOIN order_items oi ON oi.order_id = o.id
+    JOIN products p ON p.id = oi.product_id
+    WHERE NOT EXISTS (SELECT 1 FROM shop_orders so WHERE so.order_id = o.id)
+    GROUP BY o.id, p.shop_id
+    ON CONFLICT (order_id, shop_id) DO NOTHING
+    RETURNING id, order_id, shop_id
+)
+UPDATE order_items oi SET shop_order_id = n.id
+FROM nouvelles n, products p
+WHERE oi.order_id = n.order_id AND p.id = oi.product_id AND p.shop_id = n.shop_id;
@@ -0,0 +1,32 @@
+-- Index de lecture des commandes d'un vendeur : une ligne par vendeur et par commande,
+-- tenue à jour dans la transaction qui écrit shop_orders (VendorOrderIndexEntityListener).
+CREATE TABLE IF NOT EXISTS vendor_order_index (
+    vendor_user_id UUID NOT NULL,
+    order_id UUID NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    total_for_vendor NUMERIC(10, 2) NOT NULL,
+    client_name VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (vendor_user_id, order_id)
+);
+
+-- Index couvrants : listes, compteurs et totaux du vendeur lus sans la table
+CREATE INDEX IF NOT EXISTS idx_vendor_order_index_date
+    ON vendor_order_index (vendor_user_id, created_at DESC, order_id DESC) INCLUDE (status, total_for_vendor);
+CREATE INDEX IF NOT EXISTS idx_vendor_order_index_status
+    ON vendor_order_index (vendor_user_id, status, created_at DESC, order_id DESC) INCLUDE (total_for_vendor);
+
+-- Reprise des sous-commandes existantes (aussi faite par lots au démarrage, voir
+-- OrderService.repartirCommandesExistantes) : statut de la sous-commande la moins avancée
+INSERT INTO vendor_order_index (vendor_user_id, order_id, status, total_for_vendor, client_name, created_at)
+SELECT v.user_id, so.order_id,
+       (ARRAY_AGG(so.status ORDER BY so.status = 'CANCELLED',
+            array_position(ARRAY['PENDING','CONFIRMED','SHIPPED','DELIVERED','CANCELLED','RETURNED','PAID']::varchar[],
+                           so.status::varchar)))[1],
+       SUM(so.total_amount), MIN(u.full_name), MIN(so.created_at)
+FROM shop_orders so
+JOIN shops s ON s.id = so.shop_id
+JOIN vendors v ON v.id = s.vendor_id
+JOIN users u ON u.id = so.client_id
+GROUP BY v.user_id, so.order_id
+ON CONFLICT (vendor_user_id, order_id) DO NOTHING;
@@ -0,0 +1,20 @@
+-- Effets de bord des commandes et paiements (notifications, e-mails, SMS, factures),
+-- écrits dans la transaction métier puis traités en arrière-plan.
+-- statut : A_TRAITER, TRAITE, ou ECHEC après le nombre maximal de tentatives.
+-- prochain_essai : échéance de la prochaine tentative, ou fin du bail pendant le traitement.
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(32) NOT NULL,
+    gestionnaire VARCHAR(32) NOT NULL,
+    agregat_id UUID NOT NULL,
+    donnees TEXT,
+    statut VARCHAR(16) NOT NULL,
+    tentatives INTEGER NOT NULL DEFAULT 0,
+    prochain_essai TIMESTAMP NOT NULL,
+    erreur VARCHAR(1000),
+    cree_le TIMESTAMP NOT NULL,
+    traite_le TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_a_traiter ON outbox_events (statut, prochain_essai, id);
+CREATE INDEX IF NOT EXISTS idx_outbox_events_traite_le ON outbox_events (traite_le);
@@ -0,0 +1,19 @@
+-- File d'envoi des e-mails, remplie dans la transaction de l'appelant et vidée par lots.
+-- statut : A_ENVOYER, ENVOYE, ou MORT (refus définitif ou tentatives épuisées).
+-- prochain_essai : échéance de la prochaine tentative, ou fin du bail pendant l'envoi.
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    expediteur VARCHAR(320) NOT NULL,
+    destinataires VARCHAR(2000) NOT NULL,
+    sujet VARCHAR(500) NOT NULL,
+    corps TEXT,
+    statut VARCHAR(16) NOT NULL,
+    tentatives INTEGER NOT NULL DEFAULT 0,
+    prochain_essai TIMESTAMP NOT NULL,
+    erreur VARCHAR(1000),
+    cree_le TIMESTAMP NOT NULL,
+    envoye_le TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_a_envoyer ON email_outbox (statut, prochain_essai, id);
+CREATE INDEX IF NOT EXISTS idx_email_outbox_envoye_le ON email_outbox (envoye_le);
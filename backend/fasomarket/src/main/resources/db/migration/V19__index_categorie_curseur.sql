@@ -0,0 +1,7 @@
+-- Pagination par curseur des produits d'une catégorie : filtre sur la clé
+-- étrangère, lecture d'index à partir de la position du curseur.
+-- Aussi déclaré sur l'entité (ddl-auto=update).
+CREATE INDEX IF NOT EXISTS idx_products_categorie_date_id ON products (category_id, created_at DESC, id DESC);
+
+-- L'index (category_id) de V6 est couvert par le nouvel index
+DROP INDEX IF EXISTS idx_products_category_id;
@@ -0,0 +1,10 @@
+-- Index du catalogue public (/api/public/produits)
+-- Les index simples sont aussi déclarés sur l'entité Product (ddl-auto=update) ;
+-- les index d'expression lower(...) ne peuvent être créés qu'ici.
+CREATE INDEX IF NOT EXISTS idx_products_actif_date ON products (is_active, created_at);
+CREATE INDEX IF NOT EXISTS idx_products_actif_prix ON products (is_active, price);
+CREATE INDEX IF NOT EXISTS idx_products_shop ON products (shop_id);
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products (category_id);
+CREATE INDEX IF NOT EXISTS idx_products_categorie_lower ON products (lower(category)) WHERE is_active = true;
+CREATE INDEX IF NOT EXISTS idx_products_marque_lower ON products (lower(brand)) WHERE is_active = true;
+CREATE INDEX IF NOT EXISTS idx_products_vedette ON products (created_at) WHERE is_active = true AND featured = true;
@@ -0,0 +1,7 @@
+-- Point de reprise du moteur de tendances (scores décroissants par produit)
+CREATE TABLE IF NOT EXISTS tendance_compteurs (
+    produit_id UUID PRIMARY KEY,
+    categorie VARCHAR(255),
+    score DOUBLE PRECISION NOT NULL,
+    mis_a_jour_le TIMESTAMP NOT NULL
+);
@@ -0,0 +1,14 @@
+-- Index composites de la pagination par curseur (created_at DESC, id DESC) :
+-- chaque page est une lecture d'index à partir de la position du curseur,
+-- quel que soit son rang. Aussi déclarés sur les entités (ddl-auto=update).
+CREATE INDEX IF NOT EXISTS idx_products_actif_date_id ON products (is_active, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_products_shop_date_id ON products (shop_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_shops_statut_date_id ON shops (status, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_date_id ON orders (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_product ON order_items (product_id);
+CREATE INDEX IF NOT EXISTS idx_notifications_user_date_id ON notifications (user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_reviews_produit_date_id ON reviews (produit_id, date_creation DESC, id DESC);
+
+-- L'index (is_active, created_at) de V6 est couvert par le nouvel index
+DROP INDEX IF EXISTS idx_products_actif_date;
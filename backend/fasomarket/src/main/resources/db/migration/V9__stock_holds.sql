@@ -0,0 +1,13 @@
+-- Blocages temporaires du stock des lignes de panier (une ligne par article du panier).
+-- Le stock est déjà décrémenté ; il est rendu à l'expiration ou au retrait de l'article.
+CREATE TABLE IF NOT EXISTS stock_holds (
+    cart_id UUID PRIMARY KEY,
+    client_id UUID NOT NULL,
+    produit_id UUID NOT NULL,
+    variante_id BIGINT,
+    quantite INTEGER NOT NULL,
+    expire_le TIMESTAMP NOT NULL,
+    cree_le TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_stock_holds_expire ON stock_holds (expire_le);
+CREATE INDEX IF NOT EXISTS idx_stock_holds_client ON stock_holds (client_id);
@@ -0,0 +1,20 @@
+package com.example.fasomarket;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Base PostgreSQL jetable pour les tests : les requêtes du projet utilisent
+ * des fonctions propres à PostgreSQL (SKIP LOCKED, unnest, make_interval).
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresTestConfiguration {
+
+    @Bean
+    @ServiceConnection
+    public PostgreSQLContainer postgres() {
+        return new PostgreSQLContainer("postgres:16-alpine");
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.fasomarket;
+
+import com.example.fasomarket.model.Role;
+import com.example.fasomarket.model.Shop;
+import com.example.fasomarket.model.User;
+import com.example.fasomarket.model.Vendor;
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Données et outils partagés par les tests sur base : boutique d'un vendeur
+ * et lancement d'appels simultanés.
+ */
+public final class SupportDeTest {
+
+    private SupportDeTest() {
+    }
+
+    /**
+     * Persiste un vendeur et sa boutique ; {@code suffixe} rend l'e-mail et le
+     * téléphone uniques quand les données sont commitées entre les tests.
+     */
+    public static Shop boutique(EntityManager entityManager, String suffixe) {
+        User user = new User("Vendeur " + suffixe, "7" + suffixe, suffixe + "@test.bf", "secret", Role.VENDOR);
+        entityManager.persist(user);
+        Vendor vendor = new Vendor(user);
+        entityManager.persist(vendor);
+        Shop shop = new Shop(vendor, "Boutique " + suffixe, "Boutique de test", "70000001", "Ouagadougou");
+        entityManager.persist(shop);
+        return shop;
+    }
+
+    /**
+     * Lance {@code appels} fois l'appel, chacun sur son thread (donc sa
+     * connexion), tous libérés au même instant ; résultats dans l'ordre de
+     * soumission.
+     */
+    public static <T> List<T> enParallele(int appels, Callable<T> appel) throws Exception {
+        ExecutorService executeur = Executors.newFixedThreadPool(appels);
+        try {
+            CountDownLatch depart = new CountDownLatch(1);
+            List<Future<T>> futurs = new ArrayList<>();
+            for (int i = 0; i < appels; i++) {
+                futurs.add(executeur.submit(() -> {
+                    depart.await();
+                    return appel.call();
+                }));
+            }
+            depart.countDown();
+            List<T> resultats = new ArrayList<>();
+            for (Future<T> futur : futurs) {
+                resultats.add(futur.get());
+            }
+            return resultats;
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+}
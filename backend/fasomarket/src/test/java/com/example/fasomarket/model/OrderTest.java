@@ -0,0 +1,44 @@
+package com.example.fasomarket.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statut d'une commande déduit de ses sous-commandes : celui de la moins
+ * avancée, selon l'ordre d'avancement et non l'ordre de déclaration.
+ */
+class OrderTest {
+
+    @Test
+    void uneCommandePayeeNEstPasLivreeAvantToutesSesBoutiques() {
+        Order order = commande(2);
+        order.setStatus(OrderStatus.PAID);
+
+        order.getShopOrders().get(0).setStatus(OrderStatus.DELIVERED);
+        order.recalculerStatut();
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PAID);
+    }
+
+    @Test
+    void lesSousCommandesAnnuleesSontIgnorees() {
+        Order order = commande(2);
+        order.getShopOrders().get(0).setStatus(OrderStatus.CANCELLED);
+        order.getShopOrders().get(1).setStatus(OrderStatus.SHIPPED);
+        order.recalculerStatut();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.SHIPPED);
+
+        order.getShopOrders().get(1).setStatus(OrderStatus.CANCELLED);
+        order.recalculerStatut();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+    }
+
+    private Order commande(int boutiques) {
+        Order order = new Order();
+        for (int i = 0; i < boutiques; i++) {
+            order.getShopOrders().add(new ShopOrder(order, new Shop()));
+        }
+        return order;
+    }
+}
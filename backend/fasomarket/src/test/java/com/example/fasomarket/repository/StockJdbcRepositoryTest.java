@@ -0,0 +1,101 @@
+package com.example.fasomarket.repository;
+
+import com.example.fasomarket.PostgresTestConfiguration;
+import com.example.fasomarket.SupportDeTest;
+import com.example.fasomarket.model.Product;
+import com.example.fasomarket.model.ProduitVariante;
+import com.example.fasomarket.model.Shop;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Décrément conditionnel sous concurrence : des acheteurs simultanés, chacun
+ * sur sa propre connexion, ne peuvent pas retirer plus que le stock.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({PostgresTestConfiguration.class, StockJdbcRepository.class, JournalStockJdbcRepository.class,
+        VendorOrderIndexJdbcRepository.class})
+// Les données doivent être commitées pour être vues des autres connexions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockJdbcRepositoryTest {
+
+    private static final int STOCK = 10;
+    private static final int ACHETEURS = 40;
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product produit;
+    private ProduitVariante variante;
+
+    @BeforeEach
+    void preparer() {
+        String suffixe = UUID.randomUUID().toString().substring(0, 8);
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+            Shop shop = SupportDeTest.boutique(entityManager, suffixe);
+            produit = new Product(shop, "Produit " + suffixe, "Description", "Mode", BigDecimal.valueOf(5000), STOCK);
+            entityManager.persist(produit);
+            variante = new ProduitVariante();
+            variante.setProduit(produit);
+            variante.setSku("SKU-" + suffixe);
+            variante.setStock(STOCK);
+            entityManager.persist(variante);
+        });
+    }
+
+    @Test
+    void decrementerVarianteNeSurvendPas() throws Exception {
+        List<Boolean> resultats = SupportDeTest.enParallele(ACHETEURS, () ->
+                stockJdbcRepository.decrementerVariante(variante.getId(), 1).isPresent());
+
+        assertThat(resultats).filteredOn(Boolean::booleanValue).hasSize(STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT stock FROM produit_variantes WHERE id = ?",
+                Integer.class, variante.getId())).isZero();
+    }
+
+    @Test
+    void decrementerProduitNeSurvendPas() throws Exception {
+        List<Boolean> resultats = SupportDeTest.enParallele(ACHETEURS, () -> stockJdbcRepository.decrementerProduit(produit.getId(), 1));
+
+        assertThat(resultats).filteredOn(Boolean::booleanValue).hasSize(STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?",
+                Integer.class, produit.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT available FROM products WHERE id = ?",
+                Boolean.class, produit.getId())).isFalse();
+    }
+
+    @Test
+    void decrementerVarianteRefuseUneQuantiteTropGrande() {
+        assertThat(stockJdbcRepository.decrementerVariante(variante.getId(), STOCK + 1)).isEmpty();
+        assertThat(stockJdbcRepository.decrementerVariante(variante.getId(), STOCK))
+                .hasValueSatisfying(mouvement -> assertThat(mouvement.stockRestant()).isZero());
+    }
+}
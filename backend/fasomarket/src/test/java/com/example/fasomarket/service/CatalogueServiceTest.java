@@ -0,0 +1,129 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.PostgresTestConfiguration;
+import com.example.fasomarket.SupportDeTest;
+import com.example.fasomarket.dto.CatalogueCritere;
+import com.example.fasomarket.dto.ProduitCarte;
+import com.example.fasomarket.model.Product;
+import com.example.fasomarket.model.Shop;
+import com.example.fasomarket.repository.JournalStockJdbcRepository;
+import com.example.fasomarket.repository.VendorOrderIndexJdbcRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Nombre d'instructions SQL d'une recherche catalogue : tous les filtres
+ * tiennent dans la requête paginée, plus au plus un comptage.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({PostgresTestConfiguration.class, CatalogueService.class, JournalStockJdbcRepository.class,
+        VendorOrderIndexJdbcRepository.class})
+class CatalogueServiceTest {
+
+    private static final int PRODUITS = 30;
+
+    @Autowired
+    private CatalogueService catalogueService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private RechercheService rechercheService;
+
+    private Shop shop;
+    private final List<UUID> produits = new ArrayList<>();
+    private Statistics statistiques;
+
+    @BeforeEach
+    void preparer() {
+        shop = SupportDeTest.boutique(entityManager, "test");
+        for (int i = 0; i < PRODUITS; i++) {
+            Product produit = new Product(shop, "Produit " + i, "Description " + i, "Mode",
+                    BigDecimal.valueOf(1000 + i * 100L), 5);
+            produit.setBrand(i % 2 == 0 ? "Faso" : "Autre");
+            entityManager.persist(produit);
+            produits.add(produit.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistiques.clear();
+    }
+
+    @Test
+    void tousLesFiltresEnUneRequetePlusLeComptage() {
+        CatalogueCritere critere = new CatalogueCritere();
+        critere.setCategorie("mode");
+        critere.setPrixMin(BigDecimal.valueOf(1000));
+        critere.setPrixMax(BigDecimal.valueOf(3000));
+        critere.setDisponible(true);
+        critere.setMarque("faso");
+        critere.setBoutiqueId(shop.getId());
+
+        Page<ProduitCarte> page = catalogueService.rechercher(critere, 0, 5);
+
+        // Prix 1000..3000 : produits 0 à 20, dont 11 de marque Faso
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getTotalElements()).isEqualTo(11);
+        assertThat(statistiques.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void premierePageIncompleteSansComptage() {
+        CatalogueCritere critere = new CatalogueCritere();
+        critere.setMarque("Autre");
+
+        Page<ProduitCarte> page = catalogueService.rechercher(critere, 0, 100);
+
+        assertThat(page.getTotalElements()).isEqualTo(PRODUITS / 2);
+        assertThat(statistiques.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rechercheTextuelleGardeLOrdreDePertinence() {
+        List<UUID> pertinence = new ArrayList<>(produits.reversed());
+        when(rechercheService.estPret()).thenReturn(true);
+        when(rechercheService.rechercherProduits(eq("produit"), anyInt())).thenReturn(pertinence);
+
+        CatalogueCritere critere = new CatalogueCritere();
+        critere.setQ("produit");
+        critere.setMarque("faso");
+
+        Page<ProduitCarte> page = catalogueService.rechercher(critere, 1, 4);
+
+        List<UUID> attendus = pertinence.stream()
+                .filter(id -> produits.indexOf(id) % 2 == 0)
+                .skip(4).limit(4).toList();
+        assertThat(page.getContent()).extracting(ProduitCarte::id).containsExactlyElementsOf(attendus);
+        assertThat(page.getTotalElements()).isEqualTo(PRODUITS / 2);
+        assertThat(statistiques.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
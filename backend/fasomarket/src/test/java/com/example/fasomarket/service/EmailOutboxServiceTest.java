@@ -0,0 +1,188 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.PostgresTestConfiguration;
+import com.example.fasomarket.repository.EmailOutboxJdbcRepository;
+import com.example.fasomarket.repository.JournalStockJdbcRepository;
+import com.example.fasomarket.repository.VendorOrderIndexJdbcRepository;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * File d'envoi des e-mails contre un serveur SMTP GreenMail : envoi par lots,
+ * nouvel essai quand le serveur est injoignable, passage en MORT après les
+ * tentatives permises ou sur une adresse mal formée.
+ */
+@DataJpaTest(properties = {
+        "email.file.travailleurs=2",
+        "email.file.taille-lot=10",
+        "email.file.intervalle-ms=50",
+        "email.file.tentatives-max=3",
+        "email.file.reessai.initial-secondes=1",
+        "email.file.reessai.max-secondes=1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({PostgresTestConfiguration.class, EmailOutboxService.class, EmailOutboxJdbcRepository.class,
+        JournalStockJdbcRepository.class, VendorOrderIndexJdbcRepository.class})
+// Les travailleurs lisent la file depuis leurs propres connexions : les messages doivent être commités
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxServiceTest {
+
+    private static final long ATTENTE_MAX_MS = 15000;
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SmtpDeTest {
+
+        @Bean
+        JavaMailSender mailSender() {
+            JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+            mailSender.setHost("localhost");
+            mailSender.setPort(ServerSetupTest.SMTP.getPort());
+            mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+            mailSender.getJavaMailProperties().put("mail.smtp.timeout", "2000");
+            return mailSender;
+        }
+    }
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private GreenMail greenMail;
+
+    @BeforeEach
+    void preparer() {
+        jdbcTemplate.update("DELETE FROM email_outbox");
+        demarrerSmtp();
+    }
+
+    @AfterEach
+    void arreterSmtp() {
+        if (greenMail != null) {
+            greenMail.stop();
+            greenMail = null;
+        }
+    }
+
+    @Test
+    void unLotValideEstEnvoyeSurUneConnexionParLot() throws InterruptedException {
+        EmailOutboxService.Statistiques avant = emailOutboxService.getStatistiques();
+
+        // Validés ensemble : les 25 messages sont dus au même instant
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+            for (int i = 0; i < 25; i++) {
+                emailOutboxService.mettreEnFile(message("client" + i + "@test.bf"));
+            }
+        });
+
+        attendre(() -> compter("ENVOYE") == 25);
+        assertThat(greenMail.getReceivedMessages()).hasSize(25);
+        // Lots de 10, 10 et 5
+        assertThat(emailOutboxService.getStatistiques().lots() - avant.lots()).isEqualTo(3);
+    }
+
+    @Test
+    void unServeurInjoignableEstRetenteAvecDelai() throws InterruptedException {
+        arreterSmtp();
+        emailOutboxService.mettreEnFile(message("client@test.bf"));
+
+        attendre(() -> ligne().get("erreur") != null);
+        Map<String, Object> apresEchec = ligne();
+        assertThat(apresEchec.get("statut")).isEqualTo("A_ENVOYER");
+        assertThat(apresEchec.get("tentatives")).isEqualTo(1);
+
+        demarrerSmtp();
+        attendre(() -> "ENVOYE".equals(ligne().get("statut")));
+        assertThat(ligne().get("tentatives")).isEqualTo(2);
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+    }
+
+    @Test
+    void lesTentativesEpuiseesPassentEnMortPuisSontRelancees() throws InterruptedException {
+        EmailOutboxService.Statistiques avant = emailOutboxService.getStatistiques();
+        arreterSmtp();
+        emailOutboxService.mettreEnFile(message("client@test.bf"));
+
+        attendre(() -> "MORT".equals(ligne().get("statut")));
+        assertThat(ligne().get("tentatives")).isEqualTo(3);
+        assertThat(emailOutboxService.getStatistiques().morts() - avant.morts()).isEqualTo(1);
+
+        demarrerSmtp();
+        assertThat(emailOutboxService.relancer()).isEqualTo(1);
+        attendre(() -> "ENVOYE".equals(ligne().get("statut")));
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+    }
+
+    @Test
+    void uneAdresseMalFormeeNeBloqueQueSonMessage() throws InterruptedException {
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+            emailOutboxService.mettreEnFile(message("premier@test.bf"));
+            emailOutboxService.mettreEnFile(message("Client <invalide@test.bf"));
+            emailOutboxService.mettreEnFile(message("dernier@test.bf"));
+        });
+
+        attendre(() -> compter("ENVOYE") == 2 && compter("MORT") == 1);
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT tentatives FROM email_outbox WHERE statut = 'MORT'",
+                Integer.class)).isEqualTo(1);
+    }
+
+    private void demarrerSmtp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+    }
+
+    private SimpleMailMessage message(String destinataire) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("noreply@fasomarket.bf");
+        message.setTo(destinataire);
+        message.setSubject("Commande confirmée");
+        message.setText("Votre commande a bien été enregistrée.");
+        return message;
+    }
+
+    private long compter(String statut) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM email_outbox WHERE statut = ?", Long.class, statut);
+    }
+
+    // Ligne du seul message en file
+    private Map<String, Object> ligne() {
+        return jdbcTemplate.queryForMap("SELECT statut, tentatives, erreur FROM email_outbox");
+    }
+
+    private void attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ATTENTE_MAX_MS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.fasomarket.service;
+
+import com.example.fasomarket.PostgresTestConfiguration;
+import com.example.fasomarket.SupportDeTest;
+import com.example.fasomarket.model.Product;
+import com.example.fasomarket.model.ProduitVariante;
+import com.example.fasomarket.model.Shop;
+import com.example.fasomarket.repository.JournalStockJdbcRepository;
+import com.example.fasomarket.repository.StockJdbcRepository;
+import com.example.fasomarket.repository.VendorOrderIndexJdbcRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vente flash : le compteur en mémoire et le décrément conditionnel en base
+ * vendent exactement le stock sous la même charge concurrente ; le compteur
+ * refuse les demandes en trop sans aller en base et groupe les ventes
+ * acceptées en moins de lots qu'il n'y a de ventes.
+ */
+// Intervalle d'écriture assez large pour que les acheteurs simultanés tombent dans les mêmes lots
+@DataJpaTest(properties = "stock.vente-flash.ecriture-ms=50")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({PostgresTestConfiguration.class, StockChaudService.class, StockJdbcRepository.class,
+        JournalStockJdbcRepository.class, VendorOrderIndexJdbcRepository.class})
+// Les lots sont écrits par le thread de la vente flash : les données doivent être commitées
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockChaudServiceTest {
+
+    private static final int STOCK = 20;
+    private static final int ACHETEURS = 64;
+
+    @Autowired
+    private StockChaudService stockChaudService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProduitVariante chaude;
+    private ProduitVariante froide;
+
+    @BeforeEach
+    void preparer() throws InterruptedException {
+        String suffixe = UUID.randomUUID().toString().substring(0, 8);
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+            Shop shop = SupportDeTest.boutique(entityManager, suffixe);
+            Product produit = new Product(shop, "Produit " + suffixe, "Description", "Mode",
+                    BigDecimal.valueOf(5000), 2 * STOCK);
+            entityManager.persist(produit);
+            chaude = variante(produit, "CHAUDE-" + suffixe);
+            froide = variante(produit, "FROIDE-" + suffixe);
+        });
+
+        assertThat(stockChaudService.activer(chaude.getId(), true)).isTrue();
+        // Le compteur est créé par le rafraîchissement lancé en arrière-plan
+        long limite = System.currentTimeMillis() + 5000;
+        while (!stockChaudService.estChaude(chaude.getId()) && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(stockChaudService.estChaude(chaude.getId())).isTrue();
+        assertThat(stockChaudService.estChaude(froide.getId())).isFalse();
+    }
+
+    @Test
+    void lesDeuxCheminsVendentExactementLeStock() throws Exception {
+        StockChaudService.Statistiques avant = stockChaudService.getStatistiques();
+
+        List<Boolean> chaudes = SupportDeTest.enParallele(ACHETEURS,
+                () -> stockChaudService.reserver(chaude.getId(), 1));
+        List<Boolean> froides = SupportDeTest.enParallele(ACHETEURS,
+                () -> stockChaudService.reserver(froide.getId(), 1));
+
+        assertThat(chaudes).filteredOn(Boolean::booleanValue).hasSize(STOCK);
+        assertThat(froides).filteredOn(Boolean::booleanValue).hasSize(STOCK);
+        assertThat(stock(chaude.getId())).isZero();
+        assertThat(stock(froide.getId())).isZero();
+
+        // Les demandes en trop sont refusées par le compteur, sans aller-retour en base
+        StockChaudService.Statistiques apres = stockChaudService.getStatistiques();
+        assertThat(apres.refusLocaux() - avant.refusLocaux()).isEqualTo(ACHETEURS - STOCK);
+        assertThat(apres.refusBase() - avant.refusBase()).isZero();
+        // En base, une écriture par demande ; le compteur groupe les ventes acceptées
+        assertThat(apres.lots() - avant.lots()).isPositive().isLessThan(STOCK);
+    }
+
+    @Test
+    void uneReservationAnnuleeRendLeStock() throws InterruptedException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(statut -> {
+            assertThat(stockChaudService.reserver(chaude.getId(), 5)).isTrue();
+            statut.setRollbackOnly();
+        });
+
+        // La restitution est faite par le thread de la vente flash
+        long limite = System.currentTimeMillis() + 5000;
+        while (stock(chaude.getId()) != STOCK && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(stock(chaude.getId())).isEqualTo(STOCK);
+    }
+
+    private ProduitVariante variante(Product produit, String sku) {
+        ProduitVariante variante = new ProduitVariante();
+        variante.setProduit(produit);
+        variante.setSku(sku);
+        variante.setStock(STOCK);
+        entityManager.persist(variante);
+        return variante;
+    }
+
+    private int stock(Long varianteId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM produit_variantes WHERE id = ?",
+                Integer.class, varianteId);
+    }
+}